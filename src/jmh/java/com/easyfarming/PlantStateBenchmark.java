@@ -0,0 +1,57 @@
+package com.easyfarming;
+
+import net.runelite.api.Client;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures resolving a patch varbit into a plant state. Every call reads the next varbit value, so all
+ * states including the unknown ones are hit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlantStateBenchmark {
+    private static final int PATCH_VARBIT = 4771;
+
+    private Client client;
+    private int varbitValue;
+
+    @Setup
+    public void setUp() {
+        client = BenchmarkStubs.client(varbitId -> varbitValue = (varbitValue + 1) & 0xff);
+    }
+
+    @Benchmark
+    public HerbPatchChecker.PlantState herb() {
+        return HerbPatchChecker.checkHerbPatch(client, PATCH_VARBIT);
+    }
+
+    @Benchmark
+    public FlowerPatchChecker.PlantState flower() {
+        return FlowerPatchChecker.checkFlowerPatch(client, PATCH_VARBIT);
+    }
+
+    @Benchmark
+    public TreePatchChecker.PlantState tree() {
+        return TreePatchChecker.checkTreePatch(client, PATCH_VARBIT);
+    }
+
+    @Benchmark
+    public FruitTreePatchChecker.PlantState fruitTree() {
+        return FruitTreePatchChecker.checkFruitTreePatch(client, PATCH_VARBIT);
+    }
+}
@@ -0,0 +1,61 @@
+package com.easyfarming;
+
+import com.easyfarming.ItemsAndLocations.FruitTreeRunItemAndLocation;
+import com.easyfarming.ItemsAndLocations.HerbRunItemAndLocation;
+import com.easyfarming.ItemsAndLocations.TreeRunItemAndLocation;
+import net.runelite.api.Client;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures aggregating the item requirements of a whole run, including rebuilding its locations, with every
+ * location enabled and the default teleports selected.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequirementsBenchmark {
+    private HerbRunItemAndLocation herbRun;
+    private TreeRunItemAndLocation treeRun;
+    private FruitTreeRunItemAndLocation fruitTreeRun;
+
+    @Setup
+    public void setUp() {
+        EasyFarmingConfig config = BenchmarkStubs.config();
+        Client client = BenchmarkStubs.client(varbitId -> 0);
+        EasyFarmingPlugin plugin = BenchmarkStubs.plugin(config, client);
+
+        herbRun = new HerbRunItemAndLocation(config, client, plugin);
+        treeRun = new TreeRunItemAndLocation(config, client, plugin);
+        fruitTreeRun = new FruitTreeRunItemAndLocation(config, client, plugin);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> herbRequirements() {
+        return herbRun.newCatalog().getHerbItems();
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> treeRequirements() {
+        return treeRun.newCatalog().getTreeItems();
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> fruitTreeRequirements() {
+        return fruitTreeRun.newCatalog().getFruitTreeItems();
+    }
+}
@@ -0,0 +1,85 @@
+package com.easyfarming;
+
+import com.easyfarming.ItemsAndLocations.FruitTreeRunItemAndLocation;
+import com.easyfarming.ItemsAndLocations.HerbRunItemAndLocation;
+import com.easyfarming.ItemsAndLocations.TreeRunItemAndLocation;
+import net.runelite.api.Client;
+import net.runelite.api.Item;
+import net.runelite.api.gameval.ItemID;
+import net.runelite.api.gameval.VarbitID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures expanding a full rune pouch and an inventory holding plain and combination runes into the rune map
+ * the items panel checks against.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RunePouchBenchmark {
+    private EasyFarmingOverlay overlay;
+    private Item[] inventory;
+
+    @Setup
+    public void setUp() {
+        EasyFarmingConfig config = BenchmarkStubs.config();
+        Client client = BenchmarkStubs.client(RunePouchBenchmark::runePouchVarbit);
+        EasyFarmingPlugin plugin = BenchmarkStubs.plugin(config, client);
+
+        overlay = new EasyFarmingOverlay(
+            client,
+            plugin,
+            null,
+            new HerbRunItemAndLocation(config, client, plugin),
+            new TreeRunItemAndLocation(config, client, plugin),
+            new FruitTreeRunItemAndLocation(config, client, plugin)
+        );
+
+        inventory = new Item[28];
+        inventory[0] = new Item(ItemID.LAWRUNE, 100);
+        inventory[1] = new Item(ItemID.AIRRUNE, 250);
+        inventory[2] = new Item(ItemID.DUSTRUNE, 80);
+        inventory[3] = new Item(ItemID.NATURERUNE, 40);
+        inventory[4] = new Item(ItemID.MUDRUNE, 60);
+        inventory[5] = new Item(ItemID.GUAM_SEED, 10);
+    }
+
+    // Law, dust, astral and fire runes in the four pouch slots
+    private static int runePouchVarbit(int varbitId) {
+        if (varbitId == VarbitID.RUNE_POUCH_TYPE_1) {
+            return 11;
+        } else if (varbitId == VarbitID.RUNE_POUCH_TYPE_2) {
+            return 17;
+        } else if (varbitId == VarbitID.RUNE_POUCH_TYPE_3) {
+            return 14;
+        } else if (varbitId == VarbitID.RUNE_POUCH_TYPE_4) {
+            return 4;
+        } else if (varbitId == VarbitID.RUNE_POUCH_QUANTITY_1
+            || varbitId == VarbitID.RUNE_POUCH_QUANTITY_2
+            || varbitId == VarbitID.RUNE_POUCH_QUANTITY_3
+            || varbitId == VarbitID.RUNE_POUCH_QUANTITY_4) {
+            return 16000;
+        }
+        return 0;
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> expandRunes() {
+        return overlay.buildExpandedRuneMap(inventory);
+    }
+}
@@ -0,0 +1,50 @@
+package com.easyfarming;
+
+import com.easyfarming.ItemsAndLocations.HerbRunItemAndLocation;
+import net.runelite.api.Client;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures looking up the selected teleport of every herb run location, which the teleport overlay does
+ * on every frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectedTeleportBenchmark {
+    private List<Location> locations;
+
+    @Setup
+    public void setUp() {
+        EasyFarmingConfig config = BenchmarkStubs.config();
+        Client client = BenchmarkStubs.client(varbitId -> 0);
+        EasyFarmingPlugin plugin = BenchmarkStubs.plugin(config, client);
+
+        HerbRunItemAndLocation herbRun = new HerbRunItemAndLocation(config, client, plugin);
+        herbRun.setupLocations();
+        locations = herbRun.locations;
+    }
+
+    @Benchmark
+    public void selectedTeleports(Blackhole blackhole) {
+        for (int i = 0; i < locations.size(); i++) {
+            blackhole.consume(locations.get(i).getSelectedTeleport());
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.easyfarming.headless;
+
+import com.easyfarming.BenchmarkStubs;
+import com.easyfarming.FrameProfiler;
+import com.easyfarming.GameStateRecording;
+import net.runelite.api.ChatMessageType;
+import net.runelite.api.DecorativeObject;
+import net.runelite.api.GameObject;
+import net.runelite.api.Item;
+import net.runelite.api.NPC;
+import net.runelite.api.gameval.InterfaceID;
+import net.runelite.api.gameval.InventoryID;
+
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Replays a recording made by the plugin's game state recorder into a {@link HeadlessPlugin}, rendering the
+ * overlays for a tick's worth of frames after every recorded tick. Reports the time and allocations per frame
+ * and a transcript of the run's steps, the info box text at every tick it changed.
+ * <p>
+ * A recording holds the game state but not the panel, so the run type and whether gathering is skipped are
+ * options. Widget layouts and clickboxes aren't recorded either, opened interfaces get placeholder widgets and
+ * every object and npc the same clickbox.
+ * <p>
+ * Options are passed as key=value: file (required), run (herb, tree or fruitTree), collected, frames, profile
+ * to also print the frame time of every phase, and write or expect with a transcript path. Exits with 1 when the transcript doesn't match the expected one.
+ */
+public final class ReplayDriver implements GameStateRecording.Listener {
+    // The overlays render at 50 fps and a game tick is 600ms
+    private static final int FRAMES_PER_TICK = 30;
+
+    private static final int PLACEHOLDER_CHILDREN = 16;
+    private static final int PLACEHOLDER_DYNAMIC_CHILDREN = 8;
+    private static final Polygon CLICKBOX = new Polygon(new int[]{360, 400, 404, 362}, new int[]{230, 226, 270, 274}, 4);
+
+    private final FakeClient client;
+    private final HeadlessPlugin plugin;
+    private final Graphics2D graphics;
+    private final int framesPerTick;
+    private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final long threadId = Thread.currentThread().getId();
+    private final BitSet openedGroups = new BitSet();
+    private final List<String> transcript = new ArrayList<>();
+
+    private String infoBoxText;
+    private int ticks;
+    private long renderNanos;
+    private long renderBytes;
+
+    public ReplayDriver(FakeClient client, HeadlessPlugin plugin, Graphics2D graphics, int framesPerTick) {
+        this.client = client;
+        this.plugin = plugin;
+        this.graphics = graphics;
+        this.framesPerTick = framesPerTick;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String file = options.get("file");
+        if (file == null) {
+            throw new IllegalArgumentException("Expected file=<recording>");
+        }
+        HeadlessPlugin.RunType runType = runType(options.getOrDefault("run", "herb"));
+        boolean itemsCollected = Boolean.parseBoolean(options.getOrDefault("collected", "false"));
+        int framesPerTick = Integer.parseInt(options.getOrDefault("frames", String.valueOf(FRAMES_PER_TICK)));
+
+        // Recorded scene coordinates are replayed as they are, the plugin never converts them to world points
+        FakeClient client = Fakes.create(FakeClient.class, 0, 0);
+        SyntheticScene.addGameFrame(client);
+        HeadlessPlugin plugin = new HeadlessPlugin(client, BenchmarkStubs.config());
+        plugin.startRun(runType, itemsCollected);
+        FrameProfiler frameProfiler = plugin.getPlugin().getFrameProfiler();
+        frameProfiler.setEnabled(Boolean.parseBoolean(options.getOrDefault("profile", "false")));
+
+        BufferedImage canvas = new BufferedImage(SyntheticScene.CANVAS_WIDTH, SyntheticScene.CANVAS_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = canvas.createGraphics();
+        ReplayDriver driver = new ReplayDriver(client, plugin, graphics, framesPerTick);
+        try (InputStream in = Files.newInputStream(Paths.get(file))) {
+            GameStateRecording.read(in, driver);
+        }
+        graphics.dispose();
+
+        long frames = (long) driver.ticks * framesPerTick;
+        System.out.printf("%d ticks, %d frames, %d steps%n", driver.ticks, frames, driver.transcript.size());
+        if (frames > 0) {
+            System.out.printf("%.0f ns/frame, %.1f bytes/frame%n", (double) driver.renderNanos / frames, (double) driver.renderBytes / frames);
+        }
+        if (frameProfiler.isEnabled()) {
+            for (String line : frameProfiler.describe()) {
+                System.out.println(line);
+            }
+        }
+
+        String write = options.get("write");
+        if (write != null) {
+            Files.write(Paths.get(write), driver.transcript);
+        }
+        String expect = options.get("expect");
+        if (expect != null && !driver.matches(Files.readAllLines(Paths.get(expect)))) {
+            System.exit(1);
+        }
+    }
+
+    private static HeadlessPlugin.RunType runType(String name) {
+        switch (name) {
+            case "herb":
+                return HeadlessPlugin.RunType.HERB;
+            case "tree":
+                return HeadlessPlugin.RunType.TREE;
+            case "fruitTree":
+                return HeadlessPlugin.RunType.FRUIT_TREE;
+            default:
+                throw new IllegalArgumentException("Unknown run type " + name);
+        }
+    }
+
+    /**
+     * Prints the first difference from the expected transcript.
+     */
+    private boolean matches(List<String> expected) {
+        for (int i = 0; i < Math.max(expected.size(), transcript.size()); i++) {
+            String expectedLine = i < expected.size() ? expected.get(i) : "<end>";
+            String actualLine = i < transcript.size() ? transcript.get(i) : "<end>";
+            if (!expectedLine.equals(actualLine)) {
+                System.out.printf("Step %d differs%n  expected: %s%n  actual:   %s%n", i + 1, expectedLine, actualLine);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<String> getTranscript() {
+        return transcript;
+    }
+
+    @Override
+    public void onTick(int tick, int worldX, int worldY, int plane) {
+        client.setTickCount(tick);
+        client.setPlayerLocation(worldX, worldY, plane);
+        ticks++;
+
+        // Reading the counter allocates itself, so take that off the measurement
+        long calibrationStart = threads.getThreadAllocatedBytes(threadId);
+        long overhead = threads.getThreadAllocatedBytes(threadId) - calibrationStart;
+
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < framesPerTick; i++) {
+            plugin.render(graphics);
+        }
+        renderNanos += System.nanoTime() - start;
+        renderBytes += Math.max(0, threads.getThreadAllocatedBytes(threadId) - bytesBefore - overhead);
+
+        try {
+            // Icons arrive from the item manager a few frames after they are first asked for
+            plugin.loadPendingIcons();
+            String text = plugin.getInfoBoxText();
+            if (!Objects.equals(text, infoBoxText)) {
+                infoBoxText = text;
+                transcript.add(String.format(Locale.ROOT, "tick %d: %s", tick, text));
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void onVarbit(int varbitId, int value) {
+        plugin.getFarmingTeleportOverlay().invalidateHighlights();
+        client.setVarbit(varbitId, value);
+        plugin.getFarmingTeleportOverlay().onVarbitChanged(varbitId, value);
+        if (plugin.getFarmingHelperOverlay().isPanelVarbit(varbitId)) {
+            plugin.getFarmingHelperOverlay().invalidatePanel();
+            plugin.getFarmingTeleportOverlay().invalidateTeleports(false);
+        }
+    }
+
+    @Override
+    public void onVarcInt(int varcId, int value) {
+        plugin.getFarmingTeleportOverlay().invalidateHighlights();
+        client.setVarcInt(varcId, value);
+    }
+
+    @Override
+    public void onItemContainer(int containerId, int[] itemIds, int[] quantities) {
+        plugin.getFarmingTeleportOverlay().invalidateHighlights();
+        Item[] items = new Item[itemIds.length];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new Item(itemIds[i], quantities[i]);
+        }
+        client.setItems(containerId, items);
+        if (containerId == InventoryID.INV) {
+            plugin.getInventorySlotCache().invalidate();
+        }
+        plugin.getFarmingTeleportOverlay().invalidateTeleports(false);
+    }
+
+    @Override
+    public void onWidgetLoaded(int groupId) {
+        if (groupId == InterfaceID.BANKMAIN) {
+            plugin.getPlugin().setBankOpen(true);
+        }
+        plugin.getFarmingTeleportOverlay().invalidateHighlights();
+        // The game frame's own groups are already there with their real layout
+        if (client.getWidget(groupId, 0) == null) {
+            client.openWidgetGroup(groupId, PLACEHOLDER_CHILDREN, PLACEHOLDER_DYNAMIC_CHILDREN);
+            openedGroups.set(groupId);
+        }
+    }
+
+    @Override
+    public void onWidgetClosed(int groupId) {
+        if (groupId == InterfaceID.BANKMAIN) {
+            plugin.getPlugin().setBankOpen(false);
+        }
+        plugin.getFarmingTeleportOverlay().invalidateHighlights();
+        if (openedGroups.get(groupId)) {
+            client.closeWidgetGroup(groupId);
+            openedGroups.clear(groupId);
+        }
+    }
+
+    @Override
+    public void onChat(String type, String message) {
+        if (type.equals(ChatMessageType.GAMEMESSAGE.name()) || type.equals(ChatMessageType.SPAM.name())) {
+            plugin.setLastMessage(message);
+            plugin.getFarmingTeleportOverlay().invalidateHighlights();
+        }
+    }
+
+    @Override
+    public void onObjectDefinition(int objectId, String name) {
+        client.defineObject(objectId, name.isEmpty() ? null : name);
+    }
+
+    @Override
+    public void onGameObjectSpawned(int objectId, int plane, int sceneX, int sceneY, int sizeX, int sizeY) {
+        plugin.getFarmingTeleportOverlay().invalidateHighlights();
+        GameObject gameObject = client.spawnGameObject(objectId, plane, sceneX, sceneY, sizeX, sizeY, CLICKBOX);
+        plugin.getSceneObjectIndex().addGameObject(gameObject);
+    }
+
+    @Override
+    public void onGameObjectDespawned(int objectId, int plane, int sceneX, int sceneY) {
+        plugin.getFarmingTeleportOverlay().invalidateHighlights();
+        GameObject gameObject = client.despawnGameObject(objectId, plane, sceneX, sceneY);
+        if (gameObject != null) {
+            plugin.getSceneObjectIndex().removeGameObject(gameObject);
+        }
+    }
+
+    @Override
+    public void onDecorativeObjectSpawned(int objectId, int plane, int sceneX, int sceneY) {
+        plugin.getFarmingTeleportOverlay().invalidateHighlights();
+        DecorativeObject decorativeObject = client.spawnDecorativeObject(objectId, plane, sceneX, sceneY, CLICKBOX);
+        plugin.getSceneObjectIndex().addDecorativeObject(decorativeObject);
+    }
+
+    @Override
+    public void onDecorativeObjectDespawned(int objectId, int plane, int sceneX, int sceneY) {
+        plugin.getFarmingTeleportOverlay().invalidateHighlights();
+        DecorativeObject decorativeObject = client.despawnDecorativeObject(objectId, plane, sceneX, sceneY);
+        if (decorativeObject != null) {
+            plugin.getSceneObjectIndex().removeDecorativeObject(decorativeObject);
+        }
+    }
+
+    @Override
+    public void onNpcSpawned(int index, String name) {
+        plugin.getFarmingTeleportOverlay().invalidateHighlights();
+        NPC npc = client.spawnNpc(index, name, CLICKBOX);
+        plugin.getSceneObjectIndex().addNpc(npc);
+    }
+
+    @Override
+    public void onNpcDespawned(int index) {
+        plugin.getFarmingTeleportOverlay().invalidateHighlights();
+        NPC npc = client.despawnNpc(index);
+        if (npc != null) {
+            plugin.getSceneObjectIndex().removeNpc(npc);
+        }
+    }
+
+    @Override
+    public void onSceneLoading() {
+        plugin.getFarmingTeleportOverlay().invalidateHighlights();
+        client.clearScene();
+        plugin.getSceneObjectIndex().clear();
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
@@ -8,13 +8,29 @@ import javax.inject.Inject;
 public class AreaCheck {
     private Client client;
 
+    private WorldPoint playerLocation;
+    private int playerLocationTick = -1;
+
     @Inject
     public AreaCheck(Client client) {
         this.client = client;
     }
 
+    /**
+     * The player only moves on game ticks, so the location is looked up once per tick instead of on every check.
+     * @return The player's world location during the current game tick
+     */
+    public WorldPoint getPlayerLocation() {
+        int tick = client.getTickCount();
+        if (playerLocation == null || playerLocationTick != tick) {
+            playerLocation = client.getLocalPlayer().getWorldLocation();
+            playerLocationTick = tick;
+        }
+        return playerLocation;
+    }
+
     public boolean isPlayerWithinArea(WorldPoint centerTile, int range) {
-        WorldPoint playerLocation = client.getLocalPlayer().getWorldLocation();
+        WorldPoint playerLocation = getPlayerLocation();
 
         int minX = centerTile.getX() - range;
         int maxX = centerTile.getX() + range;
@@ -26,4 +42,4 @@ public class AreaCheck {
                 playerLocation.getY() >= minY &&
                 playerLocation.getY() <= maxY;
     }
-}
\ No newline at end of file
+}
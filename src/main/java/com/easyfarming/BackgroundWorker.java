@@ -0,0 +1,142 @@
+package com.easyfarming;
+
+import net.runelite.client.callback.ClientThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs work that is too heavy for the client thread, like loading the locations, working out a run's requirements
+ * or planning a route, on a single daemon thread. The queue is unbounded, so work like saving the patch states is never
+ * dropped while the worker runs, and work that fails is reported back to the caller. Results are handed back through a lock-free queue that is drained on the client thread, so
+ * the callbacks can touch the game and the overlays without synchronizing.
+ * <p>
+ * The work itself must not use the client, only the config and its own data.
+ */
+@Singleton
+public class BackgroundWorker {
+    private static final Logger log = LoggerFactory.getLogger(BackgroundWorker.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 1000;
+
+    private final ClientThread clientThread;
+    private final Queue<Runnable> completions = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    private volatile ThreadPoolExecutor executor;
+
+    @Inject
+    public BackgroundWorker(ClientThread clientThread) {
+        this.clientThread = clientThread;
+    }
+
+    public void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "Easy Farming worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops taking work and waits for the work already taken to finish, so queued saves still reach the disk. Work
+     * still running after {@link #SHUTDOWN_TIMEOUT_MILLIS} is interrupted. The callbacks of the work are not run
+     * anymore, the plugin they would update is stopping.
+     */
+    public void shutDown() {
+        ThreadPoolExecutor executor = this.executor;
+        if (executor == null) {
+            return;
+        }
+        this.executor = null;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                log.warn("The background worker didn't finish its work within {} ms, interrupting it", SHUTDOWN_TIMEOUT_MILLIS);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        completions.clear();
+    }
+
+    /**
+     * Runs the work on the worker thread and passes its result to the callback on the client thread, a failure is
+     * only logged.
+     * @param name What the work is, for the log
+     * @return false if the work wasn't taken, because the worker isn't running
+     */
+    public <T> boolean submit(String name, Supplier<T> work, Consumer<T> onClientThread) {
+        return submit(name, work, onClientThread, failure -> {});
+    }
+
+    /**
+     * Runs the work on the worker thread and passes its result to the callback on the client thread.
+     * @param name What the work is, for the log
+     * @param onFailure Gets what the work threw, on the client thread
+     * @return false if the work wasn't taken, because the worker isn't running
+     */
+    public <T> boolean submit(String name, Supplier<T> work, Consumer<T> onClientThread, Consumer<RuntimeException> onFailure) {
+        ThreadPoolExecutor executor = this.executor;
+        if (executor == null) {
+            log.warn("The background worker isn't running, didn't take {}", name);
+            return false;
+        }
+
+        try {
+            executor.execute(() -> {
+                T result;
+                try {
+                    result = work.get();
+                } catch (RuntimeException e) {
+                    log.warn("Background work {} failed", name, e);
+                    publish(() -> onFailure.accept(e));
+                    return;
+                }
+                publish(() -> onClientThread.accept(result));
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Only when the worker is shut down at the same time
+            log.warn("The background worker is stopping, didn't take {}", name);
+            return false;
+        }
+    }
+
+    private void publish(Runnable completion) {
+        completions.add(completion);
+        // One drain picks up every result that arrived before it runs
+        if (drainScheduled.compareAndSet(false, true)) {
+            clientThread.invokeLater(this::drain);
+        }
+    }
+
+    private void drain() {
+        // Cleared first, so a result published while draining schedules another drain if this one misses it
+        drainScheduled.set(false);
+        if (executor == null) {
+            completions.clear();
+            return;
+        }
+        Runnable completion;
+        while ((completion = completions.poll()) != null) {
+            completion.run();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.easyfarming;
+
+import net.runelite.api.Client;
+import net.runelite.api.CollisionData;
+import net.runelite.api.WorldView;
+import net.runelite.client.RuneLite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the collision of every region the player saw during a run, so paths can lead past the loaded scene to
+ * patches like Troll Stronghold or Weiss. A region holds the {@link CollisionSource} blocked edges, four bits per
+ * tile and two tiles to a byte, for all four planes, 8KB. Regions are saved to the RuneLite directory and
+ * memory-mapped when the plugin starts, so guidance works on arrival after a restart and regions don't take up heap.
+ * Snapshots of a region that is already mapped are written into the mapping, which the OS writes back to the file.
+ * <p>
+ * Must be used on the client thread, the file work is done on the background worker.
+ */
+@Singleton
+public class CollisionCache implements CollisionSource {
+    private static final Logger log = LoggerFactory.getLogger(CollisionCache.class);
+
+    private static final File COLLISION_DIR = new File(RuneLite.RUNELITE_DIR, "easy-farming/collision");
+    private static final String FILE_SUFFIX = ".col";
+    private static final int REGION_SIZE = 64;
+    private static final int PLANES = 4;
+    private static final int REGION_BYTES = PLANES * REGION_SIZE * REGION_SIZE / 2;
+
+    private final Client client;
+    private final BackgroundWorker backgroundWorker;
+    private final Map<Integer, ByteBuffer> regions = new HashMap<>();
+    // Regions whose file is being written on the worker
+    private final Set<Integer> saving = new HashSet<>();
+
+    @Inject
+    public CollisionCache(Client client, BackgroundWorker backgroundWorker) {
+        this.client = client;
+        this.backgroundWorker = backgroundWorker;
+    }
+
+    /**
+     * Maps the regions saved by earlier sessions, call this once the background worker is started.
+     */
+    public void load() {
+        backgroundWorker.submit("Collision cache", CollisionCache::mapRegions, loaded -> {
+            // A region snapshotted while loading is newer, and already has its own mapping on the way
+            for (Map.Entry<Integer, ByteBuffer> region : loaded.entrySet()) {
+                regions.putIfAbsent(region.getKey(), region.getValue());
+            }
+            log.debug("Mapped the collision of {} regions", loaded.size());
+        });
+    }
+
+    /**
+     * Drops every region, the mappings are released once they are garbage collected.
+     */
+    public void clear() {
+        regions.clear();
+        saving.clear();
+    }
+
+    private static Map<Integer, ByteBuffer> mapRegions() {
+        Map<Integer, ByteBuffer> loaded = new HashMap<>();
+        File[] files = COLLISION_DIR.listFiles((dir, name) -> name.endsWith(FILE_SUFFIX));
+        if (files == null) {
+            return loaded;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            int regionId;
+            try {
+                regionId = Integer.parseInt(name.substring(0, name.length() - FILE_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (file.length() != REGION_BYTES) {
+                log.debug("Skipped {}, it isn't a region", file);
+                continue;
+            }
+            try {
+                loaded.put(regionId, map(file));
+            } catch (IOException e) {
+                log.warn("Couldn't map {}", file, e);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Maps the region file, creating it when it doesn't exist. The mapping stays valid after the channel is closed.
+     */
+    private static MappedByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION_BYTES);
+        }
+    }
+
+    /**
+     * Stores the collision of every region the loaded scene fully covers, call this once a scene has loaded.
+     * Instances are skipped, their regions are copies placed somewhere else.
+     */
+    public void snapshot() {
+        WorldView worldView = client.getTopLevelWorldView();
+        CollisionData[] collisionMaps = worldView.getCollisionMaps();
+        if (worldView.isInstance() || collisionMaps == null) {
+            return;
+        }
+        int baseX = worldView.getBaseX();
+        int baseY = worldView.getBaseY();
+        // One tile of margin, the edges of a region depend on the tiles next to it
+        for (int regionX = firstRegionStart(baseX); regionX + REGION_SIZE < baseX + worldView.getSizeX(); regionX += REGION_SIZE) {
+            for (int regionY = firstRegionStart(baseY); regionY + REGION_SIZE < baseY + worldView.getSizeY(); regionY += REGION_SIZE) {
+                store(regionX, regionY, pack(collisionMaps, regionX - baseX, regionY - baseY));
+            }
+        }
+    }
+
+    private static int firstRegionStart(int base) {
+        return (base + REGION_SIZE) / REGION_SIZE * REGION_SIZE;
+    }
+
+    private static byte[] pack(CollisionData[] collisionMaps, int sceneX, int sceneY) {
+        byte[] packed = new byte[REGION_BYTES];
+        for (int plane = 0; plane < PLANES; plane++) {
+            int[][] flags = plane < collisionMaps.length && collisionMaps[plane] != null ? collisionMaps[plane].getFlags() : null;
+            for (int y = 0; y < REGION_SIZE; y++) {
+                for (int x = 0; x < REGION_SIZE; x++) {
+                    int blocked = flags != null ? SceneCollision.blockedDirections(flags, sceneX + x, sceneY + y) : BLOCKED_ALL;
+                    int index = tileIndex(x, y, plane);
+                    packed[index >> 1] |= blocked << ((index & 1) * 4);
+                }
+            }
+        }
+        return packed;
+    }
+
+    private void store(int regionX, int regionY, byte[] packed) {
+        int regionId = (regionX / REGION_SIZE << 8) | (regionY / REGION_SIZE);
+        ByteBuffer region = regions.get(regionId);
+        if (region != null) {
+            // Only changed regions are written, so the mapping's pages stay clean
+            if (!region.equals(ByteBuffer.wrap(packed))) {
+                ByteBuffer writer = region.duplicate();
+                writer.clear();
+                writer.put(packed);
+            }
+            // A region whose file couldn't be written is tried again
+            if (region instanceof MappedByteBuffer || saving.contains(regionId)) {
+                return;
+            }
+        } else {
+            // Usable right away, swapped for the mapping once the file is written
+            regions.put(regionId, ByteBuffer.wrap(packed));
+        }
+
+        File file = new File(COLLISION_DIR, regionId + FILE_SUFFIX);
+        boolean submitted = backgroundWorker.submit("Collision region " + regionId, () -> {
+            if (!COLLISION_DIR.isDirectory() && !COLLISION_DIR.mkdirs()) {
+                throw new UncheckedIOException(new IOException("Can't create " + COLLISION_DIR));
+            }
+            try {
+                MappedByteBuffer mapped = map(file);
+                mapped.put(packed);
+                mapped.clear();
+                return mapped;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Couldn't save " + file, e);
+            }
+        }, mapped -> {
+            saving.remove(regionId);
+            ByteBuffer current = regions.get(regionId);
+            if (current == null) {
+                return;
+            }
+            // A later snapshot may have changed the region while it was written
+            ByteBuffer writer = mapped.duplicate();
+            ByteBuffer latest = current.duplicate();
+            writer.clear();
+            latest.clear();
+            writer.put(latest);
+            regions.put(regionId, mapped);
+        }, failure -> saving.remove(regionId));
+        if (submitted) {
+            saving.add(regionId);
+        }
+    }
+
+    @Override
+    public int getBlockedDirections(int x, int y, int plane) {
+        ByteBuffer region = regions.get((x / REGION_SIZE << 8) | (y / REGION_SIZE));
+        if (region == null || plane < 0 || plane >= PLANES) {
+            return BLOCKED_ALL;
+        }
+        int index = tileIndex(x % REGION_SIZE, y % REGION_SIZE, plane);
+        return (region.get(index >> 1) >> ((index & 1) * 4)) & BLOCKED_ALL;
+    }
+
+    private static int tileIndex(int regionX, int regionY, int plane) {
+        return (plane * REGION_SIZE + regionY) * REGION_SIZE + regionX;
+    }
+}
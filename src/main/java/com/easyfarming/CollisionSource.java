@@ -0,0 +1,18 @@
+package com.easyfarming;
+
+/**
+ * Tells the pathfinder which edges of a tile can't be crossed, so it doesn't depend on where the collision data comes
+ * from. A tile that can't be stood on, or that isn't known, has every edge blocked.
+ */
+public interface CollisionSource {
+    int BLOCKED_NORTH = 1;
+    int BLOCKED_EAST = 1 << 1;
+    int BLOCKED_SOUTH = 1 << 2;
+    int BLOCKED_WEST = 1 << 3;
+    int BLOCKED_ALL = BLOCKED_NORTH | BLOCKED_EAST | BLOCKED_SOUTH | BLOCKED_WEST;
+
+    /**
+     * @return The BLOCKED_ bits of the edges the player can't walk across from the world tile
+     */
+    int getBlockedDirections(int x, int y, int plane);
+}
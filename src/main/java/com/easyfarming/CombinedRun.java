@@ -0,0 +1,101 @@
+package com.easyfarming;
+
+import net.runelite.api.gameval.ItemID;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A run that tends the herb, tree and fruit tree patches together. The three catalogs name the locations of a site
+ * the same, like the Farming Guild or Catherby, so their locations are merged by name into sites. A site is reached
+ * with the teleport of its first patch in the run, the other patches are walked to and tended before moving on.
+ */
+public final class CombinedRun {
+    // Carried once, however many patches need them
+    private static final Set<Integer> TOOLS = new HashSet<>(Arrays.asList(
+        ItemID.DIBBER,
+        ItemID.SPADE,
+        ItemID.RAKE,
+        ItemID.FAIRY_ENCHANTED_SECATEURS,
+        ItemID.BOTTOMLESS_COMPOST_BUCKET,
+        ItemID.SKILLCAPE_CONSTRUCTION,
+        ItemID.SKILLCAPE_CONSTRUCTION_TRIMMED,
+        ItemID.SKILLCAPE_MAX,
+        ItemID.MM2_ROYAL_SEED_POD
+    ));
+
+    /**
+     * The sites of the three catalogs, in the order they first appear.
+     */
+    public static final List<String> SITE_NAMES;
+
+    static {
+        List<String> names = new ArrayList<>();
+        for (FarmingPatch patch : FarmingPatch.values()) {
+            if (!names.contains(patch.getLocationName())) {
+                names.add(patch.getLocationName());
+            }
+        }
+        SITE_NAMES = Collections.unmodifiableList(names);
+    }
+
+    private CombinedRun() {
+    }
+
+    /**
+     * @return The patch types the site has, in the order they are tended
+     */
+    public static List<FarmingPatch.Type> typesAt(String siteName) {
+        List<FarmingPatch.Type> types = new ArrayList<>(FarmingPatch.Type.values().length);
+        for (FarmingPatch.Type type : FarmingPatch.Type.values()) {
+            if (FarmingPatch.find(type, siteName) != null) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * @return The patch types of the site the run tends, in the order they are tended
+     */
+    public static List<FarmingPatch.Type> typesInRun(EasyFarmingPlugin plugin, String siteName) {
+        List<FarmingPatch.Type> types = typesAt(siteName);
+        types.removeIf(type -> !plugin.isLocationInRun(type, siteName));
+        return types;
+    }
+
+    /**
+     * @return true if the site is reached with the teleport of its patch of the type
+     */
+    public static boolean isTravelType(EasyFarmingPlugin plugin, FarmingPatch.Type type, String siteName) {
+        List<FarmingPatch.Type> types = typesInRun(plugin, siteName);
+        return !types.isEmpty() && types.get(0) == type;
+    }
+
+    /**
+     * @return true if the item is carried once, however many patches need it
+     */
+    public static boolean isTool(int itemId) {
+        return TOOLS.contains(itemId);
+    }
+
+    /**
+     * Merges the requirements of the three runs. Tools are needed once, everything else is used up per patch.
+     */
+    public static Map<Integer, Integer> mergeRequirements(List<Map<Integer, Integer>> runRequirements) {
+        Map<Integer, Integer> merged = new HashMap<>();
+        for (Map<Integer, Integer> requirements : runRequirements) {
+            for (Map.Entry<Integer, Integer> entry : requirements.entrySet()) {
+                int itemId = entry.getKey();
+                merged.merge(itemId, entry.getValue(), TOOLS.contains(itemId) ? Math::max : Integer::sum);
+            }
+        }
+        return merged;
+    }
+}
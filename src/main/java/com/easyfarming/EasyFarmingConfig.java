@@ -5,6 +5,7 @@ import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigSection;
+import net.runelite.client.config.Range;
 
 @ConfigGroup("farminghelper")
 public interface EasyFarmingConfig extends Config
@@ -127,6 +128,53 @@ public interface EasyFarmingConfig extends Config
 	)
 	default boolean generalPayForProtection() { return false; }
 
+	@Range(max = 16000)
+	@ConfigItem(
+		keyName = "frameBudgetMicros",
+		name = "Frame budget (microseconds)",
+		description = "The time the overlays may take per frame. When they take longer, highlights are simplified until there is headroom again. 0 never simplifies.",
+		position = 11,
+		section = generalList
+	)
+	default int frameBudgetMicros() { return 2000; }
+
+	@ConfigItem(
+		keyName = "fastestTeleport",
+		name = "Fastest teleport",
+		description = "Use the fastest teleport your inventory and equipment allow instead of the one picked for each location. The picked teleport is always replaced while its items are missing.",
+		position = 12,
+		section = generalList
+	)
+	default boolean fastestTeleport() { return false; }
+
+	@ConfigItem(
+		keyName = "skipUnreadyPatches",
+		name = "Skip patches that aren't ready",
+		description = "Leave out the patches predicted to still be growing when the run starts, along with their seeds and compost. Patches that were never seen or are likely diseased are always visited.",
+		position = 13,
+		section = generalList
+	)
+	default boolean skipUnreadyPatches() { return false; }
+
+	@ConfigItem(
+		keyName = "notifyWhenReady",
+		name = "Notify when ready",
+		description = "Send a notification once enough of the enabled patches of a run are predicted to be ready. Only patches the plugin has seen count.",
+		position = 14,
+		section = generalList
+	)
+	default boolean notifyWhenReady() { return false; }
+
+	@Range(min = 1, max = 100)
+	@ConfigItem(
+		keyName = "readyPercent",
+		name = "Ready percentage",
+		description = "The part of a run's patches, in percent, that must be ready before you are notified.",
+		position = 15,
+		section = generalList
+	)
+	default int readyPercent() { return 100; }
+
 
 	@ConfigSection(
 		name = "Herbs",
@@ -670,4 +718,39 @@ public interface EasyFarmingConfig extends Config
 			section = fruitTreeTeleportOptionList
 	)
 	default FruitTreeOptionEnumTreeGnomeVillageTeleport enumFruitTreeTreeGnomeVillageTeleport() { return FruitTreeOptionEnumTreeGnomeVillageTeleport.Royal_seed_pod; }
-}
\ No newline at end of file
+
+	@ConfigSection(
+			name = "Debug",
+			description = "Tools for investigating performance problems and step regressions",
+			position = 7,
+			closedByDefault = true
+	)
+	String debugList = "debugList";
+
+	@ConfigItem(
+			position = 1,
+			keyName = "recordGameState",
+			name = "Record game state",
+			description = "Records the game state every tick to .runelite/easy-farming/recordings, so a run can be replayed offline",
+			section = debugList
+	)
+	default boolean recordGameState() { return false; }
+
+	@ConfigItem(
+			position = 2,
+			keyName = "profileFrames",
+			name = "Profile frame times",
+			description = "Measures the time every frame spends in the overlays, type ::efprofile to print p50 and p99 per phase",
+			section = debugList
+	)
+	default boolean profileFrames() { return false; }
+
+	@ConfigItem(
+			position = 3,
+			keyName = "showFrameProfile",
+			name = "Show frame times",
+			description = "Shows the p50 and p99 frame time of every phase in an overlay while profiling",
+			section = debugList
+	)
+	default boolean showFrameProfile() { return false; }
+}
@@ -0,0 +1,226 @@
+package com.easyfarming;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live performance counters, registered as an MBean under {@code com.easyfarming:type=EasyFarmingMetrics} while
+ * the plugin runs. The counters are LongAdders, so the hot paths never contend with a JMX client reading them.
+ * <p>
+ * Allocations are measured on every 64th frame, around each overlay's render, with the thread allocation
+ * counter. Runtimes without the jdk.management module don't have the counter and report 0.
+ */
+@Singleton
+public class EasyFarmingMetrics implements EasyFarmingMetricsMBean {
+    private static final Logger log = LoggerFactory.getLogger(EasyFarmingMetrics.class);
+
+    private static final String OBJECT_NAME = "com.easyfarming:type=EasyFarmingMetrics";
+    private static final int ALLOCATION_SAMPLE_INTERVAL = 64;
+    private static final boolean ALLOCATIONS_AVAILABLE = ModuleLayer.boot().findModule("jdk.management").isPresent();
+
+    private final LongAdder framesRendered = new LongAdder();
+    private final LongAdder sceneScansAvoided = new LongAdder();
+    private final LongAdder sceneIndexRebuilds = new LongAdder();
+    private final LongAdder requirementsCacheHits = new LongAdder();
+    private final LongAdder requirementsCacheMisses = new LongAdder();
+    private final LongAdder iconCacheHits = new LongAdder();
+    private final LongAdder iconCacheMisses = new LongAdder();
+    private final LongAdder sampledFrames = new LongAdder();
+    private final LongAdder sampledBytes = new LongAdder();
+
+    private final com.sun.management.ThreadMXBean threads;
+
+    // Only touched on the client thread
+    private int frame;
+    private boolean sampling;
+
+    private volatile String currentStep = "";
+    private volatile long stepStartMillis = System.currentTimeMillis();
+
+    private ObjectName objectName;
+
+    public EasyFarmingMetrics() {
+        com.sun.management.ThreadMXBean threadMXBean = null;
+        if (ALLOCATIONS_AVAILABLE && ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+            threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            if (!threadMXBean.isThreadAllocatedMemorySupported() || !threadMXBean.isThreadAllocatedMemoryEnabled()) {
+                threadMXBean = null;
+            }
+        }
+        threads = threadMXBean;
+    }
+
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(objectName)) {
+                // Left behind by a plugin instance that wasn't shut down cleanly
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            log.warn("Couldn't register the metrics MBean", e);
+            objectName = null;
+        }
+    }
+
+    public void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            log.warn("Couldn't unregister the metrics MBean", e);
+        }
+        objectName = null;
+    }
+
+    /**
+     * Counts a frame, call this once per frame on the client thread. Decides if the frame's allocations are sampled.
+     */
+    public void frameRendered() {
+        framesRendered.increment();
+        if (sampling) {
+            sampledFrames.increment();
+        }
+        sampling = threads != null && ++frame % ALLOCATION_SAMPLE_INTERVAL == 0;
+    }
+
+    /**
+     * @return The value to pass to {@link #finishAllocationSample}, -1 when this frame isn't sampled
+     */
+    public long startAllocationSample() {
+        return sampling ? threads.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    public void finishAllocationSample(long allocatedBefore) {
+        if (allocatedBefore < 0) {
+            return;
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocatedAfter = threads.getThreadAllocatedBytes(threadId);
+        // Reading the counter allocates itself, so take that off the sample
+        long overhead = threads.getThreadAllocatedBytes(threadId) - allocatedAfter;
+        sampledBytes.add(Math.max(0, allocatedAfter - allocatedBefore - overhead));
+    }
+
+    public void sceneScanAvoided() {
+        sceneScansAvoided.increment();
+    }
+
+    public void sceneIndexRebuilt() {
+        sceneIndexRebuilds.increment();
+    }
+
+    public void requirementsCacheHit() {
+        requirementsCacheHits.increment();
+    }
+
+    public void requirementsCacheMiss() {
+        requirementsCacheMisses.increment();
+    }
+
+    public void iconCacheHit() {
+        iconCacheHits.increment();
+    }
+
+    public void iconCacheMiss() {
+        iconCacheMisses.increment();
+    }
+
+    /**
+     * @param step The text of the new step, null when the run ended
+     */
+    public void stepChanged(String step) {
+        currentStep = step != null ? step : "";
+        stepStartMillis = System.currentTimeMillis();
+    }
+
+    @Override
+    public long getFramesRendered() {
+        return framesRendered.sum();
+    }
+
+    @Override
+    public long getSceneScansAvoided() {
+        return sceneScansAvoided.sum();
+    }
+
+    @Override
+    public long getSceneIndexRebuilds() {
+        return sceneIndexRebuilds.sum();
+    }
+
+    @Override
+    public long getRequirementsCacheHits() {
+        return requirementsCacheHits.sum();
+    }
+
+    @Override
+    public long getRequirementsCacheMisses() {
+        return requirementsCacheMisses.sum();
+    }
+
+    @Override
+    public double getRequirementsCacheHitRatio() {
+        return ratio(requirementsCacheHits.sum(), requirementsCacheMisses.sum());
+    }
+
+    @Override
+    public long getIconCacheHits() {
+        return iconCacheHits.sum();
+    }
+
+    @Override
+    public long getIconCacheMisses() {
+        return iconCacheMisses.sum();
+    }
+
+    @Override
+    public double getIconCacheHitRatio() {
+        return ratio(iconCacheHits.sum(), iconCacheMisses.sum());
+    }
+
+    @Override
+    public double getAllocatedBytesPerFrame() {
+        long frames = sampledFrames.sum();
+        return frames > 0 ? (double) sampledBytes.sum() / frames : 0;
+    }
+
+    @Override
+    public String getCurrentStep() {
+        return currentStep;
+    }
+
+    @Override
+    public long getTimeInStepMillis() {
+        return System.currentTimeMillis() - stepStartMillis;
+    }
+
+    @Override
+    public void reset() {
+        framesRendered.reset();
+        sceneScansAvoided.reset();
+        sceneIndexRebuilds.reset();
+        requirementsCacheHits.reset();
+        requirementsCacheMisses.reset();
+        iconCacheHits.reset();
+        iconCacheMisses.reset();
+        sampledFrames.reset();
+        sampledBytes.reset();
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total > 0 ? (double) hits / total : 0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.easyfarming;
+
+/**
+ * The counters {@link EasyFarmingMetrics} exposes over JMX, readable from JConsole or VisualVM while playing.
+ */
+public interface EasyFarmingMetricsMBean {
+    long getFramesRendered();
+
+    /**
+     * @return The scene object lookups answered by the index instead of a scene scan
+     */
+    long getSceneScansAvoided();
+
+    long getSceneIndexRebuilds();
+
+    long getRequirementsCacheHits();
+
+    long getRequirementsCacheMisses();
+
+    double getRequirementsCacheHitRatio();
+
+    long getIconCacheHits();
+
+    long getIconCacheMisses();
+
+    double getIconCacheHitRatio();
+
+    /**
+     * @return The bytes the client thread allocated per frame in the plugin's overlays, sampled every 64 frames
+     */
+    double getAllocatedBytesPerFrame();
+
+    String getCurrentStep();
+
+    long getTimeInStepMillis();
+
+    /**
+     * Sets every counter back to 0.
+     */
+    void reset();
+}
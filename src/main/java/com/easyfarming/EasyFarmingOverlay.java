@@ -1,6 +1,7 @@
 package com.easyfarming;
 
 import java.awt.Dimension;
+import java.awt.Font;
 import java.awt.Graphics2D;
 import java.util.*;
 import javax.inject.Inject;
@@ -34,13 +35,23 @@ public class EasyFarmingOverlay extends Overlay {
     @Inject
     private ItemManager itemManager;
 
+    // Compares unboxed, List.contains(int) would box ids above 127 on every call
+    private static boolean containsId(List<Integer> ids, int itemId) {
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == itemId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static final List<Integer> TELEPORT_CRYSTAL_IDS = Arrays.asList(ItemID.MOURNING_TELEPORT_CRYSTAL_1, ItemID.MOURNING_TELEPORT_CRYSTAL_2, ItemID.MOURNING_TELEPORT_CRYSTAL_3, ItemID.MOURNING_TELEPORT_CRYSTAL_4, ItemID.MOURNING_TELEPORT_CRYSTAL_5);
     private static final int BASE_TELEPORT_CRYSTAL_ID = ItemID.MOURNING_TELEPORT_CRYSTAL_1;
     public List<Integer> getTeleportCrystalIdsIds() {
         return TELEPORT_CRYSTAL_IDS;
     }
     public boolean isTeleportCrystal(int itemId) {
-        return TELEPORT_CRYSTAL_IDS.contains(itemId);
+        return containsId(TELEPORT_CRYSTAL_IDS, itemId);
     }
 
     public static final List<Integer> SKILLS_NECKLACE_IDS = Arrays.asList(ItemID.JEWL_NECKLACE_OF_SKILLS_1, ItemID.JEWL_NECKLACE_OF_SKILLS_2, ItemID.JEWL_NECKLACE_OF_SKILLS_3, ItemID.JEWL_NECKLACE_OF_SKILLS_4, ItemID.JEWL_NECKLACE_OF_SKILLS_5, ItemID.JEWL_NECKLACE_OF_SKILLS_6);
@@ -49,7 +60,7 @@ public class EasyFarmingOverlay extends Overlay {
         return SKILLS_NECKLACE_IDS;
     }
     public boolean isSkillsNecklace(int itemId) {
-        return SKILLS_NECKLACE_IDS.contains(itemId);
+        return containsId(SKILLS_NECKLACE_IDS, itemId);
     }
 
 
@@ -63,7 +74,7 @@ public class EasyFarmingOverlay extends Overlay {
         return HERB_SEED_IDS;
     }
     private boolean isHerbSeed(int itemId) {
-        return HERB_SEED_IDS.contains(itemId);
+        return containsId(HERB_SEED_IDS, itemId);
     }
 
 
@@ -83,7 +94,7 @@ public class EasyFarmingOverlay extends Overlay {
     public List<Integer> getTreeSaplingIds() {
         return TREE_SAPLING_IDS;
     }
-    private boolean isTreeSapling(int itemId) {return TREE_SAPLING_IDS.contains(itemId);}
+    private boolean isTreeSapling(int itemId) {return containsId(TREE_SAPLING_IDS, itemId);}
 
 
     public static final List<Integer> FRUIT_TREE_PATCH_IDS = Arrays.asList(7964, 7965, 34007, 7962, 26579, 7963);
@@ -93,7 +104,7 @@ public class EasyFarmingOverlay extends Overlay {
     private static final List<Integer> FRUIT_TREE_SAPLING_IDS = Arrays.asList(ItemID.PLANTPOT_APPLE_SAPLING, ItemID.PLANTPOT_BANANA_SAPLING,ItemID.PLANTPOT_ORANGE_SAPLING,ItemID.PLANTPOT_CURRY_SAPLING,ItemID.PLANTPOT_PINEAPPLE_SAPLING,ItemID.PLANTPOT_PAPAYA_SAPLING,ItemID.PLANTPOT_PALM_SAPLING, ItemID.PLANTPOT_DRAGONFRUIT_SAPLING);
     private static final int BASE_FRUIT_SAPLING_ID = ItemID.PLANTPOT_APPLE_SAPLING;
     public List<Integer> getFruitTreeSaplingIds() {return FRUIT_TREE_SAPLING_IDS;}
-    private boolean isFruitTreeSapling(int itemId) {return FRUIT_TREE_SAPLING_IDS.contains(itemId);}
+    private boolean isFruitTreeSapling(int itemId) {return containsId(FRUIT_TREE_SAPLING_IDS, itemId);}
 
 
     public static final List<Integer> RUNE_POUCH_ID = Arrays.asList(ItemID.BH_RUNE_POUCH, ItemID.DIVINE_RUNE_POUCH);
@@ -181,7 +192,8 @@ public class EasyFarmingOverlay extends Overlay {
         return runePouchContents;
     }
 
-    private Map<Integer, Integer> buildExpandedRuneMap(Item[] items) {
+    // Package-private so the JMH benchmarks can measure it
+    Map<Integer, Integer> buildExpandedRuneMap(Item[] items) {
         // Start with rune pouch contents
         Map<Integer, Integer> expandedRuneMap = new HashMap<>(getRunePouchContentsVarbits());
         
@@ -206,6 +218,48 @@ public class EasyFarmingOverlay extends Overlay {
         return expandedRuneMap;
     }
 
+    /**
+     * Counts what the player can teleport with: the inventory and the worn equipment, the rune pouch when one is
+     * carried, combination runes as the runes they stand in for and teleport crystals and skills necklaces of any
+     * charge as the one the requirements ask for. Must be called on the client thread.
+     */
+    public Map<Integer, Integer> countCarriedItems() {
+        Map<Integer, Integer> carriedItems = new HashMap<>();
+        boolean runePouchCarried = false;
+        ItemContainer[] containers = {client.getItemContainer(InventoryID.INV), client.getItemContainer(InventoryID.WORN)};
+        for (ItemContainer container : containers) {
+            if (container == null) {
+                continue;
+            }
+            for (Item item : container.getItems()) {
+                if (item == null || item.getId() == -1) {
+                    continue;
+                }
+                int itemId = item.getId();
+                if (RUNE_POUCH_ID.contains(itemId)) {
+                    runePouchCarried = true;
+                }
+                if (isTeleportCrystal(itemId)) {
+                    itemId = BASE_TELEPORT_CRYSTAL_ID;
+                } else if (isSkillsNecklace(itemId)) {
+                    itemId = BASE_SKILLS_NECKLACE_ID;
+                }
+                if (COMBINATION_RUNE_SUBRUNES_MAP.containsKey(itemId)) {
+                    for (int subRune : COMBINATION_RUNE_SUBRUNES_MAP.get(itemId)) {
+                        carriedItems.merge(subRune, item.getQuantity(), Integer::sum);
+                    }
+                }
+                carriedItems.merge(itemId, item.getQuantity(), Integer::sum);
+            }
+        }
+        if (runePouchCarried) {
+            for (Map.Entry<Integer, Integer> rune : getRunePouchContentsVarbits().entrySet()) {
+                carriedItems.merge(rune.getKey(), rune.getValue(), Integer::sum);
+            }
+        }
+        return carriedItems;
+    }
+
     @Inject
     public EasyFarmingOverlay(Client client, EasyFarmingPlugin plugin, ItemManager itemManager, HerbRunItemAndLocation herbRunItemAndLocation, TreeRunItemAndLocation treeRunItemAndLocation, FruitTreeRunItemAndLocation fruitTreeRunItemAndLocation) {
         this.client = client;
@@ -246,177 +300,285 @@ public class EasyFarmingOverlay extends Overlay {
         return 0;
     }
 
+    static final int[] TOOL_LEPRECHAUN_VARBITS = {1442, 1443, 5732, 7915};
+
+    /**
+     * @param varbitId The varbit that changed
+     * @return true if the varbit affects the missing items panel (rune pouch or tool leprechaun contents)
+     */
+    public boolean isPanelVarbit(int varbitId) {
+        for (int toolLeprechaunVarbit : TOOL_LEPRECHAUN_VARBITS) {
+            if (toolLeprechaunVarbit == varbitId) {
+                return true;
+            }
+        }
+        return RUNE_POUCH_RUNE_VARBITS.contains(varbitId) || RUNE_POUCH_AMOUNT_VARBITS.contains(varbitId);
+    }
+
     public Map<Integer, Integer> itemsToCheck;
+
+    private boolean requirementsDirty = true;
+    private boolean panelDirty = true;
+    private int panelInventoryRevision = -1;
+    private int panelIconRevision = -1;
+    private int panelRequirementsRevision = -1;
+    private int panelRebuildTick = -1;
+
+    private BufferedImage panelImage;
+    private final Dimension panelDimension = new Dimension();
+    private boolean allItemsCollected = false;
+
+    /**
+     * Forces the requirement set to be recomputed, call this when a run starts or the config changed.
+     */
+    public void invalidateRequirements() {
+        requirementsDirty = true;
+        panelDirty = true;
+    }
+
+    /**
+     * Forces the missing items panel to be rebuilt on the next frame.
+     */
+    public void invalidatePanel() {
+        panelDirty = true;
+    }
+
+    /**
+     * @return The items the rest of the run needs, a live view that shrinks as the stops of the route are done
+     */
+    private Map<Integer, Integer> computeItemsToCheck() {
+        return plugin.getRemainingRunItems();
+    }
+
     @Override
     public Dimension render(Graphics2D graphics) {
-        if (plugin.isOverlayActive() && !plugin.areItemsCollected()) {
-            if (!plugin.isOverlayActive()) {
+        if (!plugin.isRunVisible()) {
+            return null;
+        }
+        FrameProfiler frameProfiler = plugin.getFrameProfiler();
+        FlightRecorderEvents flightRecorderEvents = plugin.getFlightRecorderEvents();
+        long qualityStart = plugin.getRenderQuality().start();
+        long start = frameProfiler.start();
+        Object renderEvent = flightRecorderEvents.startRenderPass();
+        long allocatedBefore = plugin.getMetrics().startAllocationSample();
+        Dimension dimension = renderItems(graphics);
+        plugin.getMetrics().finishAllocationSample(allocatedBefore);
+        flightRecorderEvents.finishRenderPass(renderEvent, FrameProfiler.Phase.ITEM_OVERLAY.getLabel());
+        frameProfiler.record(FrameProfiler.Phase.ITEM_OVERLAY, start);
+        plugin.getRenderQuality().add(qualityStart);
+        return dimension;
+    }
+
+    private Dimension renderItems(Graphics2D graphics) {
+        // At a bank during the run the panel shows again, with only what the rest of the route needs
+        boolean gathering = !plugin.areItemsCollected();
+        if (plugin.isOverlayActive() && (gathering || plugin.isBankOpen())) {
+            if (gathering) {
+                plugin.addTextToInfoBox("Grab all the items needed");
+            }
+
+            if (requirementsDirty) {
+                plugin.getMetrics().requirementsCacheMiss();
+                long start = plugin.getFrameProfiler().start();
+                Object requirementsEvent = plugin.getFlightRecorderEvents().startRequirements();
+                itemsToCheck = computeItemsToCheck();
+                requirementsDirty = false;
+                panelDirty = true;
+                plugin.getFlightRecorderEvents().finishRequirements(requirementsEvent, itemsToCheck != null ? itemsToCheck.size() : 0);
+                plugin.getFrameProfiler().record(FrameProfiler.Phase.REQUIREMENTS, start);
+            } else {
+                plugin.getMetrics().requirementsCacheHit();
+            }
+
+            if (itemsToCheck == null || itemsToCheck.isEmpty()) {
                 return null;
             }
-            plugin.addTextToInfoBox("Grab all the items needed");
-            // List of items to check
-            Map<Integer, Integer> itemsToCheck = null;
-            if(plugin.getFarmingTeleportOverlay().herbRun) {
-                itemsToCheck = herbRunItemAndLocation.getHerbItems();
+
+            // Only rebuild the panel when the requirements, inventory or stored items changed, at reduced quality
+            // inventory and icon changes are picked up at most once a tick
+            int inventoryRevision = plugin.getInventorySlotCache().getRevision();
+            int iconRevision = plugin.getIconCache().getRevision();
+            int requirementsRevision = plugin.getRemainingRequirements().getRevision();
+            if (requirementsRevision != panelRequirementsRevision) {
+                panelRequirementsRevision = requirementsRevision;
+                panelDirty = true;
             }
-            if(plugin.getFarmingTeleportOverlay().treeRun) {
-                itemsToCheck = treeRunItemAndLocation.getTreeItems();
+            boolean contentsChanged = inventoryRevision != panelInventoryRevision || iconRevision != panelIconRevision;
+            boolean throttled = plugin.getRenderQuality().isPanelThrottled() && client.getTickCount() == panelRebuildTick;
+            if (panelDirty || (contentsChanged && !throttled)) {
+                panelDirty = false;
+                panelRebuildTick = client.getTickCount();
+                panelInventoryRevision = inventoryRevision;
+                panelIconRevision = iconRevision;
+                long start = plugin.getFrameProfiler().start();
+                Object requirementsEvent = plugin.getFlightRecorderEvents().startRequirements();
+                rebuildPanel(graphics);
+                plugin.getFlightRecorderEvents().finishRequirements(requirementsEvent, itemsToCheck.size());
+                plugin.getFrameProfiler().record(FrameProfiler.Phase.REQUIREMENTS, start);
             }
-            if(plugin.getFarmingTeleportOverlay().fruitTreeRun) {
-                itemsToCheck = fruitTreeRunItemAndLocation.getFruitTreeItems();
+
+            if (gathering) {
+                plugin.setTeleportOverlayActive(allItemsCollected);
+                plugin.setItemsCollected(allItemsCollected);
             }
 
-            if (itemsToCheck == null || itemsToCheck.isEmpty()) {
+            if (panelImage == null) {
                 return null;
             }
 
-            ItemContainer inventory = client.getItemContainer(InventoryID.INV);
+            graphics.drawImage(panelImage, 0, 0, null);
+            return panelDimension;
+        }
+        return null;
+    }
 
-            Item[] items;
-            if (inventory == null || inventory.getItems() == null) {
-                items = new Item[0];
-            } else {
-                items = inventory.getItems();
-            }
+    private void rebuildPanel(Graphics2D graphics) {
+        ItemContainer inventory = client.getItemContainer(InventoryID.INV);
 
-            // Build expanded rune map once before any requirement checks
-            Map<Integer, Integer> expandedRuneMap = buildExpandedRuneMap(items);
+        Item[] items;
+        if (inventory == null || inventory.getItems() == null) {
+            items = new Item[0];
+        } else {
+            items = inventory.getItems();
+        }
 
-            int teleportCrystalCount = 0;
-            for (Item item : items) {
-                if (isTeleportCrystal(item.getId())) {
-                    teleportCrystalCount += item.getQuantity();
-                    break;
-                }
-            }
-            int skillsNecklaceCount = 0;
-            for (Item item : items) {
-                if (isSkillsNecklace(item.getId())) {
-                    skillsNecklaceCount += item.getQuantity();
-                    break;
-                }
-            }
+        // Build expanded rune map once before any requirement checks
+        Map<Integer, Integer> expandedRuneMap = buildExpandedRuneMap(items);
 
-            int totalSeeds = 0;
-            if(plugin.getFarmingTeleportOverlay().herbRun) {
-                for (Item item : items) {
-                    if (isHerbSeed(item.getId())) {
-                        totalSeeds += item.getQuantity();
-                    }
-                }
-            }
-            if(plugin.getFarmingTeleportOverlay().treeRun) {
-                for (Item item : items) {
-                    if (isTreeSapling(item.getId())) {
-                        totalSeeds += item.getQuantity();
-                    }
-                }
+        int teleportCrystalCount = 0;
+        for (Item item : items) {
+            if (isTeleportCrystal(item.getId())) {
+                teleportCrystalCount += item.getQuantity();
+                break;
             }
-            if(plugin.getFarmingTeleportOverlay().fruitTreeRun) {
-                for (Item item : items) {
-                    if (isFruitTreeSapling(item.getId())) {
-                        totalSeeds += item.getQuantity();
-                    }
-                }
+        }
+        int skillsNecklaceCount = 0;
+        for (Item item : items) {
+            if (isSkillsNecklace(item.getId())) {
+                skillsNecklaceCount += item.getQuantity();
+                break;
             }
+        }
 
-            panelComponent.getChildren().clear();
-            int yOffset = 0;
-
-            // Single inventory scan to build item count map
-            Map<Integer, Integer> inventoryItemCounts = new HashMap<>();
-            for (Item item : items) {
-                if (item != null) {
-                    inventoryItemCounts.put(item.getId(), item.getQuantity());
-                }
+        // Counted apart, a combined run needs all three
+        int totalHerbSeeds = 0;
+        int totalTreeSaplings = 0;
+        int totalFruitTreeSaplings = 0;
+        for (Item item : items) {
+            if (isHerbSeed(item.getId())) {
+                totalHerbSeeds += item.getQuantity();
+            } else if (isTreeSapling(item.getId())) {
+                totalTreeSaplings += item.getQuantity();
+            } else if (isFruitTreeSapling(item.getId())) {
+                totalFruitTreeSaplings += item.getQuantity();
             }
+        }
 
-            List<AbstractMap.SimpleEntry<Integer, Integer>> missingItemsWithCounts = new ArrayList<>();
-            boolean allItemsCollected = true;
-            for (Map.Entry<Integer, Integer> entry : itemsToCheck.entrySet()) {
-                int itemId = entry.getKey();
-                int count = entry.getValue();
-
-                // Start with inventory count from single scan
-                int inventoryCount = inventoryItemCounts.getOrDefault(itemId, 0);
-                
-                // Add tool lep count
-                int toolLepCount = checkToolLep(itemId);
-                if (toolLepCount > 0) {
-                    inventoryCount += toolLepCount;
-                }
-                
-                // Apply run-specific and item-specific overrides in order
-                if (plugin.getFarmingTeleportOverlay().herbRun && itemId == BASE_SEED_ID) {
-                    inventoryCount = totalSeeds;
-                } else if (plugin.getFarmingTeleportOverlay().treeRun && itemId == BASE_SAPLING_ID) {
-                    inventoryCount = totalSeeds;
-                } else if (plugin.getFarmingTeleportOverlay().fruitTreeRun && itemId == BASE_FRUIT_SAPLING_ID) {
-                    inventoryCount = totalSeeds;
-                } else if (itemId == BASE_TELEPORT_CRYSTAL_ID) {
-                    inventoryCount = teleportCrystalCount;
-                } else if (itemId == BASE_SKILLS_NECKLACE_ID) {
-                    inventoryCount = skillsNecklaceCount;
-                }
+        panelComponent.getChildren().clear();
 
+        // Single inventory scan to build item count map
+        Map<Integer, Integer> inventoryItemCounts = new HashMap<>();
+        for (Item item : items) {
+            if (item != null) {
+                inventoryItemCounts.put(item.getId(), item.getQuantity());
+            }
+        }
 
-                for (Item item: items) {
-                    if (item != null && RUNE_POUCH_ID.contains(item.getId())) {
-                        if (expandedRuneMap.containsKey(itemId)) {
-                            inventoryCount += expandedRuneMap.get(itemId);
-                        }
-                    }
-                }
+        boolean allCollected = true;
+        boolean anyIconShown = false;
+        for (Map.Entry<Integer, Integer> entry : itemsToCheck.entrySet()) {
+            int itemId = entry.getKey();
+            int count = entry.getValue();
 
+            // Start with inventory count from single scan
+            int inventoryCount = inventoryItemCounts.getOrDefault(itemId, 0);
 
+            // Add tool lep count
+            int toolLepCount = checkToolLep(itemId);
+            if (toolLepCount > 0) {
+                inventoryCount += toolLepCount;
+            }
 
-                if (inventoryCount < count) {
-                    allItemsCollected = false;
-                    int missingCount = count - inventoryCount;
-                    BufferedImage itemImage = itemManager.getImage(itemId);
-                    if (itemImage != null) {
-                        ImageComponent imageComponent = new ImageComponent(itemImage);
-                        panelComponent.getChildren().add(imageComponent);
+            // Apply run-specific and item-specific overrides in order
+            if (itemId == BASE_SEED_ID) {
+                inventoryCount = totalHerbSeeds;
+            } else if (itemId == BASE_SAPLING_ID) {
+                inventoryCount = totalTreeSaplings;
+            } else if (itemId == BASE_FRUIT_SAPLING_ID) {
+                inventoryCount = totalFruitTreeSaplings;
+            } else if (itemId == BASE_TELEPORT_CRYSTAL_ID) {
+                inventoryCount = teleportCrystalCount;
+            } else if (itemId == BASE_SKILLS_NECKLACE_ID) {
+                inventoryCount = skillsNecklaceCount;
+            }
 
-                        // Add the missing item and count to the list
-                        missingItemsWithCounts.add(new AbstractMap.SimpleEntry<>(itemId, missingCount));
 
-                        yOffset += itemImage.getHeight() + 2; // Update yOffset for the next item
+            for (Item item: items) {
+                if (item != null && RUNE_POUCH_ID.contains(item.getId())) {
+                    if (expandedRuneMap.containsKey(itemId)) {
+                        inventoryCount += expandedRuneMap.get(itemId);
                     }
                 }
             }
-            plugin.setTeleportOverlayActive(allItemsCollected);
-            Dimension panelSize = panelComponent.render(graphics);
 
-            // Draw item count on top of the overlay
-            yOffset = 0;
-            for (AbstractMap.SimpleEntry<Integer, Integer> pair : missingItemsWithCounts) {
-                int itemId = pair.getKey();
-                int missingCount = pair.getValue();
 
-                BufferedImage itemImage = itemManager.getImage(itemId);
-                if (itemImage != null) {
-                    // Draw item count
-                    if (missingCount > 1) {
-                        String countText = Integer.toString(missingCount);
-                        int textX = 2; // Calculate X position for the count text
-                        int textY = yOffset + 15; // Calculate Y position for the count text
-                        graphics.setColor(Color.WHITE);
-                        graphics.drawString(countText, textX, textY);
-                    }
 
-                    yOffset += itemImage.getHeight() + 2; // Update yOffset for the next item
+            if (inventoryCount < count) {
+                allCollected = false;
+                int missingCount = count - inventoryCount;
+                // Icons are prefetched at run start, one that is still loading shows up once the cache revision changes
+                BufferedImage itemImage = plugin.getIconCache().get(itemId);
+                if (itemImage != null) {
+                    panelComponent.getChildren().add(new ImageComponent(composeItemIcon(itemImage, missingCount, graphics.getFont())));
+                    anyIconShown = true;
                 }
             }
-            // Check if all items have been collected
-            if (missingItemsWithCounts.isEmpty()) {
-                plugin.setItemsCollected(true);
-            } else {
-                plugin.setItemsCollected(false);
-            }
+        }
+
+        allItemsCollected = allCollected;
+        panelImage = anyIconShown ? renderPanelImage(graphics) : null;
+    }
 
-            return panelSize;
+    /**
+     * Draws the missing count on top of a copy of the item icon, so the count doesn't have to be drawn every frame.
+     */
+    private BufferedImage composeItemIcon(BufferedImage itemImage, int missingCount, Font font) {
+        BufferedImage composite = new BufferedImage(itemImage.getWidth(), itemImage.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D iconGraphics = composite.createGraphics();
+        iconGraphics.drawImage(itemImage, 0, 0, null);
+
+        if (missingCount > 1) {
+            iconGraphics.setFont(font);
+            iconGraphics.setColor(Color.WHITE);
+            iconGraphics.drawString(Integer.toString(missingCount), 0, 11);
         }
-        return null;
+
+        iconGraphics.dispose();
+        return composite;
+    }
+
+    /**
+     * Renders the panel into an image once, steady-state frames only draw that image.
+     */
+    private BufferedImage renderPanelImage(Graphics2D graphics) {
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D measureGraphics = scratch.createGraphics();
+        measureGraphics.setFont(graphics.getFont());
+        Dimension size = panelComponent.render(measureGraphics);
+        measureGraphics.dispose();
+
+        if (size == null || size.width <= 0 || size.height <= 0) {
+            return null;
+        }
+
+        BufferedImage image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D panelGraphics = image.createGraphics();
+        panelGraphics.setRenderingHints(graphics.getRenderingHints());
+        panelGraphics.setFont(graphics.getFont());
+        panelComponent.render(panelGraphics);
+        panelGraphics.dispose();
+
+        panelDimension.setSize(size);
+        return image;
     }
-}
\ No newline at end of file
+}
@@ -9,7 +9,10 @@ import net.runelite.client.ui.overlay.components.PanelComponent;
 
 import javax.inject.Inject;
 import java.awt.Dimension;
+import java.awt.Font;
 import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Objects;
 
 public class EasyFarmingOverlayInfoBox extends Overlay {
     private final Client client;
@@ -18,6 +21,13 @@ public class EasyFarmingOverlayInfoBox extends Overlay {
 
     private String text;
 
+    // The info box is rendered into an image whenever its text or font changes, other frames only draw the image
+    private BufferedImage panelImage;
+    private final Dimension panelDimension = new Dimension();
+    private String renderedText;
+    private Font renderedFont;
+    private RenderQuality.Level renderedQuality;
+
     @Inject
     public EasyFarmingOverlayInfoBox(Client client, EasyFarmingPlugin plugin) {
         this.client = client;
@@ -27,21 +37,63 @@ public class EasyFarmingOverlayInfoBox extends Overlay {
     }
 
     public void setText(String text) {
+        if (!Objects.equals(text, this.text)) {
+            plugin.getFlightRecorderEvents().stepChanged(text);
+            plugin.getMetrics().stepChanged(text);
+        }
         this.text = text;
     }
 
     @Override
     public Dimension render(Graphics2D graphics) {
-        if (!plugin.isOverlayActive()) {
+        if (!plugin.isRunVisible()) {
+            return null;
+        }
+
+        RenderQuality.Level quality = plugin.getRenderQuality().getLevel();
+        if (panelImage == null || !Objects.equals(text, renderedText) || graphics.getFont() != renderedFont || quality != renderedQuality) {
+            renderedText = text;
+            renderedFont = graphics.getFont();
+            renderedQuality = quality;
+            panelImage = renderPanelImage(graphics);
+        }
+
+        if (panelImage == null) {
             return null;
         }
 
+        graphics.drawImage(panelImage, 0, 0, null);
+        return panelDimension;
+    }
+
+    private BufferedImage renderPanelImage(Graphics2D graphics) {
         panelComponent.getChildren().clear();
 
         if (text != null) {
             panelComponent.getChildren().add(LineComponent.builder().left(text).build());
         }
+        if (renderedQuality != RenderQuality.Level.FULL) {
+            panelComponent.getChildren().add(LineComponent.builder().left("Quality").right(renderedQuality.getLabel()).build());
+        }
+
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D measureGraphics = scratch.createGraphics();
+        measureGraphics.setFont(graphics.getFont());
+        Dimension size = panelComponent.render(measureGraphics);
+        measureGraphics.dispose();
+
+        if (size == null || size.width <= 0 || size.height <= 0) {
+            return null;
+        }
+
+        BufferedImage image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D panelGraphics = image.createGraphics();
+        panelGraphics.setRenderingHints(graphics.getRenderingHints());
+        panelGraphics.setFont(graphics.getFont());
+        panelComponent.render(panelGraphics);
+        panelGraphics.dispose();
 
-        return panelComponent.render(graphics);
+        panelDimension.setSize(size);
+        return image;
     }
-}
\ No newline at end of file
+}
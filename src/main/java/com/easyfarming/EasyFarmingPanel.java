@@ -29,6 +29,8 @@ public class EasyFarmingPanel extends PluginPanel
     public StartStopJButton herbButton;
     public StartStopJButton treeButton;
     public StartStopJButton fruitTreeButton;
+    public StartStopJButton combinedButton;
+    private JTextArea readinessText;
 
     public EasyFarmingPanel(EasyFarmingPlugin plugin, OverlayManager overlayManager, FarmingTeleportOverlay farmingTeleportOverlay, HerbRunItemAndLocation herbRunItemAndLocation, TreeRunItemAndLocation treeRunItemAndLocation, FruitTreeRunItemAndLocation fruitTreeRunItemAndLocation)
     {
@@ -92,14 +94,32 @@ public class EasyFarmingPanel extends PluginPanel
         herbButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                plugin.runOnClientThread(() -> {
-                    Map<Integer, Integer> herbItems = herbRunItemAndLocation.getHerbItems();
-                    plugin.updateHerbOverlay(herbItems);
-                    plugin.setOverlayActive(!plugin.isOverlayActive());
-
-                    herbButton.setStartStopState(plugin.isOverlayActive());
+                if (plugin.isOverlayActive()) {
+                    plugin.runOnClientThread(() -> {
+                        plugin.setOverlayActive(false);
+                        herbButton.setStartStopState(false);
+                        onHerbButtonClicked();
+                    });
+                    return;
+                }
 
-                    onHerbButtonClicked();
+                // The requirements are worked out from fresh catalogs on the background worker, the run starts with them once they are known
+                plugin.runOnClientThread(() -> {
+                    // What the player carries picks the teleports the requirements ask for
+                    Map<Integer, Integer> carriedItems = plugin.getEasyFarmingOverlay().countCarriedItems();
+                    plugin.getBackgroundWorker().submit("Herb run requirements", () -> {
+                        plugin.predictSkippedPatches(FarmingPatch.Type.HERB);
+                        return plugin.planRun(FarmingPatch.Type.HERB, carriedItems);
+                    }, plannedRun -> {
+                        if (plugin.isOverlayActive()) {
+                            return;
+                        }
+                        plugin.adoptCatalogs(plannedRun);
+                        plugin.updateHerbOverlay(plannedRun.getItems());
+                        plugin.setOverlayActive(true);
+                        herbButton.setStartStopState(true);
+                        onHerbButtonClicked();
+                    });
                 });
             }
         });
@@ -113,14 +133,32 @@ public class EasyFarmingPanel extends PluginPanel
         {
             @Override
             public void actionPerformed(ActionEvent e) {
-                plugin.runOnClientThread(() -> {
-                    Map<Integer, Integer> treeItems = treeRunItemAndLocation.getTreeItems();
-                    plugin.updateTreeOverlay(treeItems);
-                    plugin.setOverlayActive(!plugin.isOverlayActive());
-
-                    treeButton.setStartStopState(plugin.isOverlayActive());
+                if (plugin.isOverlayActive()) {
+                    plugin.runOnClientThread(() -> {
+                        plugin.setOverlayActive(false);
+                        treeButton.setStartStopState(false);
+                        onTreeButtonClicked();
+                    });
+                    return;
+                }
 
-                    onTreeButtonClicked();
+                // The requirements are worked out from fresh catalogs on the background worker, the run starts with them once they are known
+                plugin.runOnClientThread(() -> {
+                    // What the player carries picks the teleports the requirements ask for
+                    Map<Integer, Integer> carriedItems = plugin.getEasyFarmingOverlay().countCarriedItems();
+                    plugin.getBackgroundWorker().submit("Tree run requirements", () -> {
+                        plugin.predictSkippedPatches(FarmingPatch.Type.TREE);
+                        return plugin.planRun(FarmingPatch.Type.TREE, carriedItems);
+                    }, plannedRun -> {
+                        if (plugin.isOverlayActive()) {
+                            return;
+                        }
+                        plugin.adoptCatalogs(plannedRun);
+                        plugin.updateTreeOverlay(plannedRun.getItems());
+                        plugin.setOverlayActive(true);
+                        treeButton.setStartStopState(true);
+                        onTreeButtonClicked();
+                    });
                 });
             }
         });
@@ -134,14 +172,32 @@ public class EasyFarmingPanel extends PluginPanel
         {
             @Override
             public void actionPerformed(ActionEvent e) {
-                plugin.runOnClientThread(() -> {
-                    Map<Integer, Integer> fruitTreeItems = fruitTreeRunItemAndLocation.getFruitTreeItems();
-                    plugin.updateFruitTreeOverlay(fruitTreeItems);
-                    plugin.setOverlayActive(!plugin.isOverlayActive());
-
-                    fruitTreeButton.setStartStopState(plugin.isOverlayActive());
+                if (plugin.isOverlayActive()) {
+                    plugin.runOnClientThread(() -> {
+                        plugin.setOverlayActive(false);
+                        fruitTreeButton.setStartStopState(false);
+                        onFruitTreeButtonClicked();
+                    });
+                    return;
+                }
 
-                    onFruitTreeButtonClicked();
+                // The requirements are worked out from fresh catalogs on the background worker, the run starts with them once they are known
+                plugin.runOnClientThread(() -> {
+                    // What the player carries picks the teleports the requirements ask for
+                    Map<Integer, Integer> carriedItems = plugin.getEasyFarmingOverlay().countCarriedItems();
+                    plugin.getBackgroundWorker().submit("Fruit tree run requirements", () -> {
+                        plugin.predictSkippedPatches(FarmingPatch.Type.FRUIT_TREE);
+                        return plugin.planRun(FarmingPatch.Type.FRUIT_TREE, carriedItems);
+                    }, plannedRun -> {
+                        if (plugin.isOverlayActive()) {
+                            return;
+                        }
+                        plugin.adoptCatalogs(plannedRun);
+                        plugin.updateFruitTreeOverlay(plannedRun.getItems());
+                        plugin.setOverlayActive(true);
+                        fruitTreeButton.setStartStopState(true);
+                        onFruitTreeButtonClicked();
+                    });
                 });
             }
         });
@@ -149,6 +205,43 @@ public class EasyFarmingPanel extends PluginPanel
 //        farmRunButtonsPanel.add(fruitTreeButton, constraints);
         farmRunButtonsPanel.add(fruitTreeButton);
 
+        combinedButton = new StartStopJButton("Combined Run");
+        combinedButton.setFocusable(false);
+        combinedButton.addActionListener(new ActionListener()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (plugin.isOverlayActive()) {
+                    plugin.runOnClientThread(() -> {
+                        plugin.setOverlayActive(false);
+                        combinedButton.setStartStopState(false);
+                        onCombinedButtonClicked();
+                    });
+                    return;
+                }
+
+                // The requirements are worked out from fresh catalogs on the background worker, the run starts with them once they are known
+                plugin.runOnClientThread(() -> {
+                    // What the player carries picks the teleports the requirements ask for
+                    Map<Integer, Integer> carriedItems = plugin.getEasyFarmingOverlay().countCarriedItems();
+                    plugin.getBackgroundWorker().submit("Combined run requirements", () -> {
+                        plugin.predictSkippedPatches(FarmingPatch.Type.HERB, FarmingPatch.Type.TREE, FarmingPatch.Type.FRUIT_TREE);
+                        return plugin.planCombinedRun(carriedItems);
+                    }, plannedRun -> {
+                        if (plugin.isOverlayActive()) {
+                            return;
+                        }
+                        plugin.adoptCatalogs(plannedRun);
+                        plugin.updateCombinedOverlay(plannedRun.getItems());
+                        plugin.setOverlayActive(true);
+                        combinedButton.setStartStopState(true);
+                        onCombinedButtonClicked();
+                    });
+                });
+            }
+        });
+        farmRunButtonsPanel.add(combinedButton);
+
         farmRunButtonsContainingPanel.add(farmRunButtonsPanel);
 
         return farmRunButtonsContainingPanel;
@@ -162,6 +255,12 @@ public class EasyFarmingPanel extends PluginPanel
         JPanel infoPanel = new JPanel(new GridLayout(0, 1, 0, 0));
         infoPanel.setBorder(new EmptyBorder(25, 0, 0, 0));
 
+        readinessText = new JTextArea("No patches seen yet.");
+        readinessText.setWrapStyleWord(true);
+        readinessText.setLineWrap(true);
+        readinessText.setEditable(false);
+        infoPanel.add(readinessText);
+
         JTextArea textAreaTip = new JTextArea("Tips: \n - Rune pouch and combination runes work. \n - If you don't have Bottomless compost bucket you should store compost @ Tool Leprechaun, the plugin checks if you have compost stored there.");
         textAreaTip.setWrapStyleWord(true);
         textAreaTip.setLineWrap(true);
@@ -173,6 +272,13 @@ public class EasyFarmingPanel extends PluginPanel
         return infoContainingPanel;
     }
 
+    /**
+     * Shows how many patches of each run type are ready, can be called from any thread.
+     */
+    public void setReadiness(String readiness) {
+        SwingUtilities.invokeLater(() -> readinessText.setText(readiness));
+    }
+
     private void onHerbButtonClicked() {
         SwingUtilities.invokeLater(new Runnable() {
             @Override
@@ -185,8 +291,12 @@ public class EasyFarmingPanel extends PluginPanel
                 } else {
                     logger.debug("Add overlay from button");
                     plugin.getFarmingTeleportOverlay().herbRun = true;
+                    farmingTeleportOverlay.invalidateHighlights();
+                    plugin.planRoute();
+                    overlay.invalidateRequirements();
                     overlayManager.add(overlay);
                     overlayManager.add(farmingTeleportOverlay);
+                    overlayManager.add(plugin.getEasyFarmingOverlayInfoBox());
                 }
             }
         });
@@ -207,8 +317,12 @@ public class EasyFarmingPanel extends PluginPanel
                 } else {
                     logger.debug("Add overlay from button");
                     plugin.getFarmingTeleportOverlay().treeRun = true;
+                    farmingTeleportOverlay.invalidateHighlights();
+                    plugin.planRoute();
+                    overlay.invalidateRequirements();
                     overlayManager.add(overlay);
                     overlayManager.add(farmingTeleportOverlay);
+                    overlayManager.add(plugin.getEasyFarmingOverlayInfoBox());
                 }
             }
         });
@@ -228,10 +342,39 @@ public class EasyFarmingPanel extends PluginPanel
                 } else {
                     logger.debug("Add overlay from button");
                     plugin.getFarmingTeleportOverlay().fruitTreeRun = true;
+                    farmingTeleportOverlay.invalidateHighlights();
+                    plugin.planRoute();
+                    overlay.invalidateRequirements();
+                    overlayManager.add(overlay);
+                    overlayManager.add(farmingTeleportOverlay);
+                    overlayManager.add(plugin.getEasyFarmingOverlayInfoBox());
+                }
+            }
+        });
+    }
+
+    private void onCombinedButtonClicked()
+    {
+        SwingUtilities.invokeLater(new Runnable()
+        {
+            @Override
+            public void run() {
+                EasyFarmingOverlay overlay = plugin.getEasyFarmingOverlay();
+
+                if (!plugin.isOverlayActive()) {
+                    farmingTeleportOverlay.removeOverlay();
+                    logger.debug("Remove overlay from button");
+                } else {
+                    logger.debug("Add overlay from button");
+                    plugin.getFarmingTeleportOverlay().combinedRun = true;
+                    farmingTeleportOverlay.invalidateHighlights();
+                    plugin.planRoute();
+                    overlay.invalidateRequirements();
                     overlayManager.add(overlay);
                     overlayManager.add(farmingTeleportOverlay);
+                    overlayManager.add(plugin.getEasyFarmingOverlayInfoBox());
                 }
             }
         });
     }
-}
\ No newline at end of file
+}
@@ -1,21 +1,45 @@
 package com.easyfarming;
 
 import com.easyfarming.ItemsAndLocations.HerbRunItemAndLocation;
+import com.easyfarming.ItemsAndLocations.ItemAndLocation;
 import com.easyfarming.ItemsAndLocations.TreeRunItemAndLocation;
 import com.easyfarming.ItemsAndLocations.FruitTreeRunItemAndLocation;
 
 import com.google.inject.Provides;
+import java.awt.Frame;
+import java.awt.Window;
+import java.awt.event.WindowStateListener;
 import java.awt.image.BufferedImage;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.*;
 import javax.inject.Inject;
+import javax.swing.SwingUtilities;
 
 import lombok.Getter;
 import lombok.Setter;
 import net.runelite.api.*;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.CanvasSizeChanged;
 import net.runelite.api.events.ChatMessage;
+import net.runelite.api.events.CommandExecuted;
+import net.runelite.api.events.DecorativeObjectDespawned;
+import net.runelite.api.events.DecorativeObjectSpawned;
+import net.runelite.api.events.GameObjectDespawned;
+import net.runelite.api.events.GameObjectSpawned;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.events.MenuEntryAdded;
+import net.runelite.api.events.NpcDespawned;
+import net.runelite.api.events.NpcSpawned;
+import net.runelite.api.events.ResizeableChanged;
+import net.runelite.api.events.VarClientIntChanged;
+import net.runelite.api.events.VarbitChanged;
+import net.runelite.api.events.WidgetClosed;
+import net.runelite.api.events.WidgetLoaded;
+import net.runelite.api.gameval.InterfaceID;
+import net.runelite.api.gameval.InventoryID;
 import net.runelite.client.config.ConfigManager;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.game.ItemManager;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
@@ -25,7 +49,6 @@ import net.runelite.client.ui.ClientToolbar;
 import net.runelite.client.ui.overlay.OverlayManager;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.callback.ClientThread;
-import net.runelite.client.eventbus.EventBus;
 
 @PluginDescriptor(
 		name = "Easy Farming",
@@ -34,8 +57,6 @@ import net.runelite.client.eventbus.EventBus;
 
 public class EasyFarmingPlugin extends Plugin
 {
-	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-
 	private HerbRunItemAndLocation herbRunItemAndLocation;
 	private TreeRunItemAndLocation treeRunItemAndLocation;
 	private FruitTreeRunItemAndLocation fruitTreeRunItemAndLocation;
@@ -51,6 +72,84 @@ public class EasyFarmingPlugin extends Plugin
 		clientThread.invokeLater(task);
 	}
 
+	@Getter
+	@Inject
+	private BackgroundWorker backgroundWorker;
+
+	private final RouteOptimizer routeOptimizer = new RouteOptimizer();
+	private static final int INVENTORY_SLOTS = 28;
+
+	/**
+	 * Works out the fastest order to visit the run's enabled locations in on the background worker, the teleport
+	 * overlay follows it once it is known. Call this once the run type is set.
+	 */
+	public void planRoute() {
+		clientThread.invokeLater(() -> {
+			List<Location> locations = farmingTeleportOverlay.getRunLocations();
+			List<String> names = locationNames(locations);
+			List<Location.Teleport> stops = new ArrayList<>();
+			List<Integer> stopIndices = new ArrayList<>();
+			List<Map<Integer, Integer>> stopItems = new ArrayList<>();
+			for (int i = 0; i < locations.size(); i++) {
+				if (farmingTeleportOverlay.isLocationEnabled(locations.get(i))) {
+					stops.add(farmingTeleportOverlay.selectTeleport(locations.get(i)));
+					stopIndices.add(i);
+					stopItems.add(getSiteItems(locations.get(i).getName()));
+				}
+			}
+			// Items that stack and the tools take a slot for the whole run, the rest is used up stop by stop
+			Set<Integer> carried = new HashSet<>();
+			for (FarmingPatch.Type type : getRunTypes()) {
+				carried.addAll(getItemAndLocation(type).getToolRequirements().keySet());
+			}
+			for (Location.Teleport teleport : stops) {
+				if (teleport != null) {
+					carried.addAll(teleport.getItemRequirements().keySet());
+				}
+			}
+			int[] stopSlots = new int[stopItems.size()];
+			for (int i = 0; i < stopSlots.length; i++) {
+				for (Map.Entry<Integer, Integer> item : stopItems.get(i).entrySet()) {
+					if (itemManager.getItemComposition(item.getKey()).isStackable()) {
+						carried.add(item.getKey());
+					} else {
+						stopSlots[i] += item.getValue();
+					}
+				}
+			}
+			int freeSlots = INVENTORY_SLOTS - carried.size();
+			Player player = client.getLocalPlayer();
+			WorldPoint start = player != null ? player.getWorldLocation() : null;
+
+			backgroundWorker.submit("Route", () -> routeOptimizer.optimize(stops, stopSlots, freeSlots, start), order -> {
+				// The run may have been stopped and another one started in the meantime
+				if (!names.equals(locationNames(farmingTeleportOverlay.getRunLocations()))) {
+					return;
+				}
+				int[] route = new int[order.length];
+				for (int i = 0; i < order.length; i++) {
+					route[i] = stopIndices.get(order[i]);
+				}
+				farmingTeleportOverlay.setRoute(route);
+			});
+		});
+	}
+
+	/**
+	 * @return The items the configured way of teleporting to the house takes
+	 */
+	public List<ItemRequirement> getHouseTeleportItemRequirements() {
+		return herbRunItemAndLocation.getHouseTeleportItemRequirements();
+	}
+
+	private static List<String> locationNames(List<Location> locations) {
+		List<String> names = new ArrayList<>(locations.size());
+		for (Location location : locations) {
+			names.add(location.getName());
+		}
+		return names;
+	}
+
 	public Location getArdougneLocation() {
 		return herbRunItemAndLocation.ardougneLocation;
 	}
@@ -115,11 +214,288 @@ public class EasyFarmingPlugin extends Plugin
     private String lastMessage = "";
     @Subscribe
     public void onChatMessage(ChatMessage event) {
+        gameStateRecorder.recordChat(event.getType().name(), event.getMessage());
         if (event.getType() == ChatMessageType.GAMEMESSAGE) {
             lastMessage = event.getMessage();
+            farmingTeleportOverlay.invalidateHighlights();
         }
         else if (event.getType() == ChatMessageType.SPAM) {
             lastMessage = event.getMessage();
+            farmingTeleportOverlay.invalidateHighlights();
+        }
+    }
+
+    @Getter
+    @Inject
+    private InventorySlotCache inventorySlotCache;
+
+    @Subscribe
+    public void onItemContainerChanged(ItemContainerChanged event) {
+        if (event.getContainerId() == InventoryID.INV || event.getContainerId() == InventoryID.WORN) {
+            gameStateRecorder.recordItemContainer(event.getContainerId(), event.getItemContainer());
+        }
+        if (!isOverlayActive) {
+            return;
+        }
+        if (event.getContainerId() == InventoryID.INV) {
+            inventorySlotCache.invalidate();
+            farmingTeleportOverlay.invalidateHighlights();
+        }
+        if (event.getContainerId() == InventoryID.INV || event.getContainerId() == InventoryID.WORN) {
+            farmingTeleportOverlay.invalidateTeleports(false);
+        }
+    }
+
+    @Subscribe
+    public void onWidgetLoaded(WidgetLoaded event) {
+        gameStateRecorder.recordWidgetLoaded(event.getGroupId());
+        if (event.getGroupId() == InterfaceID.BANKMAIN) {
+            setBankOpen(true);
+        }
+        if (!isOverlayActive) {
+            return;
+        }
+        if (event.getGroupId() == InterfaceID.INVENTORY) {
+            inventorySlotCache.invalidate();
+        }
+        farmingTeleportOverlay.invalidateHighlights();
+    }
+
+    @Subscribe
+    public void onWidgetClosed(WidgetClosed event) {
+        gameStateRecorder.recordWidgetClosed(event.getGroupId());
+        if (event.getGroupId() == InterfaceID.BANKMAIN) {
+            setBankOpen(false);
+        }
+        if (isOverlayActive) {
+            farmingTeleportOverlay.invalidateHighlights();
+        }
+    }
+
+    @Getter
+    @Inject
+    private WidgetBoundsCache widgetBoundsCache;
+
+    @Getter
+    @Inject
+    private PathGuide pathGuide;
+
+    @Inject
+    private CollisionCache collisionCache;
+
+    @Getter
+    @Inject
+    private PatchStateStore patchStateStore;
+
+    @Subscribe
+    public void onCanvasSizeChanged(CanvasSizeChanged event) {
+        inventorySlotCache.invalidate();
+        widgetBoundsCache.invalidate();
+    }
+
+    @Subscribe
+    public void onResizeableChanged(ResizeableChanged event) {
+        inventorySlotCache.invalidate();
+        widgetBoundsCache.invalidate();
+    }
+
+    @Getter
+    @Inject
+    private SceneObjectIndex sceneObjectIndex;
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        updateLoggedIn(event.getGameState());
+        if (event.getGameState() == GameState.LOADING || event.getGameState() == GameState.LOGGED_IN) {
+            patchStateStore.invalidate();
+        } else {
+            iconCache.clearPending();
+        }
+        if (event.getGameState() == GameState.LOADING) {
+            sceneObjectIndex.clear();
+            farmingTeleportOverlay.invalidateHighlights();
+            gameStateRecorder.recordSceneLoading();
+        } else if (event.getGameState() == GameState.LOGGED_IN && isOverlayActive) {
+            collisionCache.snapshot();
+        }
+    }
+
+    @Subscribe
+    public void onGameObjectSpawned(GameObjectSpawned event) {
+        gameStateRecorder.recordGameObjectSpawned(event.getGameObject());
+        if (!isOverlayActive) {
+            return;
+        }
+        sceneObjectIndex.addGameObject(event.getGameObject());
+        farmingTeleportOverlay.invalidateHighlights();
+    }
+
+    @Subscribe
+    public void onGameObjectDespawned(GameObjectDespawned event) {
+        gameStateRecorder.recordGameObjectDespawned(event.getGameObject());
+        if (!isOverlayActive) {
+            return;
+        }
+        sceneObjectIndex.removeGameObject(event.getGameObject());
+        farmingTeleportOverlay.invalidateHighlights();
+    }
+
+    @Subscribe
+    public void onDecorativeObjectSpawned(DecorativeObjectSpawned event) {
+        gameStateRecorder.recordDecorativeObjectSpawned(event.getDecorativeObject(), event.getTile());
+        if (!isOverlayActive) {
+            return;
+        }
+        sceneObjectIndex.addDecorativeObject(event.getDecorativeObject());
+        farmingTeleportOverlay.invalidateHighlights();
+    }
+
+    @Subscribe
+    public void onDecorativeObjectDespawned(DecorativeObjectDespawned event) {
+        gameStateRecorder.recordDecorativeObjectDespawned(event.getDecorativeObject(), event.getTile());
+        if (!isOverlayActive) {
+            return;
+        }
+        sceneObjectIndex.removeDecorativeObject(event.getDecorativeObject());
+        farmingTeleportOverlay.invalidateHighlights();
+    }
+
+    @Subscribe
+    public void onNpcSpawned(NpcSpawned event) {
+        gameStateRecorder.recordNpcSpawned(event.getNpc());
+        if (!isOverlayActive) {
+            return;
+        }
+        sceneObjectIndex.addNpc(event.getNpc());
+        farmingTeleportOverlay.invalidateHighlights();
+    }
+
+    @Subscribe
+    public void onNpcDespawned(NpcDespawned event) {
+        gameStateRecorder.recordNpcDespawned(event.getNpc());
+        if (!isOverlayActive) {
+            return;
+        }
+        sceneObjectIndex.removeNpc(event.getNpc());
+        farmingTeleportOverlay.invalidateHighlights();
+    }
+
+    @Subscribe
+    public void onMenuEntryAdded(MenuEntryAdded event) {
+        if (!isOverlayActive) {
+            return;
+        }
+        farmingTeleportOverlay.onMenuEntryAdded(event.getMenuEntry());
+    }
+
+    @Subscribe
+    public void onVarbitChanged(VarbitChanged event) {
+        gameStateRecorder.recordVarbit(event.getVarbitId(), event.getValue());
+        // Patches are remembered outside of runs too, so the next run knows what they looked like
+        if (patchStateStore.isPatchVarbit(event.getVarbitId())) {
+            patchStateStore.invalidate();
+        }
+        if (!isOverlayActive) {
+            return;
+        }
+        farmingTeleportOverlay.invalidateHighlights();
+        farmingTeleportOverlay.onVarbitChanged(event.getVarbitId(), event.getValue());
+        if (farmingHelperOverlay.isPanelVarbit(event.getVarbitId())) {
+            farmingHelperOverlay.invalidatePanel();
+            farmingTeleportOverlay.invalidateTeleports(false);
+        }
+    }
+
+    @Getter
+    private final HighlightPalette highlightPalette = new HighlightPalette();
+
+    @Getter
+    private final RenderQuality renderQuality = new RenderQuality();
+
+    @Subscribe
+    public void onConfigChanged(ConfigChanged event) {
+        if (event.getGroup().equals("farminghelper")) {
+            highlightPalette.rebuild(config);
+            farmingHelperOverlay.invalidateRequirements();
+            farmingTeleportOverlay.invalidateHighlights();
+            clientThread.invokeLater(() -> farmingTeleportOverlay.invalidateTeleports(true));
+            readinessScheduler.refresh();
+            if (event.getKey().equals("recordGameState")) {
+                clientThread.invokeLater(this::updateRecording);
+            }
+            if (event.getKey().equals("frameBudgetMicros")) {
+                clientThread.invokeLater(() -> renderQuality.setBudget(config.frameBudgetMicros()));
+            }
+            if (event.getKey().equals("profileFrames")) {
+                clientThread.invokeLater(() -> frameProfiler.setEnabled(config.profileFrames()));
+            }
+        }
+    }
+
+    @Inject
+    private GameStateRecorder gameStateRecorder;
+
+    @Subscribe
+    public void onGameTick(GameTick event) {
+        gameStateRecorder.recordTick();
+        patchStateStore.onGameTick();
+    }
+
+    @Subscribe
+    public void onVarClientIntChanged(VarClientIntChanged event) {
+        gameStateRecorder.recordVarcInt(event.getIndex());
+        if (isOverlayActive) {
+            farmingTeleportOverlay.invalidateHighlights();
+        }
+    }
+
+    @Getter
+    @Inject
+    private FrameProfiler frameProfiler;
+
+    @Inject
+    private FrameProfilerOverlay frameProfilerOverlay;
+
+    @Getter
+    @Inject
+    private FlightRecorderEvents flightRecorderEvents;
+
+    @Getter
+    @Inject
+    private EasyFarmingMetrics metrics;
+
+    private static final String PROFILE_COMMAND = "efprofile";
+
+    /**
+     * ::efprofile prints the frame time of every phase to the chat, ::efprofile reset starts measuring again.
+     */
+    @Subscribe
+    public void onCommandExecuted(CommandExecuted event) {
+        if (!event.getCommand().equalsIgnoreCase(PROFILE_COMMAND)) {
+            return;
+        }
+        if (!frameProfiler.isEnabled()) {
+            client.addChatMessage(ChatMessageType.CONSOLE, "", "Frame profiling is off, enable Profile frame times in the Easy Farming config", null);
+            return;
+        }
+        if (event.getArguments().length > 0 && event.getArguments()[0].equalsIgnoreCase("reset")) {
+            frameProfiler.reset();
+            client.addChatMessage(ChatMessageType.CONSOLE, "", "Frame times reset", null);
+            return;
+        }
+        for (String line : frameProfiler.describe()) {
+            client.addChatMessage(ChatMessageType.CONSOLE, "", line, null);
+        }
+    }
+
+    /**
+     * Starts or stops recording to match the config, must be called on the client thread.
+     */
+    private void updateRecording() {
+        if (config.recordGameState()) {
+            gameStateRecorder.start();
+        } else {
+            gameStateRecorder.stop();
         }
     }
 
@@ -127,9 +503,6 @@ public class EasyFarmingPlugin extends Plugin
 		return lastMessage.trim().equalsIgnoreCase(targetMessage.trim());
 	}
 
-	@Inject
-	private EventBus eventBus;
-
 	@Inject
 	private ClientThread clientThread;
 
@@ -151,9 +524,66 @@ public class EasyFarmingPlugin extends Plugin
 	public OverlayManager overlayManager;
 
 	@Getter
-    @Setter
     private boolean isOverlayActive = true;
 
+	// Outside of a run, while logged out or while the client is minimized the overlays and subscribers skip their work
+	private boolean loggedIn = true;
+	private volatile boolean minimized;
+
+	/**
+	 * Starts or ends a run. The subscribers skip their work outside of a run, so the caches they keep are brought
+	 * up to date when a run starts. Must be called on the client thread.
+	 */
+	public void setOverlayActive(boolean overlayActive) {
+		if (overlayActive && !isOverlayActive) {
+			sceneObjectIndex.rebuild();
+			inventorySlotCache.invalidate();
+			widgetBoundsCache.invalidate();
+			farmingTeleportOverlay.invalidateHighlights();
+			farmingTeleportOverlay.invalidateTeleports(true);
+			collisionCache.snapshot();
+		}
+		if (!overlayActive) {
+			skippedPatches = Collections.emptySet();
+			remainingRequirements.clear();
+		}
+		isOverlayActive = overlayActive;
+	}
+
+	/**
+	 * @return true if a run is in progress and its overlays can be seen
+	 */
+	public boolean isRunVisible() {
+		return isOverlayActive && loggedIn && !minimized;
+	}
+
+	private void updateLoggedIn(GameState gameState) {
+		// The scene also reloads while logged in, when crossing a region
+		loggedIn = gameState == GameState.LOGGED_IN || gameState == GameState.LOADING;
+	}
+
+	// Losing focus to another window is not minimizing, so the frame's own state is followed
+	private final WindowStateListener minimizeListener = event -> minimized = (event.getNewState() & Frame.ICONIFIED) != 0;
+	private Frame clientFrame;
+
+	private void watchMinimized() {
+		Window window = client.getCanvas() != null ? SwingUtilities.getWindowAncestor(client.getCanvas()) : null;
+		if (!(window instanceof Frame)) {
+			return;
+		}
+		clientFrame = (Frame) window;
+		clientFrame.addWindowStateListener(minimizeListener);
+		minimized = (clientFrame.getExtendedState() & Frame.ICONIFIED) != 0;
+	}
+
+	private void unwatchMinimized() {
+		if (clientFrame != null) {
+			clientFrame.removeWindowStateListener(minimizeListener);
+			clientFrame = null;
+		}
+		minimized = false;
+	}
+
 	@Inject
 	private EasyFarmingOverlay farmingHelperOverlay;
 
@@ -168,19 +598,232 @@ public class EasyFarmingPlugin extends Plugin
 		return itemsCollected;
 	}
 
+	// The missing items panel shows again at a bank during a run
+	@Getter
+	private boolean bankOpen = false;
+
+	public void setBankOpen(boolean bankOpen) {
+		if (this.bankOpen != bankOpen) {
+			this.bankOpen = bankOpen;
+			farmingHelperOverlay.invalidatePanel();
+		}
+	}
+
     public void updateHerbOverlay(Map<Integer, Integer> herbItems)
 	{
-        //update item list
+		prefetchRunIcons(herbItems, herbRunItemAndLocation.locations, farmingHelperOverlay.getHerbSeedIds());
     }
 
     public void updateTreeOverlay(Map<Integer, Integer> treeItems)
 	{
+		prefetchRunIcons(treeItems, treeRunItemAndLocation.locations, farmingHelperOverlay.getTreeSaplingIds());
     }
 
     public void updateFruitTreeOverlay(Map<Integer, Integer> fruitTreeItems)
 	{
+		prefetchRunIcons(fruitTreeItems, fruitTreeRunItemAndLocation.locations, farmingHelperOverlay.getFruitTreeSaplingIds());
+    }
+
+    /**
+     * Builds a fresh catalog of the run type and works out the run's requirements from it. Can be called from the
+     * background worker, the catalog in use is left alone.
+     * @param carriedItems What the player carries, which picks the teleports the requirements ask for
+     */
+    public PlannedRun planRun(FarmingPatch.Type type, Map<Integer, Integer> carriedItems)
+	{
+		switch (type) {
+			case HERB:
+				HerbRunItemAndLocation herbRun = herbRunItemAndLocation.newCatalog();
+				herbRun.chooseTeleports(carriedItems);
+				return new PlannedRun(Collections.singletonMap(type, herbRun), herbRun.getHerbItems());
+			case TREE:
+				TreeRunItemAndLocation treeRun = treeRunItemAndLocation.newCatalog();
+				treeRun.chooseTeleports(carriedItems);
+				return new PlannedRun(Collections.singletonMap(type, treeRun), treeRun.getTreeItems());
+			default:
+				FruitTreeRunItemAndLocation fruitTreeRun = fruitTreeRunItemAndLocation.newCatalog();
+				fruitTreeRun.chooseTeleports(carriedItems);
+				return new PlannedRun(Collections.singletonMap(type, fruitTreeRun), fruitTreeRun.getFruitTreeItems());
+		}
+    }
+
+    /**
+     * Builds fresh catalogs of the three run types and works out the requirements of a combined run from them,
+     * where the patches of a site share one teleport. Can be called from the background worker.
+     * @param carriedItems What the player carries, which picks the teleports the requirements ask for
+     */
+    public PlannedRun planCombinedRun(Map<Integer, Integer> carriedItems)
+	{
+		HerbRunItemAndLocation herbRun = herbRunItemAndLocation.newCatalog();
+		TreeRunItemAndLocation treeRun = treeRunItemAndLocation.newCatalog();
+		FruitTreeRunItemAndLocation fruitTreeRun = fruitTreeRunItemAndLocation.newCatalog();
+		herbRun.chooseTeleports(carriedItems);
+		treeRun.chooseTeleports(carriedItems);
+		fruitTreeRun.chooseTeleports(carriedItems);
+
+		Map<FarmingPatch.Type, ItemAndLocation> catalogs = new EnumMap<>(FarmingPatch.Type.class);
+		catalogs.put(FarmingPatch.Type.HERB, herbRun);
+		catalogs.put(FarmingPatch.Type.TREE, treeRun);
+		catalogs.put(FarmingPatch.Type.FRUIT_TREE, fruitTreeRun);
+
+		return new PlannedRun(catalogs, CombinedRun.mergeRequirements(Arrays.asList(
+			herbRun.getAllItemRequirements(herbRun.locations,
+				location -> CombinedRun.isTravelType(this, FarmingPatch.Type.HERB, location.getName())),
+			treeRun.getAllItemRequirements(treeRun.locations,
+				location -> CombinedRun.isTravelType(this, FarmingPatch.Type.TREE, location.getName())),
+			fruitTreeRun.getAllItemRequirements(fruitTreeRun.locations,
+				location -> CombinedRun.isTravelType(this, FarmingPatch.Type.FRUIT_TREE, location.getName())))));
     }
 
+	/**
+	 * Swaps the catalogs in use for the ones the run was planned with. Must be called on the client thread, before
+	 * the run starts.
+	 */
+	public void adoptCatalogs(PlannedRun plannedRun)
+	{
+		plannedRun.getCatalogs().forEach((type, catalog) -> getItemAndLocation(type).adopt(catalog));
+	}
+
+    @Getter
+    @Inject
+    private RemainingRequirements remainingRequirements;
+
+    /**
+     * Works out the requirements of the run in progress per stop, leaving out the stops that are done already. Reads
+     * the catalogs the run started with, their locations are only built again when a run starts, so the route and
+     * the site in progress keep the locations they hold. Must be called on the client thread.
+     *
+     * @return The items the rest of the run needs, kept up to date as its stops are done
+     */
+    public Map<Integer, Integer> getRemainingRunItems()
+	{
+		List<FarmingPatch.Type> types = getRunTypes();
+
+		List<Map<Integer, Integer>> tools = new ArrayList<>(types.size());
+		for (FarmingPatch.Type type : types) {
+			tools.add(getItemAndLocation(type).getToolRequirements());
+		}
+		remainingRequirements.reset(CombinedRun.mergeRequirements(tools));
+
+		for (FarmingPatch.Type type : types) {
+			ItemAndLocation itemAndLocation = getItemAndLocation(type);
+			for (Location location : itemAndLocation.locations) {
+				String siteName = location.getName();
+				if (!isLocationInRun(type, siteName)) {
+					continue;
+				}
+				// A combined run reaches sites with several patches with a single teleport
+				if (!farmingTeleportOverlay.combinedRun || CombinedRun.isTravelType(this, type, siteName)) {
+					remainingRequirements.addStop(RemainingRequirements.travelStop(siteName), getRunTeleportRequirements(location));
+				}
+				remainingRequirements.addStop(RemainingRequirements.patchStop(siteName, SitePlan.Kind.of(type)), itemAndLocation.getPatchRequirements(location));
+				if (type == FarmingPatch.Type.HERB) {
+					remainingRequirements.addStop(RemainingRequirements.patchStop(siteName, SitePlan.Kind.FLOWER), herbRunItemAndLocation.getFlowerRequirements(location));
+				}
+			}
+		}
+		return remainingRequirements.getItems();
+    }
+
+	/**
+	 * @return The items used up on the teleport the run takes to the location
+	 */
+	private Map<Integer, Integer> getRunTeleportRequirements(Location location)
+	{
+		Location.Teleport teleport = farmingTeleportOverlay.getRunTeleport(location);
+		return teleport != null ? new HashMap<>(teleport.getItemRequirements()) : new HashMap<>();
+	}
+
+	/**
+	 * @return The patch types the run in progress tends
+	 */
+	private List<FarmingPatch.Type> getRunTypes()
+	{
+		List<FarmingPatch.Type> types = new ArrayList<>();
+		if (farmingTeleportOverlay.combinedRun) {
+			types.addAll(Arrays.asList(FarmingPatch.Type.values()));
+		} else if (farmingTeleportOverlay.herbRun) {
+			types.add(FarmingPatch.Type.HERB);
+		} else if (farmingTeleportOverlay.treeRun) {
+			types.add(FarmingPatch.Type.TREE);
+		} else if (farmingTeleportOverlay.fruitTreeRun) {
+			types.add(FarmingPatch.Type.FRUIT_TREE);
+		}
+		return types;
+	}
+
+	/**
+	 * @return The items used up tending the patches of the site the run in progress visits
+	 */
+	private Map<Integer, Integer> getSiteItems(String siteName)
+	{
+		Map<Integer, Integer> items = new HashMap<>();
+		for (FarmingPatch.Type type : getRunTypes()) {
+			if (!isLocationInRun(type, siteName)) {
+				continue;
+			}
+			ItemAndLocation itemAndLocation = getItemAndLocation(type);
+			for (Location location : itemAndLocation.locations) {
+				if (location.getName().equals(siteName)) {
+					itemAndLocation.getPatchRequirements(location).forEach((itemId, quantity) -> items.merge(itemId, quantity, Integer::sum));
+					if (type == FarmingPatch.Type.HERB) {
+						herbRunItemAndLocation.getFlowerRequirements(location).forEach((itemId, quantity) -> items.merge(itemId, quantity, Integer::sum));
+					}
+				}
+			}
+		}
+		return items;
+	}
+
+	private ItemAndLocation getItemAndLocation(FarmingPatch.Type type)
+	{
+		switch (type) {
+			case HERB:
+				return herbRunItemAndLocation;
+			case TREE:
+				return treeRunItemAndLocation;
+			default:
+				return fruitTreeRunItemAndLocation;
+		}
+	}
+
+    public void updateCombinedOverlay(Map<Integer, Integer> combinedItems)
+	{
+		List<Location> locations = new ArrayList<>(herbRunItemAndLocation.locations);
+		locations.addAll(treeRunItemAndLocation.locations);
+		locations.addAll(fruitTreeRunItemAndLocation.locations);
+		List<Integer> seedIds = new ArrayList<>(farmingHelperOverlay.getHerbSeedIds());
+		seedIds.addAll(farmingHelperOverlay.getTreeSaplingIds());
+		seedIds.addAll(farmingHelperOverlay.getFruitTreeSaplingIds());
+		prefetchRunIcons(combinedItems, locations, seedIds);
+    }
+
+	@Getter
+	@Inject
+	private IconCache iconCache;
+
+	/**
+	 * Loads every icon the run could display up front, so the overlays never wait on an icon mid-run.
+	 */
+	private void prefetchRunIcons(Map<Integer, Integer> requirements, List<Location> locations, List<Integer> seedIds)
+	{
+		Set<Integer> itemIds = new HashSet<>(requirements.keySet());
+		itemIds.addAll(seedIds);
+		itemIds.addAll(farmingHelperOverlay.getTeleportCrystalIdsIds());
+		itemIds.addAll(farmingHelperOverlay.getSkillsNecklaceIdsIds());
+
+		for (Location location : locations) {
+			for (Location.Teleport teleport : location.getTeleportOptions()) {
+				itemIds.addAll(teleport.getItemRequirements().keySet());
+				if (teleport.getCategory() == Location.TeleportCategory.ITEM) {
+					itemIds.add(teleport.getId());
+				}
+			}
+		}
+
+		iconCache.prefetch(itemIds);
+	}
+
 	@Provides
 	EasyFarmingConfig getConfig(ConfigManager configManager)
 	{
@@ -256,9 +899,60 @@ public class EasyFarmingPlugin extends Plugin
 		}
 	}
 
+	@Inject
+	private GrowthPredictor growthPredictor;
+	@Inject
+	private ReadinessScheduler readinessScheduler;
+	// The enabled patches the run in progress leaves out, picked when it started
+	private volatile Set<FarmingPatch> skippedPatches = Collections.emptySet();
+
+	/**
+	 * Leaves out the enabled patches of the run types that are predicted to still be growing, when the config asks
+	 * for it. Call this before the run's requirements are worked out, the choice holds until the run ends so the
+	 * requirements and the stops stay the same. Can be called from any thread.
+	 */
+	public void predictSkippedPatches(FarmingPatch.Type... types) {
+		Set<FarmingPatch> skipped = EnumSet.noneOf(FarmingPatch.class);
+		if (config.skipUnreadyPatches()) {
+			List<FarmingPatch.Type> runTypes = Arrays.asList(types);
+			long now = System.currentTimeMillis();
+			for (FarmingPatch patch : FarmingPatch.values()) {
+				if (runTypes.contains(patch.getType()) && growthPredictor.isSkippable(patch, now)) {
+					skipped.add(patch);
+				}
+			}
+		}
+		skippedPatches = skipped;
+	}
+
+	/**
+	 * @return true if the location is enabled in the config and wasn't left out of the run for not being ready
+	 */
+	public boolean isLocationInRun(FarmingPatch.Type type, String locationName) {
+		FarmingPatch patch = FarmingPatch.find(type, locationName);
+		return (patch == null || !skippedPatches.contains(patch)) && isLocationEnabled(type, locationName);
+	}
+
+	/**
+	 * @return true if the location of the run type is enabled in the config
+	 */
+	public boolean isLocationEnabled(FarmingPatch.Type type, String locationName) {
+		switch (type) {
+			case HERB:
+				return getHerbLocationEnabled(locationName);
+			case TREE:
+				return getTreeLocationEnabled(locationName);
+			default:
+				return getFruitTreeLocationEnabled(locationName);
+		}
+	}
+
 	@Override
 	protected void startUp()
 	{
+		highlightPalette.rebuild(config);
+		renderQuality.setBudget(config.frameBudgetMicros());
+
 		herbRunItemAndLocation = new HerbRunItemAndLocation(config, client, this);
 		treeRunItemAndLocation = new TreeRunItemAndLocation(config, client, this);
 		fruitTreeRunItemAndLocation = new FruitTreeRunItemAndLocation(config, client, this);
@@ -275,15 +969,29 @@ public class EasyFarmingPlugin extends Plugin
 				.build();
 		clientToolbar.addNavigation(navButton);
 
-		overlayManager.add(farmingHelperOverlay);
-		overlayManager.add(farmingTeleportOverlay);
-		overlayManager.add(farmingHelperOverlayInfoBox);
+		// The run overlays are only added while a run is in progress, see EasyFarmingPanel
+		overlayManager.add(frameProfilerOverlay);
+		metrics.register();
 
 		// set overlay to inactive
 		isOverlayActive = false;
-		eventBus.register(this);
 
-		herbRunItemAndLocation.setupLocations();
+		clientThread.invokeLater(() -> {
+			updateLoggedIn(client.getGameState());
+			sceneObjectIndex.trackNpcNames(farmingTeleportOverlay.getTrackedNpcNames());
+			sceneObjectIndex.setTrackedIds(farmingTeleportOverlay.getTrackedObjectIds());
+			updateRecording();
+			frameProfiler.setEnabled(config.profileFrames());
+		});
+
+		SwingUtilities.invokeLater(this::watchMinimized);
+
+		backgroundWorker.start();
+		collisionCache.load();
+		patchStateStore.load(readinessScheduler::refresh);
+		readinessScheduler.start(this::isLocationEnabled, panel::setReadiness);
+		// Built apart on the worker, the overlays only see the locations once they are handed over
+		backgroundWorker.submit("Herb locations", herbRunItemAndLocation::newCatalog, herbRunItemAndLocation::adopt);
 	}
 
 	@Override
@@ -296,7 +1004,18 @@ public class EasyFarmingPlugin extends Plugin
 		overlayManager.remove(farmingHelperOverlay);
 		overlayManager.remove(farmingTeleportOverlay);
 		overlayManager.remove(farmingHelperOverlayInfoBox);
-
-		eventBus.unregister(this);
+		overlayManager.remove(frameProfilerOverlay);
+		metrics.unregister();
+
+		iconCache.clear();
+		sceneObjectIndex.clear();
+		readinessScheduler.stop();
+		clientThread.invokeLater(collisionCache::clear);
+		clientThread.invokeLater(gameStateRecorder::stop);
+		clientThread.invokeLater(() -> frameProfiler.setEnabled(false));
+		// Queued before the worker stops, which waits for the queued work
+		patchStateStore.flush();
+		backgroundWorker.shutDown();
+		SwingUtilities.invokeLater(this::unwatchMinimized);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.easyfarming;
+
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * Every patch a run can visit. The farming varbits only describe the patches around the player, so each patch
+ * lists the region its state can be read in and the varbit that holds it there, along with where the patch is.
+ */
+public enum FarmingPatch {
+    ARDOUGNE_HERB(Type.HERB, "Ardougne", 10548, 4774, new WorldPoint(2670, 3374, 0)),
+    CATHERBY_HERB(Type.HERB, "Catherby", 11062, 4774, new WorldPoint(2813, 3463, 0)),
+    FALADOR_HERB(Type.HERB, "Falador", 12083, 4774, new WorldPoint(3058, 3307, 0)),
+    FARMING_GUILD_HERB(Type.HERB, "Farming Guild", 4922, 4775, new WorldPoint(1238, 3726, 0)),
+    HARMONY_HERB(Type.HERB, "Harmony Island", 15148, 4772, new WorldPoint(3789, 2837, 0)),
+    KOUREND_HERB(Type.HERB, "Kourend", 6967, 4774, new WorldPoint(1738, 3550, 0)),
+    MORYTANIA_HERB(Type.HERB, "Morytania", 14391, 4774, new WorldPoint(3601, 3525, 0)),
+    TROLL_STRONGHOLD_HERB(Type.HERB, "Troll Stronghold", 11321, 4771, new WorldPoint(2824, 3696, 0)),
+    WEISS_HERB(Type.HERB, "Weiss", 11325, 4771, new WorldPoint(2847, 3931, 0)),
+
+    FALADOR_TREE(Type.TREE, "Falador", 11828, 4771, new WorldPoint(3000, 3373, 0)),
+    FARMING_GUILD_TREE(Type.TREE, "Farming Guild", 4922, 7905, new WorldPoint(1232, 3736, 0)),
+    GNOME_STRONGHOLD_TREE(Type.TREE, "Gnome Stronghold", 9781, 4771, new WorldPoint(2436, 3415, 0)),
+    LUMBRIDGE_TREE(Type.TREE, "Lumbridge", 12594, 4771, new WorldPoint(3193, 3231, 0)),
+    TAVERLEY_TREE(Type.TREE, "Taverley", 11573, 4771, new WorldPoint(2936, 3438, 0)),
+    VARROCK_TREE(Type.TREE, "Varrock", 12854, 4771, new WorldPoint(3229, 3459, 0)),
+
+    BRIMHAVEN_FRUIT_TREE(Type.FRUIT_TREE, "Brimhaven", 11058, 4771, new WorldPoint(2764, 3212, 0)),
+    CATHERBY_FRUIT_TREE(Type.FRUIT_TREE, "Catherby", 11317, 4771, new WorldPoint(2860, 3433, 0)),
+    FARMING_GUILD_FRUIT_TREE(Type.FRUIT_TREE, "Farming Guild", 4922, 7909, new WorldPoint(1243, 3759, 0)),
+    GNOME_STRONGHOLD_FRUIT_TREE(Type.FRUIT_TREE, "Gnome Stronghold", 9781, 4772, new WorldPoint(2475, 3446, 0)),
+    LLETYA_FRUIT_TREE(Type.FRUIT_TREE, "Lletya", 9265, 4771, new WorldPoint(2346, 3162, 0)),
+    TREE_GNOME_VILLAGE_FRUIT_TREE(Type.FRUIT_TREE, "Tree Gnome Village", 9777, 4771, new WorldPoint(2490, 3180, 0));
+
+    public enum Type {
+        HERB("Herb"),
+        TREE("Tree"),
+        FRUIT_TREE("Fruit tree");
+
+        private final String label;
+
+        Type(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * @return The name of the patch state the varbit value stands for
+         */
+        public String stateOf(int varbitValue) {
+            switch (this) {
+                case HERB:
+                    return HerbPatchChecker.stateOf(varbitValue).name();
+                case TREE:
+                    return TreePatchChecker.stateOf(varbitValue).name();
+                default:
+                    return FruitTreePatchChecker.stateOf(varbitValue).name();
+            }
+        }
+
+        /**
+         * @return The name of the crop the varbit value stands for, null if nothing is planted
+         */
+        public String cropOf(int varbitValue) {
+            Enum<?> crop;
+            switch (this) {
+                case HERB:
+                    crop = HerbPatchChecker.cropOf(varbitValue);
+                    break;
+                case TREE:
+                    crop = TreePatchChecker.cropOf(varbitValue);
+                    break;
+                default:
+                    crop = FruitTreePatchChecker.cropOf(varbitValue);
+                    break;
+            }
+            return crop != null ? crop.name() : null;
+        }
+    }
+
+    private final Type type;
+    private final String locationName;
+    private final int regionId;
+    private final int varbitId;
+    private final WorldPoint point;
+
+    FarmingPatch(Type type, String locationName, int regionId, int varbitId, WorldPoint point) {
+        this.type = type;
+        this.locationName = locationName;
+        this.regionId = regionId;
+        this.varbitId = varbitId;
+        this.point = point;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return The name of the patch's {@link Location} in the catalog
+     */
+    public String getLocationName() {
+        return locationName;
+    }
+
+    public int getRegionId() {
+        return regionId;
+    }
+
+    public int getVarbitId() {
+        return varbitId;
+    }
+
+    /**
+     * @return A tile next to the patch, the one its location's teleports lead to
+     */
+    public WorldPoint getPoint() {
+        return point;
+    }
+
+    /**
+     * @return The patch of the type at the catalog location, null if the catalog has none
+     */
+    public static FarmingPatch find(Type type, String locationName) {
+        for (FarmingPatch patch : values()) {
+            if (patch.type == type && patch.locationName.equals(locationName)) {
+                return patch;
+            }
+        }
+        return null;
+    }
+}
@@ -6,7 +6,6 @@ import javax.inject.Inject;
 import net.runelite.api.*;
 import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.gameval.InterfaceID;
-import net.runelite.api.gameval.InventoryID;
 import net.runelite.api.widgets.Widget;
 import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
@@ -17,9 +16,9 @@ import net.runelite.client.ui.overlay.components.PanelComponent;
 import net.runelite.api.gameval.ItemID;
 import net.runelite.client.util.ColorUtil;
 import net.runelite.api.Tile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.awt.Color;
-import java.awt.Shape;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.util.*;
@@ -28,6 +27,8 @@ import java.util.regex.Pattern;
 
 
 public class FarmingTeleportOverlay extends Overlay {
+    private static final Logger log = LoggerFactory.getLogger(FarmingTeleportOverlay.class);
+
     private final Client client;
     private final EasyFarmingPlugin plugin;
     private boolean clicked = false;
@@ -43,58 +44,90 @@ public class FarmingTeleportOverlay extends Overlay {
     private final PanelComponent panelComponent = new PanelComponent();
     public boolean patchCleared = false;
 
-    private Color leftClickColorWithAlpha;
-    private Color rightClickColorWithAlpha;
-    private Color highlightUseItemWithAlpha;
-
-    public void updateColors() {
-        leftClickColorWithAlpha = new Color(
-                config.highlightLeftClickColor().getRed(),
-                config.highlightLeftClickColor().getGreen(),
-                config.highlightLeftClickColor().getBlue(),
-                config.highlightAlpha()
-        );
-        rightClickColorWithAlpha = new Color(
-                config.highlightRightClickColor().getRed(),
-                config.highlightRightClickColor().getGreen(),
-                config.highlightRightClickColor().getBlue(),
-                config.highlightAlpha()
-        );
-        highlightUseItemWithAlpha = new Color(
-                config.highlightUseItemColor().getRed(),
-                config.highlightUseItemColor().getGreen(),
-                config.highlightUseItemColor().getBlue(),
-                config.highlightAlpha()
-        );
-    }
-
-
     public Map<String, Boolean> herbConfigMap = new HashMap<>();
 
 
     private int previousRegionId;
     public int inventoryTabValue = 0;
 
-
+    private static final int[] SPIRIT_TREE_IDS = {1293, 1294, 1295, 8355, 29227, 29229, 37329, 40778};
+    private static final int[] JEWELLERY_BOX_IDS = {29154, 29155, 29156};
+    private static final int[] XERICS_TALISMAN_IDS = {33411, 33412, 33413, 33414, 33415};
+    private static final int HOUSE_PORTAL_ID = 4525;
+
+    private static final String TOOL_LEPRECHAUN = "Tool Leprechaun";
+    private static final String[] TREE_FARMERS = {
+        "Alain",         // Taverly
+        "Fayeth",        // Lumbridge
+        "Heskel",        // Falador
+        "Prissy Scilla", // Gnome Stronghold
+        "Rosie",         // Farming Guild
+        "Treznor"        // Varrock
+    };
+    private static final String[] FRUIT_TREE_FARMERS = {
+        "Bolongo", // Gnome Stronghold
+        "Ellena",  // Catherby
+        "Garth",   // Brimhaven
+        "Gileth",  // Tree Gnome Village
+        "Liliwen", // Lletya
+        "Nikkie"   // Farming Guild
+    };
+
+    private static final WorldPoint ARDOUGNE_HERB_PATCH = new WorldPoint(2670, 3374, 0);
+    private static final WorldPoint CATHERBY_HERB_PATCH = new WorldPoint(2813, 3463, 0);
+    private static final WorldPoint FALADOR_HERB_PATCH = new WorldPoint(3058, 3307, 0);
+    private static final WorldPoint FARMING_GUILD_HERB_PATCH = new WorldPoint(1238, 3726, 0);
+    private static final WorldPoint FARMING_GUILD_TREE_PATCH = new WorldPoint(1232, 3736, 0);
+    private static final WorldPoint FARMING_GUILD_FRUIT_TREE_PATCH = new WorldPoint(1243, 3759, 0);
+    private static final WorldPoint BRIMHAVEN_FRUIT_TREE_PATCH = new WorldPoint(2764, 3212, 0);
+    private static final WorldPoint GNOME_STRONGHOLD_FRUIT_TREE_PATCH = new WorldPoint(2436, 3415, 0);
+    private static final WorldPoint GNOME_STRONGHOLD_TREE_PATCH = new WorldPoint(2475, 3446, 0);
+    private static final WorldPoint LUMBRIDGE_TREE_PATCH = new WorldPoint(3193, 3231, 0);
+    private static final WorldPoint TAVERLEY_TREE_PATCH = new WorldPoint(2936, 3438, 0);
+    private static final WorldPoint VARROCK_TREE_PATCH = new WorldPoint(3229, 3459, 0);
+
+    // The menu option to highlight while the current step wants one, applied as menu entries are added
+    private String rightClickOption;
+
+    // What the current step highlights, resolved once a tick or after an event and drawn every frame
+    private final HighlightSet highlightSet = new HighlightSet();
+    private boolean highlightsInvalid = true;
+    private int resolvedTick = -1;
+    private boolean resolvedActive;
+
+
+
+    private static final Pattern COMPOSTED_PATTERN = Pattern.compile(
+        "You treat the (herb patch|flower patch|tree patch|fruit tree patch) with (compost|supercompost|ultracompost)\\."
+            + "|This (herb patch|flower patch|tree patch|fruit tree patch) has already been treated with (compost|supercompost|ultracompost)\\."
+    );
+    private static final Pattern PROTECTED_PATTERN = Pattern.compile(
+        "You pay the gardener ([0-9A-Za-z\\ ]+) to protect the patch\\."
+            + "|The gardener protects your tree for you, free of charge, as a token of gratitude for completing the ([A-Za-z\\ ]+)\\."
+    );
+
+    // The last chat message only changes every few ticks, so it is matched once per message instead of every frame
+    private String matchedMessage;
+    private boolean messageIsComposted;
+    private boolean messageIsProtected;
+
+    private void matchLastMessage() {
+        String lastMessage = plugin.getLastMessage();
+        if (lastMessage != matchedMessage) {
+            matchedMessage = lastMessage;
+            messageIsComposted = COMPOSTED_PATTERN.matcher(lastMessage).matches();
+            messageIsProtected = PROTECTED_PATTERN.matcher(lastMessage).matches();
+        }
+    }
 
     public boolean patchIsComposted() {
-        String regexCompost1 = "You treat the (herb patch|flower patch|tree patch|fruit tree patch) with (compost|supercompost|ultracompost)\\.";
-        String regexCompost2 = "This (herb patch|flower patch|tree patch|fruit tree patch) has already been treated with (compost|supercompost|ultracompost)\\.";
-
-        return Pattern
-            .compile(regexCompost1 + "|" + regexCompost2)
-            .matcher(plugin.getLastMessage())
-            .matches();
+        matchLastMessage();
+        return messageIsComposted;
     }
 
     public boolean patchIsProtected() {
-        String standardResponse = "You pay the gardener ([0-9A-Za-z\\ ]+) to protect the patch\\.";
-        String faladorEliteResponse = "The gardener protects your tree for you, free of charge, as a token of gratitude for completing the ([A-Za-z\\ ]+)\\.";
-
-        return Pattern
-            .compile(standardResponse + "|" + faladorEliteResponse)
-            .matcher(plugin.getLastMessage())
-            .matches();
+        matchLastMessage();
+        return messageIsProtected;
     }
 
     @Inject
@@ -106,32 +139,11 @@ public class FarmingTeleportOverlay extends Overlay {
         this.client = client;
     }
 
-    public Overlay interfaceOverlay(int groupId, int childId) {
-        return new Overlay() {
-            @Override
-            public Dimension render(Graphics2D graphics) {
-                Client client = plugin.getClient();
-                if (client != null) {
-                    Widget widget = client.getWidget(groupId, childId);
-                    if (widget != null) {
-                        Rectangle bounds = widget.getBounds();
-                        graphics.setColor(leftClickColorWithAlpha);
-
-                        // Set the composite for transparency
-                        AlphaComposite alphaComposite = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.65f);
-                        graphics.setComposite(alphaComposite);
-
-                        // Draw a rectangle over the widget
-                        graphics.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
-
-                        // Reset the composite back to the original
-                        graphics.setComposite(AlphaComposite.SrcOver);
-
-                    }
-                }
-                return null;
-            }
-        };
+    public void highlightInterface(int groupId, int childId) {
+        Widget widget = client.getWidget(groupId, childId);
+        if (widget != null) {
+            highlightSet.addInterface(widget);
+        }
     }
 
     public int getChildIndex(String searchText, Widget parentWidget)
@@ -148,24 +160,34 @@ public class FarmingTeleportOverlay extends Overlay {
 
         for (int index = 0; index < children.length; index++) {
             Widget child = children[index];
-            String text = child.getText();
-
-            if (text != null) {
-                int colonIndex = text.indexOf(':');
+            String text = child == null ? null : child.getText();
 
-                if (colonIndex != -1 && colonIndex + 1 < text.length()) {
-                    String textAfterColon = text.substring(colonIndex + 1).trim();
-
-                    if (textAfterColon.equals(searchText)) {
-                        return index;
-                    }
-                }
+            if (text != null && textAfterColonEquals(text, searchText)) {
+                return index;
             }
         }
 
         return -1; // Return -1 if the specified text is not found
     }
 
+    /**
+     * Same as comparing the trimmed text after the first colon, without creating the substring.
+     */
+    private static boolean textAfterColonEquals(String text, String searchText) {
+        int start = text.indexOf(':') + 1;
+        if (start == 0 || start >= text.length()) {
+            return false;
+        }
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end - start == searchText.length() && text.regionMatches(start, searchText, 0, searchText.length());
+    }
+
     public int getChildIndexPortalNexus(String searchText)
     {
         return getChildIndex(
@@ -182,179 +204,104 @@ public class FarmingTeleportOverlay extends Overlay {
         );
     }
 
-    public void highlightDynamicComponent(Graphics2D graphics, Widget widget, int dynamicChildIndex) {
+    public void highlightDynamicComponent(Widget widget, int dynamicChildIndex) {
         if (widget != null) {
-            Widget[] dynamicChildren = widget.getDynamicChildren();
-            if (dynamicChildren != null && dynamicChildIndex >= 0 && dynamicChildIndex < dynamicChildren.length) {
-                Widget dynamicChild = dynamicChildren[dynamicChildIndex];
-                if (dynamicChild != null) {
-                    Rectangle bounds = dynamicChild.getBounds();
-                    graphics.setColor(leftClickColorWithAlpha);
-                    //graphics.draw(bounds);
-                    graphics.fill(bounds);
-                }
+            Widget dynamicChild = plugin.getWidgetBoundsCache().getDynamicChild(widget, dynamicChildIndex);
+            if (dynamicChild != null) {
+                highlightSet.addDynamicComponent(dynamicChild);
             }
         }
     }
 
-    public void itemHighlight(Graphics2D graphics, int itemID, Color color) {
-        ItemContainer inventory = client.getItemContainer(InventoryID.INV);
-
-        if (inventory != null) {
-            Item[] items = inventory.getItems();
-        // TODO: Replace deprecated WidgetInfo usage with InterfaceID
-        Widget inventoryWidget = client.getWidget(InterfaceID.INVENTORY);
-
-            for (int i = 0; i < items.length; i++) {
-                Item item = items[i];
-
-                if (item.getId() == itemID) {
-                    Widget itemWidget = inventoryWidget.getChild(i);
-                    Rectangle bounds = itemWidget.getBounds();
-                    graphics.setColor(color);
-                    graphics.draw(bounds);
-                    graphics.fill(bounds);
-                }
-            }
-        }
+    public void itemHighlight(int itemID, HighlightPalette.Style style) {
+        highlightSet.addItem(itemID, style, plugin.getRenderQuality().isSingleAlternative() ? 1 : Integer.MAX_VALUE);
     }
 
-    private List<GameObject> findGameObjectsByID(int objectID) {
-        List<GameObject> gameObjects = new ArrayList<>();
-        for (int x = 0; x < Constants.SCENE_SIZE; x++) {
-            for (int y = 0; y < Constants.SCENE_SIZE; y++) {
-                // TODO: Replace deprecated getScene() and getPlane() with getTopLevelWorldView() API
-                Tile tile = client.getScene().getTiles()[client.getPlane()][x][y];
-                if (tile == null) {
-                    continue;
-                }
-
-                for (GameObject gameObject : tile.getGameObjects()) {
-                    if (gameObject != null && gameObject.getId() == objectID) {
-                        gameObjects.add(gameObject);
-                    }
-                }
-            }
-        }
-        return gameObjects;
+    /**
+     * @return Every object id this overlay highlights, for the scene object index to track
+     */
+    public int[] getTrackedObjectIds() {
+        List<Integer> objectIds = new ArrayList<>();
+        objectIds.addAll(farmingHelperOverlay.getHerbPatchIds());
+        objectIds.addAll(farmingHelperOverlay.getFlowerPatchIds());
+        objectIds.addAll(farmingHelperOverlay.getTreePatchIds());
+        objectIds.addAll(farmingHelperOverlay.getFruitTreePatchIds());
+        for (int objectId : SPIRIT_TREE_IDS) {
+            objectIds.add(objectId);
+        }
+        for (int objectId : JEWELLERY_BOX_IDS) {
+            objectIds.add(objectId);
+        }
+        for (int objectId : XERICS_TALISMAN_IDS) {
+            objectIds.add(objectId);
+        }
+        objectIds.add(HOUSE_PORTAL_ID);
+        return objectIds.stream().mapToInt(Integer::intValue).toArray();
     }
 
-    private void drawGameObjectClickbox(Graphics2D graphics, GameObject gameObject, Color color) {
-        Shape objectClickbox = gameObject.getClickbox();
-        if (objectClickbox != null) {
-            graphics.setColor(color);
-            graphics.draw(objectClickbox);
-            graphics.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha() / 5));
-            graphics.fill(objectClickbox);
-        }
+    /**
+     * @return Every npc name this overlay highlights, for the scene object index to track
+     */
+    public String[] getTrackedNpcNames() {
+        List<String> npcNames = new ArrayList<>();
+        npcNames.add(TOOL_LEPRECHAUN);
+        npcNames.addAll(Arrays.asList(TREE_FARMERS));
+        npcNames.addAll(Arrays.asList(FRUIT_TREE_FARMERS));
+        return npcNames.toArray(new String[0]);
     }
 
-    public Overlay gameObjectOverlay(int objectId, Color color) {
-        return new Overlay() {
-            @Override
-            public Dimension render(Graphics2D graphics) {
-                Client client = plugin.getClient();
-                if (client != null) {
-                    List<GameObject> gameObjects = findGameObjectsByID(objectId);
-                    for (GameObject gameObject : gameObjects) {
-                        drawGameObjectClickbox(graphics, gameObject, color);
-                    }
-                }
-                return null;
-            }
-        };
-    }
-
-    public List<DecorativeObject> findDecorativeObjectsByID(int objectId) {
-        Client client = plugin.getClient();
-        List<DecorativeObject> foundDecorativeObjects = new ArrayList<>();
-
-        if (client != null) {
-            // TODO: Replace deprecated getScene() with getTopLevelWorldView() API
-            Tile[][][] tiles = client.getScene().getTiles();
-            for (int plane = 0; plane < tiles.length; plane++) {
-                for (int x = 0; x < tiles[plane].length; x++) {
-                    for (int y = 0; y < tiles[plane][x].length; y++) {
-                        Tile tile = tiles[plane][x][y];
-                        if (tile != null) {
-                            DecorativeObject decorativeObject = tile.getDecorativeObject();
-                            if (decorativeObject != null && decorativeObject.getId() == objectId) {
-                                foundDecorativeObjects.add(decorativeObject);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        return foundDecorativeObjects;
+    private void highlightGameObjects(int objectId, HighlightPalette.Style style) {
+        highlightGameObjects(plugin.getSceneObjectIndex().getGameObjects(objectId), style);
     }
 
-    public Overlay decorativeObjectOverlay(int objectId) {
-        return new Overlay() {
-            @Override
-            public Dimension render(Graphics2D graphics) {
-                Client client = plugin.getClient();
-                if (client != null) {
-                    List<DecorativeObject> decorativeObjects = findDecorativeObjectsByID(objectId);
-                    for (DecorativeObject decorativeObject : decorativeObjects) {
-                        drawDecorativeObjectClickbox(graphics, decorativeObject, leftClickColorWithAlpha);
-                    }
+    private void highlightGameObjects(List<GameObject> gameObjects, HighlightPalette.Style style) {
+        int plane = client.getTopLevelWorldView().getPlane();
+        boolean singleAlternative = plugin.getRenderQuality().isSingleAlternative();
+        for (int i = 0; i < gameObjects.size(); i++) {
+            GameObject gameObject = gameObjects.get(i);
+            if (gameObject.getPlane() == plane) {
+                highlightSet.addGameObject(gameObject, style);
+                if (singleAlternative) {
+                    break;
                 }
-                return null;
             }
-        };
+        }
     }
 
-
-    public void drawDecorativeObjectClickbox(Graphics2D graphics, DecorativeObject decorativeObject, Color color) {
-        Shape clickbox = decorativeObject.getClickbox();
-        if (clickbox != null) {
-            graphics.setColor(color);
-            graphics.draw(clickbox);
-            graphics.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 50));
-            graphics.fill(clickbox);
+    private void highlightDecorativeObjects(int objectId) {
+        List<DecorativeObject> decorativeObjects = plugin.getSceneObjectIndex().getDecorativeObjects(objectId);
+        int count = plugin.getRenderQuality().isSingleAlternative() ? Math.min(1, decorativeObjects.size()) : decorativeObjects.size();
+        for (int i = 0; i < count; i++) {
+            highlightSet.addDecorativeObject(decorativeObjects.get(i));
         }
     }
 
-    public void highlightRightClickOption(Graphics2D graphics, String option) {
-        // Get the menu entries
-        // TODO: Replace deprecated getMenuEntries() with MenuManager
-        MenuEntry[] menuEntries = client.getMenuEntries();
+    /**
+     * Marks the option to highlight until the highlights are resolved again. The entry is prefixed as it is added to
+     * the menu in {@link #onMenuEntryAdded}, or right away when the menu is already open, so the menu isn't copied and
+     * rewritten on every frame.
+     */
+    public void highlightRightClickOption(String option) {
+        rightClickOption = option;
+    }
 
-        for (int i = 0; i < menuEntries.length; i++) {
-            MenuEntry entry = menuEntries[i];
-            String optionText = entry.getOption();
+    public void onMenuEntryAdded(MenuEntry entry) {
+        String option = rightClickOption;
+        String optionText = entry.getOption();
 
-            // Check if the option text matches the desired option
-            if (optionText.equalsIgnoreCase(option)) {
-                // Modify the menu entry to include a highlight
-                String highlightedText = ColorUtil.prependColorTag(">>> " + optionText, rightClickColorWithAlpha);
-                entry.setOption(highlightedText);
-                // TODO: Replace deprecated setMenuEntries() with MenuManager
-                client.setMenuEntries(menuEntries);
-                break;
-            }
+        // Check if the option text matches the desired option
+        if (option != null && optionText != null && optionText.equalsIgnoreCase(option)) {
+            // Modify the menu entry to include a highlight
+            String highlightedText = ColorUtil.prependColorTag(">>> " + optionText, plugin.getHighlightPalette().getStrokeColor(HighlightPalette.Style.RIGHT_CLICK));
+            entry.setOption(highlightedText);
         }
     }
 
-    public void highlightNpc(Graphics2D graphics, String npcName) {
-        // TODO: Replace deprecated getNpcs() with getTopLevelWorldView().npcs()
-        List<NPC> npcs = client.getNpcs();
-
-        if (npcs != null) {
-            for (NPC npc : npcs) {
-                if (npc != null && npc.getName() != null && npc.getName().equals(npcName)) {
-                    Polygon tilePolygon = npc.getCanvasTilePoly();
-
-                    if (tilePolygon != null) {
-                        graphics.setColor(leftClickColorWithAlpha);
-                        graphics.draw(tilePolygon);
-                        //graphics.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue()));
-                        graphics.fill(tilePolygon);
-                    }
-                }
-            }
+    public void highlightNpc(String npcName) {
+        List<NPC> npcs = plugin.getSceneObjectIndex().getNpcs(npcName);
+        int count = plugin.getRenderQuality().isSingleAlternative() ? Math.min(1, npcs.size()) : npcs.size();
+        for (int i = 0; i < count; i++) {
+            highlightSet.addNpc(npcs.get(i));
         }
     }
 
@@ -419,8 +366,7 @@ public class FarmingTeleportOverlay extends Overlay {
      * @return true if player should proceed to farming phase, false if still navigating
      */
     private boolean shouldProceedToFarming(Location location, Location.Teleport teleport) {
-        int currentRegionId = client.getLocalPlayer().getWorldLocation().getRegionID();
-        WorldPoint playerLocation = client.getLocalPlayer().getWorldLocation();
+        int currentRegionId = areaCheck.getPlayerLocation().getRegionID();
         WorldPoint targetLocation = teleport.getPoint();
         
         // Check if player is in the correct region
@@ -468,40 +414,38 @@ public class FarmingTeleportOverlay extends Overlay {
      * @return true if player is near any farming patch of this type
      */
     private boolean isNearAnyFarmingPatch(String locationName) {
-        WorldPoint playerLocation = client.getLocalPlayer().getWorldLocation();
-        
         // Define farming patch locations for each area
         switch (locationName) {
             case "Ardougne":
                 // Check if near Ardougne herb patch
-                return areaCheck.isPlayerWithinArea(new WorldPoint(2670, 3374, 0), 10);
+                return areaCheck.isPlayerWithinArea(ARDOUGNE_HERB_PATCH, 10);
             case "Catherby":
                 // Check if near Catherby herb patch
-                return areaCheck.isPlayerWithinArea(new WorldPoint(2813, 3463, 0), 10);
+                return areaCheck.isPlayerWithinArea(CATHERBY_HERB_PATCH, 10);
             case "Falador":
                 // Check if near Falador herb patch
-                return areaCheck.isPlayerWithinArea(new WorldPoint(3058, 3307, 0), 10);
+                return areaCheck.isPlayerWithinArea(FALADOR_HERB_PATCH, 10);
             case "Farming Guild":
                 // Check if near Farming Guild patches
-                return areaCheck.isPlayerWithinArea(new WorldPoint(1238, 3726, 0), 15) ||
-                       areaCheck.isPlayerWithinArea(new WorldPoint(1232, 3736, 0), 15) ||
-                       areaCheck.isPlayerWithinArea(new WorldPoint(1243, 3759, 0), 15);
+                return areaCheck.isPlayerWithinArea(FARMING_GUILD_HERB_PATCH, 15) ||
+                       areaCheck.isPlayerWithinArea(FARMING_GUILD_TREE_PATCH, 15) ||
+                       areaCheck.isPlayerWithinArea(FARMING_GUILD_FRUIT_TREE_PATCH, 15);
             case "Brimhaven":
                 // Check if near Brimhaven fruit tree patch
-                return areaCheck.isPlayerWithinArea(new WorldPoint(2764, 3212, 0), 10);
+                return areaCheck.isPlayerWithinArea(BRIMHAVEN_FRUIT_TREE_PATCH, 10);
             case "Gnome Stronghold":
                 // Check if near Gnome Stronghold patches
-                return areaCheck.isPlayerWithinArea(new WorldPoint(2436, 3415, 0), 10) ||
-                       areaCheck.isPlayerWithinArea(new WorldPoint(2475, 3446, 0), 10);
+                return areaCheck.isPlayerWithinArea(GNOME_STRONGHOLD_FRUIT_TREE_PATCH, 10) ||
+                       areaCheck.isPlayerWithinArea(GNOME_STRONGHOLD_TREE_PATCH, 10);
             case "Lumbridge":
                 // Check if near Lumbridge tree patch
-                return areaCheck.isPlayerWithinArea(new WorldPoint(3193, 3231, 0), 10);
+                return areaCheck.isPlayerWithinArea(LUMBRIDGE_TREE_PATCH, 10);
             case "Taverley":
                 // Check if near Taverley tree patch
-                return areaCheck.isPlayerWithinArea(new WorldPoint(2936, 3438, 0), 10);
+                return areaCheck.isPlayerWithinArea(TAVERLEY_TREE_PATCH, 10);
             case "Varrock":
                 // Check if near Varrock tree patch
-                return areaCheck.isPlayerWithinArea(new WorldPoint(3229, 3459, 0), 10);
+                return areaCheck.isPlayerWithinArea(VARROCK_TREE_PATCH, 10);
             default:
                 return false;
         }
@@ -511,11 +455,9 @@ public class FarmingTeleportOverlay extends Overlay {
      * Gets the appropriate highlighting based on current situation
      * @param location The target location
      * @param teleport The selected teleport method
-     * @param graphics Graphics context for highlighting
      */
-    private void adaptiveHighlighting(Location location, Location.Teleport teleport, Graphics2D graphics) {
-        int currentRegionId = client.getLocalPlayer().getWorldLocation().getRegionID();
-        WorldPoint playerLocation = client.getLocalPlayer().getWorldLocation();
+    private void adaptiveHighlighting(Location location, Location.Teleport teleport) {
+        int currentRegionId = areaCheck.getPlayerLocation().getRegionID();
         WorldPoint targetLocation = teleport.getPoint();
         
         boolean inCorrectRegion = (currentRegionId == teleport.getRegionId());
@@ -524,246 +466,263 @@ public class FarmingTeleportOverlay extends Overlay {
         
         // If player is very close to patch, highlight the patch directly
         if (nearPatch) {
-            highlightFarmingPatchesForLocation(location.getName(), graphics);
+            highlightFarmingPatchesForLocation(location.getName());
             return;
         }
         
         // If player is in correct region but not near target, they might be near a different patch
         if (inCorrectRegion && !nearTarget) {
             if (isNearAnyFarmingPatch(location.getName())) {
-                highlightFarmingPatchesForLocation(location.getName(), graphics);
+                highlightFarmingPatchesForLocation(location.getName());
                 return;
             }
         }
         
         // Default to normal teleport highlighting
-        highlightTeleportMethod(teleport, graphics);
+        highlightTeleportMethod(location, teleport);
     }
     
     /**
      * Highlights farming patches for a specific location
      * @param locationName The name of the location
-     * @param graphics Graphics context for highlighting
      */
-    private void highlightFarmingPatchesForLocation(String locationName, Graphics2D graphics) {
+    private void highlightFarmingPatchesForLocation(String locationName) {
         switch (locationName) {
             case "Ardougne":
             case "Weiss":
-                highlightHerbPatches(graphics, leftClickColorWithAlpha);
+                highlightHerbPatches(HighlightPalette.Style.LEFT_CLICK);
                 break;
             case "Catherby":
                 // Catherby has both herb and fruit tree patches
-                highlightHerbPatches(graphics, leftClickColorWithAlpha);
-                highlightFruitTreePatches(graphics, leftClickColorWithAlpha);
+                highlightHerbPatches(HighlightPalette.Style.LEFT_CLICK);
+                highlightFruitTreePatches(HighlightPalette.Style.LEFT_CLICK);
                 break;
             case "Falador":
                 // Falador has both herb and tree patches
-                highlightHerbPatches(graphics, leftClickColorWithAlpha);
-                highlightTreePatches(graphics, leftClickColorWithAlpha);
+                highlightHerbPatches(HighlightPalette.Style.LEFT_CLICK);
+                highlightTreePatches(HighlightPalette.Style.LEFT_CLICK);
                 break;
             case "Farming Guild":
                 // Farming Guild has all patch types
-                highlightHerbPatches(graphics, leftClickColorWithAlpha);
-                highlightTreePatches(graphics, leftClickColorWithAlpha);
-                highlightFruitTreePatches(graphics, leftClickColorWithAlpha);
+                highlightHerbPatches(HighlightPalette.Style.LEFT_CLICK);
+                highlightTreePatches(HighlightPalette.Style.LEFT_CLICK);
+                highlightFruitTreePatches(HighlightPalette.Style.LEFT_CLICK);
                 break;
             case "Lumbridge":
             case "Taverley":
             case "Varrock":
-                highlightTreePatches(graphics, leftClickColorWithAlpha);
+                highlightTreePatches(HighlightPalette.Style.LEFT_CLICK);
                 break;
             case "Brimhaven":
             case "Gnome Stronghold":
             case "Lletya":
             case "Tree Gnome Village":
-                highlightFruitTreePatches(graphics, leftClickColorWithAlpha);
+                highlightFruitTreePatches(HighlightPalette.Style.LEFT_CLICK);
                 break;
         }
     }
     
     /**
      * Highlights the appropriate teleport method based on category
+     * @param location The target location
      * @param teleport The teleport method to highlight
-     * @param graphics Graphics context for highlighting
      */
-    private void highlightTeleportMethod(Location.Teleport teleport, Graphics2D graphics) {
+    private void highlightTeleportMethod(Location location, Location.Teleport teleport) {
         switch (teleport.getCategory()) {
             case ITEM:
-                itemHighlight(graphics, teleport.getId(), rightClickColorWithAlpha);
+                itemHighlight(teleport.getId(), HighlightPalette.Style.RIGHT_CLICK);
                 if (!teleport.getRightClickOption().equals("null")) {
-                    highlightRightClickOption(graphics, teleport.getRightClickOption());
+                    highlightRightClickOption(teleport.getRightClickOption());
                 }
                 break;
             case SPELLBOOK:
                 // TODO: Replace deprecated VarClientInt.INVENTORY_TAB with VarClientID.INVENTORY_TAB
                 InventoryTabChecker.TabState tabState = InventoryTabChecker.checkTab(client, VarClientInt.INVENTORY_TAB);
                 if (tabState == InventoryTabChecker.TabState.SPELLBOOK) {
-                    interfaceOverlay(teleport.getInterfaceGroupId(), teleport.getInterfaceChildId()).render(graphics);
+                    highlightInterface(teleport.getInterfaceGroupId(), teleport.getInterfaceChildId());
                 } else {
-                    interfaceOverlay(getSpellbookTabGroupId(), getSpellbookTabChildId()).render(graphics);
+                    highlightInterface(getSpellbookTabGroupId(), getSpellbookTabChildId());
                 }
                 break;
             case PORTAL_NEXUS:
                 if (!isInterfaceOpen(17, 0)) {
-                    List<Integer> portalNexusIds = getGameObjectIdsByName("Portal Nexus");
-                    for (Integer objectId : portalNexusIds) {
-                        gameObjectOverlay(objectId, leftClickColorWithAlpha).render(graphics);
-                    }
+                    highlightGameObjects(plugin.getSceneObjectIndex().getGameObjectsByName(SceneObjectIndex.PORTAL_NEXUS), HighlightPalette.Style.LEFT_CLICK);
                 } else {
                     Widget widget = client.getWidget(17, 13);
-                    int index = getChildIndexPortalNexus(teleport.getPoint().toString());
-                    highlightDynamicComponent(graphics, widget, index);
+                    // The menu lists destinations by name, a patch point never matches
+                    int index = getChildIndexPortalNexus(location.getName());
+                    highlightDynamicComponent(widget, index);
                 }
                 break;
             case SPIRIT_TREE:
                 if (!isInterfaceOpen(187, 3)) {
-                    List<Integer> spiritTreeIds = Arrays.asList(1293, 1294, 1295, 8355, 29227, 29229, 37329, 40778);
-                    for (Integer objectId : spiritTreeIds) {
-                        gameObjectOverlay(objectId, leftClickColorWithAlpha).render(graphics);
-                    }
+                    highlightSpiritTrees();
                 } else {
-                    Widget widget = client.getWidget(187, 3);
-                    int index = getChildIndexSpiritTree(teleport.getPoint().toString());
-                    highlightDynamicComponent(graphics, widget, index);
+                    highlightSpiritTreeDestination(location);
                 }
                 break;
             case JEWELLERY_BOX:
                 if (!isInterfaceOpen(29155, 0)) {
-                    List<Integer> jewelleryBoxIds = getGameObjectIdsByName("Jewellery Box");
-                    for (Integer objectId : jewelleryBoxIds) {
-                        gameObjectOverlay(objectId, leftClickColorWithAlpha).render(graphics);
-                    }
+                    highlightGameObjects(plugin.getSceneObjectIndex().getGameObjectsByName(SceneObjectIndex.JEWELLERY_BOX), HighlightPalette.Style.LEFT_CLICK);
                 } else {
                     Widget widget = client.getWidget(29155, 0);
-                    highlightDynamicComponent(graphics, widget, 0);
+                    highlightDynamicComponent(widget, 0);
                 }
                 break;
         }
     }
 
-    public void highlightHerbPatches(Graphics2D graphics, Color color)
+    private void highlightPatches(List<Integer> patchIds, HighlightPalette.Style style)
     {
-        for (Integer patchId : farmingHelperOverlay.getHerbPatchIds()) {
-            gameObjectOverlay(patchId, color).render(graphics);
+        for (int i = 0; i < patchIds.size(); i++) {
+            highlightGameObjects(patchIds.get(i), style);
         }
     }
 
-    public void highlightFlowerPatches(Graphics2D graphics, Color color)
+    private void highlightSpiritTrees()
     {
-        for (Integer patchId : farmingHelperOverlay.getFlowerPatchIds()) {
-            gameObjectOverlay(patchId, color).render(graphics);
+        for (int objectId : SPIRIT_TREE_IDS) {
+            highlightGameObjects(objectId, HighlightPalette.Style.LEFT_CLICK);
         }
     }
 
-    public void highlightTreePatches(Graphics2D graphics, Color color)
+    /**
+     * Highlights the spirit tree destination for a location, if it has one
+     * @param location The target location
+     */
+    private void highlightSpiritTreeDestination(Location location)
     {
-        for (Integer patchId : farmingHelperOverlay.getTreePatchIds()) {
-            gameObjectOverlay(patchId, color).render(graphics);
+        Widget widget = client.getWidget(187, 3);
+
+        switch (location.getName()) {
+            case "Gnome Stronghold":
+                highlightDynamicComponent(widget, getChildIndexSpiritTree("Gnome Stronghold"));
+                break;
+
+            case "Tree Gnome Village":
+                highlightDynamicComponent(widget, getChildIndexSpiritTree("Tree Gnome Village"));
+                break;
+
+            case "Falador":
+                highlightDynamicComponent(widget, getChildIndexSpiritTree("Port Sarim"));
+                break;
+
+            case "Kourend":
+                highlightDynamicComponent(widget, getChildIndexSpiritTree("Hosidius"));
+                break;
         }
     }
 
-    public void highlightFruitTreePatches(Graphics2D graphics, Color color)
+    /**
+     * Highlights the site's patch of the kind once the site is planned, or every patch of the kind in the scene
+     * while the player is on their way or the patch isn't loaded.
+     */
+    private void highlightPlannedPatch(SitePlan.Kind kind, List<Integer> patchIds, HighlightPalette.Style style)
     {
-        for (Integer patchId : farmingHelperOverlay.getFruitTreePatchIds()) {
-            gameObjectOverlay(patchId, color).render(graphics);
+        GameObject patchObject = sitePlan != null ? sitePlan.getObject(kind) : null;
+        if (patchObject != null) {
+            highlightGameObjects(Collections.singletonList(patchObject), style);
+        } else {
+            highlightPatches(patchIds, style);
         }
     }
 
-    public void highlightCompost(Graphics2D graphics)
+    public void highlightHerbPatches(HighlightPalette.Style style)
     {
-        if (isItemInInventory(selectedCompostID())) {
-            if (herbRun) {
-                if (this.subCase == 1) {
-                    highlightHerbPatches(graphics, highlightUseItemWithAlpha);
+        highlightPlannedPatch(SitePlan.Kind.HERB, farmingHelperOverlay.getHerbPatchIds(), style);
+    }
 
-                }
-                else if(this.subCase == 2) {
-                    highlightFlowerPatches(graphics, highlightUseItemWithAlpha);
-                }
+    public void highlightFlowerPatches(HighlightPalette.Style style)
+    {
+        highlightPlannedPatch(SitePlan.Kind.FLOWER, farmingHelperOverlay.getFlowerPatchIds(), style);
+    }
 
-            }
+    public void highlightTreePatches(HighlightPalette.Style style)
+    {
+        highlightPlannedPatch(SitePlan.Kind.TREE, farmingHelperOverlay.getTreePatchIds(), style);
+    }
 
-            if (treeRun) {
-                highlightTreePatches(graphics, highlightUseItemWithAlpha);
-            }
+    public void highlightFruitTreePatches(HighlightPalette.Style style)
+    {
+        highlightPlannedPatch(SitePlan.Kind.FRUIT_TREE, farmingHelperOverlay.getFruitTreePatchIds(), style);
+    }
 
-            if (fruitTreeRun) {
-                highlightFruitTreePatches(graphics, highlightUseItemWithAlpha);
+    /**
+     * @param kind The patch being tended, which the compost is used on
+     */
+    public void highlightCompost(SitePlan.Kind kind)
+    {
+        if (isItemInInventory(selectedCompostID())) {
+            switch (kind) {
+                case HERB:
+                    highlightHerbPatches(HighlightPalette.Style.USE_ITEM);
+                    break;
+                case FLOWER:
+                    highlightFlowerPatches(HighlightPalette.Style.USE_ITEM);
+                    break;
+                case TREE:
+                    highlightTreePatches(HighlightPalette.Style.USE_ITEM);
+                    break;
+                case FRUIT_TREE:
+                    highlightFruitTreePatches(HighlightPalette.Style.USE_ITEM);
+                    break;
             }
 
-            itemHighlight(graphics, selectedCompostID(), highlightUseItemWithAlpha);
+            itemHighlight(selectedCompostID(), HighlightPalette.Style.USE_ITEM);
         } else {
-            withdrawCompost(graphics);
+            withdrawCompost();
         }
     }
 
-    public void highlightFarmers(Graphics2D graphics, List<String> farmers)
+    public void highlightFarmers(String[] farmers)
     {
         if (! isInterfaceOpen(219, 1)) {
             for (String farmer : farmers) {
-                highlightNpc(graphics, farmer);
+                highlightNpc(farmer);
             }
         } else {
             Widget widget = client.getWidget(219, 1);
-            highlightDynamicComponent(graphics, widget, 1);
+            highlightDynamicComponent(widget, 1);
         }
     }
 
-    public void highlightTreeFarmers(Graphics2D graphics)
+    public void highlightTreeFarmers()
     {
-        highlightFarmers(graphics, Arrays.asList(
-            "Alain",         // Taverly
-            "Fayeth",        // Lumbridge
-            "Heskel",        // Falador
-            "Prissy Scilla", // Gnome Stronghold
-            "Rosie",         // Farming Guild
-            "Treznor"        // Varrock
-        ));
+        highlightFarmers(TREE_FARMERS);
     }
 
-    public void highlightFruitTreeFarmers(Graphics2D graphics)
+    public void highlightFruitTreeFarmers()
     {
-        highlightFarmers(graphics, Arrays.asList(
-            "Bolongo", // Gnome Stronghold
-            "Ellena",  // Catherby
-            "Garth",   // Brimhaven
-            "Gileth",  // Tree Gnome Village
-            "Liliwen", // Lletya
-            "Nikkie"   // Farming Guild
-        ));
+        highlightFarmers(FRUIT_TREE_FARMERS);
     }
 
-    public void highlightHerbSeeds(Graphics2D graphics) {
-        for (Integer seedId : farmingHelperOverlay.getHerbSeedIds()) {
-            itemHighlight(graphics, seedId, highlightUseItemWithAlpha);
+    private void highlightItems(List<Integer> itemIds, HighlightPalette.Style style) {
+        for (int i = 0; i < itemIds.size(); i++) {
+            itemHighlight(itemIds.get(i), style);
         }
     }
 
-    public void highlightTreeSapling(Graphics2D graphics) {
-        for (Integer seedId : farmingHelperOverlay.getTreeSaplingIds()) {
-            itemHighlight(graphics, seedId, highlightUseItemWithAlpha);
-        }
+    public void highlightHerbSeeds() {
+        highlightItems(farmingHelperOverlay.getHerbSeedIds(), HighlightPalette.Style.USE_ITEM);
     }
 
-    public void highlightFruitTreeSapling(Graphics2D graphics) {
-        for (Integer seedId : farmingHelperOverlay.getFruitTreeSaplingIds()) {
-            itemHighlight(graphics, seedId, highlightUseItemWithAlpha);
-        }
+    public void highlightTreeSapling() {
+        highlightItems(farmingHelperOverlay.getTreeSaplingIds(), HighlightPalette.Style.USE_ITEM);
     }
 
-    public void highlightTeleportCrystal(Graphics2D graphics) {
-        for (Integer seedId : farmingHelperOverlay.getTeleportCrystalIdsIds()) {
-            itemHighlight(graphics, seedId, leftClickColorWithAlpha);
-        }
+    public void highlightFruitTreeSapling() {
+        highlightItems(farmingHelperOverlay.getFruitTreeSaplingIds(), HighlightPalette.Style.USE_ITEM);
     }
 
-    public void highlightSkillsNecklace(Graphics2D graphics) {
-        for (Integer seedId : farmingHelperOverlay.getSkillsNecklaceIdsIds()) {
-            itemHighlight(graphics, seedId, leftClickColorWithAlpha);
-        }
+    public void highlightTeleportCrystal() {
+        highlightItems(farmingHelperOverlay.getTeleportCrystalIdsIds(), HighlightPalette.Style.LEFT_CLICK);
+    }
+
+    public void highlightSkillsNecklace() {
+        highlightItems(farmingHelperOverlay.getSkillsNecklaceIdsIds(), HighlightPalette.Style.LEFT_CLICK);
     }
 
-    public Integer selectedCompostID() {
+    public int selectedCompostID() {
         EasyFarmingConfig.OptionEnumCompost selectedCompost = config.enumConfigCompost();
         switch (selectedCompost) {
             case Compost:
@@ -779,50 +738,35 @@ public class FarmingTeleportOverlay extends Overlay {
     }
 
     private boolean isItemInInventory(int itemId) {
-        ItemContainer inventory = client.getItemContainer(InventoryID.INV);
-
-        Item[] items;
-        if (inventory == null || inventory.getItems() == null) {
-            items = new Item[0];
-        } else {
-            items = inventory.getItems();
-        }
-
-        for (Item item : items) {
-            if (item.getId() == itemId) {
-                return true;
-            }
-        }
-
-        return false;
+        return plugin.getInventorySlotCache().contains(itemId);
     }
 
-    public void withdrawCompost (Graphics2D graphics) {
+    public void withdrawCompost () {
         plugin.addTextToInfoBox("Withdraw compost from Tool Leprechaun");
         if(!isInterfaceOpen(125,0)) {
-            highlightNpc(graphics, "Tool Leprechaun");
+            highlightNpc(TOOL_LEPRECHAUN);
         }
         else {
             if (selectedCompostID() == ItemID.BUCKET_COMPOST) {
-                interfaceOverlay(125, 17).render(graphics);
+                highlightInterface(125, 17);
             }
             else if(selectedCompostID() == ItemID.BUCKET_SUPERCOMPOST)
             {
-                interfaceOverlay(125, 18).render(graphics);
+                highlightInterface(125, 18);
             }
             else if(selectedCompostID() == ItemID.BUCKET_ULTRACOMPOST) {
-                interfaceOverlay(125, 19).render(graphics);
+                highlightInterface(125, 19);
             }
             else if(selectedCompostID() == ItemID.BOTTOMLESS_COMPOST_BUCKET) {
-                interfaceOverlay(125, 15).render(graphics);
+                highlightInterface(125, 15);
             }
         }
     }
 
     public Boolean herbPatchDone = false;
 
-    public void herbSteps(Graphics2D graphics, Location.Teleport teleport) {
-        int currentRegionId = client.getLocalPlayer().getWorldLocation().getRegionID();
+    public void herbSteps(WorldPoint patchPoint) {
+        int currentRegionId = areaCheck.getPlayerLocation().getRegionID();
         HerbPatchChecker.PlantState plantState;
 
         //Farming guild herb patch uses Varbits.FARMING_4775
@@ -845,39 +789,39 @@ public class FarmingTeleportOverlay extends Overlay {
             // TODO: Replace deprecated Varbits.FARMING_4774 with direct integer value
             plantState = HerbPatchChecker.checkHerbPatch(client, Varbits.FARMING_4774);
         }
-        if (!areaCheck.isPlayerWithinArea(teleport.getPoint(), 15))
+        if (!areaCheck.isPlayerWithinArea(patchPoint, 15))
         {
-            //should be replaced with a pathing system, pointing arrow or something else eventually
-            highlightHerbPatches(graphics, leftClickColorWithAlpha);
+            plugin.getPathGuide().guide(areaCheck.getPlayerLocation(), patchPoint);
+            highlightHerbPatches(HighlightPalette.Style.LEFT_CLICK);
         }
         else {
             switch (plantState) {
                 case HARVESTABLE:
                     plugin.addTextToInfoBox("Harvest Herbs.");
-                    highlightHerbPatches(graphics, leftClickColorWithAlpha);
+                    highlightHerbPatches(HighlightPalette.Style.LEFT_CLICK);
                     break;
                 case PLANT:
                     plugin.addTextToInfoBox("Use Herb seed on patch.");
-                    highlightHerbPatches(graphics, highlightUseItemWithAlpha);
-                    highlightHerbSeeds(graphics);
+                    highlightHerbPatches(HighlightPalette.Style.USE_ITEM);
+                    highlightHerbSeeds();
                     break;
                 case DEAD:
                     plugin.addTextToInfoBox("Clear the dead herb patch.");
-                    highlightHerbPatches(graphics, leftClickColorWithAlpha);
+                    highlightHerbPatches(HighlightPalette.Style.LEFT_CLICK);
                     break;
                 case DISEASED:
                     plugin.addTextToInfoBox("Use Plant cure on herb patch. Buy at GE or in farming guild/catherby, and store at Tool Leprechaun for easy access.");
-                    highlightHerbPatches(graphics, leftClickColorWithAlpha);
-                    itemHighlight(graphics, ItemID.PLANT_CURE, highlightUseItemWithAlpha);
+                    highlightHerbPatches(HighlightPalette.Style.LEFT_CLICK);
+                    itemHighlight(ItemID.PLANT_CURE, HighlightPalette.Style.USE_ITEM);
                     break;
                 case WEEDS:
                     plugin.addTextToInfoBox("Rake the herb patch.");
-                    highlightHerbPatches(graphics, leftClickColorWithAlpha);
+                    highlightHerbPatches(HighlightPalette.Style.LEFT_CLICK);
                     break;
                 case GROWING:
                     plugin.addTextToInfoBox("Use Compost on patch.");
 
-                    highlightCompost(graphics);
+                    highlightCompost(SitePlan.Kind.HERB);
 
                     if (patchIsComposted()) {
                         herbPatchDone = true;
@@ -892,9 +836,9 @@ public class FarmingTeleportOverlay extends Overlay {
 
     private boolean flowerPatchDone = false;
 
-    public void flowerSteps(Graphics2D graphics) {
+    public void flowerSteps() {
         if (this.farmLimps) {
-            int currentRegionId = client.getLocalPlayer().getWorldLocation().getRegionID();
+            int currentRegionId = areaCheck.getPlayerLocation().getRegionID();
             FlowerPatchChecker.PlantState plantState;
             if (currentRegionId == 4922) {
                 // TODO: Replace deprecated Varbits.FARMING_7906 with direct integer value
@@ -906,25 +850,25 @@ public class FarmingTeleportOverlay extends Overlay {
             switch (plantState) {
                 case HARVESTABLE:
                     plugin.addTextToInfoBox("Harvest Limwurt root.");
-                    highlightFlowerPatches(graphics, leftClickColorWithAlpha);
+                    highlightFlowerPatches(HighlightPalette.Style.LEFT_CLICK);
                     break;
                 case WEEDS:
                     plugin.addTextToInfoBox("Rake the flower patch.");
-                    highlightFlowerPatches(graphics, leftClickColorWithAlpha);
+                    highlightFlowerPatches(HighlightPalette.Style.LEFT_CLICK);
                     break;
                 case DEAD:
                     plugin.addTextToInfoBox("Clear the dead flower patch.");
-                    highlightFlowerPatches(graphics, leftClickColorWithAlpha);
+                    highlightFlowerPatches(HighlightPalette.Style.LEFT_CLICK);
                     break;
                 case PLANT:
                     plugin.addTextToInfoBox("Use Limwurt seed on the patch.");
-                    highlightFlowerPatches(graphics, highlightUseItemWithAlpha);
-                    itemHighlight(graphics, ItemID.LIMPWURT_SEED, highlightUseItemWithAlpha);
+                    highlightFlowerPatches(HighlightPalette.Style.USE_ITEM);
+                    itemHighlight(ItemID.LIMPWURT_SEED, HighlightPalette.Style.USE_ITEM);
                     break;
                 case GROWING:
                     plugin.addTextToInfoBox("Use Compost on patch.");
 
-                    highlightCompost(graphics);
+                    highlightCompost(SitePlan.Kind.FLOWER);
 
                     if (patchIsComposted()) {
                         this.flowerPatchDone = true;
@@ -938,8 +882,8 @@ public class FarmingTeleportOverlay extends Overlay {
 
     public Boolean treePatchDone = false;
 
-    public void treeSteps(Graphics2D graphics, Location.Teleport teleport) {
-        int currentRegionId = client.getLocalPlayer().getWorldLocation().getRegionID();
+    public void treeSteps(WorldPoint patchPoint) {
+        int currentRegionId = areaCheck.getPlayerLocation().getRegionID();
         TreePatchChecker.PlantState plantState;
         //4771 falador, gnome stronghold, lumbridge, Taverly, Varrock
         //7905 farming guild
@@ -950,38 +894,38 @@ public class FarmingTeleportOverlay extends Overlay {
             // TODO: Replace deprecated Varbits.FARMING_4771 with direct integer value
             plantState = TreePatchChecker.checkTreePatch(client, Varbits.FARMING_4771);
         }
-        if (!areaCheck.isPlayerWithinArea(teleport.getPoint(), 15))
+        if (!areaCheck.isPlayerWithinArea(patchPoint, 15))
         {
-            //should be replaced with a pathing system, pointing arrow or something else eventually
-            highlightTreePatches(graphics, leftClickColorWithAlpha);
+            plugin.getPathGuide().guide(areaCheck.getPlayerLocation(), patchPoint);
+            highlightTreePatches(HighlightPalette.Style.LEFT_CLICK);
         }
         else {
             switch (plantState) {
                 case HEALTHY:
                     plugin.addTextToInfoBox("Check tree health.");
-                    highlightTreePatches(graphics, leftClickColorWithAlpha);
+                    highlightTreePatches(HighlightPalette.Style.LEFT_CLICK);
                     break;
                 case WEEDS:
                     plugin.addTextToInfoBox("Rake the tree patch.");
-                    highlightTreePatches(graphics, leftClickColorWithAlpha);
+                    highlightTreePatches(HighlightPalette.Style.LEFT_CLICK);
                     break;
                 case DEAD:
                     plugin.addTextToInfoBox("Clear the dead tree patch.");
-                    highlightTreePatches(graphics, leftClickColorWithAlpha);
+                    highlightTreePatches(HighlightPalette.Style.LEFT_CLICK);
                     break;
                 case PLANT:
                     plugin.addTextToInfoBox("Use Sapling on the patch.");
-                    highlightTreePatches(graphics, highlightUseItemWithAlpha);
-                    highlightTreeSapling(graphics);
+                    highlightTreePatches(HighlightPalette.Style.USE_ITEM);
+                    highlightTreeSapling();
                     break;
                 case DISEASED:
                     plugin.addTextToInfoBox("Prune the tree patch patch.");
-                    highlightTreePatches(graphics, highlightUseItemWithAlpha);
+                    highlightTreePatches(HighlightPalette.Style.USE_ITEM);
                     break;
                 case REMOVE:
                     plugin.addTextToInfoBox("Pay to remove tree, or cut it down and clear the patch.");
 
-                    highlightTreeFarmers(graphics);
+                    highlightTreeFarmers();
 
                     break;
                 case UNKNOWN:
@@ -991,7 +935,7 @@ public class FarmingTeleportOverlay extends Overlay {
                     if (config.generalPayForProtection()) {
                         plugin.addTextToInfoBox("Pay to protect the patch.");
 
-                        highlightTreeFarmers(graphics);
+                        highlightTreeFarmers();
 
                         if (patchIsProtected()) {
                             treePatchDone = true;
@@ -999,7 +943,7 @@ public class FarmingTeleportOverlay extends Overlay {
                     } else {
                         plugin.addTextToInfoBox("Use Compost on patch.");
 
-                        highlightCompost(graphics);
+                        highlightCompost(SitePlan.Kind.TREE);
 
                         if (patchIsComposted()) {
                             treePatchDone = true;
@@ -1013,8 +957,8 @@ public class FarmingTeleportOverlay extends Overlay {
 
     public Boolean fruitTreePatchDone = false;
 
-    public void fruitTreeSteps(Graphics2D graphics, Location.Teleport teleport) {
-        int currentRegionId = client.getLocalPlayer().getWorldLocation().getRegionID();
+    public void fruitTreeSteps(WorldPoint patchPoint) {
+        int currentRegionId = areaCheck.getPlayerLocation().getRegionID();
         FruitTreePatchChecker.PlantState plantState;
         //Varbits.FARMING_4771 brimhaven, catherby, Lletya, tree gnome village
         //Varbits.FARMING_7909 farming guild
@@ -1029,36 +973,36 @@ public class FarmingTeleportOverlay extends Overlay {
             // TODO: Replace deprecated Varbits.FARMING_4771 with direct integer value
             plantState = FruitTreePatchChecker.checkFruitTreePatch(client, Varbits.FARMING_4771);
         }
-        if (!areaCheck.isPlayerWithinArea(teleport.getPoint(), 15)) {
-            //should be replaced with a pathing system, point arrow or something else eventually
-            highlightFruitTreePatches(graphics, leftClickColorWithAlpha);
+        if (!areaCheck.isPlayerWithinArea(patchPoint, 15)) {
+            plugin.getPathGuide().guide(areaCheck.getPlayerLocation(), patchPoint);
+            highlightFruitTreePatches(HighlightPalette.Style.LEFT_CLICK);
         } else {
             switch (plantState) {
                 case HEALTHY:
                     plugin.addTextToInfoBox("Check Fruit tree health.");
-                    highlightFruitTreePatches(graphics, leftClickColorWithAlpha);
+                    highlightFruitTreePatches(HighlightPalette.Style.LEFT_CLICK);
                     break;
                 case WEEDS:
                     plugin.addTextToInfoBox("Rake the fruit tree patch.");
-                    highlightFruitTreePatches(graphics, leftClickColorWithAlpha);
+                    highlightFruitTreePatches(HighlightPalette.Style.LEFT_CLICK);
                     break;
                 case DEAD:
                     plugin.addTextToInfoBox("Clear the dead fruit tree patch.");
-                    highlightFruitTreePatches(graphics, leftClickColorWithAlpha);
+                    highlightFruitTreePatches(HighlightPalette.Style.LEFT_CLICK);
                     break;
                 case PLANT:
                     plugin.addTextToInfoBox("Use Sapling on the patch.");
-                    highlightFruitTreePatches(graphics, highlightUseItemWithAlpha);
-                    highlightFruitTreeSapling(graphics);
+                    highlightFruitTreePatches(HighlightPalette.Style.USE_ITEM);
+                    highlightFruitTreeSapling();
                     break;
                 case DISEASED:
                     plugin.addTextToInfoBox("Prune the fruit tree patch.");
-                    highlightFruitTreePatches(graphics, leftClickColorWithAlpha);
+                    highlightFruitTreePatches(HighlightPalette.Style.LEFT_CLICK);
                     break;
                 case REMOVE:
                     plugin.addTextToInfoBox("Pay to remove fruit tree, or cut it down and clear the patch.");
 
-                    highlightFruitTreeFarmers(graphics);
+                    highlightFruitTreeFarmers();
 
                     break;
                 case UNKNOWN:
@@ -1068,7 +1012,7 @@ public class FarmingTeleportOverlay extends Overlay {
                     if (config.generalPayForProtection()) {
                         plugin.addTextToInfoBox("Pay to protect the patch.");
 
-                        highlightFruitTreeFarmers(graphics);
+                        highlightFruitTreeFarmers();
 
                         if (patchIsProtected()) {
                             fruitTreePatchDone = true;
@@ -1076,7 +1020,7 @@ public class FarmingTeleportOverlay extends Overlay {
                     } else {
                         plugin.addTextToInfoBox("Use Compost on patch.");
 
-                        highlightCompost(graphics);
+                        highlightCompost(SitePlan.Kind.FRUIT_TREE);
 
                         if (patchIsComposted()) {
                             fruitTreePatchDone = true;
@@ -1088,42 +1032,14 @@ public class FarmingTeleportOverlay extends Overlay {
         }
     }
 
-    private List<Integer> getGameObjectIdsByName(String name) {
-        List<Integer> foundObjectIds = new ArrayList<>();
-        // TODO: Replace deprecated getScene() with getTopLevelWorldView() API
-        Scene scene = client.getScene();
-        Tile[][][] tiles = scene.getTiles();
-
-        for (int x = 0; x < Constants.SCENE_SIZE; x++) {
-            for (int y = 0; y < Constants.SCENE_SIZE; y++) {
-                // TODO: Replace deprecated getPlane() with getTopLevelWorldView() API
-                Tile tile = tiles[client.getPlane()][x][y];
-                if (tile == null) {
-                    continue;
-                }
-
-                for (GameObject gameObject : tile.getGameObjects()) {
-                    if (gameObject != null) {
-                        ObjectComposition objectComposition = client.getObjectDefinition(gameObject.getId());
-                        if (objectComposition != null && objectComposition.getName().equals(name)) {
-                            foundObjectIds.add(gameObject.getId());
-                        }
-                    }
-                }
-            }
-        }
-
-        return foundObjectIds;
-    }
-
     public void inHouseCheck() {
-        if(getGameObjectIdsByName("Portal").contains(4525))
+        if(!plugin.getSceneObjectIndex().getGameObjects(HOUSE_PORTAL_ID).isEmpty())
         {
             this.currentTeleportCase = 2;
         }
     }
 
-    public void gettingToHouse(Graphics2D graphics) {
+    public void gettingToHouse() {
         EasyFarmingConfig.OptionEnumHouseTele teleportOption = config.enumConfigHouseTele();
         switch (teleportOption) {
             case Law_air_earth_runes:
@@ -1133,30 +1049,30 @@ public class FarmingTeleportOverlay extends Overlay {
                 switch (tabState) {
                             case INVENTORY:
                             case REST:
-                                interfaceOverlay(getSpellbookTabGroupId(), getSpellbookTabChildId()).render(graphics);
+                                highlightInterface(getSpellbookTabGroupId(), getSpellbookTabChildId());
                                 break;
                     case SPELLBOOK:
                         // Highlight the "Teleport to House" spell using correct child ID from widget inspector
-                        interfaceOverlay(InterfaceID.MAGIC_SPELLBOOK, 31).render(graphics);
+                        highlightInterface(InterfaceID.MAGIC_SPELLBOOK, 31);
                         inHouseCheck();
                         break;
                 }
                 break;
             case Teleport_To_House:
                 inHouseCheck();
-                itemHighlight(graphics, ItemID.POH_TABLET_TELEPORTTOHOUSE, leftClickColorWithAlpha);
+                itemHighlight(ItemID.POH_TABLET_TELEPORTTOHOUSE, HighlightPalette.Style.LEFT_CLICK);
                 break;
             case Construction_cape:
                 inHouseCheck();
-                itemHighlight(graphics, ItemID.SKILLCAPE_CONSTRUCTION, rightClickColorWithAlpha);
+                itemHighlight(ItemID.SKILLCAPE_CONSTRUCTION, HighlightPalette.Style.RIGHT_CLICK);
                 break;
             case Construction_cape_t:
                 inHouseCheck();
-                itemHighlight(graphics, ItemID.SKILLCAPE_CONSTRUCTION_TRIMMED, rightClickColorWithAlpha);
+                itemHighlight(ItemID.SKILLCAPE_CONSTRUCTION_TRIMMED, HighlightPalette.Style.RIGHT_CLICK);
                 break;
             case Max_cape:
                 inHouseCheck();
-                itemHighlight(graphics, ItemID.SKILLCAPE_MAX, rightClickColorWithAlpha);
+                itemHighlight(ItemID.SKILLCAPE_MAX, HighlightPalette.Style.RIGHT_CLICK);
                 break;
         }
     }
@@ -1165,23 +1081,78 @@ public class FarmingTeleportOverlay extends Overlay {
 
     public boolean isAtDestination = false;
 
+    private final TransportGraph transportGraph = new TransportGraph();
+    private String chosenTeleportLocation;
+    private Location.Teleport chosenTeleport;
+
+
+    /**
+     * @return true if the location is enabled in the config for the run in progress, and wasn't left out for not
+     * being ready
+     */
+    public boolean isLocationEnabled(Location location) {
+        if (combinedRun) {
+            return !CombinedRun.typesInRun(plugin, location.getName()).isEmpty();
+        }
+        boolean locationEnabled = false;
+        if (herbRun) {
+            locationEnabled = plugin.isLocationInRun(FarmingPatch.Type.HERB, location.getName());
+        }
+        if (treeRun) {
+            locationEnabled = plugin.isLocationInRun(FarmingPatch.Type.TREE, location.getName());
+        }
+        if (fruitTreeRun) {
+            locationEnabled = plugin.isLocationInRun(FarmingPatch.Type.FRUIT_TREE, location.getName());
+        }
+        return locationEnabled;
+    }
+
+    /**
+     * @return The teleport picked in the config, or the fastest one the player can use when the picked one is missing
+     * items or the config asks for the fastest. A location the run doesn't travel to, like the tree patch of a site a
+     * combined run reaches through its herb patch, takes the one picked in the config.
+     */
+    public Location.Teleport selectTeleport(Location location) {
+        if (transportGraph.isStale()) {
+            transportGraph.rebuild(getRunLocations(), plugin.getHouseTeleportItemRequirements(), farmingHelperOverlay.countCarriedItems());
+        }
+        Location.Teleport teleport = transportGraph.select(location, config.fastestTeleport());
+        return teleport != null ? teleport : location.getSelectedTeleport();
+    }
 
-    public void gettingToLocation(Graphics2D graphics, Location location) {
-        updateColors();
-        Location.Teleport teleport = location.getSelectedTeleport();
-        Boolean locationEnabledBool = false;
-        if (plugin.getFarmingTeleportOverlay().herbRun) {
-            locationEnabledBool = plugin.getHerbLocationEnabled(location.getName());
+    /**
+     * @return The teleport the run takes to the location, the one already picked if the player is on the way there
+     */
+    public Location.Teleport getRunTeleport(Location location) {
+        if (location.getName().equals(chosenTeleportLocation) && chosenTeleport != null) {
+            return chosenTeleport;
         }
-        if (plugin.getFarmingTeleportOverlay().treeRun) {
-            locationEnabledBool = plugin.getTreeLocationEnabled(location.getName());
+        return selectTeleport(location);
+    }
+
+    /**
+     * Makes the next teleport choice see the current inventory, equipment and config.
+     * @param reconsider true to also drop the teleport picked for the current location, for a config change
+     */
+    public void invalidateTeleports(boolean reconsider) {
+        transportGraph.invalidate();
+        if (reconsider) {
+            chosenTeleportLocation = null;
+            highlightsInvalid = true;
         }
-        if (plugin.getFarmingTeleportOverlay().fruitTreeRun) {
-            locationEnabledBool = plugin.getFruitTreeLocationEnabled(location.getName());
+    }
+
+    public void gettingToLocation(Location location) {
+        plugin.getFlightRecorderEvents().setLocation(location.getName());
+        // Once picked the teleport is kept until the location is done, so using up its items doesn't switch it
+        if (!location.getName().equals(chosenTeleportLocation)) {
+            chosenTeleportLocation = location.getName();
+            chosenTeleport = selectTeleport(location);
         }
-        if (locationEnabledBool) {
+        Location.Teleport teleport = chosenTeleport;
+        if (isLocationEnabled(location)) {
             if (!isAtDestination) {
-                int currentRegionId = client.getLocalPlayer().getWorldLocation().getRegionID();
+                int currentRegionId = areaCheck.getPlayerLocation().getRegionID();
                 
                 // Use adaptive detection to determine if we should proceed to farming
                 if (shouldProceedToFarming(location, teleport)) {
@@ -1194,7 +1165,7 @@ public class FarmingTeleportOverlay extends Overlay {
                     plugin.addTextToInfoBox(teleport.getDescription());
                 } else {
                     // Use adaptive highlighting based on current situation
-                    adaptiveHighlighting(location, teleport, graphics);
+                    adaptiveHighlighting(location, teleport);
                     plugin.addTextToInfoBox(teleport.getDescription());
                     return;
                 }
@@ -1203,13 +1174,13 @@ public class FarmingTeleportOverlay extends Overlay {
                     case ITEM:
                         if (teleport.getInterfaceGroupId() != 0) {
                             if (!isInterfaceOpen(teleport.getInterfaceGroupId(), teleport.getInterfaceChildId())) {
-                                itemHighlight(graphics, teleport.getId(), rightClickColorWithAlpha);
+                                itemHighlight(teleport.getId(), HighlightPalette.Style.RIGHT_CLICK);
                                 if (!teleport.getRightClickOption().equals("null")) {
-                                    highlightRightClickOption(graphics, teleport.getRightClickOption());
+                                    highlightRightClickOption(teleport.getRightClickOption());
                                 }
                             } else {
                                 Widget widget = client.getWidget(teleport.getInterfaceGroupId(), teleport.getInterfaceChildId());
-                                highlightDynamicComponent(graphics, widget, 1);
+                                highlightDynamicComponent(widget, 1);
                             }
                             if (currentRegionId == teleport.getRegionId()) {
                                 this.currentTeleportCase = 1;
@@ -1221,30 +1192,30 @@ public class FarmingTeleportOverlay extends Overlay {
                             }
                         } else {
                             if (!teleport.getRightClickOption().equals("null")) {
-                                itemHighlight(graphics, teleport.getId(), rightClickColorWithAlpha);
-                                highlightRightClickOption(graphics, teleport.getRightClickOption());
+                                itemHighlight(teleport.getId(), HighlightPalette.Style.RIGHT_CLICK);
+                                highlightRightClickOption(teleport.getRightClickOption());
                             } else {
                                 if(plugin.getEasyFarmingOverlay().isTeleportCrystal(teleport.getId())) {
-                                    highlightTeleportCrystal(graphics);
+                                    highlightTeleportCrystal();
                                 }
                                 if(plugin.getEasyFarmingOverlay().isSkillsNecklace(teleport.getId())) {
                                     String index = location.getName();
                                     if(Objects.equals(index, "Ardougne")) {
-                                        highlightSkillsNecklace(graphics);
-                                        highlightRightClickOption(graphics, "Rub");
+                                        highlightSkillsNecklace();
+                                        highlightRightClickOption("Rub");
                                         Widget widget = client.getWidget(187, 3);
-                                        highlightDynamicComponent(graphics, widget, 0);
+                                        highlightDynamicComponent(widget, 0);
                                     }
                                     if(Objects.equals(index, "Farming Guild")) {
-                                        highlightSkillsNecklace(graphics);
-                                        highlightRightClickOption(graphics, "Rub");
+                                        highlightSkillsNecklace();
+                                        highlightRightClickOption("Rub");
                                         Widget widget = client.getWidget(187, 3);
-                                        highlightDynamicComponent(graphics, widget, 5);
+                                        highlightDynamicComponent(widget, 5);
                                     }
                                 }
 
                                 else {
-                                    itemHighlight(graphics, teleport.getId(), leftClickColorWithAlpha);
+                                    itemHighlight(teleport.getId(), HighlightPalette.Style.LEFT_CLICK);
                                 }
                             }
                             if (currentRegionId == teleport.getRegionId()) {
@@ -1260,19 +1231,16 @@ public class FarmingTeleportOverlay extends Overlay {
                     case PORTAL_NEXUS:
                         switch (this.currentTeleportCase) {
                             case 1:
-                                gettingToHouse(graphics);
+                                gettingToHouse();
                                 break;
                             case 2:
                                 if (!isInterfaceOpen(17, 0)) {
-                                    List<Integer> portalNexusIds = getGameObjectIdsByName("Portal Nexus");
-                                    for (Integer objectId : portalNexusIds) {
-                                        gameObjectOverlay(objectId, leftClickColorWithAlpha).render(graphics);
-                                    }
+                                    highlightGameObjects(plugin.getSceneObjectIndex().getGameObjectsByName(SceneObjectIndex.PORTAL_NEXUS), HighlightPalette.Style.LEFT_CLICK);
                                 } else {
                                     // TODO: The location doesn't always align with the Teleport option, meaning it won't be highlighted, such as using the Camelot teleport for Catherby
                                     Widget widget = client.getWidget(17, 13);
                                     int index = getChildIndexPortalNexus(location.getName());
-                                    highlightDynamicComponent(graphics, widget, index);
+                                    highlightDynamicComponent(widget, index);
                                 }
                                 if (currentRegionId == teleport.getRegionId()) {
                                     this.currentTeleportCase = 1;
@@ -1287,31 +1255,9 @@ public class FarmingTeleportOverlay extends Overlay {
                         break;
                     case SPIRIT_TREE:
                         if (!isInterfaceOpen(187, 3)) {
-                            List<Integer> spiritTreeIds = Arrays.asList(1293, 1294, 1295, 8355, 29227, 29229, 37329, 40778);
-
-                            for (Integer objectId : spiritTreeIds) {
-                                gameObjectOverlay(objectId, leftClickColorWithAlpha).render(graphics);
-                            }
+                            highlightSpiritTrees();
                         } else {
-                            Widget widget = client.getWidget(187, 3);
-
-                            switch (location.getName()) {
-                                case "Gnome Stronghold":
-                                    highlightDynamicComponent(graphics, widget, getChildIndexSpiritTree("Gnome Stronghold"));
-                                    break;
-
-                                case "Tree Gnome Village":
-                                    highlightDynamicComponent(graphics, widget, getChildIndexSpiritTree("Tree Gnome Village"));
-                                    break;
-
-                                case "Falador":
-                                    highlightDynamicComponent(graphics, widget, getChildIndexSpiritTree("Port Sarim"));
-                                    break;
-
-                                case "Kourend":
-                                    highlightDynamicComponent(graphics, widget, getChildIndexSpiritTree("Hosidius"));
-                                    break;
-                            }
+                            highlightSpiritTreeDestination(location);
                         }
                         if (currentRegionId == teleport.getRegionId()) {
                             this.currentTeleportCase = 1;
@@ -1326,19 +1272,17 @@ public class FarmingTeleportOverlay extends Overlay {
                     case JEWELLERY_BOX:
                         switch (this.currentTeleportCase) {
                             case 1:
-                                gettingToHouse(graphics);
+                                gettingToHouse();
                                 break;
                             case 2:
-                                List<Integer> jewelleryBoxIds = Arrays.asList(29154, 29155, 29156);
-
                                 if (!isInterfaceOpen(590, 0)) {
-                                    for (int id : jewelleryBoxIds) {
-                                        gameObjectOverlay(id, leftClickColorWithAlpha).render(graphics);
+                                    for (int id : JEWELLERY_BOX_IDS) {
+                                        highlightGameObjects(id, HighlightPalette.Style.LEFT_CLICK);
                                     }
-                                    gameObjectOverlay(teleport.getId(), leftClickColorWithAlpha).render(graphics);
+                                    highlightGameObjects(teleport.getId(), HighlightPalette.Style.LEFT_CLICK);
                                 } else {
                                     Widget widget = client.getWidget(590, 5);
-                                    highlightDynamicComponent(graphics, widget, 10);
+                                    highlightDynamicComponent(widget, 10);
                                 }
                                 if (currentRegionId == teleport.getRegionId()) {
                                     this.currentTeleportCase = 1;
@@ -1354,19 +1298,16 @@ public class FarmingTeleportOverlay extends Overlay {
                     case MOUNTED_XERICS:
                         switch (this.currentTeleportCase) {
                             case 1:
-                                gettingToHouse(graphics);
+                                gettingToHouse();
                                 break;
                             case 2:
-                                List<Integer> xericsTalismanIds = Arrays.asList(33411, 33412, 33413, 33414, 33415);
-
                                 if (!isInterfaceOpen(teleport.getInterfaceGroupId(), teleport.getInterfaceChildId())) {
-                                    for (int id : xericsTalismanIds) {
-                                        Overlay decorativeObjectHighlight = decorativeObjectOverlay(id);
-                                        decorativeObjectHighlight.render(graphics);
+                                    for (int id : XERICS_TALISMAN_IDS) {
+                                        highlightDecorativeObjects(id);
                                     }
                                 } else {
                                     Widget widget = client.getWidget(teleport.getInterfaceGroupId(), teleport.getInterfaceChildId());
-                                    highlightDynamicComponent(graphics, widget, 1);
+                                    highlightDynamicComponent(widget, 1);
                                     if (currentRegionId == teleport.getRegionId()) {
                                         this.currentTeleportCase = 1;
                                         isAtDestination = true;
@@ -1386,7 +1327,7 @@ public class FarmingTeleportOverlay extends Overlay {
                         switch (tabState) {
                             case REST:
                             case INVENTORY:
-                                interfaceOverlay(getSpellbookTabGroupId(), getSpellbookTabChildId()).render(graphics);
+                                highlightInterface(getSpellbookTabGroupId(), getSpellbookTabChildId());
                                 if (currentRegionId == teleport.getRegionId()) {
                                     this.currentTeleportCase = 1;
                                     isAtDestination = true;
@@ -1394,7 +1335,7 @@ public class FarmingTeleportOverlay extends Overlay {
                                 }
                                 break;
                             case SPELLBOOK:
-                                interfaceOverlay(teleport.getInterfaceGroupId(), teleport.getInterfaceChildId()).render(graphics);
+                                highlightInterface(teleport.getInterfaceGroupId(), teleport.getInterfaceChildId());
                                 if (currentRegionId == teleport.getRegionId()) {
                                     this.currentTeleportCase = 1;
                                     isAtDestination = true;
@@ -1409,7 +1350,7 @@ public class FarmingTeleportOverlay extends Overlay {
                 }
 
             } else {
-                farming(graphics, teleport);
+                farming(location);
             }
         } else {
             this.currentLocationIndex++;
@@ -1420,61 +1361,130 @@ public class FarmingTeleportOverlay extends Overlay {
 
     private boolean farmLimps = false;
 
-    public void farming(Graphics2D graphics, Location.Teleport teleport) {
+    public void farming(Location location) {
         if (this.startSubCases) {
-            if (herbRun) {
-                if (this.subCase == 1) {
-                    herbSteps(graphics, teleport);
+            if (sitePlan == null || !sitePlan.getSiteName().equals(location.getName())) {
+                // The site was reached, its teleport is used up
+                plugin.getRemainingRequirements().completeStop(RemainingRequirements.travelStop(location.getName()));
+                sitePlan = planSite(location);
+            }
+            SitePlan.Patch patch = sitePlan.getCurrent(client, plugin.getSceneObjectIndex());
+            if (patch == null) {
+                locationDone();
+                return;
+            }
+            switch (patch.getKind()) {
+                case HERB:
+                    this.subCase = 1;
+                    herbSteps(patch.getPoint());
                     if (herbPatchDone) {
-                        this.subCase = 2;
                         herbPatchDone = false;
+                        sitePlan.advance();
                     }
-                } else if (this.subCase == 2) {
-                    if (config.generalLimpwurt()) {
-                        flowerSteps(graphics);
-                        if (this.flowerPatchDone) {
-                            this.subCase = 1;
-                            this.startSubCases = false;
-                            isAtDestination = false;
-                            this.currentLocationIndex++;
-                            this.farmLimps = false;
-                            this.flowerPatchDone = false;
-
-                        }
-                    } else {
-                        this.subCase = 1;
-                        this.startSubCases = false;
-                        isAtDestination = false;
-                        this.currentLocationIndex++;
-                        this.farmLimps = false;
+                    break;
+                case FLOWER:
+                    this.subCase = 2;
+                    this.farmLimps = true;
+                    flowerSteps();
+                    if (this.flowerPatchDone) {
                         this.flowerPatchDone = false;
+                        sitePlan.advance();
                     }
-                }
+                    break;
+                case TREE:
+                    treeSteps(patch.getPoint());
+                    if (treePatchDone) {
+                        treePatchDone = false;
+                        sitePlan.advance();
+                    }
+                    break;
+                case FRUIT_TREE:
+                    fruitTreeSteps(patch.getPoint());
+                    if (fruitTreePatchDone) {
+                        fruitTreePatchDone = false;
+                        sitePlan.advance();
+                    }
+                    break;
             }
-            if (treeRun) {
-                treeSteps(graphics, teleport);
-                if (treePatchDone) {
-                    this.startSubCases = false;
-                    isAtDestination = false;
-                    this.currentLocationIndex++;
-                    treePatchDone = false;
-                }
+        }
+    }
+
+    private void locationDone() {
+        this.startSubCases = false;
+        isAtDestination = false;
+        this.currentLocationIndex++;
+        this.subCase = 1;
+        this.farmLimps = false;
+        this.sitePlan = null;
+    }
+
+    /**
+     * Lists the patches of the site the run tends, in the order to tend them.
+     */
+    private SitePlan planSite(Location location) {
+        String siteName = location.getName();
+        List<FarmingPatch.Type> types;
+        if (combinedRun) {
+            types = CombinedRun.typesInRun(plugin, siteName);
+        } else {
+            types = Collections.singletonList(herbRun ? FarmingPatch.Type.HERB : treeRun ? FarmingPatch.Type.TREE : FarmingPatch.Type.FRUIT_TREE);
+        }
+
+        List<SitePlan.Patch> patches = new ArrayList<>();
+        for (FarmingPatch.Type type : types) {
+            Location patchLocation = findLocation(getCatalog(type), siteName);
+            FarmingPatch farmingPatch = FarmingPatch.find(type, siteName);
+            if (patchLocation == null || farmingPatch == null) {
+                continue;
             }
-            if (fruitTreeRun) {
-                fruitTreeSteps(graphics, teleport);
-                if (fruitTreePatchDone) {
-                    this.startSubCases = false;
-                    isAtDestination = false;
-                    this.currentLocationIndex++;
-                    fruitTreePatchDone = false;
-                }
+            WorldPoint point = farmingPatch.getPoint();
+            int regionId = farmingPatch.getRegionId();
+            switch (type) {
+                case HERB:
+                    patches.add(new SitePlan.Patch(SitePlan.Kind.HERB, point, regionId, farmingPatch.getVarbitId(), farmingHelperOverlay.getHerbPatchIds()));
+                    if (config.generalLimpwurt() && patchLocation.getFarmLimps()) {
+                        int flowerVarbit = regionId == 4922 ? 7906 : 4773;
+                        patches.add(new SitePlan.Patch(SitePlan.Kind.FLOWER, point, regionId, flowerVarbit, farmingHelperOverlay.getFlowerPatchIds()));
+                    }
+                    break;
+                case TREE:
+                    patches.add(new SitePlan.Patch(SitePlan.Kind.TREE, point, regionId, farmingPatch.getVarbitId(), farmingHelperOverlay.getTreePatchIds()));
+                    break;
+                case FRUIT_TREE:
+                    patches.add(new SitePlan.Patch(SitePlan.Kind.FRUIT_TREE, point, regionId, farmingPatch.getVarbitId(), farmingHelperOverlay.getFruitTreePatchIds()));
+                    break;
+            }
+        }
+        RemainingRequirements remainingRequirements = plugin.getRemainingRequirements();
+        return SitePlan.plan(siteName, patches, client, plugin.getSceneObjectIndex(), plugin.getPathGuide(),
+            passed -> remainingRequirements.completeStop(RemainingRequirements.patchStop(siteName, passed.getKind())));
+    }
+
+    /**
+     * Keeps the varbit values of the site's patches up to date, call this on every varbit change during a run.
+     */
+    public void onVarbitChanged(int varbitId, int value) {
+        if (sitePlan != null) {
+            sitePlan.onVarbitChanged(varbitId, value, areaCheck.getPlayerLocation().getRegionID());
+        }
+    }
+
+    private static Location findLocation(List<Location> locations, String name) {
+        for (Location location : locations) {
+            if (location != null && location.getName().equals(name)) {
+                return location;
             }
         }
+        return null;
     }
 
     private int subCase = 1;
     private boolean startSubCases = false;
     private int currentLocationIndex = 0;
+    // The patches of the site the player is at, made once they arrived
+    private SitePlan sitePlan;
+    // The order to visit the run's locations in, null to visit them in the catalog's order
+    private int[] route;
 
     public void removeOverlay() {
         plugin.overlayManager.remove(farmingHelperOverlay);
@@ -1485,6 +1495,11 @@ public class FarmingTeleportOverlay extends Overlay {
         plugin.setTeleportOverlayActive(false);
 
         this.currentLocationIndex = 0;
+        this.sitePlan = null;
+        this.route = null;
+        this.chosenTeleportLocation = null;
+        this.chosenTeleport = null;
+        transportGraph.invalidate();
         this.currentTeleportCase = 1;
         this.subCase = 1;
         this.startSubCases = false;
@@ -1493,18 +1508,131 @@ public class FarmingTeleportOverlay extends Overlay {
         this.flowerPatchDone = false;
 
         plugin.setItemsCollected(false);
+        highlightSet.clear();
+        highlightsInvalid = true;
+        plugin.getPathGuide().clear();
 
         plugin.getFarmingTeleportOverlay().herbRun = false;
         plugin.getFarmingTeleportOverlay().treeRun = false;
         plugin.getFarmingTeleportOverlay().fruitTreeRun = false;
+        plugin.getFarmingTeleportOverlay().combinedRun = false;
 
         fruitTreeRun = false;
         herbRun = false;
         treeRun = false;
+        combinedRun = false;
 
         plugin.panel.herbButton.setStartStopState(false);
         plugin.panel.treeButton.setStartStopState(false);
         plugin.panel.fruitTreeButton.setStartStopState(false);
+        plugin.panel.combinedButton.setStartStopState(false);
+    }
+
+    /**
+     * @return The locations of the run in progress, in the catalog's order. For a combined run, the location of every
+     * site that it is reached with.
+     */
+    public List<Location> getRunLocations() {
+        if (combinedRun) {
+            List<Location> sites = new ArrayList<>(CombinedRun.SITE_NAMES.size());
+            for (String siteName : CombinedRun.SITE_NAMES) {
+                List<FarmingPatch.Type> types = CombinedRun.typesInRun(plugin, siteName);
+                FarmingPatch.Type travelType = !types.isEmpty() ? types.get(0) : CombinedRun.typesAt(siteName).get(0);
+                Location site = findLocation(getCatalog(travelType), siteName);
+                // A site the catalogs don't list, or that isn't set up yet, can't be visited
+                if (site != null) {
+                    sites.add(site);
+                }
+            }
+            return sites;
+        }
+        if (herbRun) {
+            return getCatalog(FarmingPatch.Type.HERB);
+        }
+        if (treeRun) {
+            return getCatalog(FarmingPatch.Type.TREE);
+        }
+        if (fruitTreeRun) {
+            return getCatalog(FarmingPatch.Type.FRUIT_TREE);
+        }
+        return Collections.emptyList();
+    }
+
+    private List<Location> getCatalog(FarmingPatch.Type type) {
+        switch (type) {
+            case HERB:
+                return Arrays.asList(
+                    plugin.getArdougneLocation(),
+                    plugin.getCatherbyLocation(),
+                    plugin.getFaladorLocation(),
+                    plugin.getFarmingGuildLocation(),
+                    plugin.getHarmonyLocation(),
+                    plugin.getKourendLocation(),
+                    plugin.getMorytaniaLocation(),
+                    plugin.getTrollStrongholdLocation(),
+                    plugin.getWeissLocation());
+            case TREE:
+                return Arrays.asList(
+                    plugin.getFaladorTreeLocation(),
+                    plugin.getFarmingGuildTreeLocation(),
+                    plugin.getGnomeStrongholdTreeLocation(),
+                    plugin.getLumbridgeTreeLocation(),
+                    plugin.getTaverleyTreeLocation(),
+                    plugin.getVarrockTreeLocation());
+            default:
+                return Arrays.asList(
+                    plugin.getBrimhavenFruitTreeLocation(),
+                    plugin.getCatherbyFruitTreeLocation(),
+                    plugin.getFarmingGuildFruitTreeLocation(),
+                    plugin.getGnomeStrongholdFruitTreeLocation(),
+                    plugin.getLletyaFruitTreeLocation(),
+                    plugin.getTreeGnomeVillageTreeLocation());
+        }
+    }
+
+    /**
+     * Makes the run visit its locations in the given order. A route that is worked out after the player set off keeps
+     * the stops visited so far, and the one they are at, and only orders the stops that are left.
+     * @param route Indices into {@link #getRunLocations()}, in visiting order
+     */
+    public void setRoute(int[] route) {
+        int kept = this.currentLocationIndex + (isAtDestination ? 1 : 0);
+        if (kept == 0) {
+            this.route = route;
+            highlightsInvalid = true;
+            return;
+        }
+
+        int locationCount = getRunLocations().size();
+        Set<Integer> visited = new HashSet<>();
+        List<Integer> stops = new ArrayList<>(kept + route.length);
+        for (int index = 0; index < kept; index++) {
+            int stop = getRouteStop(index);
+            if (stop < locationCount) {
+                visited.add(stop);
+                stops.add(stop);
+            }
+        }
+        for (int stop : route) {
+            if (!visited.contains(stop)) {
+                stops.add(stop);
+            }
+        }
+        log.debug("The route arrived after {} stops of the run, applied it to the {} stops that are left", kept, stops.size() - visited.size());
+
+        int[] merged = new int[stops.size()];
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] = stops.get(i);
+        }
+        this.route = merged;
+        highlightsInvalid = true;
+    }
+
+    private int getRouteStop(int index) {
+        if (route == null) {
+            return index;
+        }
+        return index < route.length ? route[index] : Integer.MAX_VALUE;
     }
 
     public Boolean herbRun = false;
@@ -1513,104 +1641,76 @@ public class FarmingTeleportOverlay extends Overlay {
 
     public Boolean fruitTreeRun = false;
 
+    // Tends every patch type at once, the flags above stay off and the patch being tended picks the steps
+    public Boolean combinedRun = false;
+
     @Override
     public Dimension render(Graphics2D graphics) {
+        if (!plugin.isRunVisible()) {
+            return null;
+        }
+        FrameProfiler frameProfiler = plugin.getFrameProfiler();
+        FlightRecorderEvents flightRecorderEvents = plugin.getFlightRecorderEvents();
+        flightRecorderEvents.setRunType(combinedRun ? "Combined" : herbRun ? "Herb" : treeRun ? "Tree" : fruitTreeRun ? "Fruit tree" : "");
+        EasyFarmingMetrics metrics = plugin.getMetrics();
+        metrics.frameRendered();
+        RenderQuality renderQuality = plugin.getRenderQuality();
+        long qualityStart = renderQuality.start();
+        long start = frameProfiler.start();
+        Object renderEvent = flightRecorderEvents.startRenderPass();
+        long allocatedBefore = metrics.startAllocationSample();
+        Dimension dimension = renderRun(graphics);
+        metrics.finishAllocationSample(allocatedBefore);
+        flightRecorderEvents.finishRenderPass(renderEvent, FrameProfiler.Phase.TELEPORT_OVERLAY.getLabel());
+        frameProfiler.record(FrameProfiler.Phase.TELEPORT_OVERLAY, start);
+        frameProfiler.endFrame();
+        renderQuality.add(qualityStart);
+        renderQuality.endFrame();
+        return dimension;
+    }
+
+    private Dimension renderRun(Graphics2D graphics) {
+        if (highlightsInvalid || client.getTickCount() != resolvedTick || plugin.isTeleportOverlayActive() != resolvedActive) {
+            resolveHighlights();
+        }
+        highlightSet.draw(graphics, plugin.getHighlightPalette(), plugin.getRenderQuality(),
+            plugin.getWidgetBoundsCache(), plugin.getInventorySlotCache());
+        plugin.getPathGuide().draw(graphics, plugin.getHighlightPalette());
+        return null;
+    }
+
+    /**
+     * Marks the highlights as stale, so they are resolved again on the next frame instead of the next tick. Call
+     * this when an event changed what the current step should highlight.
+     */
+    public void invalidateHighlights() {
+        highlightsInvalid = true;
+    }
+
+    /**
+     * Runs the steps of the run, which decide what to highlight and move on to the next step.
+     */
+    private void resolveHighlights() {
+        highlightsInvalid = false;
+        resolvedTick = client.getTickCount();
+        resolvedActive = plugin.isTeleportOverlayActive();
+        rightClickOption = null;
+        highlightSet.clear();
+        plugin.getPathGuide().hide();
         if (plugin.isTeleportOverlayActive()) {
-            if (herbRun) {
-                switch (this.currentLocationIndex) {
-                    case 0:
-                        gettingToLocation(graphics, plugin.getArdougneLocation());
-                        break;
-                    case 1:
-                        gettingToLocation(graphics, plugin.getCatherbyLocation());
-                        break;
-                    case 2:
-                        gettingToLocation(graphics, plugin.getFaladorLocation());
-                        break;
-                    case 3:
-                        gettingToLocation(graphics, plugin.getFarmingGuildLocation());
-                        break;
-                    case 4:
-                        gettingToLocation(graphics, plugin.getHarmonyLocation());
-                        break;
-                    case 5:
-                        gettingToLocation(graphics, plugin.getKourendLocation());
-                        break;
-                    case 6:
-                        gettingToLocation(graphics, plugin.getMorytaniaLocation());
-                        break;
-                    case 7:
-                        gettingToLocation(graphics, plugin.getTrollStrongholdLocation());
-                        break;
-                    case 8:
-                        gettingToLocation(graphics, plugin.getWeissLocation());
-                        break;
-                    case 9:
-                        removeOverlay();
-                        // add more cases for each location in the array
-                    default:
-                        removeOverlay();
-                        // Add any other actions you want to perform when the herb run is complete
-                        break;
-                }
-            } else if (treeRun) {
-                switch (this.currentLocationIndex) {
-                    case 0:
-                        gettingToLocation(graphics, plugin.getFaladorTreeLocation());
-                        break;
-                    case 1:
-                        gettingToLocation(graphics, plugin.getFarmingGuildTreeLocation());
-                        break;
-                    case 2:
-                        gettingToLocation(graphics, plugin.getGnomeStrongholdTreeLocation());
-                        break;
-                    case 3:
-                        gettingToLocation(graphics, plugin.getLumbridgeTreeLocation());
-                        break;
-                    case 4:
-                        gettingToLocation(graphics, plugin.getTaverleyTreeLocation());
-                        break;
-                    case 5:
-                        gettingToLocation(graphics, plugin.getVarrockTreeLocation());
-                        break;
-                    case 6:
-                        removeOverlay();
-                        // add more cases for each location in the array
-                    default:
-                        removeOverlay();
-                        // Add any other actions you want to perform when the herb run is complete
-                        break;
-                }
-            } else if (fruitTreeRun) {
-                switch (this.currentLocationIndex) {
-                    case 0:
-                        gettingToLocation(graphics, plugin.getBrimhavenFruitTreeLocation());
-                        break;
-                    case 1:
-                        gettingToLocation(graphics, plugin.getCatherbyFruitTreeLocation());
-                        break;
-                    case 2:
-                        gettingToLocation(graphics, plugin.getFarmingGuildFruitTreeLocation());
-                        break;
-                    case 3:
-                        gettingToLocation(graphics, plugin.getGnomeStrongholdFruitTreeLocation());
-                        break;
-                    case 4:
-                        gettingToLocation(graphics, plugin.getLletyaFruitTreeLocation());
-                        break;
-                    case 5:
-                        gettingToLocation(graphics, plugin.getTreeGnomeVillageTreeLocation());
-                        break;
-                    case 6:
-                        removeOverlay();
-                        // add more cases for each location in the array
-                    default:
-                        removeOverlay();
-                        // Add any other actions you want to perform when the herb run is complete
-                        break;
-                }
+            List<Location> locations = getRunLocations();
+            int stop = getRouteStop(this.currentLocationIndex);
+            if (stop < locations.size()) {
+                gettingToLocation(locations.get(stop));
+            } else {
+                removeOverlay();
+            }
+        }
+        // A menu that was already open when the step asked for the option gets no more entries added
+        if (rightClickOption != null && client.isMenuOpen()) {
+            for (MenuEntry entry : client.getMenu().getMenuEntries()) {
+                onMenuEntryAdded(entry);
             }
         }
-        return null;
     }
 }
@@ -0,0 +1,88 @@
+package com.easyfarming;
+
+import javax.inject.Singleton;
+
+/**
+ * Emits Java Flight Recorder events for the plugin's work: run steps, render passes, requirement recomputation
+ * and scene index rebuilds. Every event carries the run type, location and step the plugin was on. The events
+ * are disabled by default, enable them in the recording's settings, e.g. {@code com.easyfarming.RenderPass#enabled=true}.
+ * While they are disabled nothing is allocated.
+ * <p>
+ * Timing an event is {@code Object event = startX();} before the work and {@code finishX(event, ...)} after it.
+ * The event classes are only loaded when the jdk.jfr module is there, a trimmed runtime can leave it out.
+ * Must be used on the client thread.
+ */
+@Singleton
+public class FlightRecorderEvents {
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+    private String runType = "";
+    private String location = "";
+    private String step = "";
+    private Object stepEvent;
+
+    /**
+     * @param runType The type of the run in progress, empty when there is none
+     */
+    public void setRunType(String runType) {
+        this.runType = runType;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    /**
+     * Ends the event of the previous step and starts one for the new step.
+     * @param step The text of the new step, null when the run ended
+     */
+    public void stepChanged(String step) {
+        this.step = step != null ? step : "";
+        if (!AVAILABLE) {
+            return;
+        }
+        if (stepEvent != null) {
+            RunStepEvent.finish(stepEvent);
+        }
+        stepEvent = step != null ? RunStepEvent.start(runType, location, step) : null;
+    }
+
+    public Object startRenderPass() {
+        return AVAILABLE ? RenderPassEvent.start() : null;
+    }
+
+    /**
+     * @param overlay The label of the overlay that rendered
+     */
+    public void finishRenderPass(Object event, String overlay) {
+        if (event != null) {
+            RenderPassEvent.finish(event, overlay, runType, location, step);
+        }
+    }
+
+    public Object startRequirements() {
+        return AVAILABLE ? RequirementsEvent.start() : null;
+    }
+
+    /**
+     * @param items The number of distinct items required
+     */
+    public void finishRequirements(Object event, int items) {
+        if (event != null) {
+            RequirementsEvent.finish(event, items, runType, location, step);
+        }
+    }
+
+    public Object startSceneIndexRebuild() {
+        return AVAILABLE ? SceneIndexRebuildEvent.start() : null;
+    }
+
+    /**
+     * @param indexed The number of objects and npcs in the index after the rebuild
+     */
+    public void finishSceneIndexRebuild(Object event, int indexed) {
+        if (event != null) {
+            SceneIndexRebuildEvent.finish(event, indexed, runType, location, step);
+        }
+    }
+}
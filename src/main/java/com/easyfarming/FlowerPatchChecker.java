@@ -22,9 +22,20 @@ public class FlowerPatchChecker {
         UNKNOWN
     }
 
+    private static final PlantStateTable<PlantState> STATES = new PlantStateTable<>(FlowerPatchChecker::classify, PlantState.UNKNOWN);
+
     public static PlantState checkFlowerPatch(Client client, int varbitIndex) {
-        int varbitValue = client.getVarbitValue(varbitIndex);
+        return STATES.stateOf(client.getVarbitValue(varbitIndex));
+    }
+
+    /**
+     * @return The growth stage of a patch with the varbit value, -1 if it isn't growing
+     */
+    public static int growthStageOf(int varbitValue) {
+        return GROWING.indexOf(varbitValue);
+    }
 
+    private static PlantState classify(int varbitValue) {
         if (HARVESTABLE.contains(varbitValue)) {
             return PlantState.HARVESTABLE;
         } else if (GROWING.contains(varbitValue)) {
@@ -0,0 +1,199 @@
+package com.easyfarming;
+
+import javax.inject.Singleton;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Measures how long each frame spends in the parts of the plugin that run every frame. Every phase keeps a fixed
+ * size histogram, so recording never allocates and memory use doesn't grow with the number of frames.
+ * <p>
+ * Timing a phase is {@code long start = profiler.start();} before it and {@code profiler.record(phase, start)}
+ * after it. Phases that run many times a frame, like scene lookups, use {@link #add} instead and are recorded
+ * as one sample per frame when the frame ends. Everything is a no-op while the profiler is disabled. Must be
+ * used on the client thread.
+ */
+@Singleton
+public class FrameProfiler {
+    public enum Phase {
+        TELEPORT_OVERLAY("Teleport overlay"),
+        ITEM_OVERLAY("Item overlay"),
+        REQUIREMENTS("Requirements"),
+        SCENE_LOOKUPS("Scene lookups");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final Histogram[] histograms = new Histogram[PHASES.length];
+    private final long[] frameNanos = new long[PHASES.length];
+    private final boolean[] frameUsed = new boolean[PHASES.length];
+    private boolean enabled;
+
+    public FrameProfiler() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return The start time to pass to {@link #record} or {@link #add}, 0 while disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records one sample of a phase that runs once a frame.
+     */
+    public void record(Phase phase, long start) {
+        if (enabled && start != 0) {
+            histograms[phase.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Adds to this frame's total of a phase that runs many times a frame.
+     */
+    public void add(Phase phase, long start) {
+        if (enabled && start != 0) {
+            frameNanos[phase.ordinal()] += System.nanoTime() - start;
+            frameUsed[phase.ordinal()] = true;
+        }
+    }
+
+    /**
+     * Records the totals of the phases {@link #add}ed to during the frame, as one sample each.
+     */
+    public void endFrame() {
+        for (int i = 0; i < frameNanos.length; i++) {
+            if (frameUsed[i]) {
+                histograms[i].record(frameNanos[i]);
+                frameNanos[i] = 0;
+                frameUsed[i] = false;
+            }
+        }
+    }
+
+    public long getCount(Phase phase) {
+        return histograms[phase.ordinal()].count;
+    }
+
+    /**
+     * @param percentile Between 0 and 100
+     * @return The time in nanoseconds that the percentile of samples took at most, accurate to within 12.5%
+     */
+    public long getPercentile(Phase phase, double percentile) {
+        return histograms[phase.ordinal()].percentile(percentile);
+    }
+
+    public void reset() {
+        for (Histogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * @return One line per phase with its sample count, p50 and p99
+     */
+    public String[] describe() {
+        String[] lines = new String[PHASES.length];
+        for (Phase phase : PHASES) {
+            lines[phase.ordinal()] = String.format(Locale.ROOT, "%s: %d frames, p50 %s, p99 %s", phase.getLabel(),
+                getCount(phase), formatNanos(getPercentile(phase, 50)), formatNanos(getPercentile(phase, 99)));
+        }
+        return lines;
+    }
+
+    public static String formatNanos(long nanos) {
+        if (nanos < 10_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 10_000_000) {
+            return (nanos / 1_000) + "us";
+        }
+        return (nanos / 1_000_000) + "ms";
+    }
+
+    /**
+     * Counts samples in buckets that are exact below 16ns and split every power of two above it into 8, which
+     * keeps every bucket within 12.5% of its values up to 2^40ns.
+     */
+    static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int LINEAR_BUCKETS = 16;
+        private static final int FIRST_EXPONENT = 4;
+        private static final int MAX_EXPONENT = 40;
+
+        private final long[] counts = new long[LINEAR_BUCKETS + (MAX_EXPONENT - FIRST_EXPONENT + 1) * SUB_BUCKETS];
+        private long count;
+
+        void record(long nanos) {
+            counts[bucket(nanos)]++;
+            count++;
+        }
+
+        long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return upperBound(counts.length - 1);
+        }
+
+        void reset() {
+            Arrays.fill(counts, 0);
+            count = 0;
+        }
+
+        static int bucket(long nanos) {
+            if (nanos < LINEAR_BUCKETS) {
+                return (int) Math.max(0, nanos);
+            }
+            int exponent = Math.min(63 - Long.numberOfLeadingZeros(nanos), MAX_EXPONENT);
+            int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            if (exponent == MAX_EXPONENT && nanos >>> MAX_EXPONENT > 1) {
+                subBucket = SUB_BUCKETS - 1;
+            }
+            return LINEAR_BUCKETS + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+        }
+
+        /**
+         * @return The largest value that falls in the bucket
+         */
+        static long upperBound(int bucket) {
+            if (bucket < LINEAR_BUCKETS) {
+                return bucket;
+            }
+            int exponent = FIRST_EXPONENT + (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+            int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+            long width = 1L << (exponent - SUB_BUCKET_BITS);
+            return (1L << exponent) + (subBucket + 1) * width - 1;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.easyfarming;
+
+import net.runelite.api.Client;
+import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.OverlayLayer;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.PanelComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+import javax.inject.Inject;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+
+/**
+ * Shows the p50 and p99 frame time of every {@link FrameProfiler.Phase}, while profiling with the overlay enabled.
+ */
+public class FrameProfilerOverlay extends Overlay {
+    private final Client client;
+    private final EasyFarmingConfig config;
+    private final FrameProfiler frameProfiler;
+    private final PanelComponent panelComponent = new PanelComponent();
+
+    // The lines are rebuilt once a tick, so the overlay doesn't add much to the frames it measures
+    private int builtTick = -1;
+
+    @Inject
+    public FrameProfilerOverlay(Client client, EasyFarmingConfig config, FrameProfiler frameProfiler) {
+        this.client = client;
+        this.config = config;
+        this.frameProfiler = frameProfiler;
+        setPosition(OverlayPosition.TOP_RIGHT);
+        setLayer(OverlayLayer.ABOVE_WIDGETS);
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics) {
+        if (!frameProfiler.isEnabled() || !config.showFrameProfile()) {
+            return null;
+        }
+
+        if (client.getTickCount() != builtTick) {
+            builtTick = client.getTickCount();
+            panelComponent.getChildren().clear();
+            panelComponent.getChildren().add(TitleComponent.builder().text("Easy Farming p50 / p99").build());
+            for (FrameProfiler.Phase phase : FrameProfiler.Phase.values()) {
+                panelComponent.getChildren().add(LineComponent.builder()
+                    .left(phase.getLabel())
+                    .right(FrameProfiler.formatNanos(frameProfiler.getPercentile(phase, 50))
+                        + " / " + FrameProfiler.formatNanos(frameProfiler.getPercentile(phase, 99)))
+                    .build());
+            }
+        }
+        return panelComponent.render(graphics);
+    }
+}
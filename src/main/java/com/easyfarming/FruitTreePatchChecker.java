@@ -86,8 +86,36 @@ public class FruitTreePatchChecker {
         UNKNOWN
     }
 
+    private static final PlantStateTable<PlantState> STATES = new PlantStateTable<>(FruitTreePatchChecker::classify, PlantState.UNKNOWN);
+
     public static PlantState checkFruitTreePatch(Client client, int varbitIndex) {
-        int varbitValue = client.getVarbitValue(varbitIndex);
+        return stateOf(client.getVarbitValue(varbitIndex));
+    }
+
+    /**
+     * @return The state of a patch with the varbit value, also for values that were read earlier
+     */
+    public static PlantState stateOf(int varbitValue) {
+        return STATES.stateOf(varbitValue);
+    }
+
+    /**
+     * @return The fruit tree in a patch with the varbit value, null if nothing is planted
+     */
+    public static FruitTree cropOf(int varbitValue) {
+        for (FruitTree fruitTree : FruitTree.values()) {
+            if (fruitTree.getGrowing().contains(varbitValue)
+                || fruitTree.getDiseased().contains(varbitValue)
+                || fruitTree.getDead().contains(varbitValue)
+                || fruitTree.getHealthy().contains(varbitValue)
+                || fruitTree.getRemove().contains(varbitValue)) {
+                return fruitTree;
+            }
+        }
+        return null;
+    }
+
+    private static PlantState classify(int varbitValue) {
         if (growing.contains(varbitValue)) {
             return PlantState.GROWING;
         } else if (diseased.contains(varbitValue)) {
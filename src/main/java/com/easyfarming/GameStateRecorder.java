@@ -0,0 +1,384 @@
+package com.easyfarming;
+
+import net.runelite.api.Client;
+import net.runelite.api.DecorativeObject;
+import net.runelite.api.GameObject;
+import net.runelite.api.GameState;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.NPC;
+import net.runelite.api.ObjectComposition;
+import net.runelite.api.Player;
+import net.runelite.api.Point;
+import net.runelite.api.Scene;
+import net.runelite.api.Tile;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.gameval.InventoryID;
+import net.runelite.api.gameval.VarClientID;
+import net.runelite.client.RuneLite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.BitSet;
+import java.util.Date;
+
+/**
+ * Records the client state the plugin reads, tick by tick, so a run can be replayed offline. Recording starts
+ * with a snapshot of the current state, after that only changes are written. Every method must be called on the
+ * client thread and does nothing while not recording.
+ * <p>
+ * The file is written through a buffer, so the client thread only touches the disk every 64KB.
+ */
+public class GameStateRecorder {
+    private static final Logger log = LoggerFactory.getLogger(GameStateRecorder.class);
+
+    private static final File RECORDINGS_DIR = new File(RuneLite.RUNELITE_DIR, "easy-farming/recordings");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // The farming varbits the plugin reads, the rest are only recorded when they change
+    private static final int[] SNAPSHOT_VARBITS = {4771, 4772, 4773, 4774, 4775, 7905, 7906, 7909};
+    private static final int[] SNAPSHOT_CONTAINERS = {InventoryID.INV, InventoryID.WORN};
+    // Portal nexus, spirit tree, dialog options, and the other interfaces the overlays check for
+    private static final int[] SNAPSHOT_WIDGET_GROUPS = {17, 187, 219, 590, 29155};
+
+    private final Client client;
+
+    private DataOutputStream out;
+    private File file;
+    private final BitSet definedObjects = new BitSet();
+
+    @Inject
+    public GameStateRecorder(Client client) {
+        this.client = client;
+    }
+
+    public boolean isRecording() {
+        return out != null;
+    }
+
+    /**
+     * Starts a new recording and writes a snapshot of the current state. Does nothing if already recording.
+     */
+    public void start() {
+        if (isRecording()) {
+            return;
+        }
+        file = new File(RECORDINGS_DIR, new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".efr");
+        try {
+            if (!RECORDINGS_DIR.isDirectory() && !RECORDINGS_DIR.mkdirs()) {
+                throw new IOException("Can't create " + RECORDINGS_DIR);
+            }
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+            definedObjects.clear();
+            out.writeInt(GameStateRecording.MAGIC);
+            out.writeShort(GameStateRecording.VERSION);
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        log.debug("Recording game state to {}", file);
+        writeSnapshot();
+    }
+
+    public void stop() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Couldn't finish the recording {}, it is missing its last records", file, e);
+        }
+        out = null;
+    }
+
+    private void fail(IOException e) {
+        log.warn("Stopped recording to {}", file, e);
+        stop();
+    }
+
+    /**
+     * Ends the current game tick, call this on every {@link net.runelite.api.events.GameTick}.
+     */
+    public void recordTick() {
+        if (!isRecording()) {
+            return;
+        }
+        Player player = client.getLocalPlayer();
+        WorldPoint location = player != null ? player.getWorldLocation() : null;
+        try {
+            out.writeByte(GameStateRecording.TICK);
+            out.writeInt(client.getTickCount());
+            out.writeShort(location != null ? location.getX() : 0);
+            out.writeShort(location != null ? location.getY() : 0);
+            out.writeByte(location != null ? location.getPlane() : 0);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void recordVarbit(int varbitId, int value) {
+        if (!isRecording() || varbitId < 0) {
+            return;
+        }
+        try {
+            out.writeByte(GameStateRecording.VARBIT);
+            out.writeShort(varbitId);
+            out.writeInt(value);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void recordVarcInt(int varcId) {
+        if (!isRecording()) {
+            return;
+        }
+        try {
+            out.writeByte(GameStateRecording.VARC_INT);
+            out.writeShort(varcId);
+            out.writeInt(client.getVarcIntValue(varcId));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void recordItemContainer(int containerId, ItemContainer container) {
+        if (!isRecording()) {
+            return;
+        }
+        Item[] items = container != null ? container.getItems() : new Item[0];
+        try {
+            out.writeByte(GameStateRecording.ITEM_CONTAINER);
+            out.writeShort(containerId);
+            out.writeByte(items.length);
+            for (Item item : items) {
+                out.writeInt(item != null ? item.getId() : -1);
+                out.writeInt(item != null ? item.getQuantity() : 0);
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void recordWidgetLoaded(int groupId) {
+        recordWidget(GameStateRecording.WIDGET_LOADED, groupId);
+    }
+
+    public void recordWidgetClosed(int groupId) {
+        recordWidget(GameStateRecording.WIDGET_CLOSED, groupId);
+    }
+
+    private void recordWidget(int type, int groupId) {
+        if (!isRecording()) {
+            return;
+        }
+        try {
+            out.writeByte(type);
+            out.writeShort(groupId);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void recordChat(String type, String message) {
+        if (!isRecording()) {
+            return;
+        }
+        try {
+            out.writeByte(GameStateRecording.CHAT);
+            out.writeUTF(type);
+            out.writeUTF(message != null ? message : "");
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void recordGameObjectSpawned(GameObject gameObject) {
+        if (!isRecording()) {
+            return;
+        }
+        Point min = gameObject.getSceneMinLocation();
+        Point max = gameObject.getSceneMaxLocation();
+        if (min == null || max == null) {
+            return;
+        }
+        try {
+            defineObject(gameObject.getId());
+            out.writeByte(GameStateRecording.GAME_OBJECT_SPAWNED);
+            out.writeInt(gameObject.getId());
+            out.writeByte(gameObject.getPlane());
+            out.writeByte(min.getX());
+            out.writeByte(min.getY());
+            out.writeByte(max.getX() - min.getX() + 1);
+            out.writeByte(max.getY() - min.getY() + 1);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void recordGameObjectDespawned(GameObject gameObject) {
+        if (!isRecording()) {
+            return;
+        }
+        Point min = gameObject.getSceneMinLocation();
+        if (min == null) {
+            return;
+        }
+        try {
+            out.writeByte(GameStateRecording.GAME_OBJECT_DESPAWNED);
+            out.writeInt(gameObject.getId());
+            out.writeByte(gameObject.getPlane());
+            out.writeByte(min.getX());
+            out.writeByte(min.getY());
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void recordDecorativeObjectSpawned(DecorativeObject decorativeObject, Tile tile) {
+        if (!isRecording()) {
+            return;
+        }
+        try {
+            defineObject(decorativeObject.getId());
+            writeDecorativeObject(GameStateRecording.DECORATIVE_OBJECT_SPAWNED, decorativeObject, tile);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void recordDecorativeObjectDespawned(DecorativeObject decorativeObject, Tile tile) {
+        if (!isRecording()) {
+            return;
+        }
+        try {
+            writeDecorativeObject(GameStateRecording.DECORATIVE_OBJECT_DESPAWNED, decorativeObject, tile);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void writeDecorativeObject(int type, DecorativeObject decorativeObject, Tile tile) throws IOException {
+        out.writeByte(type);
+        out.writeInt(decorativeObject.getId());
+        out.writeByte(tile.getPlane());
+        out.writeByte(tile.getSceneLocation().getX());
+        out.writeByte(tile.getSceneLocation().getY());
+    }
+
+    public void recordNpcSpawned(NPC npc) {
+        if (!isRecording() || npc == null) {
+            return;
+        }
+        try {
+            out.writeByte(GameStateRecording.NPC_SPAWNED);
+            out.writeShort(npc.getIndex());
+            out.writeUTF(npc.getName() != null ? npc.getName() : "");
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void recordNpcDespawned(NPC npc) {
+        if (!isRecording() || npc == null) {
+            return;
+        }
+        try {
+            out.writeByte(GameStateRecording.NPC_DESPAWNED);
+            out.writeShort(npc.getIndex());
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void recordSceneLoading() {
+        if (!isRecording()) {
+            return;
+        }
+        try {
+            out.writeByte(GameStateRecording.SCENE_LOADING);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    // Names are what the overlays match some objects by, so each id's name is written once before its first spawn
+    private void defineObject(int objectId) throws IOException {
+        if (definedObjects.get(objectId)) {
+            return;
+        }
+        definedObjects.set(objectId);
+        ObjectComposition objectComposition = client.getObjectDefinition(objectId);
+        out.writeByte(GameStateRecording.OBJECT_DEFINITION);
+        out.writeInt(objectId);
+        out.writeUTF(objectComposition != null && objectComposition.getName() != null ? objectComposition.getName() : "");
+    }
+
+    // Written as the changes of one tick, ending with the tick itself
+    private void writeSnapshot() {
+        for (int varbitId : SNAPSHOT_VARBITS) {
+            recordVarbit(varbitId, client.getVarbitValue(varbitId));
+        }
+        for (int varbitId : EasyFarmingOverlay.RUNE_POUCH_RUNE_VARBITS) {
+            recordVarbit(varbitId, client.getVarbitValue(varbitId));
+        }
+        for (int varbitId : EasyFarmingOverlay.RUNE_POUCH_AMOUNT_VARBITS) {
+            recordVarbit(varbitId, client.getVarbitValue(varbitId));
+        }
+        for (int varbitId : EasyFarmingOverlay.TOOL_LEPRECHAUN_VARBITS) {
+            recordVarbit(varbitId, client.getVarbitValue(varbitId));
+        }
+        recordVarcInt(VarClientID.TOPLEVEL_PANEL);
+        for (int containerId : SNAPSHOT_CONTAINERS) {
+            recordItemContainer(containerId, client.getItemContainer(containerId));
+        }
+        for (int groupId : SNAPSHOT_WIDGET_GROUPS) {
+            if (client.getWidget(groupId, 0) != null) {
+                recordWidgetLoaded(groupId);
+            }
+        }
+
+        if (client.getGameState() == GameState.LOGGED_IN) {
+            writeSceneSnapshot();
+        }
+        recordTick();
+    }
+
+    private void writeSceneSnapshot() {
+        Scene scene = client.getTopLevelWorldView().getScene();
+        for (Tile[][] plane : scene.getTiles()) {
+            for (Tile[] column : plane) {
+                for (Tile tile : column) {
+                    if (tile == null) {
+                        continue;
+                    }
+                    GameObject[] gameObjects = tile.getGameObjects();
+                    if (gameObjects != null) {
+                        for (GameObject gameObject : gameObjects) {
+                            // Objects bigger than one tile are on every tile they cover, only record them once
+                            if (gameObject != null && gameObject.getSceneMinLocation() != null
+                                && gameObject.getSceneMinLocation().getX() == tile.getSceneLocation().getX()
+                                && gameObject.getSceneMinLocation().getY() == tile.getSceneLocation().getY()) {
+                                recordGameObjectSpawned(gameObject);
+                            }
+                        }
+                    }
+                    if (tile.getDecorativeObject() != null) {
+                        recordDecorativeObjectSpawned(tile.getDecorativeObject(), tile);
+                    }
+                }
+            }
+        }
+        for (NPC npc : client.getTopLevelWorldView().npcs()) {
+            recordNpcSpawned(npc);
+        }
+    }
+}
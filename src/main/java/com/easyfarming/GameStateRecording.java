@@ -0,0 +1,195 @@
+package com.easyfarming;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The binary format written by {@link GameStateRecorder}. A recording is a header followed by records, each a
+ * type byte and its fields. Changes are written as they happen and each tick record ends the tick they happened
+ * in. The state at the start of the recording is written as the changes of a first tick, so replaying a
+ * recording from the start always rebuilds the full state.
+ */
+public final class GameStateRecording {
+    public static final int MAGIC = 0x45465243;
+    public static final int VERSION = 1;
+
+    static final int TICK = 1;
+    static final int VARBIT = 2;
+    static final int VARC_INT = 3;
+    static final int ITEM_CONTAINER = 4;
+    static final int WIDGET_LOADED = 5;
+    static final int WIDGET_CLOSED = 6;
+    static final int CHAT = 7;
+    static final int OBJECT_DEFINITION = 8;
+    static final int GAME_OBJECT_SPAWNED = 9;
+    static final int GAME_OBJECT_DESPAWNED = 10;
+    static final int DECORATIVE_OBJECT_SPAWNED = 11;
+    static final int DECORATIVE_OBJECT_DESPAWNED = 12;
+    static final int NPC_SPAWNED = 13;
+    static final int NPC_DESPAWNED = 14;
+    static final int SCENE_LOADING = 15;
+
+    /**
+     * Receives the records of a recording in order. Every method does nothing by default.
+     */
+    public interface Listener {
+        /**
+         * Ends a game tick, the records since the previous tick happened during it.
+         */
+        default void onTick(int tick, int worldX, int worldY, int plane) {
+        }
+
+        default void onVarbit(int varbitId, int value) {
+        }
+
+        default void onVarcInt(int varcId, int value) {
+        }
+
+        /**
+         * @param itemIds The item id in each slot, -1 for empty slots
+         * @param quantities The quantity in each slot
+         */
+        default void onItemContainer(int containerId, int[] itemIds, int[] quantities) {
+        }
+
+        default void onWidgetLoaded(int groupId) {
+        }
+
+        default void onWidgetClosed(int groupId) {
+        }
+
+        /**
+         * @param type The name of the chat message type
+         */
+        default void onChat(String type, String message) {
+        }
+
+        /**
+         * Written before the first spawn of an object id, the name is empty for unnamed objects.
+         */
+        default void onObjectDefinition(int objectId, String name) {
+        }
+
+        default void onGameObjectSpawned(int objectId, int plane, int sceneX, int sceneY, int sizeX, int sizeY) {
+        }
+
+        default void onGameObjectDespawned(int objectId, int plane, int sceneX, int sceneY) {
+        }
+
+        default void onDecorativeObjectSpawned(int objectId, int plane, int sceneX, int sceneY) {
+        }
+
+        default void onDecorativeObjectDespawned(int objectId, int plane, int sceneX, int sceneY) {
+        }
+
+        default void onNpcSpawned(int index, String name) {
+        }
+
+        default void onNpcDespawned(int index) {
+        }
+
+        /**
+         * The scene is about to be reloaded, every object and npc in it is gone.
+         */
+        default void onSceneLoading() {
+        }
+    }
+
+    private GameStateRecording() {
+    }
+
+    /**
+     * Reads the whole recording, passing every record to the listener.
+     * @param in The recording, it is not closed
+     * @param listener Receives the records
+     * @throws IOException If the recording can't be read or isn't a recording
+     */
+    public static void read(InputStream in, Listener listener) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a game state recording");
+        }
+        int version = data.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported recording version " + version);
+        }
+
+        while (true) {
+            int type = data.read();
+            if (type == -1) {
+                return;
+            }
+            try {
+                readRecord(data, type, listener);
+            } catch (EOFException e) {
+                // The client was closed mid-write, everything up to the last full record is still usable
+                return;
+            }
+        }
+    }
+
+    private static void readRecord(DataInputStream data, int type, Listener listener) throws IOException {
+        switch (type) {
+            case TICK:
+                listener.onTick(data.readInt(), data.readUnsignedShort(), data.readUnsignedShort(), data.readUnsignedByte());
+                break;
+            case VARBIT:
+                listener.onVarbit(data.readUnsignedShort(), data.readInt());
+                break;
+            case VARC_INT:
+                listener.onVarcInt(data.readUnsignedShort(), data.readInt());
+                break;
+            case ITEM_CONTAINER: {
+                int containerId = data.readUnsignedShort();
+                int size = data.readUnsignedByte();
+                int[] itemIds = new int[size];
+                int[] quantities = new int[size];
+                for (int i = 0; i < size; i++) {
+                    itemIds[i] = data.readInt();
+                    quantities[i] = data.readInt();
+                }
+                listener.onItemContainer(containerId, itemIds, quantities);
+                break;
+            }
+            case WIDGET_LOADED:
+                listener.onWidgetLoaded(data.readUnsignedShort());
+                break;
+            case WIDGET_CLOSED:
+                listener.onWidgetClosed(data.readUnsignedShort());
+                break;
+            case CHAT:
+                listener.onChat(data.readUTF(), data.readUTF());
+                break;
+            case OBJECT_DEFINITION:
+                listener.onObjectDefinition(data.readInt(), data.readUTF());
+                break;
+            case GAME_OBJECT_SPAWNED:
+                listener.onGameObjectSpawned(data.readInt(), data.readUnsignedByte(), data.readUnsignedByte(),
+                    data.readUnsignedByte(), data.readUnsignedByte(), data.readUnsignedByte());
+                break;
+            case GAME_OBJECT_DESPAWNED:
+                listener.onGameObjectDespawned(data.readInt(), data.readUnsignedByte(), data.readUnsignedByte(), data.readUnsignedByte());
+                break;
+            case DECORATIVE_OBJECT_SPAWNED:
+                listener.onDecorativeObjectSpawned(data.readInt(), data.readUnsignedByte(), data.readUnsignedByte(), data.readUnsignedByte());
+                break;
+            case DECORATIVE_OBJECT_DESPAWNED:
+                listener.onDecorativeObjectDespawned(data.readInt(), data.readUnsignedByte(), data.readUnsignedByte(), data.readUnsignedByte());
+                break;
+            case NPC_SPAWNED:
+                listener.onNpcSpawned(data.readUnsignedShort(), data.readUTF());
+                break;
+            case NPC_DESPAWNED:
+                listener.onNpcDespawned(data.readUnsignedShort());
+                break;
+            case SCENE_LOADING:
+                listener.onSceneLoading();
+                break;
+            default:
+                throw new IOException("Unknown record type " + type);
+        }
+    }
+}
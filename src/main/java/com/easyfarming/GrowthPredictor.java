@@ -0,0 +1,138 @@
+package com.easyfarming;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.List;
+
+/**
+ * Estimates when the patches seen earlier can be harvested. Crops grow a stage at a time, on the farming ticks that
+ * fall every five minutes of the clock: herbs every 4th tick, trees every 8th and fruit trees every 32nd, so a stage
+ * ends on the next multiple of its length after the patch was seen in it. The growth-stage ranges of
+ * {@link HerbPatchChecker.Herb}, {@link TreePatchChecker.Tree} and {@link FruitTreePatchChecker.FruitTree} tell how
+ * many stages are left.
+ * <p>
+ * Every growing stage can also turn the crop diseased, less so with compost. A patch that likely caught a disease is
+ * worth a visit before it is ready, to cure it before it dies. The chances are rough estimates, the game doesn't
+ * publish them. Can be used from any thread.
+ */
+@Singleton
+public class GrowthPredictor {
+    static final long FARMING_TICK_MILLIS = 5 * 60 * 1000;
+
+    // A run takes a few minutes, patches that are ready by the time they are reached are kept
+    private static final long LOOKAHEAD_MILLIS = FARMING_TICK_MILLIS;
+    // Patches at least this likely to be diseased are visited early
+    private static final double DISEASED_VISIT_CHANCE = 0.5;
+
+    private final PatchStateStore patchStateStore;
+    private final EasyFarmingConfig config;
+
+    @Inject
+    public GrowthPredictor(PatchStateStore patchStateStore, EasyFarmingConfig config) {
+        this.patchStateStore = patchStateStore;
+        this.config = config;
+    }
+
+    /**
+     * @return true if the patch is predicted to still be growing by the time the run gets to it, and likely healthy
+     */
+    public boolean isSkippable(FarmingPatch patch, long nowMillis) {
+        PatchObservation observation = patchStateStore.getObservation(patch);
+        if (observation == null) {
+            return false;
+        }
+        long readyAt = predictReadyAt(observation);
+        return readyAt > nowMillis + LOOKAHEAD_MILLIS && diseaseChance(observation, nowMillis) < DISEASED_VISIT_CHANCE;
+    }
+
+    /**
+     * @return When the patch is predicted to be harvestable, in milliseconds since the epoch. The time it was seen if
+     * it wasn't growing then, it needs a visit either way.
+     */
+    public long predictReadyAt(PatchObservation observation) {
+        int stagesLeft = stagesLeft(observation);
+        long observedAt = observation.getObservedAtMillis();
+        if (stagesLeft == 0) {
+            return observedAt;
+        }
+        long stageMillis = stageMillis(observation.getPatch().getType());
+        long stageEnd = (observedAt / stageMillis + 1) * stageMillis;
+        return stageEnd + (stagesLeft - 1) * stageMillis;
+    }
+
+    /**
+     * @return The chance the patch caught a disease in the stages that passed since it was seen
+     */
+    public double diseaseChance(PatchObservation observation, long nowMillis) {
+        int stagesLeft = stagesLeft(observation);
+        if (stagesLeft == 0) {
+            return 0;
+        }
+        long stageMillis = stageMillis(observation.getPatch().getType());
+        long observedStage = observation.getObservedAtMillis() / stageMillis;
+        // Only growing stages can turn diseased, the last one ends in a harvestable crop
+        long stagesPassed = Math.min(nowMillis / stageMillis - observedStage, stagesLeft - 1);
+        if (stagesPassed <= 0) {
+            return 0;
+        }
+        double healthyStage = 1 - stageDiseaseChance(observation.getPatch().getType()) * compostFactor();
+        return 1 - Math.pow(healthyStage, stagesPassed);
+    }
+
+    /**
+     * @return The growth stages left before the patch is harvestable, 0 if it isn't growing
+     */
+    private static int stagesLeft(PatchObservation observation) {
+        int value = observation.getVarbitValue();
+        List<Integer> growing = null;
+        switch (observation.getPatch().getType()) {
+            case HERB:
+                HerbPatchChecker.Herb herb = HerbPatchChecker.cropOf(value);
+                growing = herb != null ? herb.getGrowing() : null;
+                break;
+            case TREE:
+                TreePatchChecker.Tree tree = TreePatchChecker.cropOf(value);
+                growing = tree != null ? tree.getGrowing() : null;
+                break;
+            case FRUIT_TREE:
+                FruitTreePatchChecker.FruitTree fruitTree = FruitTreePatchChecker.cropOf(value);
+                growing = fruitTree != null ? fruitTree.getGrowing() : null;
+                break;
+        }
+        if (growing == null) {
+            return 0;
+        }
+        int stage = growing.indexOf(value);
+        return stage >= 0 ? growing.size() - stage : 0;
+    }
+
+    private static long stageMillis(FarmingPatch.Type type) {
+        switch (type) {
+            case HERB:
+                return 4 * FARMING_TICK_MILLIS;
+            case TREE:
+                return 8 * FARMING_TICK_MILLIS;
+            default:
+                return 32 * FARMING_TICK_MILLIS;
+        }
+    }
+
+    private static double stageDiseaseChance(FarmingPatch.Type type) {
+        return type == FarmingPatch.Type.HERB ? 0.2 : 0.1;
+    }
+
+    /**
+     * Assumes the patches were treated with the compost the config asks for.
+     */
+    private double compostFactor() {
+        switch (config.enumConfigCompost()) {
+            case Compost:
+                return 0.5;
+            case Supercompost:
+                return 0.2;
+            default:
+                // Ultracompost, and the bottomless bucket is usually filled with it
+                return 0.1;
+        }
+    }
+}
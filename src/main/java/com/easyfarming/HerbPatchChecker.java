@@ -63,8 +63,34 @@ public class HerbPatchChecker {
     private static final List<Integer> WEEDS = Arrays.asList(0, 1, 2);
     private static final List<Integer> DEAD = Arrays.asList(170, 171, 172);
 
+    private static final PlantStateTable<PlantState> STATES = new PlantStateTable<>(HerbPatchChecker::classify, PlantState.UNKNOWN);
+
     public static PlantState checkHerbPatch(Client client, int varbitIndex) {
-        int varbitValue = client.getVarbitValue(varbitIndex);
+        return stateOf(client.getVarbitValue(varbitIndex));
+    }
+
+    /**
+     * @return The state of a patch with the varbit value, also for values that were read earlier
+     */
+    public static PlantState stateOf(int varbitValue) {
+        return STATES.stateOf(varbitValue);
+    }
+
+    /**
+     * @return The herb in a patch with the varbit value, null if nothing is planted
+     */
+    public static Herb cropOf(int varbitValue) {
+        for (Herb herb : Herb.values()) {
+            if (herb.getGrowing().contains(varbitValue)
+                || herb.getDead().contains(varbitValue)
+                || herb.getHarvest().contains(varbitValue)) {
+                return herb;
+            }
+        }
+        return null;
+    }
+
+    private static PlantState classify(int varbitValue) {
 
         if (growing.contains(varbitValue)) {
             return PlantState.GROWING;
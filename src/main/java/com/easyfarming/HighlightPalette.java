@@ -0,0 +1,83 @@
+package com.easyfarming;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Stroke;
+
+/**
+ * Prebuilt colors, strokes and composites for every highlight style. Rebuilt from the config on startup and
+ * whenever the config changes, the overlays only read from it.
+ */
+public class HighlightPalette {
+    public enum Style {
+        LEFT_CLICK,
+        RIGHT_CLICK,
+        USE_ITEM
+    }
+
+    private static final Composite INTERFACE_COMPOSITE = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.65f);
+    private static final Stroke STROKE = new BasicStroke(1);
+    private static final int DECORATIVE_FILL_ALPHA = 50;
+
+    private final Color[] strokeColors = new Color[Style.values().length];
+    private final Color[] objectFillColors = new Color[Style.values().length];
+    private final Color[] decorativeFillColors = new Color[Style.values().length];
+
+    public HighlightPalette() {
+        Color fallback = new Color(0, 191, 255, 128);
+        for (Style style : Style.values()) {
+            setColors(style, fallback, fallback.getAlpha());
+        }
+    }
+
+    public void rebuild(EasyFarmingConfig config) {
+        setColors(Style.LEFT_CLICK, config.highlightLeftClickColor(), config.highlightAlpha());
+        setColors(Style.RIGHT_CLICK, config.highlightRightClickColor(), config.highlightAlpha());
+        setColors(Style.USE_ITEM, config.highlightUseItemColor(), config.highlightAlpha());
+    }
+
+    private void setColors(Style style, Color color, int alpha) {
+        int index = style.ordinal();
+        strokeColors[index] = new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha);
+        objectFillColors[index] = new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha / 5);
+        decorativeFillColors[index] = new Color(color.getRed(), color.getGreen(), color.getBlue(), DECORATIVE_FILL_ALPHA);
+    }
+
+    /**
+     * @return The outline color, also used to fill widgets and inventory slots
+     */
+    public Color getStrokeColor(Style style) {
+        return strokeColors[style.ordinal()];
+    }
+
+    /**
+     * @return The translucent fill used inside game object clickboxes
+     */
+    public Color getObjectFillColor(Style style) {
+        return objectFillColors[style.ordinal()];
+    }
+
+    /**
+     * @return The translucent fill used inside decorative object clickboxes
+     */
+    public Color getDecorativeFillColor(Style style) {
+        return decorativeFillColors[style.ordinal()];
+    }
+
+    public Stroke getStroke() {
+        return STROKE;
+    }
+
+    /**
+     * @return The composite used to highlight interface components
+     */
+    public Composite getInterfaceComposite() {
+        return INTERFACE_COMPOSITE;
+    }
+
+    public Composite getDefaultComposite() {
+        return AlphaComposite.SrcOver;
+    }
+}
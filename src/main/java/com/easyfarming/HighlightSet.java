@@ -0,0 +1,145 @@
+package com.easyfarming;
+
+import net.runelite.api.DecorativeObject;
+import net.runelite.api.GameObject;
+import net.runelite.api.NPC;
+import net.runelite.api.widgets.Widget;
+
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The objects, npcs, widgets and inventory items the teleport overlay decided to highlight. Deciding what to
+ * highlight is done once a tick, or when an event changed the game state, and fills the set. Every frame only
+ * projects the resolved set to the canvas and draws it, so a frame costs as much as the number of highlights
+ * and not as much as the scene. The lists keep their capacity between ticks.
+ * Must be used on the client thread.
+ */
+public class HighlightSet {
+    private final List<GameObject> gameObjects = new ArrayList<>();
+    private final List<HighlightPalette.Style> gameObjectStyles = new ArrayList<>();
+    private final List<DecorativeObject> decorativeObjects = new ArrayList<>();
+    private final List<NPC> npcs = new ArrayList<>();
+    // Interface components are filled translucently, dynamic components (menu options) are filled opaque
+    private final List<Widget> interfaces = new ArrayList<>();
+    private final List<Widget> dynamicComponents = new ArrayList<>();
+    private final List<Integer> itemIds = new ArrayList<>();
+    private final List<HighlightPalette.Style> itemStyles = new ArrayList<>();
+    private final List<Integer> itemSlotLimits = new ArrayList<>();
+
+    public void clear() {
+        gameObjects.clear();
+        gameObjectStyles.clear();
+        decorativeObjects.clear();
+        npcs.clear();
+        interfaces.clear();
+        dynamicComponents.clear();
+        itemIds.clear();
+        itemStyles.clear();
+        itemSlotLimits.clear();
+    }
+
+    public void addGameObject(GameObject gameObject, HighlightPalette.Style style) {
+        gameObjects.add(gameObject);
+        gameObjectStyles.add(style);
+    }
+
+    public void addDecorativeObject(DecorativeObject decorativeObject) {
+        decorativeObjects.add(decorativeObject);
+    }
+
+    public void addNpc(NPC npc) {
+        npcs.add(npc);
+    }
+
+    public void addInterface(Widget widget) {
+        interfaces.add(widget);
+    }
+
+    public void addDynamicComponent(Widget widget) {
+        dynamicComponents.add(widget);
+    }
+
+    /**
+     * @param slotLimit The most inventory slots holding the item to highlight
+     */
+    public void addItem(int itemId, HighlightPalette.Style style, int slotLimit) {
+        itemIds.add(itemId);
+        itemStyles.add(style);
+        itemSlotLimits.add(slotLimit);
+    }
+
+    /**
+     * Projects every highlight to the canvas and draws it. Clickboxes and tile polygons are computed here, since
+     * they move with the camera.
+     */
+    public void draw(Graphics2D graphics, HighlightPalette palette, RenderQuality renderQuality,
+                     WidgetBoundsCache widgetBoundsCache, InventorySlotCache inventorySlotCache) {
+        boolean outlineOnly = renderQuality.isOutlineOnly();
+
+        for (int i = 0; i < gameObjects.size(); i++) {
+            Shape clickbox = gameObjects.get(i).getClickbox();
+            if (clickbox != null) {
+                HighlightPalette.Style style = gameObjectStyles.get(i);
+                graphics.setColor(palette.getStrokeColor(style));
+                graphics.draw(clickbox);
+                if (!outlineOnly) {
+                    graphics.setColor(palette.getObjectFillColor(style));
+                    graphics.fill(clickbox);
+                }
+            }
+        }
+
+        for (int i = 0; i < decorativeObjects.size(); i++) {
+            Shape clickbox = decorativeObjects.get(i).getClickbox();
+            if (clickbox != null) {
+                graphics.setColor(palette.getStrokeColor(HighlightPalette.Style.LEFT_CLICK));
+                graphics.draw(clickbox);
+                if (!outlineOnly) {
+                    graphics.setColor(palette.getDecorativeFillColor(HighlightPalette.Style.LEFT_CLICK));
+                    graphics.fill(clickbox);
+                }
+            }
+        }
+
+        for (int i = 0; i < npcs.size(); i++) {
+            Polygon tilePolygon = npcs.get(i).getCanvasTilePoly();
+            if (tilePolygon != null) {
+                graphics.setColor(palette.getStrokeColor(HighlightPalette.Style.LEFT_CLICK));
+                graphics.draw(tilePolygon);
+                if (!outlineOnly) {
+                    graphics.fill(tilePolygon);
+                }
+            }
+        }
+
+        if (!interfaces.isEmpty()) {
+            graphics.setColor(palette.getStrokeColor(HighlightPalette.Style.LEFT_CLICK));
+            graphics.setComposite(palette.getInterfaceComposite());
+            for (int i = 0; i < interfaces.size(); i++) {
+                Rectangle bounds = widgetBoundsCache.getBounds(interfaces.get(i));
+                graphics.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+            }
+            graphics.setComposite(palette.getDefaultComposite());
+        }
+
+        for (int i = 0; i < dynamicComponents.size(); i++) {
+            graphics.setColor(palette.getStrokeColor(HighlightPalette.Style.LEFT_CLICK));
+            graphics.fill(widgetBoundsCache.getBounds(dynamicComponents.get(i)));
+        }
+
+        for (int i = 0; i < itemIds.size(); i++) {
+            Rectangle[] slotBounds = inventorySlotCache.getSlotBounds(itemIds.get(i));
+            int slots = Math.min(itemSlotLimits.get(i), slotBounds.length);
+            graphics.setColor(palette.getStrokeColor(itemStyles.get(i)));
+            for (int slot = 0; slot < slots; slot++) {
+                graphics.draw(slotBounds[slot]);
+                graphics.fill(slotBounds[slot]);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.easyfarming;
+
+import net.runelite.api.Constants;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.game.ItemManager;
+import net.runelite.client.util.AsyncBufferedImage;
+
+import javax.inject.Inject;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds overlay-ready copies of item icons. Icons are prefetched when a run starts, so the overlays never
+ * have to load an icon while rendering. The cache is bounded and evicts the least recently used icon.
+ * <p>
+ * A load can get lost, for an id the item manager never finishes or a client thread task dropped at logout, so an
+ * icon that is still loading after a while is requested again.
+ */
+public class IconCache {
+    private static final int MAX_ICONS = 256;
+    private static final long PENDING_TIMEOUT_MILLIS = 10_000;
+
+    private final ItemManager itemManager;
+    private final ClientThread clientThread;
+    private final EasyFarmingMetrics metrics;
+
+    private final Map<Integer, BufferedImage> icons = new LinkedHashMap<Integer, BufferedImage>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest) {
+            return size() > MAX_ICONS;
+        }
+    };
+    // When each icon that is loading was requested
+    private final Map<Integer, Long> pending = new HashMap<>();
+    private int revision = 0;
+
+    @Inject
+    public IconCache(ItemManager itemManager, ClientThread clientThread, EasyFarmingMetrics metrics) {
+        this.itemManager = itemManager;
+        this.clientThread = clientThread;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts loading every icon that isn't cached or loading yet.
+     * @param itemIds The items whose icons should be available
+     */
+    public synchronized void prefetch(Iterable<Integer> itemIds) {
+        for (Integer itemId : itemIds) {
+            if (!icons.containsKey(itemId) && request(itemId)) {
+                load(itemId);
+            }
+        }
+    }
+
+    private synchronized void load(int itemId) {
+        AsyncBufferedImage image = itemManager.getImage(itemId);
+        if (image == null) {
+            pending.remove(itemId);
+            return;
+        }
+        image.onLoaded(() -> store(itemId, image));
+    }
+
+    private synchronized void store(int itemId, BufferedImage image) {
+        BufferedImage icon = new BufferedImage(Constants.ITEM_SPRITE_WIDTH, Constants.ITEM_SPRITE_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D iconGraphics = icon.createGraphics();
+        iconGraphics.drawImage(image, 0, 0, null);
+        iconGraphics.dispose();
+
+        pending.remove(itemId);
+        icons.put(itemId, icon);
+        revision++;
+    }
+
+    /**
+     * Never loads on the calling thread, a missing icon is queued and shows up in a later frame.
+     * @param itemId The item to get the icon for
+     * @return The cached icon, or null if it hasn't been loaded yet
+     */
+    public synchronized BufferedImage get(int itemId) {
+        BufferedImage icon = icons.get(itemId);
+        if (icon != null) {
+            metrics.iconCacheHit();
+            return icon;
+        }
+        metrics.iconCacheMiss();
+        if (request(itemId)) {
+            clientThread.invokeLater(() -> load(itemId));
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the icon should be loaded, it isn't loading yet or its load took too long
+     */
+    private boolean request(int itemId) {
+        long now = System.currentTimeMillis();
+        Long requestedAt = pending.get(itemId);
+        if (requestedAt != null && now - requestedAt < PENDING_TIMEOUT_MILLIS) {
+            return false;
+        }
+        pending.put(itemId, now);
+        return true;
+    }
+
+    /**
+     * Lets every icon that is loading be requested again, call this when the client logs out or hops, which drops
+     * the loads queued on the client thread.
+     */
+    public synchronized void clearPending() {
+        pending.clear();
+    }
+
+    /**
+     * @return A counter that changes every time an icon was added to the cache
+     */
+    public synchronized int getRevision() {
+        return revision;
+    }
+
+    public synchronized void clear() {
+        icons.clear();
+        pending.clear();
+        revision++;
+    }
+}
@@ -0,0 +1,126 @@
+package com.easyfarming;
+
+import net.runelite.api.Client;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.gameval.InterfaceID;
+import net.runelite.api.gameval.InventoryID;
+import net.runelite.api.widgets.Widget;
+
+import javax.inject.Inject;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Caches the canvas bounds of the inventory slots together with an index of which slots hold which item.
+ * The cache is rebuilt lazily whenever it has been invalidated (inventory contents or layout changed) or
+ * the inventory widget itself has been replaced, so highlighting an item only costs a lookup.
+ */
+public class InventorySlotCache {
+    private static final Rectangle[] NO_SLOTS = new Rectangle[0];
+
+    private final Client client;
+
+    private int revision = 0;
+    private int builtRevision = -1;
+    private Widget builtWidget;
+
+    // Sorted item ids, with the slot bounds and total quantity for each id at the same index
+    private int[] itemIds = new int[0];
+    private Rectangle[][] slotBoundsByItem = new Rectangle[0][];
+    private int[] quantityByItem = new int[0];
+
+    @Inject
+    public InventorySlotCache(Client client) {
+        this.client = client;
+    }
+
+    /**
+     * Marks the cache as stale, call this when the inventory contents or the inventory layout changed.
+     */
+    public void invalidate() {
+        revision++;
+    }
+
+    /**
+     * @return A counter that changes every time the inventory contents or layout were invalidated
+     */
+    public int getRevision() {
+        return revision;
+    }
+
+    /**
+     * @param itemId The item to look up
+     * @return The bounds of every inventory slot holding the item, or an empty array if there are none
+     */
+    public Rectangle[] getSlotBounds(int itemId) {
+        refresh();
+        int index = Arrays.binarySearch(itemIds, itemId);
+        return index >= 0 ? slotBoundsByItem[index] : NO_SLOTS;
+    }
+
+    public boolean contains(int itemId) {
+        refresh();
+        return Arrays.binarySearch(itemIds, itemId) >= 0;
+    }
+
+    /**
+     * @param itemId The item to look up
+     * @return The total quantity of the item over all inventory slots
+     */
+    public int getQuantity(int itemId) {
+        refresh();
+        int index = Arrays.binarySearch(itemIds, itemId);
+        return index >= 0 ? quantityByItem[index] : 0;
+    }
+
+    private void refresh() {
+        Widget inventoryWidget = client.getWidget(InterfaceID.Inventory.ITEMS);
+        if (builtRevision == revision && builtWidget == inventoryWidget) {
+            return;
+        }
+        builtRevision = revision;
+        builtWidget = inventoryWidget;
+
+        ItemContainer inventory = client.getItemContainer(InventoryID.INV);
+        if (inventory == null || inventory.getItems() == null) {
+            itemIds = new int[0];
+            slotBoundsByItem = new Rectangle[0][];
+            quantityByItem = new int[0];
+            return;
+        }
+
+        Item[] items = inventory.getItems();
+        Map<Integer, List<Rectangle>> boundsById = new TreeMap<>();
+        Map<Integer, Integer> quantityById = new TreeMap<>();
+        for (int i = 0; i < items.length; i++) {
+            Item item = items[i];
+            if (item == null || item.getId() <= 0) {
+                continue;
+            }
+
+            quantityById.merge(item.getId(), item.getQuantity(), Integer::sum);
+
+            List<Rectangle> slots = boundsById.computeIfAbsent(item.getId(), id -> new ArrayList<>());
+            Widget itemWidget = inventoryWidget != null ? inventoryWidget.getChild(i) : null;
+            if (itemWidget != null) {
+                slots.add(itemWidget.getBounds());
+            }
+        }
+
+        itemIds = new int[boundsById.size()];
+        slotBoundsByItem = new Rectangle[boundsById.size()][];
+        quantityByItem = new int[boundsById.size()];
+        int index = 0;
+        for (Map.Entry<Integer, List<Rectangle>> entry : boundsById.entrySet()) {
+            itemIds[index] = entry.getKey();
+            slotBoundsByItem[index] = entry.getValue().toArray(NO_SLOTS);
+            quantityByItem[index] = quantityById.get(entry.getKey());
+            index++;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.easyfarming.ItemsAndLocations;
 
 import com.easyfarming.EasyFarmingConfig;
 import com.easyfarming.EasyFarmingPlugin;
+import com.easyfarming.FarmingPatch;
 import com.easyfarming.ItemRequirement;
 import com.easyfarming.Location;
 import net.runelite.api.Client;
@@ -9,6 +10,7 @@ import net.runelite.api.gameval.ItemID;
 import net.runelite.api.coords.WorldPoint;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 public class HerbRunItemAndLocation extends ItemAndLocation
 {
@@ -42,108 +44,173 @@ public class HerbRunItemAndLocation extends ItemAndLocation
 
     public Map<Integer, Integer> getAllItemRequirements(List<Location> locations)
     {
-        Map<Integer, Integer> allRequirements = new HashMap<>();
+        return getAllItemRequirements(locations, location -> true);
+    }
 
-        setupLocations();
+    /**
+     * @param teleportNeeded Whether the items to teleport to the location are needed
+     */
+    public Map<Integer, Integer> getAllItemRequirements(List<Location> locations, Predicate<Location> teleportNeeded)
+    {
+        Map<Integer, Integer> allRequirements = new HashMap<>();
 
         // Add other items and merge them with allRequirements
         for (Location location : locations) {
-            if (plugin.getHerbLocationEnabled(location.getName())) {
-                //ItemID.GUAM_SEED is default for herb seeds, code later will allow for any seed to be used, just needed a placeholder ID
-                allRequirements.merge(
-                    ItemID.GUAM_SEED,
-                    1,
+            if (plugin.isLocationInRun(FarmingPatch.Type.HERB, location.getName())) {
+                getPatchRequirements(location).forEach((itemId, quantity) -> allRequirements.merge(
+                    itemId,
+                    quantity,
                     Integer::sum
-                );
-
-                if (selectedCompostID() != - 1 && selectedCompostID() != ItemID.BOTTOMLESS_COMPOST_BUCKET) {
-                    allRequirements.merge(
-                        selectedCompostID(),
-                        1,
-                        Integer::sum
-                    );
-                }
-
-                Location.Teleport teleport = location.getSelectedTeleport();
-
-                Map<Integer, Integer> locationRequirements = teleport.getItemRequirements();
-
-                for (Map.Entry<Integer, Integer> entry : locationRequirements.entrySet()) {
-                    int itemId = entry.getKey();
-                    int quantity = entry.getValue();
-
-                    if (itemId == ItemID.SKILLCAPE_CONSTRUCTION || itemId == ItemID.SKILLCAPE_CONSTRUCTION_TRIMMED || itemId == ItemID.SKILLCAPE_MAX) {
-                        allRequirements.merge(
-                            itemId,
-                            quantity,
-                            (oldValue, newValue) -> Math.min(
-                                1,
-                                oldValue + newValue
-                            )
-                        );
-                    } else {
-                        allRequirements.merge(
-                            itemId,
-                            quantity,
-                            Integer::sum
-                        );
+                ));
+
+                // A combined run reaches sites with several patches with a single teleport
+                if (teleportNeeded.test(location)) {
+                    for (Map.Entry<Integer, Integer> entry : getTeleportRequirements(location).entrySet()) {
+                        int itemId = entry.getKey();
+                        int quantity = entry.getValue();
+
+                        if (itemId == ItemID.SKILLCAPE_CONSTRUCTION || itemId == ItemID.SKILLCAPE_CONSTRUCTION_TRIMMED || itemId == ItemID.SKILLCAPE_MAX) {
+                            allRequirements.merge(
+                                itemId,
+                                quantity,
+                                (oldValue, newValue) -> Math.min(
+                                    1,
+                                    oldValue + newValue
+                                )
+                            );
+                        } else {
+                            allRequirements.merge(
+                                itemId,
+                                quantity,
+                                Integer::sum
+                            );
+                        }
                     }
                 }
 
-                if (location.getFarmLimps() && config.generalLimpwurt()) {
-                    allRequirements.merge(
-                        ItemID.LIMPWURT_SEED,
-                        1,
-                        Integer::sum
-                    );
-
-                    if (selectedCompostID() != - 1 && selectedCompostID() != ItemID.BOTTOMLESS_COMPOST_BUCKET) {
-                        allRequirements.merge(
-                            selectedCompostID(),
-                            1,
-                            Integer::sum
-                        );
-                    }
-                }
+                getFlowerRequirements(location).forEach((itemId, quantity) -> allRequirements.merge(
+                    itemId,
+                    quantity,
+                    Integer::sum
+                ));
+            }
+        }
+
+        getToolRequirements().forEach((itemId, quantity) -> allRequirements.merge(
+            itemId,
+            quantity,
+            Integer::sum
+        ));
+
+        return allRequirements;
+    }
+
+    @Override
+    public Map<Integer, Integer> getPatchRequirements(Location location)
+    {
+        Map<Integer, Integer> requirements = new HashMap<>();
+
+        //ItemID.GUAM_SEED is default for herb seeds, code later will allow for any seed to be used, just needed a placeholder ID
+        requirements.put(
+            ItemID.GUAM_SEED,
+            1
+        );
+
+        if (selectedCompostID() != - 1 && selectedCompostID() != ItemID.BOTTOMLESS_COMPOST_BUCKET) {
+            requirements.put(
+                selectedCompostID(),
+                1
+            );
+        }
+
+        return requirements;
+    }
+
+    /**
+     * @return The items used up tending the location's flower patch, nothing if limpwurt isn't farmed there
+     */
+    public Map<Integer, Integer> getFlowerRequirements(Location location)
+    {
+        Map<Integer, Integer> requirements = new HashMap<>();
+
+        if (location.getFarmLimps() && config.generalLimpwurt()) {
+            requirements.put(
+                ItemID.LIMPWURT_SEED,
+                1
+            );
+
+            if (selectedCompostID() != - 1 && selectedCompostID() != ItemID.BOTTOMLESS_COMPOST_BUCKET) {
+                requirements.put(
+                    selectedCompostID(),
+                    1
+                );
             }
         }
+
+        return requirements;
+    }
+
+    @Override
+    public Map<Integer, Integer> getToolRequirements()
+    {
+        Map<Integer, Integer> requirements = new HashMap<>();
+
         if(config.generalSeedDibber()) {
-            allRequirements.merge(
+            requirements.put(
                 ItemID.DIBBER,
-                1,
-                Integer::sum
+                1
             );
         }
 
-        allRequirements.merge(
+        requirements.put(
             ItemID.SPADE,
-            1,
-            Integer::sum
+            1
         );
 
         if (selectedCompostID() == ItemID.BOTTOMLESS_COMPOST_BUCKET) {
-            allRequirements.merge(
+            requirements.put(
                 ItemID.BOTTOMLESS_COMPOST_BUCKET,
-                1,
-                Integer::sum
+                1
             );
         }
 
-        allRequirements.merge(
+        requirements.put(
             ItemID.FAIRY_ENCHANTED_SECATEURS,
-            1,
-            Integer::sum
+            1
         );
 
         if (config.generalRake()) {
-            allRequirements.merge(
+            requirements.put(
                 ItemID.RAKE,
-                1,
-                Integer::sum
+                1
             );
         }
 
-        return allRequirements;
+        return requirements;
+    }
+
+    @Override
+    public HerbRunItemAndLocation newCatalog()
+    {
+        HerbRunItemAndLocation catalog = new HerbRunItemAndLocation(config, client, plugin);
+        catalog.setupLocations();
+        return catalog;
+    }
+
+    @Override
+    public void adopt(ItemAndLocation catalog)
+    {
+        super.adopt(catalog);
+        HerbRunItemAndLocation run = (HerbRunItemAndLocation) catalog;
+        ardougneLocation = run.ardougneLocation;
+        catherbyLocation = run.catherbyLocation;
+        faladorLocation = run.faladorLocation;
+        farmingGuildLocation = run.farmingGuildLocation;
+        harmonyLocation = run.harmonyLocation;
+        kourendLocation = run.kourendLocation;
+        morytaniaLocation = run.morytaniaLocation;
+        trollStrongholdLocation = run.trollStrongholdLocation;
+        weissLocation = run.weissLocation;
     }
 
     public void setupLocations()
@@ -4,11 +4,14 @@ import com.easyfarming.EasyFarmingConfig;
 import com.easyfarming.EasyFarmingPlugin;
 import com.easyfarming.ItemRequirement;
 import com.easyfarming.Location;
+import com.easyfarming.TransportGraph;
 import net.runelite.api.Client;
 import net.runelite.api.gameval.ItemID;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ItemAndLocation
 {
@@ -20,6 +23,9 @@ public class ItemAndLocation
 
     public List<Location> locations = new ArrayList<>();
 
+    // Picks the teleports the requirements ask for, the config's until it is built with what the player carries
+    private TransportGraph transportGraph = new TransportGraph();
+
     public ItemAndLocation()
     {
     }
@@ -113,8 +119,71 @@ public class ItemAndLocation
             default:
                 return 0;
         }
-    }    public void setupLocations()
+    }
+
+    /**
+     * @return The items used up tending the location's patch
+     */
+    public Map<Integer, Integer> getPatchRequirements(Location location)
+    {
+        return new HashMap<>();
+    }
+
+    /**
+     * Makes the requirements ask for the teleports the run will take with what the player carries, the same ones
+     * the run's steps pick. Call this after the locations are set up.
+     * @param carriedItems What the player can use, see {@link com.easyfarming.EasyFarmingOverlay#countCarriedItems()}
+     */
+    public void chooseTeleports(Map<Integer, Integer> carriedItems)
+    {
+        transportGraph.rebuild(locations, getHouseTeleportItemRequirements(), carriedItems);
+    }
+
+    /**
+     * @return The items used up teleporting to the location
+     */
+    public Map<Integer, Integer> getTeleportRequirements(Location location)
+    {
+        Location.Teleport teleport = transportGraph.select(location, config.fastestTeleport());
+        if (teleport == null) {
+            teleport = location.getSelectedTeleport();
+        }
+        return teleport != null ? new HashMap<>(teleport.getItemRequirements()) : new HashMap<>();
+    }
+
+    /**
+     * @return The tools the run needs, whatever locations it visits
+     */
+    public Map<Integer, Integer> getToolRequirements()
+    {
+        return new HashMap<>();
+    }
+
+    /**
+     * Sets up the locations into a new list, a list handed out before is left as it is.
+     */
+    public void setupLocations()
+    {
+        locations = new ArrayList<>();
+    }
+
+    /**
+     * @return A new catalog of the run with its locations set up, this one isn't touched so it can be called from
+     * the background worker
+     */
+    public ItemAndLocation newCatalog()
+    {
+        ItemAndLocation catalog = new ItemAndLocation(config, client, plugin);
+        catalog.setupLocations();
+        return catalog;
+    }
+
+    /**
+     * Takes over the locations of a catalog made with {@link #newCatalog()}. Must be called on the client thread.
+     */
+    public void adopt(ItemAndLocation catalog)
     {
-        locations.clear();
+        locations = catalog.locations;
+        transportGraph = catalog.transportGraph;
     }
 }
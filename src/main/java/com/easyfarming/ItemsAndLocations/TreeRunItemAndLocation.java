@@ -2,6 +2,7 @@ package com.easyfarming.ItemsAndLocations;
 
 import com.easyfarming.EasyFarmingConfig;
 import com.easyfarming.EasyFarmingPlugin;
+import com.easyfarming.FarmingPatch;
 import com.easyfarming.ItemRequirement;
 import com.easyfarming.Location;
 import net.runelite.api.Client;
@@ -9,6 +10,7 @@ import net.runelite.api.gameval.ItemID;
 import net.runelite.api.coords.WorldPoint;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 public class TreeRunItemAndLocation extends ItemAndLocation
 {
@@ -39,94 +41,140 @@ public class TreeRunItemAndLocation extends ItemAndLocation
 
     public Map<Integer, Integer> getAllItemRequirements(List<Location> locations)
     {
-        Map<Integer, Integer> allRequirements = new HashMap<>();
+        return getAllItemRequirements(locations, location -> true);
+    }
 
-        setupLocations();
+    /**
+     * @param teleportNeeded Whether the items to teleport to the location are needed
+     */
+    public Map<Integer, Integer> getAllItemRequirements(List<Location> locations, Predicate<Location> teleportNeeded)
+    {
+        Map<Integer, Integer> allRequirements = new HashMap<>();
 
         // Add other items and merge them with allRequirements
         for (Location location : locations) {
-            if (plugin.getTreeLocationEnabled(location.getName())) {
-                //ItemID.GUAM_SEED is default for herb seeds, code later will allow for any seed to be used, just needed a placeholder ID
-                //allRequirements.merge(ItemID.GUAM_SEED, 1, Integer::sum);
-                allRequirements.merge(
-                    ItemID.PLANTPOT_OAK_SAPLING,
-                    1,
-                    Integer::sum
-                );
-
-                allRequirements.merge(
-                    ItemID.COINS,
-                    200,
+            if (plugin.isLocationInRun(FarmingPatch.Type.TREE, location.getName())) {
+                getPatchRequirements(location).forEach((itemId, quantity) -> allRequirements.merge(
+                    itemId,
+                    quantity,
                     Integer::sum
-                );
-
-                if (selectedCompostID() != -1 && selectedCompostID() != ItemID.BOTTOMLESS_COMPOST_BUCKET) {
-                    allRequirements.merge(
-                        selectedCompostID(),
-                        1,
-                        Integer::sum
-                    );
-                }
-
-                Location.Teleport teleport = location.getSelectedTeleport();
-
-                Map<Integer, Integer> locationRequirements = teleport.getItemRequirements();
-
-                for (Map.Entry<Integer, Integer> entry : locationRequirements.entrySet()) {
-                    int itemId = entry.getKey();
-                    int quantity = entry.getValue();
-
-                    if (itemId == ItemID.SKILLCAPE_CONSTRUCTION || itemId == ItemID.SKILLCAPE_CONSTRUCTION_TRIMMED || itemId == ItemID.SKILLCAPE_MAX) {
-                        allRequirements.merge(
-                            itemId,
-                            quantity,
-                            (oldValue, newValue) -> Math.min(
-                                1,
-                                oldValue + newValue
-                            )
-                        );
-                    } else {
-                        allRequirements.merge(
-                            itemId,
-                            quantity,
-                            Integer::sum
-                        );
+                ));
+
+                // A combined run reaches sites with several patches with a single teleport
+                if (teleportNeeded.test(location)) {
+                    for (Map.Entry<Integer, Integer> entry : getTeleportRequirements(location).entrySet()) {
+                        int itemId = entry.getKey();
+                        int quantity = entry.getValue();
+
+                        if (itemId == ItemID.SKILLCAPE_CONSTRUCTION || itemId == ItemID.SKILLCAPE_CONSTRUCTION_TRIMMED || itemId == ItemID.SKILLCAPE_MAX) {
+                            allRequirements.merge(
+                                itemId,
+                                quantity,
+                                (oldValue, newValue) -> Math.min(
+                                    1,
+                                    oldValue + newValue
+                                )
+                            );
+                        } else {
+                            allRequirements.merge(
+                                itemId,
+                                quantity,
+                                Integer::sum
+                            );
+                        }
                     }
                 }
             }
         }
 
+        getToolRequirements().forEach((itemId, quantity) -> allRequirements.merge(
+            itemId,
+            quantity,
+            Integer::sum
+        ));
+
+        return allRequirements;
+    }
+
+    @Override
+    public Map<Integer, Integer> getPatchRequirements(Location location)
+    {
+        Map<Integer, Integer> requirements = new HashMap<>();
+
+        //ItemID.PLANTPOT_OAK_SAPLING is a placeholder, code later will allow for any sapling to be used
+        requirements.put(
+            ItemID.PLANTPOT_OAK_SAPLING,
+            1
+        );
+
+        requirements.put(
+            ItemID.COINS,
+            200
+        );
+
+        if (selectedCompostID() != -1 && selectedCompostID() != ItemID.BOTTOMLESS_COMPOST_BUCKET) {
+            requirements.put(
+                selectedCompostID(),
+                1
+            );
+        }
+
+        return requirements;
+    }
+
+    @Override
+    public Map<Integer, Integer> getToolRequirements()
+    {
+        Map<Integer, Integer> requirements = new HashMap<>();
+
         //allRequirements.merge(ItemID.SEED_DIBBER, 1, Integer::sum);
-        allRequirements.merge(
+        requirements.put(
             ItemID.SPADE,
-            1,
-            Integer::sum
+            1
         );
 
         // Only add bottomless compost bucket if it's selected in config
         if (selectedCompostID() == ItemID.BOTTOMLESS_COMPOST_BUCKET) {
-            allRequirements.merge(
+            requirements.put(
                 ItemID.BOTTOMLESS_COMPOST_BUCKET,
-                1,
-                Integer::sum
+                1
             );
         }
 
-        allRequirements.merge(
+        requirements.put(
             ItemID.FAIRY_ENCHANTED_SECATEURS,
-            1,
-            Integer::sum
+            1
         );
 
         if (config.generalRake()) {
-            allRequirements.merge(
+            requirements.put(
                 ItemID.RAKE,
-                1,
-                Integer::sum
+                1
             );
         }
 
-        return allRequirements;
+        return requirements;
+    }
+
+    @Override
+    public TreeRunItemAndLocation newCatalog()
+    {
+        TreeRunItemAndLocation catalog = new TreeRunItemAndLocation(config, client, plugin);
+        catalog.setupLocations();
+        return catalog;
+    }
+
+    @Override
+    public void adopt(ItemAndLocation catalog)
+    {
+        super.adopt(catalog);
+        TreeRunItemAndLocation run = (TreeRunItemAndLocation) catalog;
+        faladorTreeLocation = run.faladorTreeLocation;
+        farmingGuildTreeLocation = run.farmingGuildTreeLocation;
+        gnomeStrongholdTreeLocation = run.gnomeStrongholdTreeLocation;
+        lumbridgeTreeLocation = run.lumbridgeTreeLocation;
+        taverleyTreeLocation = run.taverleyTreeLocation;
+        varrockTreeLocation = run.varrockTreeLocation;
     }
 
     public void setupLocations()
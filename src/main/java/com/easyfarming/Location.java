@@ -45,9 +45,14 @@ public class Location {
         teleportOptions.add(teleport);
     }
 
+    public List<Teleport> getTeleportOptions() {
+        return teleportOptions;
+    }
+
     public Teleport getSelectedTeleport() {
         String selectedEnumOption = selectedTeleportFunction.apply(config).name();
-        for (Teleport teleport : teleportOptions) {
+        for (int i = 0; i < teleportOptions.size(); i++) {
+            Teleport teleport = teleportOptions.get(i);
             if (teleport.getEnumOption().equalsIgnoreCase(selectedEnumOption)) {
                 return teleport;
             }
@@ -0,0 +1,42 @@
+package com.easyfarming;
+
+/**
+ * What a patch looked like when it was seen, and since when it looked like that.
+ */
+public class PatchObservation {
+    private final FarmingPatch patch;
+    private final int varbitValue;
+    private final long observedAtMillis;
+
+    public PatchObservation(FarmingPatch patch, int varbitValue, long observedAtMillis) {
+        this.patch = patch;
+        this.varbitValue = varbitValue;
+        this.observedAtMillis = observedAtMillis;
+    }
+
+    public FarmingPatch getPatch() {
+        return patch;
+    }
+
+    public int getVarbitValue() {
+        return varbitValue;
+    }
+
+    /**
+     * @return When the patch was first seen with this value, in milliseconds since the epoch
+     */
+    public long getObservedAtMillis() {
+        return observedAtMillis;
+    }
+
+    public String getState() {
+        return patch.getType().stateOf(varbitValue);
+    }
+
+    /**
+     * @return The crop in the patch, null if nothing is planted
+     */
+    public String getCrop() {
+        return patch.getType().cropOf(varbitValue);
+    }
+}
@@ -0,0 +1,253 @@
+package com.easyfarming;
+
+import net.runelite.api.Client;
+import net.runelite.api.Player;
+import net.runelite.client.RuneLite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers what every patch of the catalog looked like when it was last seen, across teleports, logouts and
+ * restarts, so a run can be planned before its patches are in sight. A patch is read when the player is in its
+ * region, a tick after a farming varbit changed or a scene loaded, when the varbits describe the new surroundings.
+ * <p>
+ * Changes are appended to a small file in the RuneLite directory, one line each: the time, the patch, the varbit
+ * value and, for reading the file, the state and crop. The file is read on the background worker when the plugin
+ * starts. Appends are the only writes, and an append that grows it past {@link #COMPACT_BYTES} rewrites it with only
+ * the latest line of every patch right after, so no other append can land in the file being replaced.
+ * Must be used on the client thread, the file work is done on the background worker. Observations can be read and
+ * {@link #flush()} called from any thread.
+ */
+@Singleton
+public class PatchStateStore {
+    private static final Logger log = LoggerFactory.getLogger(PatchStateStore.class);
+
+    private static final File STORE_FILE = new File(RuneLite.RUNELITE_DIR, "easy-farming/patches.log");
+    private static final long COMPACT_BYTES = 64 * 1024;
+    private static final Set<Integer> PATCH_VARBITS = new HashSet<>();
+
+    static {
+        for (FarmingPatch patch : FarmingPatch.values()) {
+            PATCH_VARBITS.add(patch.getVarbitId());
+        }
+    }
+
+    private final Client client;
+    private final BackgroundWorker backgroundWorker;
+    private final Map<FarmingPatch, PatchObservation> observations = new ConcurrentHashMap<>();
+    // Taken by the background worker when it saves, guarded by itself
+    private final List<PatchObservation> unsaved = new ArrayList<>();
+    private boolean observePending;
+    private Runnable onChanged = () -> {};
+
+    @Inject
+    public PatchStateStore(Client client, BackgroundWorker backgroundWorker) {
+        this.client = client;
+        this.backgroundWorker = backgroundWorker;
+    }
+
+    /**
+     * Reads the patches seen in earlier sessions, call this once the background worker is started.
+     *
+     * @param onChanged Run on the client thread once the patches are read, and whenever a patch changes after that
+     */
+    public void load(Runnable onChanged) {
+        this.onChanged = onChanged;
+        backgroundWorker.submit("Patch states", PatchStateStore::readStore, loaded -> {
+            for (PatchObservation observation : loaded) {
+                // A patch seen while loading is newer
+                observations.putIfAbsent(observation.getPatch(), observation);
+            }
+            log.debug("Loaded the states of {} patches", loaded.size());
+            onChanged.run();
+        });
+    }
+
+    /**
+     * @return What the patch looked like when it was last seen, null if it was never seen
+     */
+    public PatchObservation getObservation(FarmingPatch patch) {
+        return observations.get(patch);
+    }
+
+    public boolean isPatchVarbit(int varbitId) {
+        return PATCH_VARBITS.contains(varbitId);
+    }
+
+    /**
+     * Reads the patches around the player on the next tick, call this when a farming varbit changed or a scene
+     * loaded.
+     */
+    public void invalidate() {
+        observePending = true;
+    }
+
+    /**
+     * Call this on every {@link net.runelite.api.events.GameTick}.
+     */
+    public void onGameTick() {
+        if (observePending) {
+            observePending = false;
+            observe();
+        }
+    }
+
+    private void observe() {
+        Player player = client.getLocalPlayer();
+        // Instances are copies of regions placed somewhere else
+        if (player == null || client.isInInstancedRegion()) {
+            return;
+        }
+        int regionId = player.getWorldLocation().getRegionID();
+        long now = System.currentTimeMillis();
+        boolean changed = false;
+        for (FarmingPatch patch : FarmingPatch.values()) {
+            if (patch.getRegionId() != regionId) {
+                continue;
+            }
+            int varbitValue = client.getVarbitValue(patch.getVarbitId());
+            PatchObservation last = observations.get(patch);
+            if (last != null && last.getVarbitValue() == varbitValue) {
+                continue;
+            }
+            PatchObservation observation = new PatchObservation(patch, varbitValue, now);
+            observations.put(patch, observation);
+            synchronized (unsaved) {
+                unsaved.add(observation);
+            }
+            changed = true;
+        }
+        if (changed) {
+            onChanged.run();
+            flush();
+        }
+    }
+
+    /**
+     * Saves the patches seen since the last save on the background worker. The plugin calls this right before it
+     * shuts the worker down, which lets the save finish. Lines that couldn't be saved are tried again with the next
+     * change.
+     */
+    public void flush() {
+        backgroundWorker.submit("Patch states", () -> {
+            saveUnsaved();
+            return null;
+        }, ignored -> {});
+    }
+
+    private void saveUnsaved() {
+        List<PatchObservation> lines;
+        synchronized (unsaved) {
+            if (unsaved.isEmpty()) {
+                return;
+            }
+            lines = new ArrayList<>(unsaved);
+            unsaved.clear();
+        }
+        try {
+            append(lines);
+        } catch (UncheckedIOException e) {
+            // Put back on the worker, so a flush queued behind this save still finds them
+            synchronized (unsaved) {
+                unsaved.addAll(0, lines);
+            }
+            throw e;
+        }
+    }
+
+    private static void append(List<PatchObservation> lines) {
+        File directory = STORE_FILE.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new UncheckedIOException(new IOException("Can't create " + directory));
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(STORE_FILE, true), StandardCharsets.UTF_8))) {
+            write(writer, lines);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't save the patch states to " + STORE_FILE, e);
+        }
+        if (STORE_FILE.length() > COMPACT_BYTES) {
+            compact(readStore());
+        }
+    }
+
+    private static void write(Writer writer, Collection<PatchObservation> lines) throws IOException {
+        for (PatchObservation observation : lines) {
+            String crop = observation.getCrop();
+            writer.write(observation.getObservedAtMillis() + "," + observation.getPatch().name() + ","
+                + observation.getVarbitValue() + "," + observation.getState() + "," + (crop != null ? crop : "") + "\n");
+        }
+    }
+
+    private static Collection<PatchObservation> readStore() {
+        Map<FarmingPatch, PatchObservation> latest = new EnumMap<>(FarmingPatch.class);
+        if (!STORE_FILE.isFile()) {
+            return latest.values();
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(STORE_FILE), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                PatchObservation observation = parse(line);
+                if (observation != null) {
+                    latest.put(observation.getPatch(), observation);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Couldn't read the patch states from {}", STORE_FILE, e);
+        }
+        return latest.values();
+    }
+
+    /**
+     * @return The observation on the line, null if the line is cut off or names a patch that no longer exists
+     */
+    private static PatchObservation parse(String line) {
+        String[] fields = line.split(",");
+        if (fields.length < 3) {
+            return null;
+        }
+        try {
+            return new PatchObservation(FarmingPatch.valueOf(fields[1]), Integer.parseInt(fields[2]), Long.parseLong(fields[0]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void compact(Collection<PatchObservation> latest) {
+        File compacted = new File(STORE_FILE.getPath() + ".tmp");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(compacted), StandardCharsets.UTF_8))) {
+            write(writer, latest);
+        } catch (IOException e) {
+            log.warn("Couldn't compact {}", STORE_FILE, e);
+            return;
+        }
+        try {
+            Files.move(compacted.toPath(), STORE_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Couldn't replace {}", STORE_FILE, e);
+        }
+    }
+}
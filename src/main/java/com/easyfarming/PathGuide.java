@@ -0,0 +1,173 @@
+package com.easyfarming;
+
+import net.runelite.api.Client;
+import net.runelite.api.Perspective;
+import net.runelite.api.Point;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
+
+import javax.inject.Inject;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shows the way from where a teleport leaves the player to the patch, as a path of tiles in the scene and a line on
+ * the minimap. Paths are found with A* over the loaded scene's collision flags, and past the scene's edge over the
+ * regions saved by the {@link CollisionCache}. They are kept per start tile and patch, the start tile also fixes the
+ * region, so arriving by the same teleport again reuses the path. While the player walks along the path only the
+ * part ahead of them is drawn. When they leave it, a short search joins the path again from where they are, the
+ * whole path is only found again when that fails.
+ * Must be used on the client thread.
+ */
+public class PathGuide {
+    private static final int MAX_CACHED_PATHS = 32;
+    // Running covers two tiles a tick, so the player is on the path while next to one of its tiles
+    private static final int ON_PATH_DISTANCE = 1;
+
+    private final Client client;
+    private final CollisionCache collisionCache;
+    private final TilePathfinder pathfinder = new TilePathfinder();
+    private final Map<Long, List<WorldPoint>> paths = new LinkedHashMap<Long, List<WorldPoint>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, List<WorldPoint>> eldest) {
+            return size() > MAX_CACHED_PATHS;
+        }
+    };
+
+    private WorldPoint activePatch;
+    private List<WorldPoint> activePath = Collections.emptyList();
+    private int progress;
+    // The part of the path ahead of the player, resolved once a tick and projected every frame
+    private final List<LocalPoint> visibleTiles = new ArrayList<>();
+
+    @Inject
+    public PathGuide(Client client, CollisionCache collisionCache) {
+        this.client = client;
+        this.collisionCache = collisionCache;
+    }
+
+    /**
+     * Shows the way from the player to the patch, call this every time the highlights are resolved while the player
+     * is on their way.
+     */
+    public void guide(WorldPoint player, WorldPoint patch) {
+        visibleTiles.clear();
+        if (player == null || patch == null) {
+            return;
+        }
+        if (!patch.equals(activePatch)) {
+            activePatch = patch;
+            activePath = Collections.emptyList();
+            progress = 0;
+        }
+
+        int index = indexOnPath(player);
+        if (index < 0) {
+            activePath = findPath(player, patch);
+            index = 0;
+        }
+        progress = index;
+
+        for (int i = progress; i < activePath.size(); i++) {
+            LocalPoint localPoint = LocalPoint.fromWorld(client, activePath.get(i));
+            if (localPoint != null) {
+                visibleTiles.add(localPoint);
+            }
+        }
+    }
+
+    /**
+     * Stops drawing the path, the path is kept for when the player is on their way again.
+     */
+    public void hide() {
+        visibleTiles.clear();
+    }
+
+    /**
+     * Forgets every path, call this when a run ends.
+     */
+    public void clear() {
+        paths.clear();
+        activePatch = null;
+        activePath = Collections.emptyList();
+        progress = 0;
+        visibleTiles.clear();
+    }
+
+    /**
+     * @return The furthest index of the path next to the player, -1 if they left it
+     */
+    private int indexOnPath(WorldPoint player) {
+        int index = -1;
+        for (int i = 0; i < activePath.size(); i++) {
+            WorldPoint tile = activePath.get(i);
+            if (tile.getPlane() == player.getPlane()
+                && Math.max(Math.abs(tile.getX() - player.getX()), Math.abs(tile.getY() - player.getY())) <= ON_PATH_DISTANCE) {
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    private List<WorldPoint> findPath(WorldPoint player, WorldPoint patch) {
+        long key = ((long) pack(player) << 32) | (pack(patch) & 0xFFFFFFFFL);
+        List<WorldPoint> path = paths.get(key);
+        if (path != null) {
+            return path;
+        }
+
+        CollisionSource collision = new SceneCollision(client, collisionCache);
+        if (progress < activePath.size()) {
+            path = pathfinder.rejoin(collision, player, activePath.subList(progress, activePath.size()));
+        }
+        if (path == null) {
+            path = pathfinder.findPath(collision, player, patch);
+        }
+        paths.put(key, path);
+        return path;
+    }
+
+    /**
+     * @return The steps it takes to walk from the start to next to the target. When the target can't be reached,
+     * the steps to the closest reachable tile plus the straight distance from there.
+     */
+    public int walkingDistance(WorldPoint start, WorldPoint target) {
+        List<WorldPoint> path = pathfinder.findPath(new SceneCollision(client, collisionCache), start, target);
+        WorldPoint end = path.get(path.size() - 1);
+        int rest = end.getPlane() == target.getPlane()
+            ? Math.max(Math.abs(end.getX() - target.getX()), Math.abs(end.getY() - target.getY()))
+            : Integer.MAX_VALUE / 2;
+        return path.size() - 1 + rest;
+    }
+
+    private static int pack(WorldPoint point) {
+        return (point.getPlane() << 30) | (point.getX() << 15) | point.getY();
+    }
+
+    public void draw(Graphics2D graphics, HighlightPalette palette) {
+        if (visibleTiles.isEmpty()) {
+            return;
+        }
+        graphics.setColor(palette.getStrokeColor(HighlightPalette.Style.LEFT_CLICK));
+        for (int i = 0; i < visibleTiles.size(); i++) {
+            Polygon tilePolygon = Perspective.getCanvasTilePoly(client, visibleTiles.get(i));
+            if (tilePolygon != null) {
+                graphics.draw(tilePolygon);
+            }
+        }
+
+        Point previous = null;
+        for (int i = 0; i < visibleTiles.size(); i++) {
+            Point minimapPoint = Perspective.localToMinimap(client, visibleTiles.get(i));
+            if (minimapPoint != null && previous != null) {
+                graphics.drawLine(previous.getX(), previous.getY(), minimapPoint.getX(), minimapPoint.getY());
+            }
+            previous = minimapPoint;
+        }
+    }
+}
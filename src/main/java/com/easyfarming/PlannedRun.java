@@ -0,0 +1,31 @@
+package com.easyfarming;
+
+import com.easyfarming.ItemsAndLocations.ItemAndLocation;
+
+import java.util.Map;
+
+/**
+ * A run worked out on the background worker, the catalogs of its run types built fresh and the requirements worked
+ * out from them. The catalogs the client thread reads are only swapped for these when the run starts, see
+ * {@link EasyFarmingPlugin#adoptCatalogs(PlannedRun)}.
+ */
+public class PlannedRun {
+    private final Map<FarmingPatch.Type, ItemAndLocation> catalogs;
+    private final Map<Integer, Integer> items;
+
+    public PlannedRun(Map<FarmingPatch.Type, ItemAndLocation> catalogs, Map<Integer, Integer> items) {
+        this.catalogs = catalogs;
+        this.items = items;
+    }
+
+    public Map<FarmingPatch.Type, ItemAndLocation> getCatalogs() {
+        return catalogs;
+    }
+
+    /**
+     * @return The items the whole run needs
+     */
+    public Map<Integer, Integer> getItems() {
+        return items;
+    }
+}
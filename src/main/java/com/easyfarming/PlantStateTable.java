@@ -0,0 +1,35 @@
+package com.easyfarming;
+
+import java.util.function.IntFunction;
+
+/**
+ * The state of a patch for every value of its varbit. Every patch state fits in a byte, so the states are resolved
+ * once for every possible value and looking one up is an array read, which the overlays do for every patch each frame.
+ *
+ * @param <S> The plant states of the patch's checker
+ */
+final class PlantStateTable<S> {
+    private static final int VALUES = 256;
+
+    private final Object[] states = new Object[VALUES];
+    private final S unknown;
+
+    /**
+     * @param classify Works out the state of a value, called once for each of them
+     * @param unknown The state of a value that doesn't fit in a byte
+     */
+    PlantStateTable(IntFunction<S> classify, S unknown) {
+        for (int value = 0; value < VALUES; value++) {
+            states[value] = classify.apply(value);
+        }
+        this.unknown = unknown;
+    }
+
+    @SuppressWarnings("unchecked")
+    S stateOf(int varbitValue) {
+        if (varbitValue < 0 || varbitValue >= VALUES) {
+            return unknown;
+        }
+        return (S) states[varbitValue];
+    }
+}
@@ -0,0 +1,162 @@
+package com.easyfarming;
+
+import net.runelite.client.Notifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+/**
+ * Tells the player when a run is worth starting. Patches only change on farming ticks, so instead of checking every
+ * frame or game tick it wakes up once on every farming tick boundary, works out how many of the enabled patches of
+ * each run type are predicted to be ready, updates the panel and sends a notification once the configured part of
+ * them is. A run type is notified once until it drops below that part again, after the run.
+ * <p>
+ * Only patches that were seen count, nothing can be predicted for the others. The wakeups run on RuneLite's
+ * scheduled executor and only use the config and the {@link GrowthPredictor}.
+ */
+@Singleton
+public class ReadinessScheduler {
+    private static final Logger log = LoggerFactory.getLogger(ReadinessScheduler.class);
+
+    private final ScheduledExecutorService executor;
+    private final Notifier notifier;
+    private final EasyFarmingConfig config;
+    private final PatchStateStore patchStateStore;
+    private final GrowthPredictor growthPredictor;
+
+    // Only touched by the executor's thread
+    private final Set<FarmingPatch.Type> notified = EnumSet.noneOf(FarmingPatch.Type.class);
+
+    private BiPredicate<FarmingPatch.Type, String> locationEnabled;
+    private Consumer<String> statusListener;
+    private ScheduledFuture<?> wakeup;
+    // Counts the starts and stops, so a wakeup still running from before a restart doesn't schedule a second chain
+    private int generation;
+
+    @Inject
+    public ReadinessScheduler(ScheduledExecutorService executor, Notifier notifier, EasyFarmingConfig config, PatchStateStore patchStateStore, GrowthPredictor growthPredictor) {
+        this.executor = executor;
+        this.notifier = notifier;
+        this.config = config;
+        this.patchStateStore = patchStateStore;
+        this.growthPredictor = growthPredictor;
+    }
+
+    /**
+     * Checks the patches right away and then on every farming tick boundary.
+     *
+     * @param locationEnabled Whether a location of a run type is enabled in the config
+     * @param statusListener Gets a line per run type with how many of its patches are ready, on the executor's thread
+     */
+    public synchronized void start(BiPredicate<FarmingPatch.Type, String> locationEnabled, Consumer<String> statusListener) {
+        this.locationEnabled = locationEnabled;
+        this.statusListener = statusListener;
+        generation++;
+        refresh();
+        scheduleWakeup(generation, System.currentTimeMillis());
+    }
+
+    public synchronized void stop() {
+        generation++;
+        if (wakeup != null) {
+            wakeup.cancel(false);
+            wakeup = null;
+        }
+        statusListener = null;
+    }
+
+    /**
+     * Checks the patches again before the next boundary, call this when the config or the remembered patches
+     * changed.
+     */
+    public synchronized void refresh() {
+        if (statusListener != null) {
+            executor.execute(() -> check(System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Wakes up on the first farming tick boundary after the given time, or after now if that has passed.
+     */
+    private synchronized void scheduleWakeup(int generation, long after) {
+        if (generation != this.generation || statusListener == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long from = Math.max(after, now);
+        long boundary = from - from % GrowthPredictor.FARMING_TICK_MILLIS + GrowthPredictor.FARMING_TICK_MILLIS;
+        wakeup = executor.schedule(() -> {
+            // The patches are checked at the boundary itself, the clock can still read a moment before it
+            check(boundary);
+            scheduleWakeup(generation, boundary);
+        }, boundary - now, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param now The time to check the patches at
+     */
+    private void check(long now) {
+        Consumer<String> listener;
+        BiPredicate<FarmingPatch.Type, String> enabled;
+        synchronized (this) {
+            listener = statusListener;
+            enabled = locationEnabled;
+        }
+        if (listener == null) {
+            return;
+        }
+
+        StringBuilder status = new StringBuilder();
+        for (FarmingPatch.Type type : FarmingPatch.Type.values()) {
+            int seen = 0;
+            int ready = 0;
+            long allReadyAt = 0;
+            for (FarmingPatch patch : FarmingPatch.values()) {
+                if (patch.getType() != type || !enabled.test(type, patch.getLocationName())) {
+                    continue;
+                }
+                PatchObservation observation = patchStateStore.getObservation(patch);
+                if (observation == null) {
+                    continue;
+                }
+                seen++;
+                long readyAt = growthPredictor.predictReadyAt(observation);
+                if (readyAt <= now) {
+                    ready++;
+                }
+                allReadyAt = Math.max(allReadyAt, readyAt);
+            }
+            if (seen == 0) {
+                continue;
+            }
+
+            status.append(type.getLabel()).append(" patches: ").append(ready).append('/').append(seen).append(" ready");
+            if (ready < seen) {
+                status.append(", all at ").append(new SimpleDateFormat("HH:mm").format(new Date(allReadyAt)));
+            }
+            status.append('\n');
+
+            boolean enough = ready * 100 >= seen * config.readyPercent();
+            if (!enough) {
+                notified.remove(type);
+            } else if (notified.add(type) && config.notifyWhenReady()) {
+                log.debug("{} of {} {} patches are ready", ready, seen, type.getLabel());
+                notifier.notify(ready == seen
+                    ? "Your " + type.getLabel().toLowerCase() + " patches are ready."
+                    : ready + " of your " + seen + " " + type.getLabel().toLowerCase() + " patches are ready.");
+            }
+        }
+        listener.accept(status.length() > 0 ? status.toString().trim() : "No patches seen yet.");
+    }
+}
@@ -0,0 +1,128 @@
+package com.easyfarming;
+
+import javax.inject.Singleton;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The items the rest of the run in progress still needs. The requirements are kept per stop, the teleport to a site
+ * and each patch tended there, together with their total. Once a stop is done, or its patch turns out to be growing
+ * already, only its own items are taken off the total, so the missing items panel and a bank visit during the run
+ * only ask for what the remaining route uses.
+ * <p>
+ * Tools are carried once however many stops use them, they stay needed as long as any stop that uses them is left.
+ * Stops that are done stay done when the requirements are worked out again for a config change, until the run ends.
+ * Must be used on the client thread.
+ */
+@Singleton
+public class RemainingRequirements {
+    private final Map<Integer, Integer> remaining = new HashMap<>();
+    private final Map<Integer, Integer> remainingView = Collections.unmodifiableMap(remaining);
+    // The tools the whole run needs, whatever stops are left
+    private final Set<Integer> runTools = new HashSet<>();
+    // How many of the stops left use each tool
+    private final Map<Integer, Integer> toolUsers = new HashMap<>();
+    private final Map<String, Map<Integer, Integer>> stops = new HashMap<>();
+    private final Set<String> doneStops = new HashSet<>();
+    private int revision = 0;
+
+    /**
+     * @return The key of the stop that travels to the site
+     */
+    public static String travelStop(String siteName) {
+        return siteName + "/travel";
+    }
+
+    /**
+     * @return The key of the stop that tends the site's patch of the kind
+     */
+    public static String patchStop(String siteName, SitePlan.Kind kind) {
+        return siteName + "/" + kind;
+    }
+
+    /**
+     * Starts over with the tools of the run, keeping which stops are done. Add the stops that are left after.
+     */
+    public void reset(Map<Integer, Integer> tools) {
+        remaining.clear();
+        runTools.clear();
+        toolUsers.clear();
+        stops.clear();
+        remaining.putAll(tools);
+        runTools.addAll(tools.keySet());
+        revision++;
+    }
+
+    /**
+     * Forgets the run, call this when it ends.
+     */
+    public void clear() {
+        reset(Collections.emptyMap());
+        doneStops.clear();
+    }
+
+    /**
+     * Adds the items of a stop to the total, unless it is done already.
+     */
+    public void addStop(String stop, Map<Integer, Integer> items) {
+        if (doneStops.contains(stop) || items.isEmpty() || stops.putIfAbsent(stop, items) != null) {
+            return;
+        }
+        for (Map.Entry<Integer, Integer> entry : items.entrySet()) {
+            int itemId = entry.getKey();
+            if (CombinedRun.isTool(itemId)) {
+                toolUsers.merge(itemId, 1, Integer::sum);
+                remaining.merge(itemId, 1, Math::max);
+            } else {
+                remaining.merge(itemId, entry.getValue(), Integer::sum);
+            }
+        }
+        revision++;
+    }
+
+    /**
+     * Takes the items of the stop off the total, only the handful of items of that stop are touched.
+     */
+    public void completeStop(String stop) {
+        doneStops.add(stop);
+        Map<Integer, Integer> items = stops.remove(stop);
+        if (items == null) {
+            return;
+        }
+        for (Map.Entry<Integer, Integer> entry : items.entrySet()) {
+            int itemId = entry.getKey();
+            if (CombinedRun.isTool(itemId)) {
+                Integer users = toolUsers.merge(itemId, -1, Integer::sum);
+                if (users == 0) {
+                    toolUsers.remove(itemId);
+                    if (!runTools.contains(itemId)) {
+                        remaining.remove(itemId);
+                    }
+                }
+            } else {
+                Integer left = remaining.computeIfPresent(itemId, (id, quantity) -> quantity - entry.getValue());
+                if (left != null && left <= 0) {
+                    remaining.remove(itemId);
+                }
+            }
+        }
+        revision++;
+    }
+
+    /**
+     * @return The items still needed, a view that follows the stops being done
+     */
+    public Map<Integer, Integer> getItems() {
+        return remainingView;
+    }
+
+    /**
+     * @return A counter that changes every time the items still needed changed
+     */
+    public int getRevision() {
+        return revision;
+    }
+}
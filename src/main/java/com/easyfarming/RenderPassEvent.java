@@ -0,0 +1,53 @@
+package com.easyfarming;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.easyfarming.RenderPass")
+@Label("Render Pass")
+@Description("An overlay rendering one frame")
+@Category("Easy Farming")
+@Enabled(false)
+@StackTrace(false)
+final class RenderPassEvent extends Event {
+    // Only used to check if the event is enabled, so disabled events don't allocate every frame
+    private static final RenderPassEvent PROBE = new RenderPassEvent();
+
+    @Label("Overlay")
+    String overlay;
+
+    @Label("Run Type")
+    String runType;
+
+    @Label("Location")
+    String location;
+
+    @Label("Step")
+    String step;
+
+    static Object start() {
+        if (!PROBE.isEnabled()) {
+            return null;
+        }
+        RenderPassEvent event = new RenderPassEvent();
+        event.begin();
+        return event;
+    }
+
+    static void finish(Object started, String overlay, String runType, String location, String step) {
+        RenderPassEvent event = (RenderPassEvent) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.overlay = overlay;
+            event.runType = runType;
+            event.location = location;
+            event.step = step;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.easyfarming;
+
+import java.util.Arrays;
+
+/**
+ * Lowers the quality of the highlights when the overlays take longer than the frame budget, and raises it again
+ * once there is headroom. The overlays add their render time every frame, the level is decided on the average
+ * over the last second of frames. After a change the window starts over, so every level is measured on its own.
+ * Must be used on the client thread.
+ */
+public class RenderQuality {
+    public enum Level {
+        FULL("Full"),
+        // Clickboxes are outlined without a fill and the missing items panel refreshes at most once a tick
+        REDUCED("Reduced"),
+        // Also only the first of several matching objects, npcs or inventory slots is highlighted
+        MINIMAL("Minimal");
+
+        private final String label;
+
+        Level(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Level[] LEVELS = Level.values();
+    // The overlays render at 50 fps
+    private static final int WINDOW_FRAMES = 50;
+    // Quality is only raised once frames take at most half the budget, so it doesn't flip back and forth
+    private static final double RECOVERY_HEADROOM = 0.5;
+
+    private final long[] window = new long[WINDOW_FRAMES];
+    private int windowIndex;
+    private int windowFrames;
+    private long windowNanos;
+    private long frameNanos;
+
+    private long budgetNanos;
+    private Level level = Level.FULL;
+
+    /**
+     * @param budgetMicros The render time the overlays may take per frame, 0 to always render at full quality
+     */
+    public void setBudget(int budgetMicros) {
+        budgetNanos = budgetMicros * 1000L;
+        if (budgetNanos == 0) {
+            setLevel(Level.FULL);
+        }
+    }
+
+    public boolean isEnabled() {
+        return budgetNanos > 0;
+    }
+
+    /**
+     * @return The start time to pass to {@link #add}, 0 while no budget is set
+     */
+    public long start() {
+        return budgetNanos > 0 ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Adds an overlay's render time to this frame.
+     */
+    public void add(long start) {
+        if (start != 0) {
+            frameNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Ends the frame and changes the level when the window is over budget or has headroom.
+     */
+    public void endFrame() {
+        if (budgetNanos == 0) {
+            frameNanos = 0;
+            return;
+        }
+
+        windowNanos += frameNanos - window[windowIndex];
+        window[windowIndex] = frameNanos;
+        windowIndex = (windowIndex + 1) % WINDOW_FRAMES;
+        frameNanos = 0;
+        if (windowFrames < WINDOW_FRAMES) {
+            windowFrames++;
+            return;
+        }
+
+        long averageNanos = windowNanos / WINDOW_FRAMES;
+        if (averageNanos > budgetNanos && level.ordinal() < LEVELS.length - 1) {
+            setLevel(LEVELS[level.ordinal() + 1]);
+        } else if (averageNanos < budgetNanos * RECOVERY_HEADROOM && level.ordinal() > 0) {
+            setLevel(LEVELS[level.ordinal() - 1]);
+        }
+    }
+
+    private void setLevel(Level level) {
+        this.level = level;
+        windowIndex = 0;
+        windowFrames = 0;
+        windowNanos = 0;
+        Arrays.fill(window, 0);
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @return true if clickboxes should only be outlined
+     */
+    public boolean isOutlineOnly() {
+        return level.ordinal() >= Level.REDUCED.ordinal();
+    }
+
+    /**
+     * @return true if the missing items panel should refresh at most once a tick
+     */
+    public boolean isPanelThrottled() {
+        return level.ordinal() >= Level.REDUCED.ordinal();
+    }
+
+    /**
+     * @return true if only the first of several alternatives should be highlighted
+     */
+    public boolean isSingleAlternative() {
+        return level == Level.MINIMAL;
+    }
+}
@@ -0,0 +1,53 @@
+package com.easyfarming;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.easyfarming.Requirements")
+@Label("Requirement Recomputation")
+@Description("The item requirements of a run or the missing items panel being recomputed")
+@Category("Easy Farming")
+@Enabled(false)
+@StackTrace(false)
+final class RequirementsEvent extends Event {
+    private static final RequirementsEvent PROBE = new RequirementsEvent();
+
+    @Label("Items")
+    @Description("The number of distinct items required")
+    int items;
+
+    @Label("Run Type")
+    String runType;
+
+    @Label("Location")
+    String location;
+
+    @Label("Step")
+    String step;
+
+    static Object start() {
+        if (!PROBE.isEnabled()) {
+            return null;
+        }
+        RequirementsEvent event = new RequirementsEvent();
+        event.begin();
+        return event;
+    }
+
+    static void finish(Object started, int items, String runType, String location, String step) {
+        RequirementsEvent event = (RequirementsEvent) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.items = items;
+            event.runType = runType;
+            event.location = location;
+            event.step = step;
+            event.commit();
+        }
+    }
+}
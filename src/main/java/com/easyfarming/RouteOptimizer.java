@@ -0,0 +1,136 @@
+package com.easyfarming;
+
+import net.runelite.api.coords.WorldPoint;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Works out the order to visit a run's locations in that takes the least time, with an estimate of how long each
+ * teleport, house trip, bank trip and walk takes. Getting to a location costs either the teleport the run uses for
+ * it or the walk from the previous patch, whichever is shorter. The items used up at the patches, like saplings and
+ * compost buckets, don't all fit in the inventory on a big run, so once the stops visited so far used up a full
+ * inventory the next one is reached through a bank trip instead, which depends on the order. Runs have at most nine
+ * locations, so the order is solved exactly with the Held-Karp dynamic program, 2^n * n^2 steps.
+ * <p>
+ * Only reads the teleports it is given, so it can run on the background worker.
+ */
+public class RouteOptimizer {
+    // The table takes 2^n * n ints, past this the catalog's order is kept
+    private static final int MAX_STOPS = 16;
+    private static final int INFINITY = TravelCosts.INFINITY;
+
+    /**
+     * @param teleports The teleport each stop is reached with, null for a stop without one
+     * @param stopSlots The inventory slots the items used up at each stop take
+     * @param freeSlots The inventory slots left for those items, next to the tools and stacks the whole run carries
+     * @param start Where the player starts, null if unknown
+     * @return The indices of the stops, in the order to visit them in
+     */
+    public int[] optimize(List<Location.Teleport> teleports, int[] stopSlots, int freeSlots, WorldPoint start) {
+        int count = teleports.size();
+        if (count == 0) {
+            return new int[0];
+        }
+        if (count > MAX_STOPS) {
+            int[] order = new int[count];
+            Arrays.setAll(order, i -> i);
+            return order;
+        }
+
+        int[] teleportTicks = new int[count];
+        WorldPoint[] patches = new WorldPoint[count];
+        for (int i = 0; i < count; i++) {
+            Location.Teleport teleport = teleports.get(i);
+            teleportTicks[i] = TravelCosts.teleportTicks(teleport);
+            patches[i] = teleport != null ? teleport.getPoint() : null;
+        }
+
+        int[] startTicks = new int[count];
+        int[][] travelTicks = new int[count][count];
+        for (int to = 0; to < count; to++) {
+            startTicks[to] = Math.min(teleportTicks[to], TravelCosts.walkTicks(start, patches[to]));
+            for (int from = 0; from < count; from++) {
+                travelTicks[from][to] = from == to ? 0 : Math.min(teleportTicks[to], TravelCosts.walkTicks(patches[from], patches[to]));
+            }
+        }
+        int[] bankTripTicks = new int[count];
+        for (int to = 0; to < count; to++) {
+            bankTripTicks[to] = TravelCosts.BANK_TRIP_TICKS + teleportTicks[to];
+        }
+        return solve(startTicks, travelTicks, bankTripTicks, stopSlots, freeSlots);
+    }
+
+    /**
+     * Held-Karp over every subset of the stops, the route may end at any stop. The slots used up so far only depend
+     * on which stops were visited, so the bank trips fit the subsets as they are.
+     */
+    static int[] solve(int[] startTicks, int[][] travelTicks, int[] bankTripTicks, int[] stopSlots, int freeSlots) {
+        int count = startTicks.length;
+        int subsets = 1 << count;
+        int[][] best = new int[subsets][count];
+        int[][] previous = new int[subsets][count];
+        int[] usedSlots = new int[subsets];
+        for (int visited = 1; visited < subsets; visited++) {
+            int lowest = Integer.numberOfTrailingZeros(visited);
+            usedSlots[visited] = usedSlots[visited & (visited - 1)] + stopSlots[lowest];
+        }
+        for (int[] row : best) {
+            Arrays.fill(row, INFINITY);
+        }
+        for (int stop = 0; stop < count; stop++) {
+            best[1 << stop][stop] = startTicks[stop];
+            previous[1 << stop][stop] = -1;
+        }
+
+        for (int visited = 1; visited < subsets; visited++) {
+            for (int last = 0; last < count; last++) {
+                int ticks = best[visited][last];
+                if (ticks >= INFINITY || (visited & (1 << last)) == 0) {
+                    continue;
+                }
+                for (int next = 0; next < count; next++) {
+                    if ((visited & (1 << next)) != 0) {
+                        continue;
+                    }
+                    int nextVisited = visited | (1 << next);
+                    int legTicks = needsBankTrip(usedSlots[visited], stopSlots[next], freeSlots) ? bankTripTicks[next] : travelTicks[last][next];
+                    int nextTicks = ticks + legTicks;
+                    // Strictly less, so ties keep the catalog's order
+                    if (nextTicks < best[nextVisited][next]) {
+                        best[nextVisited][next] = nextTicks;
+                        previous[nextVisited][next] = last;
+                    }
+                }
+            }
+        }
+
+        int all = subsets - 1;
+        int last = 0;
+        for (int stop = 1; stop < count; stop++) {
+            if (best[all][stop] < best[all][last]) {
+                last = stop;
+            }
+        }
+
+        int[] order = new int[count];
+        int visited = all;
+        for (int position = count - 1; position >= 0; position--) {
+            order[position] = last;
+            int before = previous[visited][last];
+            visited &= ~(1 << last);
+            last = before;
+        }
+        return order;
+    }
+
+    /**
+     * @return true if the stop's items are in the next inventory load, after the ones used up so far
+     */
+    static boolean needsBankTrip(int usedSlots, int slots, int freeSlots) {
+        if (freeSlots <= 0 || usedSlots == 0 || slots == 0) {
+            return false;
+        }
+        return (usedSlots - 1) / freeSlots != (usedSlots + slots - 1) / freeSlots;
+    }
+}
@@ -0,0 +1,48 @@
+package com.easyfarming;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.easyfarming.RunStep")
+@Label("Run Step")
+@Description("A step of a farming run, from the moment the info box showed it until the next step")
+@Category("Easy Farming")
+@Enabled(false)
+@StackTrace(false)
+final class RunStepEvent extends Event {
+    private static final RunStepEvent PROBE = new RunStepEvent();
+
+    @Label("Run Type")
+    String runType;
+
+    @Label("Location")
+    String location;
+
+    @Label("Step")
+    String step;
+
+    static Object start(String runType, String location, String step) {
+        if (!PROBE.isEnabled()) {
+            return null;
+        }
+        RunStepEvent event = new RunStepEvent();
+        event.runType = runType;
+        event.location = location;
+        event.step = step;
+        event.begin();
+        return event;
+    }
+
+    static void finish(Object started) {
+        RunStepEvent event = (RunStepEvent) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit();
+        }
+    }
+}
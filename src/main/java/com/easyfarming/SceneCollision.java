@@ -0,0 +1,66 @@
+package com.easyfarming;
+
+import net.runelite.api.Client;
+import net.runelite.api.CollisionData;
+import net.runelite.api.CollisionDataFlag;
+import net.runelite.api.WorldView;
+
+/**
+ * The blocked directions of the loaded scene, read from the client's collision flags. Tiles outside of the scene
+ * come from the regions saved earlier. Must be used on the client thread, and only until the next scene load.
+ */
+public class SceneCollision implements CollisionSource {
+    private final WorldView worldView;
+    private final CollisionSource outsideScene;
+
+    public SceneCollision(Client client, CollisionSource outsideScene) {
+        this.worldView = client.getTopLevelWorldView();
+        this.outsideScene = outsideScene;
+    }
+
+    @Override
+    public int getBlockedDirections(int x, int y, int plane) {
+        int sceneX = x - worldView.getBaseX();
+        int sceneY = y - worldView.getBaseY();
+        if (sceneX < 0 || sceneY < 0 || sceneX >= worldView.getSizeX() || sceneY >= worldView.getSizeY()) {
+            return outsideScene.getBlockedDirections(x, y, plane);
+        }
+        CollisionData[] collisionMaps = worldView.getCollisionMaps();
+        if (collisionMaps == null || plane < 0 || plane >= collisionMaps.length || collisionMaps[plane] == null) {
+            return BLOCKED_ALL;
+        }
+        return blockedDirections(collisionMaps[plane].getFlags(), sceneX, sceneY);
+    }
+
+    /**
+     * Turns a tile's collision flags into blocked edges. The client flags a wall on both of its tiles, but a tile
+     * that can't be stood on only flags itself, so its neighbours are checked as well.
+     */
+    static int blockedDirections(int[][] flags, int sceneX, int sceneY) {
+        if (isFullyBlocked(flags, sceneX, sceneY)) {
+            return BLOCKED_ALL;
+        }
+        int tile = flags[sceneX][sceneY];
+        int blocked = 0;
+        if ((tile & CollisionDataFlag.BLOCK_MOVEMENT_NORTH) != 0 || isFullyBlocked(flags, sceneX, sceneY + 1)) {
+            blocked |= BLOCKED_NORTH;
+        }
+        if ((tile & CollisionDataFlag.BLOCK_MOVEMENT_EAST) != 0 || isFullyBlocked(flags, sceneX + 1, sceneY)) {
+            blocked |= BLOCKED_EAST;
+        }
+        if ((tile & CollisionDataFlag.BLOCK_MOVEMENT_SOUTH) != 0 || isFullyBlocked(flags, sceneX, sceneY - 1)) {
+            blocked |= BLOCKED_SOUTH;
+        }
+        if ((tile & CollisionDataFlag.BLOCK_MOVEMENT_WEST) != 0 || isFullyBlocked(flags, sceneX - 1, sceneY)) {
+            blocked |= BLOCKED_WEST;
+        }
+        return blocked;
+    }
+
+    private static boolean isFullyBlocked(int[][] flags, int sceneX, int sceneY) {
+        if (sceneX < 0 || sceneY < 0 || sceneX >= flags.length || sceneY >= flags[sceneX].length) {
+            return true;
+        }
+        return (flags[sceneX][sceneY] & CollisionDataFlag.BLOCK_MOVEMENT_FULL) != 0;
+    }
+}
@@ -0,0 +1,53 @@
+package com.easyfarming;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.easyfarming.SceneIndexRebuild")
+@Label("Scene Index Rebuild")
+@Description("A full scan of the scene for the objects and npcs the overlays highlight")
+@Category("Easy Farming")
+@Enabled(false)
+@StackTrace(false)
+final class SceneIndexRebuildEvent extends Event {
+    private static final SceneIndexRebuildEvent PROBE = new SceneIndexRebuildEvent();
+
+    @Label("Indexed")
+    @Description("The number of objects and npcs in the index after the rebuild")
+    int indexed;
+
+    @Label("Run Type")
+    String runType;
+
+    @Label("Location")
+    String location;
+
+    @Label("Step")
+    String step;
+
+    static Object start() {
+        if (!PROBE.isEnabled()) {
+            return null;
+        }
+        SceneIndexRebuildEvent event = new SceneIndexRebuildEvent();
+        event.begin();
+        return event;
+    }
+
+    static void finish(Object started, int indexed, String runType, String location, String step) {
+        SceneIndexRebuildEvent event = (SceneIndexRebuildEvent) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.indexed = indexed;
+            event.runType = runType;
+            event.location = location;
+            event.step = step;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.easyfarming;
+
+import net.runelite.api.Client;
+import net.runelite.api.DecorativeObject;
+import net.runelite.api.GameObject;
+import net.runelite.api.GameState;
+import net.runelite.api.NPC;
+import net.runelite.api.ObjectComposition;
+import net.runelite.api.Scene;
+import net.runelite.api.Tile;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps track of the scene objects and npcs the overlays highlight, so rendering never has to scan the scene.
+ * The index is fed by the spawn and despawn events and only holds the object ids, object names and npc names
+ * it was told to track. A full scan is only done when the tracked ids change, the plugin starts or a run starts,
+ * since the events aren't fed to the index outside of a run.
+ */
+public class SceneObjectIndex {
+    public static final String PORTAL_NEXUS = "Portal Nexus";
+    public static final String JEWELLERY_BOX = "Jewellery Box";
+    private static final String[] TRACKED_OBJECT_NAMES = {PORTAL_NEXUS, JEWELLERY_BOX};
+
+    private static final int NOT_NAMED = -1;
+
+    private final Client client;
+    private final FrameProfiler frameProfiler;
+    private final FlightRecorderEvents flightRecorderEvents;
+    private final EasyFarmingMetrics metrics;
+
+    // Sorted object ids, with the spawned objects for each id at the same index
+    private int[] trackedIds = new int[0];
+    private List<List<GameObject>> gameObjectsById = new ArrayList<>();
+    private List<List<DecorativeObject>> decorativeObjectsById = new ArrayList<>();
+
+    private final List<List<GameObject>> gameObjectsByName = new ArrayList<>();
+    private final Map<Integer, Integer> nameSlotByObjectId = new HashMap<>();
+
+    private final Map<String, List<NPC>> npcsByName = new HashMap<>();
+
+    @Inject
+    public SceneObjectIndex(Client client, FrameProfiler frameProfiler, FlightRecorderEvents flightRecorderEvents, EasyFarmingMetrics metrics) {
+        this.client = client;
+        this.frameProfiler = frameProfiler;
+        this.flightRecorderEvents = flightRecorderEvents;
+        this.metrics = metrics;
+        for (int i = 0; i < TRACKED_OBJECT_NAMES.length; i++) {
+            gameObjectsByName.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Replaces the tracked object ids and rescans the scene. Must be called on the client thread.
+     * @param objectIds The game and decorative object ids to track
+     */
+    public void setTrackedIds(int[] objectIds) {
+        int[] sorted = Arrays.stream(objectIds).distinct().sorted().toArray();
+        List<List<GameObject>> gameObjects = new ArrayList<>(sorted.length);
+        List<List<DecorativeObject>> decorativeObjects = new ArrayList<>(sorted.length);
+        for (int i = 0; i < sorted.length; i++) {
+            gameObjects.add(new ArrayList<>());
+            decorativeObjects.add(new ArrayList<>());
+        }
+
+        trackedIds = sorted;
+        gameObjectsById = gameObjects;
+        decorativeObjectsById = decorativeObjects;
+        rebuild();
+    }
+
+    /**
+     * @param npcNames The npc names to track, npcs that already spawned are picked up on the next rebuild
+     */
+    public void trackNpcNames(String... npcNames) {
+        for (String npcName : npcNames) {
+            npcsByName.putIfAbsent(npcName, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Clears the index and scans the current scene. Must be called on the client thread.
+     */
+    public void rebuild() {
+        clear();
+        if (client.getGameState() != GameState.LOGGED_IN) {
+            return;
+        }
+
+        Object rebuildEvent = flightRecorderEvents.startSceneIndexRebuild();
+
+        Scene scene = client.getTopLevelWorldView().getScene();
+        Tile[][][] tiles = scene.getTiles();
+        for (Tile[][] plane : tiles) {
+            for (Tile[] column : plane) {
+                for (Tile tile : column) {
+                    if (tile == null) {
+                        continue;
+                    }
+
+                    GameObject[] tileGameObjects = tile.getGameObjects();
+                    if (tileGameObjects != null) {
+                        for (GameObject gameObject : tileGameObjects) {
+                            // Objects bigger than one tile are on every tile they cover, only add them once
+                            if (gameObject != null && gameObject.getSceneMinLocation() != null
+                                && gameObject.getSceneMinLocation().getX() == tile.getSceneLocation().getX()
+                                && gameObject.getSceneMinLocation().getY() == tile.getSceneLocation().getY()) {
+                                addGameObject(gameObject);
+                            }
+                        }
+                    }
+
+                    DecorativeObject decorativeObject = tile.getDecorativeObject();
+                    if (decorativeObject != null) {
+                        addDecorativeObject(decorativeObject);
+                    }
+                }
+            }
+        }
+
+        for (NPC npc : client.getTopLevelWorldView().npcs()) {
+            addNpc(npc);
+        }
+        flightRecorderEvents.finishSceneIndexRebuild(rebuildEvent, size());
+        metrics.sceneIndexRebuilt();
+    }
+
+    /**
+     * @return The number of indexed objects and npcs
+     */
+    private int size() {
+        int size = 0;
+        for (List<GameObject> gameObjects : gameObjectsById) {
+            size += gameObjects.size();
+        }
+        for (List<DecorativeObject> decorativeObjects : decorativeObjectsById) {
+            size += decorativeObjects.size();
+        }
+        for (List<GameObject> gameObjects : gameObjectsByName) {
+            size += gameObjects.size();
+        }
+        for (List<NPC> npcs : npcsByName.values()) {
+            size += npcs.size();
+        }
+        return size;
+    }
+
+    /**
+     * Drops every indexed object, call this when the scene is about to be reloaded.
+     */
+    public void clear() {
+        for (List<GameObject> gameObjects : gameObjectsById) {
+            gameObjects.clear();
+        }
+        for (List<DecorativeObject> decorativeObjects : decorativeObjectsById) {
+            decorativeObjects.clear();
+        }
+        for (List<GameObject> gameObjects : gameObjectsByName) {
+            gameObjects.clear();
+        }
+        for (List<NPC> npcs : npcsByName.values()) {
+            npcs.clear();
+        }
+    }
+
+    public void addGameObject(GameObject gameObject) {
+        int index = Arrays.binarySearch(trackedIds, gameObject.getId());
+        if (index >= 0) {
+            addOnce(gameObjectsById.get(index), gameObject);
+        }
+
+        int nameSlot = getNameSlot(gameObject.getId());
+        if (nameSlot != NOT_NAMED) {
+            addOnce(gameObjectsByName.get(nameSlot), gameObject);
+        }
+    }
+
+    public void removeGameObject(GameObject gameObject) {
+        int index = Arrays.binarySearch(trackedIds, gameObject.getId());
+        if (index >= 0) {
+            gameObjectsById.get(index).remove(gameObject);
+        }
+
+        int nameSlot = getNameSlot(gameObject.getId());
+        if (nameSlot != NOT_NAMED) {
+            gameObjectsByName.get(nameSlot).remove(gameObject);
+        }
+    }
+
+    public void addDecorativeObject(DecorativeObject decorativeObject) {
+        int index = Arrays.binarySearch(trackedIds, decorativeObject.getId());
+        if (index >= 0) {
+            addOnce(decorativeObjectsById.get(index), decorativeObject);
+        }
+    }
+
+    public void removeDecorativeObject(DecorativeObject decorativeObject) {
+        int index = Arrays.binarySearch(trackedIds, decorativeObject.getId());
+        if (index >= 0) {
+            decorativeObjectsById.get(index).remove(decorativeObject);
+        }
+    }
+
+    public void addNpc(NPC npc) {
+        if (npc == null || npc.getName() == null) {
+            return;
+        }
+        List<NPC> npcs = npcsByName.get(npc.getName());
+        if (npcs != null) {
+            addOnce(npcs, npc);
+        }
+    }
+
+    public void removeNpc(NPC npc) {
+        if (npc == null || npc.getName() == null) {
+            return;
+        }
+        List<NPC> npcs = npcsByName.get(npc.getName());
+        if (npcs != null) {
+            npcs.remove(npc);
+        }
+    }
+
+    /**
+     * @param objectId A tracked object id
+     * @return The spawned game objects with the id on every plane, or an empty list if the id isn't tracked
+     */
+    public List<GameObject> getGameObjects(int objectId) {
+        long start = frameProfiler.start();
+        int index = Arrays.binarySearch(trackedIds, objectId);
+        List<GameObject> gameObjects = index >= 0 ? gameObjectsById.get(index) : Collections.emptyList();
+        frameProfiler.add(FrameProfiler.Phase.SCENE_LOOKUPS, start);
+        metrics.sceneScanAvoided();
+        return gameObjects;
+    }
+
+    /**
+     * @param objectId A tracked object id
+     * @return The spawned decorative objects with the id on every plane, or an empty list if the id isn't tracked
+     */
+    public List<DecorativeObject> getDecorativeObjects(int objectId) {
+        long start = frameProfiler.start();
+        int index = Arrays.binarySearch(trackedIds, objectId);
+        List<DecorativeObject> decorativeObjects = index >= 0 ? decorativeObjectsById.get(index) : Collections.emptyList();
+        frameProfiler.add(FrameProfiler.Phase.SCENE_LOOKUPS, start);
+        metrics.sceneScanAvoided();
+        return decorativeObjects;
+    }
+
+    /**
+     * @param name {@link #PORTAL_NEXUS} or {@link #JEWELLERY_BOX}
+     * @return The spawned game objects with the name on every plane
+     */
+    public List<GameObject> getGameObjectsByName(String name) {
+        long start = frameProfiler.start();
+        List<GameObject> gameObjects = Collections.emptyList();
+        for (int i = 0; i < TRACKED_OBJECT_NAMES.length; i++) {
+            if (TRACKED_OBJECT_NAMES[i].equals(name)) {
+                gameObjects = gameObjectsByName.get(i);
+                break;
+            }
+        }
+        frameProfiler.add(FrameProfiler.Phase.SCENE_LOOKUPS, start);
+        metrics.sceneScanAvoided();
+        return gameObjects;
+    }
+
+    /**
+     * @param npcName A tracked npc name
+     * @return The spawned npcs with the name, or an empty list if the name isn't tracked
+     */
+    public List<NPC> getNpcs(String npcName) {
+        long start = frameProfiler.start();
+        List<NPC> npcs = npcsByName.get(npcName);
+        frameProfiler.add(FrameProfiler.Phase.SCENE_LOOKUPS, start);
+        metrics.sceneScanAvoided();
+        return npcs != null ? npcs : Collections.emptyList();
+    }
+
+    // Spawn events can reach the index more than once for the same object
+    private static <T> void addOnce(List<T> list, T element) {
+        if (!list.contains(element)) {
+            list.add(element);
+        }
+    }
+
+    private int getNameSlot(int objectId) {
+        Integer cachedSlot = nameSlotByObjectId.get(objectId);
+        if (cachedSlot != null) {
+            return cachedSlot;
+        }
+
+        int slot = NOT_NAMED;
+        ObjectComposition objectComposition = client.getObjectDefinition(objectId);
+        if (objectComposition != null && objectComposition.getName() != null) {
+            for (int i = 0; i < TRACKED_OBJECT_NAMES.length; i++) {
+                if (TRACKED_OBJECT_NAMES[i].equals(objectComposition.getName())) {
+                    slot = i;
+                    break;
+                }
+            }
+        }
+        nameSlotByObjectId.put(objectId, slot);
+        return slot;
+    }
+}
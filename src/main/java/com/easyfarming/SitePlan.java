@@ -0,0 +1,255 @@
+package com.easyfarming;
+
+import net.runelite.api.Client;
+import net.runelite.api.GameObject;
+import net.runelite.api.Player;
+import net.runelite.api.coords.WorldPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The patches the run tends at one site, like the herb, flower, tree and fruit tree patches of the Farming Guild, in
+ * the order to tend them. Each patch is resolved to its object in the scene, so only that object is highlighted
+ * instead of every patch of its type in the scene, and keeps its varbit value, which is updated by varbit events.
+ * The patches are ordered by walking distance, each one the closest to the one before, so the site is cleared in one
+ * sweep. The plan moves past a patch once its steps are done, or once its varbit shows it grew past the first stage,
+ * when nothing is left to do there.
+ * <p>
+ * The farming varbits describe the patches around the player, so a value is only kept while the player is in the
+ * patch's region. Must be used on the client thread.
+ */
+public class SitePlan {
+    // Patch objects are several tiles large, the object closest to the patch's point within this distance is its own
+    private static final int MAX_OBJECT_DISTANCE = 16;
+    private static final int UNKNOWN_VALUE = -1;
+
+    public enum Kind {
+        HERB,
+        FLOWER,
+        TREE,
+        FRUIT_TREE;
+
+        /**
+         * @return The kind of the patch a run type tends, the flower patches are tended along with the herb patches
+         */
+        public static Kind of(FarmingPatch.Type type) {
+            switch (type) {
+                case HERB:
+                    return HERB;
+                case TREE:
+                    return TREE;
+                default:
+                    return FRUIT_TREE;
+            }
+        }
+    }
+
+    public static class Patch {
+        private final Kind kind;
+        private final WorldPoint point;
+        private final int regionId;
+        private final int varbitId;
+        private final List<Integer> objectIds;
+        private GameObject object;
+        private int varbitValue = UNKNOWN_VALUE;
+
+        /**
+         * @param point Where the patch is, the path guidance leads here
+         * @param regionId The region the patch's varbit can be read in
+         * @param objectIds The objects a patch of the kind can be
+         */
+        public Patch(Kind kind, WorldPoint point, int regionId, int varbitId, List<Integer> objectIds) {
+            this.kind = kind;
+            this.point = point;
+            this.regionId = regionId;
+            this.varbitId = varbitId;
+            this.objectIds = objectIds;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public WorldPoint getPoint() {
+            return object != null ? object.getWorldLocation() : point;
+        }
+
+        /**
+         * @return The patch's object in the scene, null if it isn't loaded
+         */
+        public GameObject getObject() {
+            return object;
+        }
+
+        /**
+         * @return true if the patch was seen growing past its first stage, it can't be tended any further
+         */
+        private boolean isSettled() {
+            return varbitValue != UNKNOWN_VALUE && growthStage(kind, varbitValue) > 0;
+        }
+    }
+
+    private final String siteName;
+    private final List<Patch> patches;
+    private final Consumer<Patch> onPassed;
+    private int current;
+
+    private SitePlan(String siteName, List<Patch> patches, Consumer<Patch> onPassed) {
+        this.siteName = siteName;
+        this.patches = patches;
+        this.onPassed = onPassed;
+    }
+
+    /**
+     * Orders the site's patches by walking distance from the player, call this once the player arrived at the site.
+     *
+     * @param onPassed Gets every patch the plan moves past, whether its steps are done or it was found growing
+     */
+    public static SitePlan plan(String siteName, List<Patch> patches, Client client, SceneObjectIndex sceneObjectIndex, PathGuide pathGuide, Consumer<Patch> onPassed) {
+        for (Patch patch : patches) {
+            resolve(patch, sceneObjectIndex);
+        }
+        Player player = client.getLocalPlayer();
+        WorldPoint from = player != null ? player.getWorldLocation() : null;
+        List<Patch> remaining = new ArrayList<>(patches);
+        List<Patch> ordered = new ArrayList<>(patches.size());
+        while (!remaining.isEmpty()) {
+            Patch closest = remaining.get(0);
+            if (from != null) {
+                int closestDistance = Integer.MAX_VALUE;
+                for (Patch patch : remaining) {
+                    int distance = pathGuide.walkingDistance(from, patch.getPoint());
+                    if (distance < closestDistance) {
+                        closest = patch;
+                        closestDistance = distance;
+                    }
+                }
+            }
+            remaining.remove(closest);
+            ordered.add(closest);
+            from = closest.getPoint();
+        }
+        SitePlan plan = new SitePlan(siteName, ordered, onPassed);
+        plan.readVarbits(client);
+        return plan;
+    }
+
+    public String getSiteName() {
+        return siteName;
+    }
+
+    /**
+     * @return The patch to tend, null once every patch of the site is done
+     */
+    public Patch getCurrent(Client client, SceneObjectIndex sceneObjectIndex) {
+        readVarbits(client);
+        while (current < patches.size() && patches.get(current).isSettled()) {
+            advance();
+        }
+        if (current >= patches.size()) {
+            return null;
+        }
+        Patch patch = patches.get(current);
+        resolve(patch, sceneObjectIndex);
+        return patch;
+    }
+
+    /**
+     * Moves on to the next patch, call this once the current patch's steps are done.
+     */
+    public void advance() {
+        if (current < patches.size()) {
+            onPassed.accept(patches.get(current));
+        }
+        current++;
+    }
+
+    /**
+     * @return The object of the site's patch of the kind, null if the site has none or it isn't loaded
+     */
+    public GameObject getObject(Kind kind) {
+        for (Patch patch : patches) {
+            if (patch.kind == kind) {
+                return patch.object;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Keeps the value of the patches with the varbit, call this on every {@link net.runelite.api.events.VarbitChanged}.
+     */
+    public void onVarbitChanged(int varbitId, int value, int playerRegionId) {
+        for (Patch patch : patches) {
+            if (patch.varbitId == varbitId) {
+                patch.varbitValue = patch.regionId == playerRegionId ? value : UNKNOWN_VALUE;
+            }
+        }
+    }
+
+    /**
+     * Reads the value of the patches in the player's region that aren't known yet, a varbit that didn't change while
+     * entering the region sends no event.
+     */
+    private void readVarbits(Client client) {
+        Player player = client.getLocalPlayer();
+        if (player == null) {
+            return;
+        }
+        int regionId = player.getWorldLocation().getRegionID();
+        for (Patch patch : patches) {
+            if (patch.regionId != regionId) {
+                patch.varbitValue = UNKNOWN_VALUE;
+            } else if (patch.varbitValue == UNKNOWN_VALUE) {
+                patch.varbitValue = client.getVarbitValue(patch.varbitId);
+            }
+        }
+    }
+
+    /**
+     * Finds the patch's object again when it isn't in the scene anymore, after a scene load.
+     */
+    private static void resolve(Patch patch, SceneObjectIndex sceneObjectIndex) {
+        GameObject closest = null;
+        int closestDistance = MAX_OBJECT_DISTANCE + 1;
+        for (int objectId : patch.objectIds) {
+            List<GameObject> candidates = sceneObjectIndex.getGameObjects(objectId);
+            if (patch.object != null && candidates.contains(patch.object)) {
+                return;
+            }
+            for (GameObject candidate : candidates) {
+                WorldPoint location = candidate.getWorldLocation();
+                if (location.getPlane() != patch.point.getPlane()) {
+                    continue;
+                }
+                int distance = Math.max(Math.abs(location.getX() - patch.point.getX()), Math.abs(location.getY() - patch.point.getY()));
+                if (distance < closestDistance) {
+                    closest = candidate;
+                    closestDistance = distance;
+                }
+            }
+        }
+        patch.object = closest;
+    }
+
+    /**
+     * @return The growth stage the varbit value stands for, -1 if the patch isn't growing
+     */
+    private static int growthStage(Kind kind, int varbitValue) {
+        switch (kind) {
+            case HERB:
+                HerbPatchChecker.Herb herb = HerbPatchChecker.cropOf(varbitValue);
+                return herb != null ? herb.getGrowing().indexOf(varbitValue) : -1;
+            case FLOWER:
+                return FlowerPatchChecker.growthStageOf(varbitValue);
+            case TREE:
+                TreePatchChecker.Tree tree = TreePatchChecker.cropOf(varbitValue);
+                return tree != null ? tree.getGrowing().indexOf(varbitValue) : -1;
+            default:
+                FruitTreePatchChecker.FruitTree fruitTree = FruitTreePatchChecker.cropOf(varbitValue);
+                return fruitTree != null ? fruitTree.getGrowing().indexOf(varbitValue) : -1;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.easyfarming;
+
+import net.runelite.api.coords.WorldPoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * A* over tiles, one step to any of the eight neighbours at a time, the way the player walks. A diagonal step is
+ * only taken when both cardinal steps around its corner are open too. Searches stay on the start's plane.
+ */
+public class TilePathfinder {
+    // The whole loaded scene is about 10000 tiles
+    private static final int MAX_EXPANDED_TILES = 40000;
+    // Getting back onto a path should only take a few steps, past this the path is found again from scratch
+    private static final int MAX_REJOIN_EXPANDED_TILES = 2000;
+    // Patches take up several tiles and can't be stood on, the path ends next to the patch's tile
+    private static final int ARRIVAL_DISTANCE = 1;
+
+    private static final int[] STEP_X = {0, 1, 0, -1, 1, 1, -1, -1};
+    private static final int[] STEP_Y = {1, 0, -1, 0, 1, -1, -1, 1};
+
+    /**
+     * @return The tiles from the start to next to the target. When the target can't be reached, the tiles to the
+     * reachable tile closest to it. Only the start if the target is on another plane
+     */
+    public List<WorldPoint> findPath(CollisionSource collision, WorldPoint start, WorldPoint target) {
+        if (start.getPlane() != target.getPlane()) {
+            return Collections.singletonList(start);
+        }
+        return search(collision, start, target, null, MAX_EXPANDED_TILES);
+    }
+
+    /**
+     * Finds the shortest way from the start back onto a path the player left.
+     * @return The way back followed by the rest of the path, null if the path is too far away
+     */
+    public List<WorldPoint> rejoin(CollisionSource collision, WorldPoint start, List<WorldPoint> path) {
+        Map<Integer, Integer> pathIndices = new HashMap<>();
+        for (int i = path.size() - 1; i >= 0; i--) {
+            WorldPoint tile = path.get(i);
+            if (tile.getPlane() == start.getPlane()) {
+                // Walked backwards, so the furthest along index is kept for tiles the path visits twice
+                pathIndices.putIfAbsent(pack(tile.getX(), tile.getY()), i);
+            }
+        }
+        if (pathIndices.isEmpty()) {
+            return null;
+        }
+
+        List<WorldPoint> wayBack = search(collision, start, null, pathIndices, MAX_REJOIN_EXPANDED_TILES);
+        if (wayBack == null) {
+            return null;
+        }
+        WorldPoint joined = wayBack.get(wayBack.size() - 1);
+        int joinedIndex = pathIndices.get(pack(joined.getX(), joined.getY()));
+        List<WorldPoint> rejoined = new ArrayList<>(wayBack.size() + path.size() - joinedIndex);
+        rejoined.addAll(wayBack);
+        rejoined.addAll(path.subList(joinedIndex + 1, path.size()));
+        return rejoined;
+    }
+
+    /**
+     * @param target The tile to get next to, null to search for any of the goals instead
+     * @param goals Packed tiles that end the search when there is no target
+     * @return The tiles from the start to the goal, null if no goal was found while searching for goals
+     */
+    private List<WorldPoint> search(CollisionSource collision, WorldPoint start, WorldPoint target, Map<Integer, Integer> goals, int maxExpandedTiles) {
+        int plane = start.getPlane();
+        int startTile = pack(start.getX(), start.getY());
+        Map<Integer, Integer> costs = new HashMap<>();
+        Map<Integer, Integer> parents = new HashMap<>();
+        // Entries are the estimated total cost in the high half and the packed tile in the low half
+        PriorityQueue<Long> open = new PriorityQueue<>();
+        costs.put(startTile, 0);
+        open.add(entry(estimate(start.getX(), start.getY(), target), startTile));
+
+        int closestTile = startTile;
+        int closestDistance = Integer.MAX_VALUE;
+        int expandedTiles = 0;
+        while (!open.isEmpty() && expandedTiles < maxExpandedTiles) {
+            long entry = open.poll();
+            int tile = (int) entry;
+            int x = tile >>> 16;
+            int y = tile & 0xFFFF;
+            int cost = costs.get(tile);
+            // A cheaper way to the tile was queued after this one
+            if ((int) (entry >>> 32) > cost + estimate(x, y, target)) {
+                continue;
+            }
+            expandedTiles++;
+
+            if (target == null) {
+                if (goals.containsKey(tile)) {
+                    return walkBack(parents, tile, plane);
+                }
+            } else {
+                int distance = distance(x, y, target);
+                if (distance <= ARRIVAL_DISTANCE) {
+                    return walkBack(parents, tile, plane);
+                }
+                if (distance < closestDistance) {
+                    closestDistance = distance;
+                    closestTile = tile;
+                }
+            }
+
+            int blocked = collision.getBlockedDirections(x, y, plane);
+            for (int step = 0; step < STEP_X.length; step++) {
+                if (!canStep(collision, x, y, plane, blocked, STEP_X[step], STEP_Y[step])) {
+                    continue;
+                }
+                int next = pack(x + STEP_X[step], y + STEP_Y[step]);
+                int nextCost = cost + 1;
+                Integer knownCost = costs.get(next);
+                if (knownCost == null || nextCost < knownCost) {
+                    costs.put(next, nextCost);
+                    parents.put(next, tile);
+                    open.add(entry(nextCost + estimate(x + STEP_X[step], y + STEP_Y[step], target), next));
+                }
+            }
+        }
+        return target != null ? walkBack(parents, closestTile, plane) : null;
+    }
+
+    private static boolean canStep(CollisionSource collision, int x, int y, int plane, int blocked, int stepX, int stepY) {
+        int horizontal = stepX > 0 ? CollisionSource.BLOCKED_EAST : CollisionSource.BLOCKED_WEST;
+        int vertical = stepY > 0 ? CollisionSource.BLOCKED_NORTH : CollisionSource.BLOCKED_SOUTH;
+        if (stepY == 0) {
+            return (blocked & horizontal) == 0;
+        }
+        if (stepX == 0) {
+            return (blocked & vertical) == 0;
+        }
+        return (blocked & (horizontal | vertical)) == 0
+            && (collision.getBlockedDirections(x + stepX, y, plane) & vertical) == 0
+            && (collision.getBlockedDirections(x, y + stepY, plane) & horizontal) == 0;
+    }
+
+    /**
+     * Every step costs one, diagonal or not, so the distance left to the target never overestimates.
+     */
+    private static int estimate(int x, int y, WorldPoint target) {
+        return target == null ? 0 : Math.max(0, distance(x, y, target) - ARRIVAL_DISTANCE);
+    }
+
+    private static int distance(int x, int y, WorldPoint target) {
+        return Math.max(Math.abs(x - target.getX()), Math.abs(y - target.getY()));
+    }
+
+    private static List<WorldPoint> walkBack(Map<Integer, Integer> parents, int tile, int plane) {
+        List<WorldPoint> path = new ArrayList<>();
+        Integer current = tile;
+        while (current != null) {
+            path.add(new WorldPoint(current >>> 16, current & 0xFFFF, plane));
+            current = parents.get(current);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private static int pack(int x, int y) {
+        return (x << 16) | y;
+    }
+
+    private static long entry(int estimatedCost, int tile) {
+        return ((long) estimatedCost << 32) | tile;
+    }
+}
@@ -0,0 +1,206 @@
+package com.easyfarming;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the fastest teleport to each of a run's patches that the player can actually use. The nodes are where the
+ * player stands, their house, the spirit tree network and one node per patch. The edges come from the catalog: item
+ * teleports and spells go straight to a patch, the Portal Nexus, jewellery box and Xeric's talisman go through the
+ * house and the spirit trees through the network, which is reached on foot. Each edge costs its estimate from
+ * {@link TravelCosts} and takes items, edges whose items the player doesn't carry are left out. Dijkstra from where
+ * the player stands then gives the cheapest usable teleport into every patch.
+ * <p>
+ * The answer only changes with what the player carries, so it is worked out once and kept until
+ * {@link #invalidate} is called for a new revision of the inventory, equipment or config. The run's requirements
+ * and its steps both ask {@link #select} which teleport to use, so they agree. Locations are told apart by identity,
+ * the herb and the tree location of a site share a name but not a patch.
+ * Must be used on one thread at a time, the run's own graph on the client thread.
+ */
+public class TransportGraph {
+    private static final int START = 0;
+    private static final int HOUSE = 1;
+    private static final int SPIRIT_TREES = 2;
+    private static final int FIRST_PATCH = 3;
+
+    private static class Edge {
+        private final int to;
+        private final int ticks;
+        // The teleport to the patch, null for the edges into the house and the spirit tree network
+        private final Location.Teleport teleport;
+
+        private Edge(int to, int ticks, Location.Teleport teleport) {
+            this.to = to;
+            this.ticks = ticks;
+            this.teleport = teleport;
+        }
+    }
+
+    private boolean stale = true;
+    private Map<Integer, Integer> carriedItems = Collections.emptyMap();
+    private final Map<Location, Location.Teleport> cheapestTeleports = new IdentityHashMap<>();
+    private final Set<Location> locations = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Forces the graph to be rebuilt, call this when the inventory, the equipment or the config changed.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Builds the graph for the run's locations and finds the cheapest usable teleport to each of them.
+     * @param houseRequirements The items the configured way of teleporting to the house takes
+     * @param carriedItems What the player can use, see {@link EasyFarmingOverlay#countCarriedItems()}
+     */
+    public void rebuild(List<Location> locations, List<ItemRequirement> houseRequirements, Map<Integer, Integer> carriedItems) {
+        stale = false;
+        this.carriedItems = carriedItems;
+        cheapestTeleports.clear();
+        this.locations.clear();
+        this.locations.addAll(locations);
+
+        int nodes = FIRST_PATCH + locations.size();
+        List<List<Edge>> edges = new ArrayList<>(nodes);
+        for (int node = 0; node < nodes; node++) {
+            edges.add(new ArrayList<>());
+        }
+
+        Map<Integer, Integer> houseItems = new HashMap<>();
+        for (ItemRequirement requirement : houseRequirements) {
+            houseItems.merge(requirement.getItemId(), requirement.getQuantity(), Integer::sum);
+        }
+        if (hasItems(houseItems, Collections.emptyMap())) {
+            edges.get(START).add(new Edge(HOUSE, TravelCosts.HOUSE_TELEPORT_TICKS, null));
+        }
+        edges.get(START).add(new Edge(SPIRIT_TREES, TravelCosts.SPIRIT_TREE_WALK_TICKS, null));
+
+        for (int i = 0; i < locations.size(); i++) {
+            int patch = FIRST_PATCH + i;
+            for (Location.Teleport teleport : locations.get(i).getTeleportOptions()) {
+                int arrivalTicks = TravelCosts.arrivalWalkTicks(teleport);
+                switch (teleport.getCategory()) {
+                    case ITEM:
+                    case SPELLBOOK:
+                        if (canUse(teleport)) {
+                            edges.get(START).add(new Edge(patch, TravelCosts.castTicks(teleport.getCategory()) + arrivalTicks, teleport));
+                        }
+                        break;
+                    case PORTAL_NEXUS:
+                    case JEWELLERY_BOX:
+                    case MOUNTED_XERICS:
+                        // The house teleport's items are on the edge into the house
+                        if (hasItems(teleport.getItemRequirements(), houseItems)) {
+                            edges.get(HOUSE).add(new Edge(patch, TravelCosts.HOUSE_EXIT_TICKS + arrivalTicks, teleport));
+                        }
+                        break;
+                    case SPIRIT_TREE:
+                        if (canUse(teleport)) {
+                            edges.get(SPIRIT_TREES).add(new Edge(patch, TravelCosts.SPIRIT_TREE_TELEPORT_TICKS + arrivalTicks, teleport));
+                        }
+                        break;
+                }
+            }
+        }
+
+        Edge[] previous = shortestPaths(edges);
+        for (int i = 0; i < locations.size(); i++) {
+            Edge edge = previous[FIRST_PATCH + i];
+            if (edge != null) {
+                cheapestTeleports.put(locations.get(i), edge.teleport);
+            }
+        }
+    }
+
+    /**
+     * Dijkstra from where the player stands. The graph has a handful of nodes, so the closest node is found with a
+     * scan instead of a heap.
+     * @return The edge each node is reached through on its shortest path, null if it can't be reached
+     */
+    private static Edge[] shortestPaths(List<List<Edge>> edges) {
+        int nodes = edges.size();
+        int[] ticks = new int[nodes];
+        boolean[] settled = new boolean[nodes];
+        Edge[] previous = new Edge[nodes];
+        Arrays.fill(ticks, TravelCosts.INFINITY);
+        ticks[START] = 0;
+
+        for (int round = 0; round < nodes; round++) {
+            int closest = -1;
+            for (int node = 0; node < nodes; node++) {
+                if (!settled[node] && ticks[node] < TravelCosts.INFINITY && (closest == -1 || ticks[node] < ticks[closest])) {
+                    closest = node;
+                }
+            }
+            if (closest == -1) {
+                break;
+            }
+            settled[closest] = true;
+            for (Edge edge : edges.get(closest)) {
+                int throughTicks = ticks[closest] + edge.ticks;
+                // Strictly less, so ties keep the catalog's order
+                if (throughTicks < ticks[edge.to]) {
+                    ticks[edge.to] = throughTicks;
+                    previous[edge.to] = edge;
+                }
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * @param fastest true to take the fastest teleport even when the one picked in the config can be used
+     * @return The teleport picked in the config, or the fastest one the player can use when the picked one is missing
+     * items or the fastest is asked for. Null if the location wasn't part of the last rebuild.
+     */
+    public Location.Teleport select(Location location, boolean fastest) {
+        if (!locations.contains(location)) {
+            return null;
+        }
+        Location.Teleport selected = location.getSelectedTeleport();
+        if (selected != null && !fastest && canUse(selected)) {
+            return selected;
+        }
+        Location.Teleport cheapest = getCheapestTeleport(location);
+        return cheapest != null ? cheapest : selected;
+    }
+
+    /**
+     * @return The fastest teleport to the location the player can use, null if they can't use any
+     */
+    public Location.Teleport getCheapestTeleport(Location location) {
+        return cheapestTeleports.get(location);
+    }
+
+    /**
+     * @return true if the player carries every item the teleport takes, including the house teleport's
+     */
+    public boolean canUse(Location.Teleport teleport) {
+        return hasItems(teleport.getItemRequirements(), Collections.emptyMap());
+    }
+
+    /**
+     * @param excluded Items that are checked on another edge
+     */
+    private boolean hasItems(Map<Integer, Integer> requirements, Map<Integer, Integer> excluded) {
+        for (Map.Entry<Integer, Integer> requirement : requirements.entrySet()) {
+            if (excluded.containsKey(requirement.getKey())) {
+                continue;
+            }
+            if (carriedItems.getOrDefault(requirement.getKey(), 0) < requirement.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,85 @@
+package com.easyfarming;
+
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * Estimates how long getting around takes, in game ticks, shared by the route optimizer and the transport graph so
+ * they agree on which teleport is fastest.
+ */
+final class TravelCosts {
+    static final int ITEM_TELEPORT_TICKS = 5;
+    static final int SPELL_TELEPORT_TICKS = 5;
+    static final int HOUSE_TELEPORT_TICKS = 5;
+    // Walking to the portal, jewellery box or talisman in the house and teleporting out
+    static final int HOUSE_EXIT_TICKS = 15;
+    // Walking to the nearest spirit tree, then picking the destination
+    static final int SPIRIT_TREE_WALK_TICKS = 10;
+    static final int SPIRIT_TREE_TELEPORT_TICKS = 5;
+    // Restocking at a bank, through the house's jewellery box and back by the next stop's teleport
+    static final int BANK_TRIP_TICKS = HOUSE_TELEPORT_TICKS + HOUSE_EXIT_TICKS + 10;
+    // A location without any teleport is only visited once everything else is done
+    static final int NO_TELEPORT_TICKS = 1000;
+    // Teleports that land in the patch's region still leave a short walk
+    static final int SAME_REGION_WALK_TICKS = 5;
+    static final int TILES_PER_TICK = 2;
+    // Further than this the straight line says little about the real walk, which crosses rivers and walls
+    static final int MAX_WALK_TILES = 64;
+    static final int REGION_SIZE = 64;
+    static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    private TravelCosts() {
+    }
+
+    /**
+     * @return The whole trip with the teleport, from casting it, or going through the house or a spirit tree first,
+     * to standing at the patch
+     */
+    static int teleportTicks(Location.Teleport teleport) {
+        if (teleport == null) {
+            return NO_TELEPORT_TICKS;
+        }
+        return castTicks(teleport.getCategory()) + arrivalWalkTicks(teleport);
+    }
+
+    static int castTicks(Location.TeleportCategory category) {
+        switch (category) {
+            case ITEM:
+                return ITEM_TELEPORT_TICKS;
+            case SPELLBOOK:
+                return SPELL_TELEPORT_TICKS;
+            case PORTAL_NEXUS:
+            case JEWELLERY_BOX:
+            case MOUNTED_XERICS:
+                return HOUSE_TELEPORT_TICKS + HOUSE_EXIT_TICKS;
+            case SPIRIT_TREE:
+                return SPIRIT_TREE_WALK_TICKS + SPIRIT_TREE_TELEPORT_TICKS;
+            default:
+                return NO_TELEPORT_TICKS;
+        }
+    }
+
+    /**
+     * Teleports that land in a neighbouring region are followed by a run across it.
+     */
+    static int arrivalWalkTicks(Location.Teleport teleport) {
+        WorldPoint patch = teleport.getPoint();
+        if (patch == null || teleport.getRegionId() == patch.getRegionID()) {
+            return SAME_REGION_WALK_TICKS;
+        }
+        int regionX = (teleport.getRegionId() >> 8) * REGION_SIZE + REGION_SIZE / 2;
+        int regionY = (teleport.getRegionId() & 0xFF) * REGION_SIZE + REGION_SIZE / 2;
+        int tiles = Math.max(Math.abs(regionX - patch.getX()), Math.abs(regionY - patch.getY()));
+        return SAME_REGION_WALK_TICKS + tiles / TILES_PER_TICK;
+    }
+
+    /**
+     * @return The ticks to walk in a straight line, {@link #INFINITY} if it is too far to tell or either end is unknown
+     */
+    static int walkTicks(WorldPoint from, WorldPoint to) {
+        if (from == null || to == null || from.getPlane() != to.getPlane()) {
+            return INFINITY;
+        }
+        int tiles = Math.max(Math.abs(from.getX() - to.getX()), Math.abs(from.getY() - to.getY()));
+        return tiles <= MAX_WALK_TILES ? tiles / TILES_PER_TICK : INFINITY;
+    }
+}
@@ -84,8 +84,36 @@ public class TreePatchChecker {
         UNKNOWN
     }
 
+    private static final PlantStateTable<PlantState> STATES = new PlantStateTable<>(TreePatchChecker::classify, PlantState.UNKNOWN);
+
     public static PlantState checkTreePatch(Client client, int varbitIndex) {
-        int varbitValue = client.getVarbitValue(varbitIndex);
+        return stateOf(client.getVarbitValue(varbitIndex));
+    }
+
+    /**
+     * @return The state of a patch with the varbit value, also for values that were read earlier
+     */
+    public static PlantState stateOf(int varbitValue) {
+        return STATES.stateOf(varbitValue);
+    }
+
+    /**
+     * @return The tree in a patch with the varbit value, null if nothing is planted
+     */
+    public static Tree cropOf(int varbitValue) {
+        for (Tree tree : Tree.values()) {
+            if (tree.getGrowing().contains(varbitValue)
+                || tree.getDiseased().contains(varbitValue)
+                || tree.getDead().contains(varbitValue)
+                || tree.getHealthy().contains(varbitValue)
+                || tree.getRemove().contains(varbitValue)) {
+                return tree;
+            }
+        }
+        return null;
+    }
+
+    private static PlantState classify(int varbitValue) {
         if (growing.contains(varbitValue)) {
             return PlantState.GROWING;
         } else if (diseased.contains(varbitValue)) {
@@ -0,0 +1,70 @@
+package com.easyfarming;
+
+import net.runelite.api.Client;
+import net.runelite.api.widgets.Widget;
+
+import javax.inject.Inject;
+import java.awt.Rectangle;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Caches the bounds and dynamic children of the widgets the overlays highlight. Both allocate on every
+ * lookup, so they are kept for the rest of the game tick, or until the layout changes.
+ */
+public class WidgetBoundsCache {
+    private final Client client;
+
+    private final Map<Widget, Rectangle> boundsByWidget = new IdentityHashMap<>();
+    private final Map<Widget, Widget[]> dynamicChildrenByWidget = new IdentityHashMap<>();
+    private int builtTick = -1;
+
+    @Inject
+    public WidgetBoundsCache(Client client) {
+        this.client = client;
+    }
+
+    /**
+     * Drops every cached widget, call this when the canvas or the interface layout changed.
+     */
+    public void invalidate() {
+        boundsByWidget.clear();
+        dynamicChildrenByWidget.clear();
+    }
+
+    public Rectangle getBounds(Widget widget) {
+        refresh();
+        Rectangle bounds = boundsByWidget.get(widget);
+        if (bounds == null) {
+            bounds = widget.getBounds();
+            boundsByWidget.put(widget, bounds);
+        }
+        return bounds;
+    }
+
+    /**
+     * @param widget The parent widget
+     * @param index The index of the dynamic child
+     * @return The dynamic child, or null if there is none at the index
+     */
+    public Widget getDynamicChild(Widget widget, int index) {
+        refresh();
+        Widget[] dynamicChildren = dynamicChildrenByWidget.get(widget);
+        if (dynamicChildren == null) {
+            dynamicChildren = widget.getDynamicChildren();
+            if (dynamicChildren == null) {
+                return null;
+            }
+            dynamicChildrenByWidget.put(widget, dynamicChildren);
+        }
+        return index >= 0 && index < dynamicChildren.length ? dynamicChildren[index] : null;
+    }
+
+    private void refresh() {
+        int tick = client.getTickCount();
+        if (tick != builtTick) {
+            builtTick = tick;
+            invalidate();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.easyfarming;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class GrowthPredictorTest
+{
+	private static final long TICK = GrowthPredictor.FARMING_TICK_MILLIS;
+	private static final long HERB_STAGE = 4 * TICK;
+	private static final long TREE_STAGE = 8 * TICK;
+	// A time on which every crop's stage ends
+	private static final long STAGE_START = 32 * TICK * 850_000;
+
+	private static final int GUAM_FIRST_STAGE = 4;
+	private static final int GUAM_LAST_STAGE = 7;
+	private static final int GUAM_HARVESTABLE = 8;
+	private static final int OAK_FIRST_STAGE = 8;
+
+	private final GrowthPredictor predictor = new GrowthPredictor(null, new EasyFarmingConfig()
+	{
+	});
+
+	@Test
+	public void predictsReadyOnAFarmingTick()
+	{
+		long seenAt = STAGE_START + 7 * TICK + 12_345;
+
+		long readyAt = predictor.predictReadyAt(herb(GUAM_FIRST_STAGE, seenAt));
+
+		assertEquals(0, readyAt % TICK);
+		// The stage it was seen in ends first, then three more
+		assertEquals(STAGE_START + 2 * HERB_STAGE + 3 * HERB_STAGE, readyAt);
+	}
+
+	@Test
+	public void aFiveMinuteTickInsideAStageDoesNotMoveTheHarvest()
+	{
+		long tick = STAGE_START + TICK;
+
+		assertEquals(predictor.predictReadyAt(herb(GUAM_FIRST_STAGE, tick - 1)), predictor.predictReadyAt(herb(GUAM_FIRST_STAGE, tick + 1)));
+		assertEquals(STAGE_START + 4 * HERB_STAGE, predictor.predictReadyAt(herb(GUAM_FIRST_STAGE, tick + 1)));
+	}
+
+	@Test
+	public void aStageBoundaryMovesTheHarvestByAStage()
+	{
+		assertEquals(STAGE_START + 3 * HERB_STAGE, predictor.predictReadyAt(herb(GUAM_FIRST_STAGE, STAGE_START - 1)));
+		// Seen right on the boundary, the stage it is in just started
+		assertEquals(STAGE_START + 4 * HERB_STAGE, predictor.predictReadyAt(herb(GUAM_FIRST_STAGE, STAGE_START)));
+		assertEquals(STAGE_START + HERB_STAGE, predictor.predictReadyAt(herb(GUAM_LAST_STAGE, STAGE_START + 1)));
+	}
+
+	@Test
+	public void treesGrowOnTheirOwnStages()
+	{
+		long seenAt = STAGE_START + 5 * TICK;
+
+		assertEquals(STAGE_START + 4 * TREE_STAGE, predictor.predictReadyAt(observation(FarmingPatch.FALADOR_TREE, OAK_FIRST_STAGE, seenAt)));
+	}
+
+	@Test
+	public void aPatchThatIsNotGrowingIsReadyWhenSeen()
+	{
+		long seenAt = STAGE_START + 12_345;
+
+		assertEquals(seenAt, predictor.predictReadyAt(herb(GUAM_HARVESTABLE, seenAt)));
+		assertEquals(0, predictor.diseaseChance(herb(GUAM_HARVESTABLE, seenAt), seenAt + 10 * HERB_STAGE), 0);
+	}
+
+	@Test
+	public void diseaseChanceGrowsWithTheStagesPassed()
+	{
+		PatchObservation observation = herb(GUAM_FIRST_STAGE, STAGE_START + 1);
+
+		assertEquals(0, predictor.diseaseChance(observation, STAGE_START + HERB_STAGE - 1), 0);
+		// The bottomless bucket counts as ultracompost, which takes a herb's chance of 0.2 per stage down to 0.02
+		assertEquals(1 - Math.pow(0.98, 2), predictor.diseaseChance(observation, STAGE_START + 2 * HERB_STAGE), 1e-9);
+		// The last stage ends in a harvestable crop
+		assertEquals(1 - Math.pow(0.98, 3), predictor.diseaseChance(observation, STAGE_START + 10 * HERB_STAGE), 1e-9);
+	}
+
+	@Test
+	public void diseaseChanceDependsOnTheCompost()
+	{
+		GrowthPredictor compost = new GrowthPredictor(null, new EasyFarmingConfig()
+		{
+			@Override
+			public OptionEnumCompost enumConfigCompost()
+			{
+				return OptionEnumCompost.Compost;
+			}
+		});
+
+		assertEquals(0.1, compost.diseaseChance(herb(GUAM_FIRST_STAGE, STAGE_START + 1), STAGE_START + HERB_STAGE), 1e-9);
+	}
+
+	private static PatchObservation herb(int varbitValue, long seenAt)
+	{
+		return observation(FarmingPatch.FALADOR_HERB, varbitValue, seenAt);
+	}
+
+	private static PatchObservation observation(FarmingPatch patch, int varbitValue, long seenAt)
+	{
+		return new PatchObservation(patch, varbitValue, seenAt);
+	}
+}
@@ -0,0 +1,121 @@
+package com.easyfarming;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RouteOptimizerTest
+{
+	@Test
+	public void findsTheCheapestOrderOfSmallRuns()
+	{
+		Random random = new Random(42);
+		for (int round = 0; round < 200; round++)
+		{
+			int count = 1 + random.nextInt(6);
+			int[] startTicks = new int[count];
+			int[][] travelTicks = new int[count][count];
+			int[] bankTripTicks = new int[count];
+			int[] stopSlots = new int[count];
+			for (int to = 0; to < count; to++)
+			{
+				startTicks[to] = 5 + random.nextInt(40);
+				bankTripTicks[to] = TravelCosts.BANK_TRIP_TICKS + random.nextInt(40);
+				stopSlots[to] = random.nextInt(8);
+				for (int from = 0; from < count; from++)
+				{
+					travelTicks[from][to] = from == to ? 0 : 1 + random.nextInt(40);
+				}
+			}
+			int freeSlots = random.nextBoolean() ? 0 : 4 + random.nextInt(10);
+
+			int[] order = RouteOptimizer.solve(startTicks, travelTicks, bankTripTicks, stopSlots, freeSlots);
+
+			assertVisitsEveryStopOnce(order, count);
+			int best = cheapestByBruteForce(new int[count], new boolean[count], 0, startTicks, travelTicks, bankTripTicks, stopSlots, freeSlots);
+			assertEquals("Round " + round, best, ticks(order, startTicks, travelTicks, bankTripTicks, stopSlots, freeSlots));
+		}
+	}
+
+	@Test
+	public void takesTheBankTripWhereItIsCheapest()
+	{
+		// Every stop takes half the inventory, so the third one needs a bank trip, and only stop 2 is cheap to get to
+		// from the bank
+		int[] startTicks = {10, 20, 20};
+		int[][] travelTicks = {
+			{0, 10, 10},
+			{10, 0, 10},
+			{10, 10, 0},
+		};
+		int[] bankTripTicks = {100, 100, 40};
+		int[] stopSlots = {5, 5, 5};
+
+		int[] order = RouteOptimizer.solve(startTicks, travelTicks, bankTripTicks, stopSlots, 10);
+
+		assertArrayEquals(new int[]{0, 1, 2}, order);
+		assertEquals(60, ticks(order, startTicks, travelTicks, bankTripTicks, stopSlots, 10));
+	}
+
+	@Test
+	public void needsABankTripOnlyWhenTheInventoryRunsOut()
+	{
+		assertFalse(RouteOptimizer.needsBankTrip(0, 20, 10));
+		assertFalse(RouteOptimizer.needsBankTrip(5, 5, 10));
+		assertTrue(RouteOptimizer.needsBankTrip(10, 1, 10));
+		assertTrue(RouteOptimizer.needsBankTrip(8, 5, 10));
+		assertFalse(RouteOptimizer.needsBankTrip(8, 0, 10));
+		assertFalse(RouteOptimizer.needsBankTrip(50, 5, 0));
+	}
+
+	private static int cheapestByBruteForce(int[] order, boolean[] used, int position, int[] startTicks, int[][] travelTicks, int[] bankTripTicks, int[] stopSlots, int freeSlots)
+	{
+		if (position == order.length)
+		{
+			return ticks(order, startTicks, travelTicks, bankTripTicks, stopSlots, freeSlots);
+		}
+		int best = Integer.MAX_VALUE;
+		for (int stop = 0; stop < order.length; stop++)
+		{
+			if (used[stop])
+			{
+				continue;
+			}
+			used[stop] = true;
+			order[position] = stop;
+			best = Math.min(best, cheapestByBruteForce(order, used, position + 1, startTicks, travelTicks, bankTripTicks, stopSlots, freeSlots));
+			used[stop] = false;
+		}
+		return best;
+	}
+
+	private static int ticks(int[] order, int[] startTicks, int[][] travelTicks, int[] bankTripTicks, int[] stopSlots, int freeSlots)
+	{
+		int ticks = startTicks[order[0]];
+		int usedSlots = stopSlots[order[0]];
+		for (int position = 1; position < order.length; position++)
+		{
+			int last = order[position - 1];
+			int next = order[position];
+			ticks += RouteOptimizer.needsBankTrip(usedSlots, stopSlots[next], freeSlots) ? bankTripTicks[next] : travelTicks[last][next];
+			usedSlots += stopSlots[next];
+		}
+		return ticks;
+	}
+
+	private static void assertVisitsEveryStopOnce(int[] order, int count)
+	{
+		assertEquals(count, order.length);
+		boolean[] visited = new boolean[count];
+		for (int stop : order)
+		{
+			assertFalse("Stop " + stop + " is visited twice", visited[stop]);
+			visited[stop] = true;
+		}
+	}
+}
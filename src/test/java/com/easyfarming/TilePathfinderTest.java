@@ -0,0 +1,158 @@
+package com.easyfarming;
+
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TilePathfinderTest
+{
+	private final TilePathfinder pathfinder = new TilePathfinder();
+
+	@Test
+	public void walksDiagonallyAcrossOpenGround()
+	{
+		Grid grid = new Grid();
+
+		List<WorldPoint> path = pathfinder.findPath(grid, new WorldPoint(10, 10, 0), new WorldPoint(15, 15, 0));
+
+		assertEquals(Arrays.asList(
+			new WorldPoint(10, 10, 0),
+			new WorldPoint(11, 11, 0),
+			new WorldPoint(12, 12, 0),
+			new WorldPoint(13, 13, 0),
+			new WorldPoint(14, 14, 0)), path);
+	}
+
+	@Test
+	public void doesNotCutABlockedCorner()
+	{
+		Grid grid = new Grid(new WorldPoint(11, 10, 0));
+
+		List<WorldPoint> path = pathfinder.findPath(grid, new WorldPoint(10, 10, 0), new WorldPoint(15, 15, 0));
+
+		assertNotEquals(new WorldPoint(11, 11, 0), path.get(1));
+		// One step more than across open ground
+		assertEquals(6, path.size());
+		assertWalkable(grid, path);
+		assertEquals(new WorldPoint(14, 14, 0), path.get(path.size() - 1));
+	}
+
+	@Test
+	public void rejoinsThePathTheShortestWayAndFollowsItToTheEnd()
+	{
+		Grid grid = new Grid();
+		List<WorldPoint> path = straightPath(2, 19, 10);
+
+		List<WorldPoint> rejoined = pathfinder.rejoin(grid, new WorldPoint(8, 13, 0), path);
+
+		assertEquals(new WorldPoint(8, 13, 0), rejoined.get(0));
+		// Three steps back onto the path
+		assertEquals(10, rejoined.get(3).getY());
+		assertEquals(path.get(path.size() - 1), rejoined.get(rejoined.size() - 1));
+		assertWalkable(grid, rejoined);
+		assertEquals("A tile is visited twice", rejoined.size(), new HashSet<>(rejoined).size());
+	}
+
+	@Test
+	public void doesNotRejoinAPathItCantReach()
+	{
+		// Walled in on every side
+		Grid grid = new Grid(
+			new WorldPoint(7, 12, 0), new WorldPoint(8, 12, 0), new WorldPoint(9, 12, 0),
+			new WorldPoint(7, 13, 0), new WorldPoint(9, 13, 0),
+			new WorldPoint(7, 14, 0), new WorldPoint(8, 14, 0), new WorldPoint(9, 14, 0));
+		List<WorldPoint> path = straightPath(2, 19, 10);
+
+		assertNull(pathfinder.rejoin(grid, new WorldPoint(8, 13, 0), path));
+		assertNull(pathfinder.rejoin(grid, new WorldPoint(8, 13, 1), path));
+	}
+
+	private static List<WorldPoint> straightPath(int fromX, int toX, int y)
+	{
+		List<WorldPoint> path = new ArrayList<>();
+		for (int x = fromX; x <= toX; x++)
+		{
+			path.add(new WorldPoint(x, y, 0));
+		}
+		return path;
+	}
+
+	/**
+	 * Checks every step moves to a neighbour, and that a diagonal step has both of its corners open.
+	 */
+	private static void assertWalkable(Grid grid, List<WorldPoint> path)
+	{
+		for (int i = 1; i < path.size(); i++)
+		{
+			WorldPoint from = path.get(i - 1);
+			WorldPoint to = path.get(i);
+			int stepX = to.getX() - from.getX();
+			int stepY = to.getY() - from.getY();
+			assertTrue("Step from " + from + " to " + to, Math.max(Math.abs(stepX), Math.abs(stepY)) == 1);
+			assertFalse("Walks onto " + to, grid.isSolid(to.getX(), to.getY()));
+			if (stepX != 0 && stepY != 0)
+			{
+				assertFalse("Cuts the corner from " + from + " to " + to,
+					grid.isSolid(from.getX() + stepX, from.getY()) || grid.isSolid(from.getX(), from.getY() + stepY));
+			}
+		}
+	}
+
+	/**
+	 * Open ground of 21 by 21 tiles on the bottom plane, with solid tiles that block the edges around them.
+	 */
+	private static class Grid implements CollisionSource
+	{
+		private static final int SIZE = 21;
+
+		private final Set<WorldPoint> solid;
+
+		private Grid(WorldPoint... solid)
+		{
+			this.solid = new HashSet<>(Arrays.asList(solid));
+		}
+
+		private boolean isSolid(int x, int y)
+		{
+			return x < 0 || y < 0 || x >= SIZE || y >= SIZE || solid.contains(new WorldPoint(x, y, 0));
+		}
+
+		@Override
+		public int getBlockedDirections(int x, int y, int plane)
+		{
+			if (plane != 0 || isSolid(x, y))
+			{
+				return BLOCKED_ALL;
+			}
+			int blocked = 0;
+			if (isSolid(x, y + 1))
+			{
+				blocked |= BLOCKED_NORTH;
+			}
+			if (isSolid(x + 1, y))
+			{
+				blocked |= BLOCKED_EAST;
+			}
+			if (isSolid(x, y - 1))
+			{
+				blocked |= BLOCKED_SOUTH;
+			}
+			if (isSolid(x - 1, y))
+			{
+				blocked |= BLOCKED_WEST;
+			}
+			return blocked;
+		}
+	}
+}
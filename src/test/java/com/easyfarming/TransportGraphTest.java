@@ -0,0 +1,109 @@
+package com.easyfarming;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TransportGraphTest
+{
+	private static final int LAW_RUNE = 563;
+	private static final int TELEPORT_TAB = 8010;
+	private static final int REGION = 12083;
+
+	private static final List<ItemRequirement> HOUSE_REQUIREMENTS = Collections.singletonList(new ItemRequirement(LAW_RUNE, 1));
+
+	@Test
+	public void takesTheHouseWhenTheItemTeleportIsMissing()
+	{
+		Location location = location("Falador", "Falador_tele_tab");
+		Location.Teleport tab = teleport(location, "Falador_tele_tab", Location.TeleportCategory.ITEM, new ItemRequirement(TELEPORT_TAB, 1));
+		Location.Teleport nexus = teleport(location, "Portal_Nexus", Location.TeleportCategory.PORTAL_NEXUS, new ItemRequirement(LAW_RUNE, 1));
+
+		TransportGraph graph = new TransportGraph();
+		graph.rebuild(Collections.singletonList(location), HOUSE_REQUIREMENTS, carrying(LAW_RUNE, 1));
+
+		assertSame(nexus, graph.getCheapestTeleport(location));
+		assertSame(nexus, graph.select(location, false));
+
+		graph.rebuild(Collections.singletonList(location), HOUSE_REQUIREMENTS, carrying(TELEPORT_TAB, 1));
+
+		assertSame(tab, graph.select(location, false));
+	}
+
+	@Test
+	public void takesTheSpiritTreesWhenTheyAreFaster()
+	{
+		Location location = location("Falador", "Portal_Nexus");
+		Location.Teleport nexus = teleport(location, "Portal_Nexus", Location.TeleportCategory.PORTAL_NEXUS, new ItemRequirement(LAW_RUNE, 1));
+		Location.Teleport spiritTree = teleport(location, "Spirit_Tree", Location.TeleportCategory.SPIRIT_TREE);
+
+		TransportGraph graph = new TransportGraph();
+		graph.rebuild(Collections.singletonList(location), HOUSE_REQUIREMENTS, carrying(LAW_RUNE, 1));
+
+		// The picked teleport is kept while it can be used, unless the fastest is asked for
+		assertSame(nexus, graph.select(location, false));
+		assertSame(spiritTree, graph.select(location, true));
+	}
+
+	@Test
+	public void fallsBackToThePickedTeleportWhenNoneCanBeUsed()
+	{
+		Location location = location("Falador", "Portal_Nexus");
+		Location.Teleport nexus = teleport(location, "Portal_Nexus", Location.TeleportCategory.PORTAL_NEXUS, new ItemRequirement(LAW_RUNE, 1));
+
+		TransportGraph graph = new TransportGraph();
+		graph.rebuild(Collections.singletonList(location), HOUSE_REQUIREMENTS, Collections.emptyMap());
+
+		assertNull(graph.getCheapestTeleport(location));
+		assertSame(nexus, graph.select(location, true));
+	}
+
+	@Test
+	public void tellsApartLocationsOfTheSameName()
+	{
+		Location herb = location("Falador", "Falador_tele_tab");
+		Location.Teleport herbTab = teleport(herb, "Falador_tele_tab", Location.TeleportCategory.ITEM, new ItemRequirement(TELEPORT_TAB, 1));
+		Location tree = location("Falador", "Falador_tele_tab");
+		Location.Teleport treeTab = teleport(tree, "Falador_tele_tab", Location.TeleportCategory.ITEM, new ItemRequirement(TELEPORT_TAB, 1));
+
+		TransportGraph graph = new TransportGraph();
+		graph.rebuild(Collections.singletonList(herb), HOUSE_REQUIREMENTS, carrying(TELEPORT_TAB, 1));
+
+		assertSame(herbTab, graph.select(herb, true));
+		// Not part of the rebuild, the caller takes the one picked in the config
+		assertNull(graph.select(tree, true));
+
+		graph.rebuild(Arrays.asList(herb, tree), HOUSE_REQUIREMENTS, carrying(TELEPORT_TAB, 1));
+
+		assertSame(herbTab, graph.select(herb, true));
+		assertSame(treeTab, graph.select(tree, true));
+	}
+
+	private static Location location(String name, String selectedTeleport)
+	{
+		return new Location(config -> () -> selectedTeleport, null, name, false);
+	}
+
+	private static Location.Teleport teleport(Location location, String enumOption, Location.TeleportCategory category, ItemRequirement... itemRequirements)
+	{
+		Location.Teleport teleport = location.new Teleport(enumOption, category, enumOption, 0, null, 0, 0, REGION, null,
+			new ArrayList<>(Arrays.asList(itemRequirements)));
+		location.addTeleportOption(teleport);
+		return teleport;
+	}
+
+	private static Map<Integer, Integer> carrying(int itemId, int quantity)
+	{
+		Map<Integer, Integer> carriedItems = new HashMap<>();
+		carriedItems.put(itemId, quantity);
+		return carriedItems;
+	}
+}
@@ -0,0 +1,50 @@
+package com.easyfarming.headless;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Renders the three overlays against the render benchmark's synthetic scene through each phase of a herb run, and
+ * fails when a steady-state frame allocates more than the benchmark's budget. The drawing is discarded, so only
+ * what the plugin allocates is counted.
+ */
+public class RenderAllocationTest
+{
+	@Test
+	public void steadyStateFramesStayWithinAllocationBudget() throws Exception
+	{
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+		// The render benchmark's default scene
+		FakeClient client = new SyntheticScene(1500, 300, 60, 400, 1).build();
+		BufferedImage canvas = new BufferedImage(SyntheticScene.CANVAS_WIDTH, SyntheticScene.CANVAS_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D drawing = canvas.createGraphics();
+		Graphics2D discarding = Fakes.discardingGraphics(drawing);
+
+		try
+		{
+			for (RenderBenchmark.Phase phase : RenderBenchmark.Phase.values())
+			{
+				RenderBenchmark.Frame frame = new RenderBenchmark.Frame(phase, client);
+				frame.prime(drawing);
+				frame.run(discarding, RenderBenchmark.DEFAULT_WARMUP);
+				double bytesPerFrame = RenderBenchmark.measure(frame, discarding, RenderBenchmark.DEFAULT_FRAMES).getBytesPerFrame();
+
+				assertTrue(String.format("%s allocates %.1f bytes per frame, over the budget of %d",
+						phase.getLabel(), bytesPerFrame, RenderBenchmark.DEFAULT_BUDGET),
+					bytesPerFrame <= RenderBenchmark.DEFAULT_BUDGET);
+			}
+		}
+		finally
+		{
+			drawing.dispose();
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package com.easyfarming;
+
+import net.runelite.api.Client;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Stand-ins for the client, config and plugin, so the benchmarks can run the plugin's logic without RuneLite.
+ */
+public final class BenchmarkStubs {
+    private static final Object NULL = new Object();
+
+    private BenchmarkStubs() {
+    }
+
+    /**
+     * Every call other than getVarbitValue returns the default value of its return type.
+     * @param varbits Maps a varbit id to its value
+     * @return A client that only knows about varbits
+     */
+    public static Client client(IntUnaryOperator varbits) {
+        return (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[]{Client.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getVarbitValue":
+                    return varbits.applyAsInt((Integer) args[0]);
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "BenchmarkClient";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    /**
+     * @return A config that answers every item with the default declared in {@link EasyFarmingConfig}
+     */
+    public static EasyFarmingConfig config() {
+        return config(Collections.emptyMap());
+    }
+
+    /**
+     * Like RuneLite's config proxies, every value is resolved once and then served from a cache.
+     * @param overrides Config values by method name, taking the place of the declared defaults
+     * @return A config that answers with the overrides, or the default declared in {@link EasyFarmingConfig}
+     */
+    public static EasyFarmingConfig config(Map<String, Object> overrides) {
+        Map<Method, Object> values = new ConcurrentHashMap<>();
+        return (EasyFarmingConfig) Proxy.newProxyInstance(EasyFarmingConfig.class.getClassLoader(), new Class<?>[]{EasyFarmingConfig.class}, (proxy, method, args) -> {
+            if (args == null && method.getDeclaringClass() == EasyFarmingConfig.class) {
+                Object value = values.get(method);
+                if (value == null) {
+                    value = overrides.containsKey(method.getName()) ? overrides.get(method.getName()) : invokeDefault(proxy, method);
+                    values.put(method, value == null ? NULL : value);
+                }
+                return value == NULL ? null : value;
+            }
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "BenchmarkConfig";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    /**
+     * @return A plugin with only its config and client injected, enough for the location and requirement logic
+     */
+    public static EasyFarmingPlugin plugin(EasyFarmingConfig config, Client client) {
+        EasyFarmingPlugin plugin = new EasyFarmingPlugin();
+        inject(plugin, "config", config);
+        inject(plugin, "client", client);
+        inject(plugin, "frameProfiler", new FrameProfiler());
+        inject(plugin, "flightRecorderEvents", new FlightRecorderEvents());
+        inject(plugin, "metrics", new EasyFarmingMetrics());
+        return plugin;
+    }
+
+    private static Object invokeDefault(Object proxy, Method method) throws Throwable {
+        if (!method.isDefault()) {
+            return defaultValue(method.getReturnType());
+        }
+        MethodHandle handle = MethodHandles.privateLookupIn(EasyFarmingConfig.class, MethodHandles.lookup())
+            .unreflectSpecial(method, EasyFarmingConfig.class);
+        return handle.bindTo(proxy).invokeWithArguments();
+    }
+
+    /**
+     * Sets a private field, standing in for Guice field injection.
+     */
+    public static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalStateException("Can't inject " + fieldName, e);
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0d;
+        } else if (type == float.class) {
+            return 0f;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == char.class) {
+            return (char) 0;
+        }
+        return null;
+    }
+}
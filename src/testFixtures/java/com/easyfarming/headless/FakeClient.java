@@ -0,0 +1,617 @@
+package com.easyfarming.headless;
+
+import net.runelite.api.Client;
+import net.runelite.api.DecorativeObject;
+import net.runelite.api.GameObject;
+import net.runelite.api.GameState;
+import net.runelite.api.IndexedObjectSet;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.NPC;
+import net.runelite.api.ObjectComposition;
+import net.runelite.api.Player;
+import net.runelite.api.Point;
+import net.runelite.api.Scene;
+import net.runelite.api.Tile;
+import net.runelite.api.WorldView;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.gameval.InventoryID;
+import net.runelite.api.widgets.Widget;
+
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A client with a single loaded scene and the state the overlays read: varbits, varcs, widgets, the inventory,
+ * object definitions and the local player. Lookups are array indexed like the real client's.
+ * <p>
+ * Where the real client hands out a fresh object on every call (widget bounds, dynamic children, the player's
+ * world location, the inventory items), so does the fake, so the plugin's caches are measured fairly. Clickboxes
+ * and tile polygons are preallocated, building those is the client's cost and not something the plugin controls.
+ */
+public abstract class FakeClient implements Client {
+    public static final int SCENE_SIZE = 104;
+    public static final int PLANES = 4;
+
+    private final int[] varbits = new int[1 << 16];
+    private final int[] varcInts = new int[4096];
+    private final Widget[][] widgetsByGroup = new Widget[1 << 16][];
+    private final ObjectComposition[] objectDefinitions = new ObjectComposition[1 << 16];
+    private final FakeItemContainer[] itemContainers = new FakeItemContainer[1 << 12];
+
+    private final FakeWorldView worldView;
+    private final FakePlayer localPlayer;
+    private int tickCount;
+
+    /**
+     * @param baseX The world x of the scene's south west tile
+     * @param baseY The world y of the scene's south west tile
+     */
+    public FakeClient(int baseX, int baseY) {
+        worldView = Fakes.create(FakeWorldView.class, baseX, baseY);
+        localPlayer = Fakes.create(FakePlayer.class);
+    }
+
+    @Override
+    public GameState getGameState() {
+        return GameState.LOGGED_IN;
+    }
+
+    @Override
+    public boolean isClientThread() {
+        return true;
+    }
+
+    @Override
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    public void advanceTick() {
+        tickCount++;
+    }
+
+    public void setTickCount(int tickCount) {
+        this.tickCount = tickCount;
+    }
+
+    @Override
+    public int getVarbitValue(int varbit) {
+        return varbits[varbit];
+    }
+
+    public void setVarbit(int varbit, int value) {
+        varbits[varbit] = value;
+    }
+
+    @Override
+    public int getVarcIntValue(int varc) {
+        return varcInts[varc];
+    }
+
+    public void setVarcInt(int varc, int value) {
+        varcInts[varc] = value;
+    }
+
+    @Override
+    public Widget getWidget(int componentId) {
+        return getWidget(componentId >>> 16, componentId & 0xFFFF);
+    }
+
+    @Override
+    public Widget getWidget(int groupId, int childId) {
+        Widget[] group = widgetsByGroup[groupId];
+        return group != null && childId < group.length ? group[childId] : null;
+    }
+
+    /**
+     * Opens an interface as a group of visible widgets, each with dynamic children, in place of its real layout.
+     */
+    public void openWidgetGroup(int groupId, int children, int dynamicChildren) {
+        for (int child = 0; child < children; child++) {
+            FakeWidget widget = putWidget(groupId, child, new Rectangle(40, 40 + child * 4, 480, 24));
+            Widget[] dynamic = new Widget[dynamicChildren];
+            for (int i = 0; i < dynamic.length; i++) {
+                dynamic[i] = Fakes.create(FakeWidget.class, new Rectangle(40 + (i % 4) * 120, 40 + (i / 4) * 30, 110, 26));
+            }
+            widget.setDynamicChildren(dynamic);
+        }
+    }
+
+    public void closeWidgetGroup(int groupId) {
+        widgetsByGroup[groupId] = null;
+    }
+
+    /**
+     * @return A visible widget at the component id, replacing whatever was there
+     */
+    public FakeWidget putWidget(int groupId, int childId, Rectangle bounds) {
+        Widget[] group = widgetsByGroup[groupId];
+        if (group == null || childId >= group.length) {
+            Widget[] grown = new Widget[Math.max(childId + 1, group == null ? 0 : group.length)];
+            if (group != null) {
+                System.arraycopy(group, 0, grown, 0, group.length);
+            }
+            group = grown;
+            widgetsByGroup[groupId] = group;
+        }
+        FakeWidget widget = Fakes.create(FakeWidget.class, bounds);
+        group[childId] = widget;
+        return widget;
+    }
+
+    @Override
+    public ItemContainer getItemContainer(int id) {
+        return id >= 0 && id < itemContainers.length ? itemContainers[id] : null;
+    }
+
+    public void setItems(int containerId, Item[] items) {
+        FakeItemContainer container = itemContainers[containerId];
+        if (container == null) {
+            container = Fakes.create(FakeItemContainer.class);
+            itemContainers[containerId] = container;
+        }
+        container.items = items;
+    }
+
+    public void setInventory(Item[] items) {
+        setItems(InventoryID.INV, items);
+    }
+
+    @Override
+    public ObjectComposition getObjectDefinition(int id) {
+        return objectDefinitions[id];
+    }
+
+    public void defineObject(int id, String name) {
+        objectDefinitions[id] = Fakes.create(FakeObjectComposition.class, name);
+    }
+
+    @Override
+    public Player getLocalPlayer() {
+        return localPlayer;
+    }
+
+    public void setPlayerLocation(int x, int y, int plane) {
+        localPlayer.x = x;
+        localPlayer.y = y;
+        localPlayer.plane = plane;
+        worldView.plane = plane;
+    }
+
+    @Override
+    public WorldView getTopLevelWorldView() {
+        return worldView;
+    }
+
+    @Override
+    public Scene getScene() {
+        return worldView.scene;
+    }
+
+    @Override
+    public int getPlane() {
+        return worldView.plane;
+    }
+
+    @Override
+    public List<NPC> getNpcs() {
+        return worldView.npcs.npcs;
+    }
+
+    /**
+     * Places a game object on every tile it covers, like the real scene does.
+     */
+    public GameObject spawnGameObject(int id, int plane, int sceneX, int sceneY, int sizeX, int sizeY, Shape clickbox) {
+        FakeGameObject gameObject = Fakes.create(FakeGameObject.class, id, plane, new Point(sceneX, sceneY), sizeX, sizeY, clickbox);
+        for (int x = sceneX; x < sceneX + sizeX && x < SCENE_SIZE; x++) {
+            for (int y = sceneY; y < sceneY + sizeY && y < SCENE_SIZE; y++) {
+                worldView.scene.tiles[plane][x][y].add(gameObject);
+            }
+        }
+        return gameObject;
+    }
+
+    /**
+     * @return The removed object, or null if there is no object with the id whose south west tile is at the location
+     */
+    public GameObject despawnGameObject(int id, int plane, int sceneX, int sceneY) {
+        FakeGameObject gameObject = null;
+        for (GameObject candidate : worldView.scene.tiles[plane][sceneX][sceneY].gameObjects) {
+            if (candidate != null && candidate.getId() == id
+                && candidate.getSceneMinLocation().getX() == sceneX && candidate.getSceneMinLocation().getY() == sceneY) {
+                gameObject = (FakeGameObject) candidate;
+                break;
+            }
+        }
+        if (gameObject == null) {
+            return null;
+        }
+        for (int x = sceneX; x < sceneX + gameObject.sizeX && x < SCENE_SIZE; x++) {
+            for (int y = sceneY; y < sceneY + gameObject.sizeY && y < SCENE_SIZE; y++) {
+                worldView.scene.tiles[plane][x][y].remove(gameObject);
+            }
+        }
+        return gameObject;
+    }
+
+    public DecorativeObject spawnDecorativeObject(int id, int plane, int sceneX, int sceneY, Shape clickbox) {
+        FakeDecorativeObject decorativeObject = Fakes.create(FakeDecorativeObject.class, id, plane, clickbox);
+        worldView.scene.tiles[plane][sceneX][sceneY].decorativeObject = decorativeObject;
+        return decorativeObject;
+    }
+
+    /**
+     * @return The removed object, or null if the tile holds no decorative object with the id
+     */
+    public DecorativeObject despawnDecorativeObject(int id, int plane, int sceneX, int sceneY) {
+        FakeTile tile = worldView.scene.tiles[plane][sceneX][sceneY];
+        DecorativeObject decorativeObject = tile.decorativeObject;
+        if (decorativeObject == null || decorativeObject.getId() != id) {
+            return null;
+        }
+        tile.decorativeObject = null;
+        return decorativeObject;
+    }
+
+    public NPC spawnNpc(int index, String name, Polygon canvasTilePoly) {
+        NPC npc = Fakes.create(FakeNpc.class, index, name, canvasTilePoly);
+        worldView.npcs.npcs.add(npc);
+        return npc;
+    }
+
+    /**
+     * @return The removed npc, or null if no npc has the index
+     */
+    public NPC despawnNpc(int index) {
+        List<NPC> npcs = worldView.npcs.npcs;
+        for (int i = 0; i < npcs.size(); i++) {
+            if (npcs.get(i).getIndex() == index) {
+                return npcs.remove(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes every object and npc, like the client does when it loads a new scene.
+     */
+    public void clearScene() {
+        for (FakeTile[][] plane : worldView.scene.tiles) {
+            for (FakeTile[] column : plane) {
+                for (FakeTile tile : column) {
+                    Arrays.fill(tile.gameObjects, null);
+                    tile.decorativeObject = null;
+                }
+            }
+        }
+        worldView.npcs.npcs.clear();
+    }
+
+    public abstract static class FakeWorldView implements WorldView {
+        private final FakeScene scene = Fakes.create(FakeScene.class);
+        private final FakeNpcSet npcs = Fakes.create(FakeNpcSet.class);
+        private final int baseX;
+        private final int baseY;
+        private int plane;
+
+        public FakeWorldView(int baseX, int baseY) {
+            this.baseX = baseX;
+            this.baseY = baseY;
+        }
+
+        @Override
+        public Scene getScene() {
+            return scene;
+        }
+
+        @Override
+        public int getPlane() {
+            return plane;
+        }
+
+        @Override
+        public int getBaseX() {
+            return baseX;
+        }
+
+        @Override
+        public int getBaseY() {
+            return baseY;
+        }
+
+        @Override
+        public int getSizeX() {
+            return SCENE_SIZE;
+        }
+
+        @Override
+        public int getSizeY() {
+            return SCENE_SIZE;
+        }
+
+        @Override
+        public IndexedObjectSet<? extends NPC> npcs() {
+            return npcs;
+        }
+    }
+
+    public abstract static class FakeScene implements Scene {
+        private final FakeTile[][][] tiles = new FakeTile[PLANES][SCENE_SIZE][SCENE_SIZE];
+
+        public FakeScene() {
+            for (int plane = 0; plane < PLANES; plane++) {
+                for (int x = 0; x < SCENE_SIZE; x++) {
+                    for (int y = 0; y < SCENE_SIZE; y++) {
+                        tiles[plane][x][y] = Fakes.create(FakeTile.class, plane, x, y);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public Tile[][][] getTiles() {
+            return tiles;
+        }
+    }
+
+    public abstract static class FakeTile implements Tile {
+        private final GameObject[] gameObjects = new GameObject[5];
+        private DecorativeObject decorativeObject;
+        private final int plane;
+        private final Point sceneLocation;
+
+        public FakeTile(int plane, int sceneX, int sceneY) {
+            this.plane = plane;
+            this.sceneLocation = new Point(sceneX, sceneY);
+        }
+
+        private void add(GameObject gameObject) {
+            for (int i = 0; i < gameObjects.length; i++) {
+                if (gameObjects[i] == null) {
+                    gameObjects[i] = gameObject;
+                    return;
+                }
+            }
+        }
+
+        private void remove(GameObject gameObject) {
+            for (int i = 0; i < gameObjects.length; i++) {
+                if (gameObjects[i] == gameObject) {
+                    gameObjects[i] = null;
+                }
+            }
+        }
+
+        @Override
+        public GameObject[] getGameObjects() {
+            return gameObjects;
+        }
+
+        @Override
+        public DecorativeObject getDecorativeObject() {
+            return decorativeObject;
+        }
+
+        @Override
+        public int getPlane() {
+            return plane;
+        }
+
+        @Override
+        public Point getSceneLocation() {
+            return sceneLocation;
+        }
+    }
+
+    public abstract static class FakeGameObject implements GameObject {
+        private final int id;
+        private final int plane;
+        private final Point sceneMinLocation;
+        private final int sizeX;
+        private final int sizeY;
+        private final Shape clickbox;
+
+        public FakeGameObject(int id, int plane, Point sceneMinLocation, int sizeX, int sizeY, Shape clickbox) {
+            this.id = id;
+            this.plane = plane;
+            this.sceneMinLocation = sceneMinLocation;
+            this.sizeX = sizeX;
+            this.sizeY = sizeY;
+            this.clickbox = clickbox;
+        }
+
+        @Override
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public int getPlane() {
+            return plane;
+        }
+
+        @Override
+        public Point getSceneMinLocation() {
+            return sceneMinLocation;
+        }
+
+        @Override
+        public Shape getClickbox() {
+            return clickbox;
+        }
+    }
+
+    public abstract static class FakeDecorativeObject implements DecorativeObject {
+        private final int id;
+        private final int plane;
+        private final Shape clickbox;
+
+        public FakeDecorativeObject(int id, int plane, Shape clickbox) {
+            this.id = id;
+            this.plane = plane;
+            this.clickbox = clickbox;
+        }
+
+        @Override
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public int getPlane() {
+            return plane;
+        }
+
+        @Override
+        public Shape getClickbox() {
+            return clickbox;
+        }
+    }
+
+    public abstract static class FakeNpc implements NPC {
+        private final int index;
+        private final String name;
+        private final Polygon canvasTilePoly;
+
+        public FakeNpc(int index, String name, Polygon canvasTilePoly) {
+            this.index = index;
+            this.name = name;
+            this.canvasTilePoly = canvasTilePoly;
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Polygon getCanvasTilePoly() {
+            return canvasTilePoly;
+        }
+    }
+
+    public abstract static class FakeNpcSet implements IndexedObjectSet<NPC> {
+        private final List<NPC> npcs = new ArrayList<>();
+
+        public FakeNpcSet() {
+        }
+
+        @Override
+        public NPC byIndex(int index) {
+            return index >= 0 && index < npcs.size() ? npcs.get(index) : null;
+        }
+
+        @Override
+        public Iterator<NPC> iterator() {
+            return npcs.iterator();
+        }
+    }
+
+    public abstract static class FakePlayer implements Player {
+        private int x;
+        private int y;
+        private int plane;
+
+        public FakePlayer() {
+        }
+
+        @Override
+        public WorldPoint getWorldLocation() {
+            return new WorldPoint(x, y, plane);
+        }
+    }
+
+    public abstract static class FakeWidget implements Widget {
+        private final Rectangle bounds;
+        private Widget[] children;
+        private Widget[] dynamicChildren;
+        private boolean hidden;
+        private String text;
+
+        public FakeWidget(Rectangle bounds) {
+            this.bounds = bounds;
+        }
+
+        public void setChildren(Widget[] children) {
+            this.children = children;
+        }
+
+        public void setDynamicChildren(Widget[] dynamicChildren) {
+            this.dynamicChildren = dynamicChildren;
+        }
+
+        public void setHidden(boolean hidden) {
+            this.hidden = hidden;
+        }
+
+        public void setText(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public Rectangle getBounds() {
+            return new Rectangle(bounds);
+        }
+
+        @Override
+        public Widget getChild(int index) {
+            return children != null && index >= 0 && index < children.length ? children[index] : null;
+        }
+
+        @Override
+        public Widget[] getChildren() {
+            return children;
+        }
+
+        @Override
+        public Widget[] getDynamicChildren() {
+            return dynamicChildren != null ? dynamicChildren.clone() : new Widget[0];
+        }
+
+        @Override
+        public boolean isHidden() {
+            return hidden;
+        }
+
+        @Override
+        public String getText() {
+            return text;
+        }
+    }
+
+    public abstract static class FakeItemContainer implements ItemContainer {
+        private Item[] items = new Item[0];
+
+        public FakeItemContainer() {
+        }
+
+        @Override
+        public Item[] getItems() {
+            return items.clone();
+        }
+    }
+
+    public abstract static class FakeObjectComposition implements ObjectComposition {
+        private final String name;
+
+        public FakeObjectComposition(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.easyfarming.headless;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.StubMethod;
+
+import java.awt.Graphics2D;
+import java.lang.reflect.Constructor;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.nameStartsWith;
+
+/**
+ * Turns the abstract fakes into instances. Every method a fake doesn't implement returns null, zero or false,
+ * without the boxing and argument arrays a {@link java.lang.reflect.Proxy} would add to every call.
+ */
+public final class Fakes {
+    private static final Map<Class<?>, Class<?>> SUBCLASSES = new ConcurrentHashMap<>();
+
+    private Fakes() {
+    }
+
+    /**
+     * @param type An abstract fake with a single public constructor
+     * @param args The constructor arguments
+     * @return An instance of the fake with every abstract method stubbed
+     */
+    public static <T> T create(Class<T> type, Object... args) {
+        Class<?> subclass = SUBCLASSES.computeIfAbsent(type, Fakes::stubAbstractMethods);
+        try {
+            Constructor<?> constructor = subclass.getConstructors()[0];
+            return type.cast(constructor.newInstance(args));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can't create a " + type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Everything but the actual drawing is forwarded, so font metrics, transforms and clips still behave, while
+     * the allocations Java2D makes to rasterize are left out of the measurement.
+     * @param delegate The graphics to forward state and queries to
+     * @return Graphics that drop every draw and fill call
+     */
+    public static Graphics2D discardingGraphics(Graphics2D delegate) {
+        Class<? extends Graphics2D> type = new ByteBuddy()
+            .subclass(Graphics2D.class)
+            .method(isAbstract())
+            .intercept(MethodCall.invokeSelf().on(delegate, Graphics2D.class).withAllArguments())
+            .method(isAbstract().and(nameStartsWith("draw").or(nameStartsWith("fill")).or(named("clearRect"))))
+            .intercept(StubMethod.INSTANCE)
+            .make()
+            .load(Fakes.class.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+            .getLoaded();
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can't create the discarding graphics", e);
+        }
+    }
+
+    private static Class<?> stubAbstractMethods(Class<?> type) {
+        return new ByteBuddy()
+            .subclass(type, ConstructorStrategy.Default.IMITATE_SUPER_CLASS_OPENING)
+            .method(isAbstract())
+            .intercept(StubMethod.INSTANCE)
+            .make()
+            .load(type.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+            .getLoaded();
+    }
+}
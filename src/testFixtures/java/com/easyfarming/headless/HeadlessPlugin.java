@@ -0,0 +1,165 @@
+package com.easyfarming.headless;
+
+import com.easyfarming.AreaCheck;
+import com.easyfarming.BackgroundWorker;
+import com.easyfarming.BenchmarkStubs;
+import com.easyfarming.CollisionCache;
+import com.easyfarming.EasyFarmingConfig;
+import com.easyfarming.EasyFarmingOverlay;
+import com.easyfarming.EasyFarmingOverlayInfoBox;
+import com.easyfarming.EasyFarmingPlugin;
+import com.easyfarming.FarmingPatch;
+import com.easyfarming.FarmingTeleportOverlay;
+import com.easyfarming.IconCache;
+import com.easyfarming.InventorySlotCache;
+import com.easyfarming.PathGuide;
+import com.easyfarming.RemainingRequirements;
+import com.easyfarming.ItemsAndLocations.FruitTreeRunItemAndLocation;
+import com.easyfarming.ItemsAndLocations.HerbRunItemAndLocation;
+import com.easyfarming.ItemsAndLocations.TreeRunItemAndLocation;
+import com.easyfarming.SceneObjectIndex;
+import com.easyfarming.WidgetBoundsCache;
+import net.runelite.client.callback.ClientThread;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The plugin and its overlays wired up like Guice would, against a {@link FakeClient}. Rendering a frame renders
+ * the three overlays in the order the overlay renderer does.
+ */
+public final class HeadlessPlugin {
+    public enum RunType {
+        HERB,
+        TREE,
+        FRUIT_TREE
+    }
+
+    private final EasyFarmingPlugin plugin;
+    private final EasyFarmingOverlay farmingHelperOverlay;
+    private final FarmingTeleportOverlay farmingTeleportOverlay;
+    private final EasyFarmingOverlayInfoBox farmingHelperOverlayInfoBox;
+    private final IconCache iconCache;
+    private final InventorySlotCache inventorySlotCache;
+    private final SceneObjectIndex sceneObjectIndex;
+
+    public HeadlessPlugin(FakeClient client, EasyFarmingConfig config) {
+        plugin = BenchmarkStubs.plugin(config, client);
+        HerbRunItemAndLocation herbRunItemAndLocation = new HerbRunItemAndLocation(config, client, plugin);
+        TreeRunItemAndLocation treeRunItemAndLocation = new TreeRunItemAndLocation(config, client, plugin);
+        FruitTreeRunItemAndLocation fruitTreeRunItemAndLocation = new FruitTreeRunItemAndLocation(config, client, plugin);
+
+        AreaCheck areaCheck = new AreaCheck(client);
+        farmingHelperOverlay = new EasyFarmingOverlay(client, plugin, null, herbRunItemAndLocation, treeRunItemAndLocation, fruitTreeRunItemAndLocation);
+        farmingTeleportOverlay = new FarmingTeleportOverlay(plugin, client, areaCheck);
+        farmingHelperOverlayInfoBox = new EasyFarmingOverlayInfoBox(client, plugin);
+        iconCache = new IconCache(null, new ClientThread(), plugin.getMetrics());
+        inventorySlotCache = new InventorySlotCache(client);
+        sceneObjectIndex = new SceneObjectIndex(client, plugin.getFrameProfiler(), plugin.getFlightRecorderEvents(), plugin.getMetrics());
+        BenchmarkStubs.inject(farmingTeleportOverlay, "config", config);
+        BenchmarkStubs.inject(farmingTeleportOverlay, "farmingHelperOverlay", farmingHelperOverlay);
+        BenchmarkStubs.inject(farmingTeleportOverlay, "farmingHelperOverlayInfoBox", farmingHelperOverlayInfoBox);
+
+        BenchmarkStubs.inject(plugin, "herbRunItemAndLocation", herbRunItemAndLocation);
+        BenchmarkStubs.inject(plugin, "treeRunItemAndLocation", treeRunItemAndLocation);
+        BenchmarkStubs.inject(plugin, "fruitTreeRunItemAndLocation", fruitTreeRunItemAndLocation);
+        BenchmarkStubs.inject(plugin, "farmingHelperOverlay", farmingHelperOverlay);
+        BenchmarkStubs.inject(plugin, "farmingTeleportOverlay", farmingTeleportOverlay);
+        BenchmarkStubs.inject(plugin, "farmingHelperOverlayInfoBox", farmingHelperOverlayInfoBox);
+        BenchmarkStubs.inject(plugin, "inventorySlotCache", inventorySlotCache);
+        BenchmarkStubs.inject(plugin, "iconCache", iconCache);
+        BenchmarkStubs.inject(plugin, "widgetBoundsCache", new WidgetBoundsCache(client));
+        BenchmarkStubs.inject(plugin, "pathGuide", new PathGuide(client, new CollisionCache(client, new BackgroundWorker(new ClientThread()))));
+        BenchmarkStubs.inject(plugin, "sceneObjectIndex", sceneObjectIndex);
+        BenchmarkStubs.inject(plugin, "remainingRequirements", new RemainingRequirements());
+        plugin.getHighlightPalette().rebuild(config);
+
+        sceneObjectIndex.trackNpcNames(farmingTeleportOverlay.getTrackedNpcNames());
+        sceneObjectIndex.setTrackedIds(farmingTeleportOverlay.getTrackedObjectIds());
+    }
+
+    /**
+     * Starts a run the way the panel's start button does, with the overlays showing.
+     * @param itemsCollected Whether to skip gathering and go straight to the first location
+     */
+    public void startRun(RunType runType, boolean itemsCollected) {
+        farmingTeleportOverlay.herbRun = runType == RunType.HERB;
+        farmingTeleportOverlay.treeRun = runType == RunType.TREE;
+        farmingTeleportOverlay.fruitTreeRun = runType == RunType.FRUIT_TREE;
+        FarmingPatch.Type type = FarmingPatch.Type.valueOf(runType.name());
+        plugin.adoptCatalogs(plugin.planRun(type, farmingHelperOverlay.countCarriedItems()));
+        plugin.setOverlayActive(true);
+        plugin.setTeleportOverlayActive(itemsCollected);
+        plugin.setItemsCollected(itemsCollected);
+    }
+
+    public void render(Graphics2D graphics) {
+        farmingTeleportOverlay.render(graphics);
+        farmingHelperOverlay.render(graphics);
+        farmingHelperOverlayInfoBox.render(graphics);
+    }
+
+    /**
+     * Loads every icon the overlays have asked for so far, like the item manager would a few frames later.
+     */
+    public void loadPendingIcons() throws ReflectiveOperationException {
+        Field pendingField = IconCache.class.getDeclaredField("pending");
+        pendingField.setAccessible(true);
+        Method store = IconCache.class.getDeclaredMethod("store", int.class, BufferedImage.class);
+        store.setAccessible(true);
+
+        BufferedImage icon = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        List<Integer> pending;
+        synchronized (iconCache) {
+            @SuppressWarnings("unchecked")
+            Map<Integer, Long> pendingIds = (Map<Integer, Long>) pendingField.get(iconCache);
+            pending = new ArrayList<>(pendingIds.keySet());
+        }
+        Collections.sort(pending);
+        for (int itemId : pending) {
+            store.invoke(iconCache, itemId, icon);
+        }
+    }
+
+    /**
+     * Sets the last game message, standing in for the plugin's chat subscriber.
+     */
+    public void setLastMessage(String message) {
+        BenchmarkStubs.inject(plugin, "lastMessage", message);
+    }
+
+    /**
+     * @return The text the info box is showing, the current step of the run
+     */
+    public String getInfoBoxText() throws ReflectiveOperationException {
+        Field text = EasyFarmingOverlayInfoBox.class.getDeclaredField("text");
+        text.setAccessible(true);
+        return (String) text.get(farmingHelperOverlayInfoBox);
+    }
+
+    public EasyFarmingPlugin getPlugin() {
+        return plugin;
+    }
+
+    public EasyFarmingOverlay getFarmingHelperOverlay() {
+        return farmingHelperOverlay;
+    }
+
+    public FarmingTeleportOverlay getFarmingTeleportOverlay() {
+        return farmingTeleportOverlay;
+    }
+
+    public InventorySlotCache getInventorySlotCache() {
+        return inventorySlotCache;
+    }
+
+    public SceneObjectIndex getSceneObjectIndex() {
+        return sceneObjectIndex;
+    }
+}
@@ -0,0 +1,208 @@
+package com.easyfarming.headless;
+
+import com.easyfarming.BenchmarkStubs;
+import com.easyfarming.EasyFarmingConfig;
+import net.runelite.api.Item;
+import net.runelite.api.Varbits;
+import net.runelite.api.gameval.ItemID;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Renders the three overlays headlessly, the way the overlay renderer would every frame, through each phase of
+ * an Ardougne herb run. Every phase is timed drawing into a {@link BufferedImage}, and measured a second time
+ * with the drawing discarded, which leaves only what the plugin allocates. Exits with 1 when a phase allocates
+ * more bytes per frame than the budget.
+ * <p>
+ * Options are passed as key=value: frames, warmup, objects, decoratives, npcs, widgets, seed and budget.
+ */
+public final class RenderBenchmark {
+    // The overlays render at 50 fps and a game tick is 600ms
+    private static final int FRAMES_PER_TICK = 30;
+    static final int DEFAULT_FRAMES = 5000;
+    static final int DEFAULT_WARMUP = 20000;
+    static final int DEFAULT_BUDGET = 32;
+
+    private static final int LUMBRIDGE_X = 3222;
+    private static final int LUMBRIDGE_Y = 3218;
+    private static final int HOUSE_X = 1890;
+    private static final int HOUSE_Y = 5708;
+    private static final int PLANT_SEED_STATE = 3;
+
+    enum Phase {
+        GATHERING("gathering"),
+        TELEPORTING("teleporting"),
+        POH("poh"),
+        PATCH_STEPS("patch steps");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        String getLabel() {
+            return label;
+        }
+    }
+
+    private RenderBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int frames = intOption(options, "frames", DEFAULT_FRAMES);
+        int warmup = intOption(options, "warmup", DEFAULT_WARMUP);
+        long budget = intOption(options, "budget", DEFAULT_BUDGET);
+        int gameObjects = intOption(options, "objects", 1500);
+        int decorativeObjects = intOption(options, "decoratives", 300);
+        int npcs = intOption(options, "npcs", 60);
+        int widgets = intOption(options, "widgets", 400);
+        FakeClient client = new SyntheticScene(gameObjects, decorativeObjects, npcs, widgets, intOption(options, "seed", 1)).build();
+
+        BufferedImage canvas = new BufferedImage(SyntheticScene.CANVAS_WIDTH, SyntheticScene.CANVAS_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D drawing = canvas.createGraphics();
+        Graphics2D discarding = Fakes.discardingGraphics(drawing);
+
+        System.out.printf("%d game objects, %d decorative objects, %d npcs, %d widgets, %d frames per phase%n",
+            gameObjects, decorativeObjects, npcs, widgets, frames);
+        System.out.printf("%-12s %12s %14s %20s%n", "phase", "ns/frame", "bytes/frame", "plugin bytes/frame");
+
+        boolean overBudget = false;
+        for (Phase phase : Phase.values()) {
+            Frame frame = new Frame(phase, client);
+            frame.prime(drawing);
+            frame.run(drawing, warmup);
+            Result drawn = measure(frame, drawing, frames);
+            frame.run(discarding, warmup);
+            Result discarded = measure(frame, discarding, frames);
+
+            System.out.printf("%-12s %12.0f %14.1f %20.1f%n", phase.label, drawn.nanosPerFrame, drawn.bytesPerFrame, discarded.bytesPerFrame);
+            if (discarded.bytesPerFrame > budget) {
+                System.out.printf("  %s allocates %.1f bytes per frame, over the budget of %d%n", phase.label, discarded.bytesPerFrame, budget);
+                overBudget = true;
+            }
+        }
+        drawing.dispose();
+
+        if (overBudget) {
+            System.exit(1);
+        }
+    }
+
+    static Result measure(Frame frame, Graphics2D graphics, int frames) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // Reading the counter allocates itself, so take that off the measurement
+        long calibrationStart = threads.getThreadAllocatedBytes(threadId);
+        long overhead = threads.getThreadAllocatedBytes(threadId) - calibrationStart;
+
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        frame.run(graphics, frames);
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore - overhead;
+
+        return new Result((double) elapsed / frames, (double) Math.max(0, bytes) / frames);
+    }
+
+    static final class Result {
+        private final double nanosPerFrame;
+        private final double bytesPerFrame;
+
+        private Result(double nanosPerFrame, double bytesPerFrame) {
+            this.nanosPerFrame = nanosPerFrame;
+            this.bytesPerFrame = bytesPerFrame;
+        }
+
+        double getBytesPerFrame() {
+            return bytesPerFrame;
+        }
+    }
+
+    /**
+     * The headless plugin with the client set to one phase of the run.
+     */
+    static final class Frame {
+        private final FakeClient client;
+        private final HeadlessPlugin plugin;
+        private int frameCount;
+
+        Frame(Phase phase, FakeClient client) {
+            this.client = client;
+            Map<String, Object> overrides = new HashMap<>();
+            switch (phase) {
+                case GATHERING:
+                    client.setPlayerLocation(LUMBRIDGE_X, LUMBRIDGE_Y, 0);
+                    client.setInventory(SyntheticScene.inventory(new Item(ItemID.ARDY_CAPE_HARD, 1), new Item(ItemID.GUAM_SEED, 10)));
+                    break;
+                case TELEPORTING:
+                    client.setPlayerLocation(LUMBRIDGE_X, LUMBRIDGE_Y, 0);
+                    client.setInventory(fullInventory());
+                    break;
+                case POH:
+                    overrides.put("enumOptionEnumArdougneTeleport", EasyFarmingConfig.OptionEnumArdougneTeleport.Portal_Nexus);
+                    client.setPlayerLocation(HOUSE_X, HOUSE_Y, 0);
+                    client.setInventory(fullInventory());
+                    break;
+                case PATCH_STEPS:
+                    client.setPlayerLocation(SyntheticScene.ARDOUGNE_PATCH_X, SyntheticScene.ARDOUGNE_PATCH_Y, 0);
+                    client.setVarbit(Varbits.FARMING_4774, PLANT_SEED_STATE);
+                    client.setInventory(fullInventory());
+                    break;
+            }
+
+            plugin = new HeadlessPlugin(client, BenchmarkStubs.config(overrides));
+            plugin.startRun(HeadlessPlugin.RunType.HERB, phase != Phase.GATHERING);
+        }
+
+        private static Item[] fullInventory() {
+            return SyntheticScene.inventory(
+                new Item(ItemID.ARDY_CAPE_HARD, 1),
+                new Item(ItemID.GUAM_SEED, 10),
+                new Item(ItemID.RAKE, 1),
+                new Item(ItemID.SPADE, 1),
+                new Item(ItemID.SEED_DIBBER, 1),
+                new Item(ItemID.BOTTOMLESS_COMPOST_BUCKET, 1));
+        }
+
+        /**
+         * Renders a first frame and loads the icons it asked for.
+         */
+        void prime(Graphics2D graphics) throws ReflectiveOperationException {
+            run(graphics, 1);
+            plugin.loadPendingIcons();
+        }
+
+        void run(Graphics2D graphics, int frames) {
+            for (int i = 0; i < frames; i++) {
+                if (++frameCount % FRAMES_PER_TICK == 0) {
+                    client.advanceTick();
+                }
+                plugin.render(graphics);
+            }
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String key, int defaultValue) {
+        String value = options.get(key);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+}
@@ -0,0 +1,138 @@
+package com.easyfarming.headless;
+
+import com.easyfarming.SceneObjectIndex;
+import net.runelite.api.Item;
+import net.runelite.api.gameval.InterfaceID;
+import net.runelite.api.widgets.Widget;
+
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.util.Random;
+
+/**
+ * Builds a {@link FakeClient} holding a 104x104 scene around the Ardougne farming patch, filled with seeded
+ * random objects, npcs and widgets on top of the ones a herb run interacts with.
+ */
+public final class SyntheticScene {
+    public static final int ARDOUGNE_PATCH_X = 2670;
+    public static final int ARDOUGNE_PATCH_Y = 3374;
+    public static final int ARDOUGNE_HERB_PATCH_ID = 8152;
+    public static final int PORTAL_NEXUS_ID = 33408;
+    public static final String TOOL_LEPRECHAUN = "Tool Leprechaun";
+
+    public static final int CANVAS_WIDTH = 765;
+    public static final int CANVAS_HEIGHT = 503;
+
+    // Ids outside every range the overlays track, so the filler only costs what untracked objects cost
+    private static final int FILLER_OBJECT_ID = 40000;
+    private static final int FILLER_DECORATIVE_ID = 45000;
+    private static final int FILLER_WIDGET_GROUP = 1000;
+    private static final String[] FILLER_NPC_NAMES = {"Man", "Woman", "Guard", "Farmer", "Cat"};
+
+    private static final int INVENTORY_SLOTS = 28;
+    private static final int SPELLBOOK_TAB_GROUP = 161;
+    private static final int SPELLBOOK_TAB_CHILD = 65;
+
+    private final int gameObjects;
+    private final int decorativeObjects;
+    private final int npcs;
+    private final int widgets;
+    private final long seed;
+
+    /**
+     * @param gameObjects The number of untracked game objects to scatter over the scene
+     * @param decorativeObjects The number of untracked decorative objects
+     * @param npcs The number of untracked npcs
+     * @param widgets The number of untracked widgets
+     * @param seed The seed for placing everything
+     */
+    public SyntheticScene(int gameObjects, int decorativeObjects, int npcs, int widgets, long seed) {
+        this.gameObjects = gameObjects;
+        this.decorativeObjects = decorativeObjects;
+        this.npcs = npcs;
+        this.widgets = widgets;
+        this.seed = seed;
+    }
+
+    public FakeClient build() {
+        int baseX = ARDOUGNE_PATCH_X - FakeClient.SCENE_SIZE / 2;
+        int baseY = ARDOUGNE_PATCH_Y - FakeClient.SCENE_SIZE / 2;
+        FakeClient client = Fakes.create(FakeClient.class, baseX, baseY);
+        Random random = new Random(seed);
+
+        client.defineObject(ARDOUGNE_HERB_PATCH_ID, "Herbs");
+        client.spawnGameObject(ARDOUGNE_HERB_PATCH_ID, 0, ARDOUGNE_PATCH_X - baseX, ARDOUGNE_PATCH_Y - baseY, 2, 2, clickbox(random));
+        client.defineObject(PORTAL_NEXUS_ID, SceneObjectIndex.PORTAL_NEXUS);
+        client.spawnGameObject(PORTAL_NEXUS_ID, 0, 20, 20, 2, 2, clickbox(random));
+        client.spawnNpc(0, TOOL_LEPRECHAUN, clickbox(random));
+
+        for (int i = 0; i < gameObjects; i++) {
+            int id = FILLER_OBJECT_ID + random.nextInt(1000);
+            client.defineObject(id, null);
+            int size = 1 + random.nextInt(3);
+            client.spawnGameObject(id, random.nextInt(FakeClient.PLANES), random.nextInt(FakeClient.SCENE_SIZE),
+                random.nextInt(FakeClient.SCENE_SIZE), size, size, clickbox(random));
+        }
+        for (int i = 0; i < decorativeObjects; i++) {
+            int id = FILLER_DECORATIVE_ID + random.nextInt(1000);
+            client.defineObject(id, null);
+            client.spawnDecorativeObject(id, random.nextInt(FakeClient.PLANES), random.nextInt(FakeClient.SCENE_SIZE),
+                random.nextInt(FakeClient.SCENE_SIZE), clickbox(random));
+        }
+        for (int i = 0; i < npcs; i++) {
+            client.spawnNpc(i + 1, FILLER_NPC_NAMES[random.nextInt(FILLER_NPC_NAMES.length)], clickbox(random));
+        }
+
+        addGameFrame(client);
+        for (int i = 0; i < widgets; i++) {
+            client.putWidget(FILLER_WIDGET_GROUP + random.nextInt(100), random.nextInt(64), bounds(random));
+        }
+        return client;
+    }
+
+    /**
+     * @param items The inventory contents, at most 28 items
+     */
+    public static Item[] inventory(Item... items) {
+        Item[] slots = new Item[INVENTORY_SLOTS];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = i < items.length ? items[i] : new Item(-1, 0);
+        }
+        return slots;
+    }
+
+    /**
+     * Adds the widgets of the game frame the overlays look up, an empty inventory and the spellbook tab.
+     */
+    static void addGameFrame(FakeClient client) {
+        addInventory(client);
+        client.putWidget(SPELLBOOK_TAB_GROUP, SPELLBOOK_TAB_CHILD, new Rectangle(CANVAS_WIDTH - 33, CANVAS_HEIGHT - 36, 33, 36));
+    }
+
+    private static void addInventory(FakeClient client) {
+        // Looked up the same way the plugin does, by whatever component id it passes
+        FakeClient.FakeWidget inventory = client.putWidget(InterfaceID.Inventory.ITEMS >>> 16, InterfaceID.Inventory.ITEMS & 0xFFFF,
+            new Rectangle(CANVAS_WIDTH - 190, CANVAS_HEIGHT - 260, 168, 252));
+        Widget[] slots = new Widget[INVENTORY_SLOTS];
+        for (int i = 0; i < slots.length; i++) {
+            Rectangle bounds = new Rectangle(CANVAS_WIDTH - 190 + (i % 4) * 42, CANVAS_HEIGHT - 260 + (i / 4) * 36, 36, 32);
+            slots[i] = Fakes.create(FakeClient.FakeWidget.class, bounds);
+        }
+        inventory.setChildren(slots);
+        client.setInventory(inventory());
+    }
+
+    private static Polygon clickbox(Random random) {
+        int x = random.nextInt(CANVAS_WIDTH - 60);
+        int y = random.nextInt(CANVAS_HEIGHT - 60);
+        int size = 20 + random.nextInt(40);
+        return new Polygon(
+            new int[]{x, x + size, x + size + 6, x + 4},
+            new int[]{y + 4, y, y + size, y + size + 6},
+            4);
+    }
+
+    private static Rectangle bounds(Random random) {
+        return new Rectangle(random.nextInt(CANVAS_WIDTH - 100), random.nextInt(CANVAS_HEIGHT - 40), 100, 40);
+    }
+}